@@ -0,0 +1,27 @@
+package hu.baumannr.personregistryapi.benchmark;
+
+import hu.baumannr.personregistryapi.mapper.PersonMapper;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Minimal context of the mapping benchmarks: the MapStruct mappers and the ObjectMapper configured from
+ * {@code application.properties} as in the application, without the database and the web server.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@ComponentScan(basePackageClasses = PersonMapper.class)
+class MappingBenchmarkConfig {
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(MappingBenchmarkConfig.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run();
+    }
+}
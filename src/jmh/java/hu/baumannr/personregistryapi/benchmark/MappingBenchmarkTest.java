@@ -0,0 +1,33 @@
+package hu.baumannr.personregistryapi.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks of the mappers and the JSON serialization with the GC profiler, which reports the
+ * allocation rate per operation ({@code gc.alloc.rate.norm}).
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=MappingBenchmarkTest}.
+ * The results are written to {@code target/jmh-result.json}, or to the file given by {@code -Djmh.result}.
+ */
+@Tag("benchmark")
+class MappingBenchmarkTest {
+
+    @Test
+    void runMappingBenchmarks() throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PersonResponseBenchmark.class.getSimpleName())
+                .include(PersonCreateRequestBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(System.getProperty("jmh.result", "target/jmh-result.json"))
+                .build();
+
+        new Runner(options).run();
+    }
+}
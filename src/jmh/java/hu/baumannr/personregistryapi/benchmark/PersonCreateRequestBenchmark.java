@@ -0,0 +1,57 @@
+package hu.baumannr.personregistryapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import hu.baumannr.personregistryapi.rest.model.PersonCreateRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading the body of POST /persons.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonCreateRequestBenchmark {
+
+    private static final byte[] BODY = """
+            {"firstName": "Elek", "lastName": "Teszt"}""".getBytes(StandardCharsets.UTF_8);
+
+    private ConfigurableApplicationContext context;
+
+    private ObjectReader reader;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = MappingBenchmarkConfig.start();
+        reader = context.getBean(ObjectMapper.class).readerFor(PersonCreateRequest.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PersonCreateRequest deserializePersonCreateRequest() throws IOException {
+        return reader.readValue(BODY);
+    }
+}
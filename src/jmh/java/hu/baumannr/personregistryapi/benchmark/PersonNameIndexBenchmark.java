@@ -0,0 +1,84 @@
+package hu.baumannr.personregistryapi.benchmark;
+
+import hu.baumannr.personregistryapi.persistence.model.PersonName;
+import hu.baumannr.personregistryapi.service.PersonNameIndex;
+import hu.baumannr.personregistryapi.service.ShardRouter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Measures the latency distribution of GET /persons/suggest lookups in the name index while another thread keeps
+ * renaming persons. Sample time mode reports the percentiles of the lookups and of the renames separately.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PersonNameIndexBenchmark {
+
+    private static final String[] FIRST_NAMES = {"Elek", "Angéla", "Ödön", "Béla", "Cecília", "Zoltán", "Anna"};
+
+    @Param({"100000", "1000000"})
+    private int persons;
+
+    private PersonNameIndex index;
+
+    private String[] prefixes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Built from the given names only, the repository and the shards are not used
+        index = new PersonNameIndex(null, new ShardRouter());
+        index.put(IntStream.range(0, persons)
+                .mapToObj(PersonNameIndexBenchmark::name)
+                .toList());
+        SplittableRandom random = new SplittableRandom(42);
+        prefixes = IntStream.range(0, 1024)
+                .mapToObj(i -> name(random.nextInt(persons)).lastName().substring(0, 2 + random.nextInt(4)))
+                .toArray(String[]::new);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int next;
+    }
+
+    @Benchmark
+    @Group("suggestWhileRenaming")
+    @GroupThreads(1)
+    public List<PersonName> suggest(Cursor cursor) {
+        return index.suggest(prefixes[cursor.next++ & (prefixes.length - 1)], 10);
+    }
+
+    @Benchmark
+    @Group("suggestWhileRenaming")
+    @GroupThreads(1)
+    public void rename(Cursor cursor) {
+        int i = cursor.next++ % persons;
+        index.put(new PersonName((long) i, FIRST_NAMES[(i + 1) % FIRST_NAMES.length], name(i).lastName()));
+    }
+
+    private static PersonName name(int i) {
+        return new PersonName((long) i, FIRST_NAMES[i % FIRST_NAMES.length], "Teszt" + Integer.toString(i, 36));
+    }
+}
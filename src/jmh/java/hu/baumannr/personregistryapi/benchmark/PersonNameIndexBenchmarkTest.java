@@ -0,0 +1,29 @@
+package hu.baumannr.personregistryapi.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmark of the person name index.
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=PersonNameIndexBenchmarkTest}.
+ * The results are written to {@code target/jmh-suggest-result.json}, or to the file given by {@code -Djmh.result}.
+ */
+@Tag("benchmark")
+class PersonNameIndexBenchmarkTest {
+
+    @Test
+    void runPersonNameIndexBenchmark() throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PersonNameIndexBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .result(System.getProperty("jmh.result", "target/jmh-suggest-result.json"))
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,121 @@
+package hu.baumannr.personregistryapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hu.baumannr.personregistryapi.mapper.PersonMapper;
+import hu.baumannr.personregistryapi.persistence.model.Address;
+import hu.baumannr.personregistryapi.persistence.model.AddressType;
+import hu.baumannr.personregistryapi.persistence.model.ContactInfo;
+import hu.baumannr.personregistryapi.persistence.model.ContactInfoType;
+import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the read path of GET /persons/{id}: converting the entity to PersonResponse and writing it as JSON.
+ * The children are split evenly between addresses and contact information.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonResponseBenchmark {
+
+    @Param({"0", "2", "50"})
+    private int children;
+
+    private ConfigurableApplicationContext context;
+
+    private PersonMapper personMapper;
+
+    private ObjectMapper objectMapper;
+
+    private Person person;
+
+    private PersonResponse personResponse;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = MappingBenchmarkConfig.start();
+        personMapper = context.getBean(PersonMapper.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        person = person(children);
+        personResponse = personMapper.convert(person);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PersonResponse convertPerson() {
+        return personMapper.convert(person);
+    }
+
+    /**
+     * Writes to a discarding stream like the message converter writes to the response, so the buffer of a
+     * byte array is not part of the measurement.
+     */
+    @Benchmark
+    public void serializePersonResponse() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), personResponse);
+    }
+
+    private static Person person(int children) {
+        LocalDateTime now = LocalDateTime.of(2025, 3, 14, 15, 9, 26);
+        Person person = new Person();
+        person.setId(1L);
+        person.setVersion(3L);
+        person.setFirstName("Elek");
+        person.setLastName("Teszt");
+        person.setCreatedAt(now);
+        person.setUpdatedAt(now);
+        person.setAddresses(new LinkedHashSet<>());
+        person.setContactInfos(new LinkedHashSet<>());
+
+        for (int i = 0; i < children; i++) {
+            if (i % 2 == 0) {
+                Address address = new Address();
+                address.setId((long) i);
+                address.setType(AddressType.values()[i / 2 % AddressType.values().length]);
+                address.setCountry("Magyarország");
+                address.setCity("Budapest");
+                address.setZip("1120");
+                address.setStreet("Teszt utca " + i + ".");
+                address.setCreatedAt(now);
+                address.setUpdatedAt(now);
+                person.addAddress(address);
+            } else {
+                ContactInfo contactInfo = new ContactInfo();
+                contactInfo.setId((long) i);
+                contactInfo.setType(ContactInfoType.EMAIL);
+                contactInfo.setValue("elek" + i + "@example.com");
+                contactInfo.setCreatedAt(now);
+                contactInfo.setUpdatedAt(now);
+                person.addContactInfo(contactInfo);
+            }
+        }
+        return person;
+    }
+}
@@ -0,0 +1,136 @@
+package hu.baumannr.personregistryapi.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import hu.baumannr.personregistryapi.constant.CacheNames;
+import hu.baumannr.personregistryapi.persistence.model.Address;
+import hu.baumannr.personregistryapi.persistence.model.ContactInfo;
+import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.persistence.routing.ReadWriteRoutingDataSource;
+import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * In-process caches. The caching advice runs outside the transactional one, so a cache hit does not even open a
+ * transaction, and the evictions are held back until the surrounding transaction commits. Only the service metrics
+ * advice and the shard routing run outside of it, so the service latencies include the cache hits, and a person
+ * missing from the cache is loaded from its shard. Below the services, Hibernate caches
+ * the addresses and contact infos by ID, and those of each person, in its second-level cache.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE + 2)
+public class CacheConfig {
+
+    private static final List<String> ENTITY_REGIONS = List.of(
+            Person.class.getName() + ".addresses",
+            Person.class.getName() + ".contactInfos",
+            Address.class.getName(),
+            ContactInfo.class.getName());
+
+    /**
+     * Creates the cache manager of the {@link CacheNames#PERSONS} cache. It is bounded by weight, a person
+     * weighs one plus the number of its addresses and contact infos, and Caffeine evicts by W-TinyLFU within the
+     * bound. The expiry bounds the staleness of a value loaded by a read that overlapped with a write. A missing person
+     * is loaded from the primary even with a read replica, a value read from the lagging replica right after a write
+     * would be served until it expires, to the writer as well.
+     *
+     * @param maximumWeight the total weight of the cached persons
+     * @param expireAfterWrite the time a person is cached for
+     * @return the transaction aware cache manager
+     */
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${person-registry.cache.persons.maximum-weight:100000}") long maximumWeight,
+            @Value("${person-registry.cache.persons.expire-after-write:10m}") Duration expireAfterWrite) {
+        CaffeineCacheManager cacheManager = new PrimaryLoadingCacheManager();
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(CacheNames.PERSONS, Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((Object personId, Object person) -> weigh((PersonResponse) person))
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    /**
+     * Creates the JCache manager of the Hibernate second-level cache with a Caffeine cache for each region of the
+     * cached entities and collections. The regions are bounded by size, and hold the entries by reference, Hibernate
+     * caches the disassembled states anyway. The expiry bounds the staleness of an entry changed by another instance.
+     *
+     * @param maximumSize the number of entries of a region
+     * @param expireAfterWrite the time an entry is cached for
+     * @return the cache manager of the regions
+     */
+    @Bean
+    public javax.cache.CacheManager entityCacheManager(
+            @Value("${person-registry.cache.entities.maximum-size:100000}") long maximumSize,
+            @Value("${person-registry.cache.entities.expire-after-write:10m}") Duration expireAfterWrite) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // The provider shares a manager by URI, every application context gets one of its own
+        javax.cache.CacheManager cacheManager = provider.getCacheManager(
+                URI.create("person-registry:" + UUID.randomUUID()), provider.getDefaultClassLoader());
+        for (String region : ENTITY_REGIONS) {
+            cacheManager.createCache(region, new CaffeineConfiguration<>()
+                    .setMaximumSize(OptionalLong.of(maximumSize))
+                    .setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()))
+                    .setStoreByValue(false));
+        }
+        return cacheManager;
+    }
+
+    /**
+     * Hands the cache manager of the regions to the JCache region factory of Hibernate.
+     *
+     * @param entityCacheManager the cache manager of the regions
+     * @return the customizer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(javax.cache.CacheManager entityCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+
+    private static int weigh(PersonResponse person) {
+        return 1 + size(person.getAddresses()) + size(person.getContactInfos());
+    }
+
+    private static int size(List<?> list) {
+        return list != null ? list.size() : 0;
+    }
+
+    private static class PrimaryLoadingCacheManager extends CaffeineCacheManager {
+
+        @Override
+        protected Cache adaptCaffeineCache(String name,
+                                           com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+            return new CaffeineCache(name, cache, isAllowNullValues()) {
+
+                @Override
+                public <T> T get(Object key, Callable<T> valueLoader) {
+                    return super.get(key, () -> ReadWriteRoutingDataSource.readFromPrimary(valueLoader));
+                }
+            };
+        }
+    }
+}
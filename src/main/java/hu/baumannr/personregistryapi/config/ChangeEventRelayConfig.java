@@ -0,0 +1,57 @@
+package hu.baumannr.personregistryapi.config;
+
+import hu.baumannr.personregistryapi.service.ChangeEventRelay;
+import hu.baumannr.personregistryapi.service.ChangeEventService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+
+/**
+ * Relay of the change event outbox, polling it on the scheduler thread and sending the events on a pool of its
+ * own. The reactive deployment serves no change stream, so it runs no relay.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ChangeEventRelayConfig {
+
+    /**
+     * Creates the relay of the change events.
+     *
+     * @param changeEventService the service of the outbox
+     * @param retention the time the events are kept for the clients resuming the stream
+     * @param streamTimeout the time a stream stays open before the client has to reconnect
+     * @param changeEventSenderExecutor the executor sending the events to the subscribers
+     * @return the relay
+     */
+    @Bean
+    public ChangeEventRelay changeEventRelay(ChangeEventService changeEventService,
+                                             @Value("${person-registry.events.retention:P7D}") Duration retention,
+                                             @Value("${person-registry.events.stream-timeout:PT1H}")
+                                             Duration streamTimeout,
+                                             ThreadPoolTaskExecutor changeEventSenderExecutor) {
+        return new ChangeEventRelay(changeEventService, retention, streamTimeout, changeEventSenderExecutor);
+    }
+
+    /**
+     * Sends the events to the subscribers. A subscriber is served by one thread at a time, so the queue holds at
+     * most one task per subscriber.
+     *
+     * @param threads the number of subscribers written to at the same time
+     * @return the executor of the sends
+     */
+    @Bean
+    public ThreadPoolTaskExecutor changeEventSenderExecutor(
+            @Value("${person-registry.events.sender-threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("change-event-sender-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        return executor;
+    }
+}
@@ -0,0 +1,56 @@
+package hu.baumannr.personregistryapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Thread pools of the CSV import jobs. They are separate from the request threads, so a running import never
+ * takes a thread a REST request could use.
+ */
+@Configuration
+public class ImportExecutorConfig {
+
+    /**
+     * Runs the import jobs, one thread parses one file. A job submitted while the queue is full is rejected.
+     *
+     * @param concurrency the number of jobs parsed at the same time
+     * @param queueCapacity the number of jobs waiting for a thread
+     * @return the executor of the import jobs
+     */
+    @Bean
+    public ThreadPoolTaskExecutor importJobExecutor(
+            @Value("${person-registry.import.job-concurrency:2}") int concurrency,
+            @Value("${person-registry.import.job-queue-capacity:10}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("import-job-");
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    /**
+     * Writes the chunks parsed by the import jobs. When every thread is busy and the queue is full, the parsing
+     * thread writes the chunk itself, which keeps the parsed but unwritten rows, and so the heap, bounded.
+     *
+     * @param threads the number of chunks written at the same time, the number of cores by default
+     * @return the executor of the chunk writes
+     */
+    @Bean
+    public ThreadPoolTaskExecutor importWriterExecutor(
+            @Value("${person-registry.import.writer-threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+            int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("import-writer-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+}
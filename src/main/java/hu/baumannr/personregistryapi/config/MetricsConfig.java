@@ -0,0 +1,39 @@
+package hu.baumannr.personregistryapi.config;
+
+import hu.baumannr.personregistryapi.metrics.StatementCountInterceptor;
+import hu.baumannr.personregistryapi.metrics.StatementCounter;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Metrics beyond the ones of Spring Boot. The service latencies are recorded by
+ * {@link hu.baumannr.personregistryapi.metrics.ServiceMetricsAspect}, the Hibernate statistics are bound by Spring
+ * Boot as long as {@code hibernate.generate_statistics} is on.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final StatementCountInterceptor statementCountInterceptor;
+
+    /**
+     * Registers the statement counter with Hibernate.
+     *
+     * @param statementCounter the statement counter
+     * @return the customizer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer(StatementCounter statementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(statementCountInterceptor);
+    }
+}
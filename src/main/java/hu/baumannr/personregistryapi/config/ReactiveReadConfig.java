@@ -0,0 +1,66 @@
+package hu.baumannr.personregistryapi.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * R2DBC connections of the reactive deployment, enabled by the {@code reactive} profile. The pool is deliberately
+ * not a {@link io.r2dbc.spi.ConnectionFactory} bean: Spring Boot backs off its JDBC DataSource when one exists,
+ * and the writes, Flyway and the startup tasks still run on JPA. The reads go to a single database, so the reactive
+ * deployment refuses to start on sharded persons.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveReadConfig {
+
+    private ConnectionPool connectionPool;
+
+    /**
+     * Creates the client of the reactive reads over a pool of non-blocking connections.
+     *
+     * @param url the R2DBC URL of the database
+     * @param username the database user
+     * @param password the password of the database user
+     * @param maxSize the maximum number of connections
+     * @param sharded whether the persons are sharded
+     * @return the database client
+     */
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(
+            @Value("${person-registry.reactive.r2dbc.url}") String url,
+            @Value("${person-registry.reactive.r2dbc.username:}") String username,
+            @Value("${person-registry.reactive.r2dbc.password:}") String password,
+            @Value("${person-registry.reactive.r2dbc.pool-max-size:10}") int maxSize,
+            @Value("${person-registry.sharding.enabled:false}") boolean sharded) {
+        if (sharded) {
+            throw new IllegalStateException("The reactive reads do not support sharding");
+        }
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive-read")
+                .maxSize(maxSize)
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    /**
+     * Closes the connections of the pool on shutdown.
+     */
+    @PreDestroy
+    public void closeConnectionPool() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package hu.baumannr.personregistryapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import hu.baumannr.personregistryapi.persistence.routing.ReadWriteRoutingDataSource;
+import hu.baumannr.personregistryapi.rest.ReadYourWritesInterceptor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Read replica of the database, enabled by {@code person-registry.read-replica.enabled}. The read-only transactions,
+ * the reads of the services, run on a pool of the replica, everything else on the pool of the primary. The pools are
+ * not candidates for injection, the application sees the routing data source only.
+ */
+@Configuration
+@ConditionalOnProperty(name = "person-registry.read-replica.enabled", havingValue = "true")
+public class ReadReplicaConfig implements WebMvcConfigurer {
+
+    private final Duration readYourWritesWindow;
+
+    /**
+     * Creates the configuration.
+     *
+     * @param readYourWritesWindow how long the reads of a client go to the primary after its write, 0 to never
+     */
+    public ReadReplicaConfig(
+            @Value("${person-registry.read-replica.read-your-writes-window:0s}") Duration readYourWritesWindow) {
+        this.readYourWritesWindow = readYourWritesWindow;
+    }
+
+    /**
+     * Creates the pool of the primary database from the {@code spring.datasource} properties.
+     *
+     * @param properties the data source properties
+     * @return the pool of the primary
+     */
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Creates the pool of the replica. The user and the driver are the ones of the primary unless given.
+     *
+     * @param properties the data source properties of the primary
+     * @param url the JDBC URL of the replica
+     * @param username the database user of the replica
+     * @param password the password of the database user
+     * @return the pool of the replica
+     */
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("person-registry.read-replica.hikari")
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties properties,
+            @Value("${person-registry.read-replica.url}") String url,
+            @Value("${person-registry.read-replica.username:${spring.datasource.username:}}") String username,
+            @Value("${person-registry.read-replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * Creates the data source of the application, routing between the primary and the replica.
+     *
+     * @param primary the pool of the primary
+     * @param replica the pool of the replica
+     * @return the data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (! readYourWritesWindow.isZero()) {
+            registry.addInterceptor(new ReadYourWritesInterceptor(readYourWritesWindow));
+        }
+    }
+}
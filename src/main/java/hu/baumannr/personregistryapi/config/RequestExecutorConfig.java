@@ -0,0 +1,117 @@
+package hu.baumannr.personregistryapi.config;
+
+import hu.baumannr.personregistryapi.metrics.StatementCounter;
+import hu.baumannr.personregistryapi.rest.CompletedFutureReturnValueHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executor of the REST requests. By default a request is served on the servlet thread that received it, and
+ * the completed future of the controller is written without an asynchronous dispatch. With
+ * {@code person-registry.async-requests.enabled} the controllers hand the request to a bounded pool sized to the
+ * connection pool and release the servlet thread while the database works, so slow queries do not exhaust the
+ * servlet threads needed by health checks and cheap endpoints.
+ */
+@Configuration
+public class RequestExecutorConfig {
+
+    /**
+     * Serves every request on the servlet thread that received it.
+     *
+     * @return the executor running the request on the calling thread
+     */
+    @Bean
+    @ConditionalOnProperty(name = "person-registry.async-requests.enabled", havingValue = "false",
+            matchIfMissing = true)
+    public TaskExecutor requestTaskExecutor() {
+        return new SyncTaskExecutor();
+    }
+
+    /**
+     * Writes the response of a controller on the servlet thread when its future is already completed, which is
+     * always the case with the synchronous executor.
+     *
+     * @return the post processor putting {@link CompletedFutureReturnValueHandler} before the handlers of the
+     * request mapping handler adapter
+     */
+    @Bean
+    @ConditionalOnProperty(name = "person-registry.async-requests.enabled", havingValue = "false",
+            matchIfMissing = true)
+    public static BeanPostProcessor completedFutureReturnValueHandlerPostProcessor() {
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof RequestMappingHandlerAdapter adapter && adapter.getReturnValueHandlers() != null) {
+                    List<HandlerMethodReturnValueHandler> handlers = new ArrayList<>();
+                    handlers.add(new CompletedFutureReturnValueHandler(adapter.getReturnValueHandlers()));
+                    handlers.addAll(adapter.getReturnValueHandlers());
+                    adapter.setReturnValueHandlers(handlers);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Serves the requests on a pool with one thread per database connection, more threads would only wait for a
+     * connection. A request arriving while the queue is full is rejected instead of waiting for its timeout.
+     *
+     * @param threads the number of requests served at the same time, the size of the connection pool by default
+     * @param queueCapacity the number of requests waiting for a thread
+     * @param statementCounter the counter of the statements of the requests
+     * @return the executor of the requests
+     */
+    @Bean(name = "requestTaskExecutor")
+    @ConditionalOnProperty(name = "person-registry.async-requests.enabled", havingValue = "true")
+    public ThreadPoolTaskExecutor asyncRequestTaskExecutor(
+            @Value("${person-registry.async-requests.threads:${spring.datasource.hikari.maximum-pool-size:10}}")
+            int threads,
+            @Value("${person-registry.async-requests.queue-capacity:100}") int queueCapacity,
+            StatementCounter statementCounter) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("request-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setTaskDecorator(requestContextDecorator(statementCounter));
+        return executor;
+    }
+
+    /**
+     * Runs the task with the request and the statement count of the submitting servlet thread, so the
+     * request-scoped beans and the per-request statement metric keep working on the pool.
+     */
+    private static TaskDecorator requestContextDecorator(StatementCounter statementCounter) {
+        return task -> {
+            RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+            StatementCounter.Count count = statementCounter.current();
+            return () -> {
+                RequestContextHolder.setRequestAttributes(requestAttributes);
+                statementCounter.resume(count);
+                try {
+                    task.run();
+                } finally {
+                    statementCounter.reset();
+                    RequestContextHolder.resetRequestAttributes();
+                }
+            };
+        };
+    }
+}
@@ -0,0 +1,176 @@
+package hu.baumannr.personregistryapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import hu.baumannr.personregistryapi.persistence.routing.ShardContext;
+import hu.baumannr.personregistryapi.persistence.routing.ShardRoutingDataSource;
+import hu.baumannr.personregistryapi.service.ShardRouter;
+import hu.baumannr.personregistryapi.service.ShardRoutingAspect;
+import jakarta.annotation.PreDestroy;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shards of the person aggregates. By default there is a single database. With
+ * {@code person-registry.sharding.enabled} the persons with their addresses and contact infos are partitioned by
+ * person ID over the {@code spring.datasource} database, shard 0, and the databases of
+ * {@code person-registry.sharding.urls}, shards 1 to N. Every shard has the same schema, migrated by Flyway, and the
+ * same pool settings.
+ */
+@Configuration
+public class ShardingConfig {
+
+    private final List<HikariDataSource> shards = new ArrayList<>();
+
+    /**
+     * Runs the work of the services on the single database.
+     *
+     * @return the router of the single database
+     */
+    @Bean
+    @ConditionalOnProperty(name = "person-registry.sharding.enabled", havingValue = "false", matchIfMissing = true)
+    public ShardRouter shardRouter() {
+        return new ShardRouter();
+    }
+
+    /**
+     * Creates the routing between the pools of the shards. The user, the driver and the Hikari settings of
+     * {@code spring.datasource} apply to every shard.
+     *
+     * @param properties the data source properties of shard 0
+     * @param urls the JDBC URLs of the further shards
+     * @param environment the environment holding the Hikari settings
+     * @return the routing data source
+     */
+    @Bean(defaultCandidate = false)
+    @ConditionalOnProperty(name = "person-registry.sharding.enabled", havingValue = "true")
+    public ShardRoutingDataSource shardRoutingDataSource(
+            DataSourceProperties properties,
+            @Value("${person-registry.sharding.urls}") List<String> urls,
+            Environment environment) {
+        if (urls.size() >= ShardContext.MAX_SHARDS) {
+            throw new IllegalStateException("At most " + ShardContext.MAX_SHARDS + " shards are supported");
+        }
+        List<String> shardUrls = new ArrayList<>();
+        shardUrls.add(properties.determineUrl());
+        shardUrls.addAll(urls);
+        for (String url : shardUrls) {
+            HikariDataSource shard = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url)
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .build();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(shard));
+            shard.setPoolName("shard-" + shards.size());
+            shards.add(shard);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    /**
+     * Creates the data source of the application. A transaction obtains its connection at its first statement,
+     * once the service has bound the shard.
+     *
+     * @param shardRoutingDataSource the routing between the shards
+     * @return the data source
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "person-registry.sharding.enabled", havingValue = "true")
+    public DataSource dataSource(@Qualifier("shardRoutingDataSource") DataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    /**
+     * Migrates every shard with the Flyway settings of the application.
+     *
+     * @param shardRoutingDataSource the routing between the shards
+     * @return the migration strategy
+     */
+    @Bean
+    @ConditionalOnProperty(name = "person-registry.sharding.enabled", havingValue = "true")
+    public FlywayMigrationStrategy shardMigrationStrategy(
+            @Qualifier("shardRoutingDataSource") ShardRoutingDataSource shardRoutingDataSource) {
+        return flyway -> shardRoutingDataSource.getResolvedDataSources().values()
+                .forEach(shard -> Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shard)
+                        .load()
+                        .migrate());
+    }
+
+    /**
+     * Runs the queries scattered to the shards, each shard of a query on its own thread.
+     *
+     * @param threads the number of shard queries running at the same time
+     * @return the executor of the shard queries
+     */
+    @Bean
+    @ConditionalOnProperty(name = "person-registry.sharding.enabled", havingValue = "true")
+    public ThreadPoolTaskExecutor shardQueryExecutor(
+            @Value("${person-registry.sharding.query-threads:${spring.datasource.hikari.maximum-pool-size:10}}")
+            int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("shard-query-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        return executor;
+    }
+
+    /**
+     * Runs the work of the services on the shards.
+     *
+     * @param shardRoutingDataSource the routing between the shards
+     * @param shardQueryExecutor the executor of the shard queries
+     * @param transactionManager the transaction manager
+     * @return the router of the shards
+     */
+    @Bean(name = "shardRouter")
+    @ConditionalOnProperty(name = "person-registry.sharding.enabled", havingValue = "true")
+    public ShardRouter shardedShardRouter(
+            @Qualifier("shardRoutingDataSource") ShardRoutingDataSource shardRoutingDataSource,
+            @Qualifier("shardQueryExecutor") ThreadPoolTaskExecutor shardQueryExecutor,
+            PlatformTransactionManager transactionManager) {
+        return new ShardRouter(shardRoutingDataSource.getResolvedDataSources().size(), shardQueryExecutor,
+                transactionManager);
+    }
+
+    /**
+     * Routes the service methods of a person to its shard.
+     *
+     * @param shardRouter the router of the shards
+     * @return the aspect
+     */
+    @Bean
+    @ConditionalOnProperty(name = "person-registry.sharding.enabled", havingValue = "true")
+    public ShardRoutingAspect shardRoutingAspect(ShardRouter shardRouter) {
+        return new ShardRoutingAspect(shardRouter);
+    }
+
+    /**
+     * Closes the pools of the shards on shutdown.
+     */
+    @PreDestroy
+    public void closeShards() {
+        shards.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,17 @@
+package hu.baumannr.personregistryapi.constant;
+
+/**
+ * Cache name constants.
+ */
+public final class CacheNames {
+
+    private CacheNames() {
+
+    }
+
+    /**
+     * PersonResponse with its addresses and contact infos, keyed by person ID.
+     */
+    public final static String PERSONS = "persons";
+
+}
@@ -24,4 +24,53 @@ public final class ErrorMessages {
     public final static String CONTACT_INFO_DOES_NOT_BELONG_TO_PERSON =
             "Contact information with id %d does not belong to person %d";
 
+    public final static String PATCH_WITHOUT_CHANGE = "Request does not change any field";
+
+    public final static String INVALID_CONTACT_INFO_TYPE = "Contact information type %s is invalid";
+
+    public final static String INVALID_IF_MATCH = "If-Match %s does not hold a single ETag of the person";
+
+    public final static String PERSON_VERSION_MISMATCH = "Person with id %d has changed, its version is not %d";
+
+    public final static String CONCURRENT_MODIFICATION = "Person has been changed by another request meanwhile";
+
+    public final static String INVALID_CURSOR = "Cursor %s is invalid";
+
+    public final static String INVALID_CHANGE_TOKEN = "Change token %s is invalid";
+
+    public final static String CHANGE_TOKEN_EXPIRED =
+            "Change token %s has expired, the persons have to be loaded again";
+
+    public final static String INVALID_EXPORT_FORMAT = "Export format %s is invalid";
+
+    public final static String INVALID_LAST_EVENT_ID = "Last-Event-ID %s is invalid";
+
+    public final static String REQUEST_QUEUE_FULL = "Too many requests are waiting, try again later";
+
+    public final static String BATCH_NOT_AN_ARRAY = "Request body must be a JSON array";
+
+    public final static String BATCH_INVALID_JSON = "Invalid JSON at item %d, the preceding items were processed";
+
+    public final static String BATCH_ITEM_NOT_READABLE = "Item is not a valid person";
+
+    public final static String BATCH_DUPLICATE_ADDRESS_TYPE = "Address type %s is given more than once";
+
+    public final static String IMPORT_NOT_FOUND = "Import with id %s not found";
+
+    public final static String IMPORT_QUEUE_FULL = "Too many imports are waiting, try again later";
+
+    public final static String IMPORT_COLUMN_MISSING = "Column %s is missing from the header";
+
+    public final static String IMPORT_INVALID_CSV = "Invalid CSV at line %d";
+
+    public final static String IMPORT_READ_FAILED = "Import file could not be read";
+
+    public final static String IMPORT_UNKNOWN_RECORD_TYPE = "Record type %s is unknown";
+
+    public final static String IMPORT_ORPHAN_ROW = "Row does not follow the row of person %s";
+
+    public final static String IMPORT_INVALID_TYPE = "Type %s is invalid";
+
+    public final static String IMPORT_PERSON_REJECTED = "Person is rejected because of its rows";
+
 }
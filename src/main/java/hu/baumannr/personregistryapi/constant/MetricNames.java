@@ -0,0 +1,28 @@
+package hu.baumannr.personregistryapi.constant;
+
+/**
+ * Metric name constants.
+ */
+public final class MetricNames {
+
+    private MetricNames() {
+
+    }
+
+    /**
+     * Latency of the PersonService, AddressService and ContactInfoService methods, tagged with class, method,
+     * exception and status.
+     */
+    public final static String SERVICE = "person.registry.service";
+
+    /**
+     * PersonApiExceptions returned to clients, tagged with status and error.
+     */
+    public final static String ERRORS = "person.registry.errors";
+
+    /**
+     * SQL statements prepared while handling a request, tagged with method and uri.
+     */
+    public final static String REQUEST_STATEMENTS = "person.registry.request.statements";
+
+}
@@ -1,9 +1,13 @@
 package hu.baumannr.personregistryapi.exception;
 
+import hu.baumannr.personregistryapi.constant.MetricNames;
 import hu.baumannr.personregistryapi.mapper.PersonApiExceptionMapper;
 import hu.baumannr.personregistryapi.rest.model.ErrorResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -11,11 +15,14 @@ import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.NoHandlerFoundException;
 
 import java.time.LocalDateTime;
 
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.CONCURRENT_MODIFICATION;
 import static hu.baumannr.personregistryapi.constant.ErrorMessages.UNEXPECTED_ERROR;
 
 /**
@@ -28,14 +35,37 @@ public class PersonRegistryApiExceptionHandler {
 
     private final PersonApiExceptionMapper personApiExceptionMapper;
 
+    private final MeterRegistry meterRegistry;
+
     @ExceptionHandler(PersonApiException.class)
     public ResponseEntity<ErrorResponse> handlePersonApiException(PersonApiException exception) {
         log.warn("API error: {}", exception.getMessage());
+        meterRegistry.counter(MetricNames.ERRORS,
+                        "status", String.valueOf(exception.getStatusCode().value()),
+                        "error", exception.getStatusCode().getReasonPhrase())
+                .increment();
         ErrorResponse response = personApiExceptionMapper.convert(exception);
         return ResponseEntity.status(exception.getStatusCode())
                 .body(response);
     }
 
+    /**
+     * Handles the version check of a flushed entity, failed by a change committed after the entity was loaded.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException exception) {
+        log.debug("Concurrent modification", exception);
+
+        ErrorResponse response = new ErrorResponse()
+                .timestamp(LocalDateTime.now())
+                .error(HttpStatus.PRECONDITION_FAILED.getReasonPhrase())
+                .message(CONCURRENT_MODIFICATION);
+
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body(response);
+    }
+
     @ExceptionHandler(NoHandlerFoundException.class)
     public ResponseEntity<ErrorResponse> handleNoHandlerFoundException(NoHandlerFoundException exception) {
         String requestURL = exception.getRequestURL();
@@ -67,6 +97,24 @@ public class PersonRegistryApiExceptionHandler {
                 .body(response);
     }
 
+    /**
+     * Handles the routing and binding errors of the reactive deployment, which WebFlux raises as status exceptions.
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ErrorResponse> handleResponseStatusException(ResponseStatusException exception) {
+        log.debug(exception.getMessage());
+
+        HttpStatus status = HttpStatus.valueOf(exception.getStatusCode().value());
+        ErrorResponse response = new ErrorResponse()
+                .timestamp(LocalDateTime.now())
+                .error(status.getReasonPhrase())
+                .message(exception.getReason());
+
+        return ResponseEntity.status(status)
+                .headers(exception.getHeaders())
+                .body(response);
+    }
+
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<ErrorResponse> handleMethodArgumentTypeMismatchException(
             MethodArgumentTypeMismatchException exception) {
@@ -112,6 +160,20 @@ public class PersonRegistryApiExceptionHandler {
                 .body(response);
     }
 
+    @ExceptionHandler({ConstraintViolationException.class, HandlerMethodValidationException.class})
+    public ResponseEntity<ErrorResponse> handleParameterValidationException(Exception exception) {
+        log.debug("Invalid request parameter", exception);
+
+        ErrorResponse response = new ErrorResponse()
+                .timestamp(LocalDateTime.now())
+                .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
+                .message("Invalid request parameter");
+
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(response);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGeneralException(Exception exception) {
         log.error("Unexpected error", exception);
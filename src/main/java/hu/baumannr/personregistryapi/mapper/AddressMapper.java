@@ -4,10 +4,12 @@ import hu.baumannr.personregistryapi.persistence.model.Address;
 import hu.baumannr.personregistryapi.rest.model.AddressCreateRequest;
 import hu.baumannr.personregistryapi.rest.model.AddressResponse;
 import hu.baumannr.personregistryapi.rest.model.AddressUpdateRequest;
+import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
 import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
 
 /**
  * Mapper methods for address and related request objects.
@@ -47,4 +49,18 @@ public interface AddressMapper {
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     void updateAddress(@MappingTarget Address address, AddressUpdateRequest request);
+
+    /**
+     * Updates the given Address with the non-null fields of the AddressUpdateRequest DTO.
+     *
+     * @param address the Address to update
+     * @param request the AddressUpdateRequest with the changed data for Address
+     */
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "type", ignore = true)
+    @Mapping(target = "person", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    void patchAddress(@MappingTarget Address address, AddressUpdateRequest request);
 }
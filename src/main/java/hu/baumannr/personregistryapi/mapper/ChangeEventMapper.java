@@ -0,0 +1,23 @@
+package hu.baumannr.personregistryapi.mapper;
+
+import hu.baumannr.personregistryapi.persistence.model.ChangeEvent;
+import hu.baumannr.personregistryapi.rest.model.ChangeEventResponse;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+
+/**
+ * Mapper methods for change events.
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface ChangeEventMapper {
+
+    /**
+     * Converts the given ChangeEvent entity into a ChangeEventResponse DTO.
+     *
+     * @param changeEvent the ChangeEvent entity to convert
+     * @return the ChangeEventResponse DTO
+     */
+    @Mapping(target = "occurredAt", source = "createdAt")
+    ChangeEventResponse convert(ChangeEvent changeEvent);
+}
@@ -1,13 +1,17 @@
 package hu.baumannr.personregistryapi.mapper;
 
 import hu.baumannr.personregistryapi.persistence.model.ContactInfo;
+import hu.baumannr.personregistryapi.persistence.model.ContactInfoOwner;
 import hu.baumannr.personregistryapi.rest.model.ContactInfoCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoLookupResponse;
 import hu.baumannr.personregistryapi.rest.model.ContactInfoResponse;
 import hu.baumannr.personregistryapi.rest.model.ContactInfoUpdateRequest;
+import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
 import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
 
 /**
  * Mapper methods for contact information and related request objects.
@@ -23,6 +27,14 @@ public interface ContactInfoMapper {
      */
     ContactInfoResponse convert(ContactInfo contactInfo);
 
+    /**
+     * Converts the given ContactInfoOwner into a ContactInfoLookupResponse DTO.
+     *
+     * @param owner the ContactInfoOwner to convert
+     * @return the ContactInfoLookupResponse DTO
+     */
+    ContactInfoLookupResponse convert(ContactInfoOwner owner);
+
     /**
      * Converts the given ContactInfoCreateRequest DTO into a ContactInfo entity.
      *
@@ -33,6 +45,7 @@ public interface ContactInfoMapper {
     @Mapping(target = "person", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "normalizedValue", ignore = true)
     ContactInfo convert(ContactInfoCreateRequest request);
 
     /**
@@ -45,5 +58,20 @@ public interface ContactInfoMapper {
     @Mapping(target = "person", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "normalizedValue", ignore = true)
     void updateContactInfo(@MappingTarget ContactInfo contactInfo, ContactInfoUpdateRequest request);
+
+    /**
+     * Updates the given ContactInfo with the non-null fields of the ContactInfoUpdateRequest DTO.
+     *
+     * @param contactInfo the ContactInfo to update
+     * @param request the ContactInfoUpdateRequest with the changed data for ContactInfo
+     */
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "person", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "normalizedValue", ignore = true)
+    void patchContactInfo(@MappingTarget ContactInfo contactInfo, ContactInfoUpdateRequest request);
 }
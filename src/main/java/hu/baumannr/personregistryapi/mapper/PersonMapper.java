@@ -1,9 +1,13 @@
 package hu.baumannr.personregistryapi.mapper;
 
 import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.persistence.model.PersonName;
+import hu.baumannr.personregistryapi.rest.model.PersonBatchCreateRequest;
 import hu.baumannr.personregistryapi.rest.model.PersonCreateRequest;
 import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonSuggestionResponse;
 import hu.baumannr.personregistryapi.rest.model.PersonUpdateRequest;
+import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
@@ -12,7 +16,7 @@ import org.mapstruct.MappingTarget;
 /**
  * Mapper methods for person and related request objects.
  */
-@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, uses = {AddressMapper.class, ContactInfoMapper.class})
 public interface PersonMapper {
 
     /**
@@ -23,6 +27,14 @@ public interface PersonMapper {
      */
     PersonResponse convert(Person person);
 
+    /**
+     * Converts the given PersonName into a PersonSuggestionResponse DTO.
+     *
+     * @param name the PersonName to convert
+     * @return the PersonSuggestionResponse DTO
+     */
+    PersonSuggestionResponse convert(PersonName name);
+
     /**
      * Converts the given PersonCreateRequest DTO into a Person entity.
      *
@@ -34,8 +46,37 @@ public interface PersonMapper {
     @Mapping(target = "contactInfos", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Person convert(PersonCreateRequest request);
 
+    /**
+     * Converts the given PersonBatchCreateRequest DTO into a Person entity with its children.
+     *
+     * @param request the PersonBatchCreateRequest DTO to convert
+     * @return the Person entity
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    Person convert(PersonBatchCreateRequest request);
+
+    /**
+     * Sets the back reference of the children converted from a PersonBatchCreateRequest.
+     *
+     * @param request the converted PersonBatchCreateRequest
+     * @param person the converted Person
+     */
+    @AfterMapping
+    default void linkChildren(PersonBatchCreateRequest request, @MappingTarget Person person) {
+        if (person.getAddresses() != null) {
+            person.getAddresses().forEach(address -> address.setPerson(person));
+        }
+        if (person.getContactInfos() != null) {
+            person.getContactInfos().forEach(contactInfo -> contactInfo.setPerson(person));
+        }
+    }
+
     /**
      * Updates the given Person with the PersonUpdateRequest DTO.
      *
@@ -47,5 +88,6 @@ public interface PersonMapper {
     @Mapping(target = "contactInfos", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     void updatePerson(@MappingTarget Person person, PersonUpdateRequest request);
 }
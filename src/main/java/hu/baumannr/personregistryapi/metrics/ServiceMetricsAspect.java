@@ -0,0 +1,55 @@
+package hu.baumannr.personregistryapi.metrics;
+
+import hu.baumannr.personregistryapi.constant.MetricNames;
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every method of PersonService, AddressService and ContactInfoService with a percentile histogram,
+ * cache hits and the commit included.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(* hu.baumannr.personregistryapi.service.PersonService.*(..))"
+            + " || execution(* hu.baumannr.personregistryapi.service.AddressService.*(..))"
+            + " || execution(* hu.baumannr.personregistryapi.service.ContactInfoService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = NONE;
+        String status = NONE;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            if (e instanceof PersonApiException personApiException) {
+                status = String.valueOf(personApiException.getStatusCode().value());
+            }
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(MetricNames.SERVICE)
+                    .description("Latency of the service methods")
+                    .tag("class", joinPoint.getTarget().getClass().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .tag("status", status)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package hu.baumannr.personregistryapi.metrics;
+
+import hu.baumannr.personregistryapi.constant.MetricNames;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records the number of SQL statements each request costs, tagged with the URI pattern of the endpoint. The count
+ * is kept in the request, so the dispatch completing an asynchronous request continues it, and the request executor
+ * hands it to the thread serving the request. Statements of other asynchronous work, e.g. an import job or a
+ * streamed export, are not counted.
+ */
+@Component
+@RequiredArgsConstructor
+public class StatementCountInterceptor implements HandlerInterceptor {
+
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private static final String COUNT_ATTRIBUTE = StatementCountInterceptor.class.getName() + ".count";
+
+    private final StatementCounter statementCounter;
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object count = request.getAttribute(COUNT_ATTRIBUTE);
+        if (count instanceof StatementCounter.Count started) {
+            statementCounter.resume(started);
+        } else {
+            statementCounter.reset();
+            request.setAttribute(COUNT_ATTRIBUTE, statementCounter.current());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder(MetricNames.REQUEST_STATEMENTS)
+                .description("SQL statements prepared per request")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern != null ? pattern.toString() : UNKNOWN)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statementCounter.count());
+    }
+}
@@ -0,0 +1,65 @@
+package hu.baumannr.personregistryapi.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread. The global Hibernate statistics cannot tell
+ * which request a statement belongs to. A count can be handed over to another thread, so the statements of work
+ * done on behalf of a request elsewhere add up to the count of the request.
+ */
+@Component
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Count> COUNT = ThreadLocal.withInitial(Count::new);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get().value++;
+        return sql;
+    }
+
+    /**
+     * Starts a new count from zero on the current thread. A thread still continuing the previous count does not
+     * change the new one.
+     */
+    public void reset() {
+        COUNT.set(new Count());
+    }
+
+    /**
+     * Returns the number of statements prepared on the current thread since the last reset.
+     *
+     * @return the number of statements
+     */
+    public long count() {
+        return COUNT.get().value;
+    }
+
+    /**
+     * Returns the count of the current thread, so it can be continued on another one.
+     *
+     * @return the count
+     */
+    public Count current() {
+        return COUNT.get();
+    }
+
+    /**
+     * Continues the given count on the current thread.
+     *
+     * @param count the count taken from another thread
+     */
+    public void resume(Count count) {
+        COUNT.set(count);
+    }
+
+    /**
+     * The number of statements of one unit of work. It is handed between threads through the executor or the
+     * request, which order its updates, so it needs no synchronization of its own.
+     */
+    public static final class Count {
+
+        private long value;
+    }
+}
@@ -0,0 +1,45 @@
+package hu.baumannr.personregistryapi.persistence.migration;
+
+import hu.baumannr.personregistryapi.persistence.model.ContactInfoType;
+import hu.baumannr.personregistryapi.service.ContactValueNormalizer;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Normalizes the phone numbers backfilled by V1.5 again, with the normalizer of the application. The backfill
+ * stripped only the usual separators, so a number with any other character was stored under a value its lookup
+ * never produces. Registered with Flyway as a bean, the class name gives its version.
+ */
+@Slf4j
+@Component
+public class V1_7__RenormalizeContactPhoneValues extends BaseJavaMigration {
+
+    private static final String SELECT_PHONES = "SELECT Id, ContactValue, NormalizedValue FROM ContactInfo "
+            + "WHERE Type = 'PHONE'";
+
+    private static final String UPDATE_NORMALIZED_VALUE = "UPDATE ContactInfo SET NormalizedValue = ? WHERE Id = ?";
+
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+        // Only the differing rows are kept, the updates run once the result set is closed
+        List<Object[]> updates = new ArrayList<>();
+        jdbcTemplate.query(SELECT_PHONES, row -> {
+            String normalizedValue = ContactValueNormalizer.normalize(ContactInfoType.PHONE,
+                    row.getString("ContactValue"));
+            if (! Objects.equals(normalizedValue, row.getString("NormalizedValue"))) {
+                updates.add(new Object[] {normalizedValue, row.getLong("Id")});
+            }
+        });
+        jdbcTemplate.batchUpdate(UPDATE_NORMALIZED_VALUE, updates);
+        log.info("{} phone numbers normalized again", updates.size());
+    }
+}
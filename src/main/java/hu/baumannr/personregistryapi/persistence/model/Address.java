@@ -1,22 +1,26 @@
 package hu.baumannr.personregistryapi.persistence.model;
 
+import hu.baumannr.personregistryapi.persistence.routing.ShardedSequence;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
-import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -30,15 +34,19 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "Address")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "Address", indexes = {
+        @Index(name = "IX_Address_City_Zip_PersonId", columnList = "City, Zip, PersonId"),
+        @Index(name = "IX_Address_Zip_PersonId", columnList = "Zip, PersonId")
+}, uniqueConstraints = @UniqueConstraint(name = "UQ_PersonId_Type", columnNames = {"PersonId", "Type"}))
 public class Address implements Serializable {
 
     @Serial
     private static final long serialVersionUID = -1173984292191236072L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "address_gen")
-    @SequenceGenerator(name = "address_gen", sequenceName = "AddressSeq", allocationSize = 1)
+    @ShardedSequence(name = "AddressSeq")
     @Column(name = "Id", nullable = false)
     private Long id;
 
@@ -64,7 +72,7 @@ public class Address implements Serializable {
     @Column(name = "UpdatedAt", nullable = false)
     private LocalDateTime updatedAt;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "PersonId")
     private Person person;
 
@@ -0,0 +1,79 @@
+package hu.baumannr.personregistryapi.persistence.model;
+
+import hu.baumannr.personregistryapi.persistence.routing.ShardedSequence;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Change event of the outbox, written in the transaction of the change it records.
+ * <p>
+ * The IDs are taken from a pooled sequence, so they neither follow the commit order nor leave out the events of
+ * the transactions still running. The relay therefore assigns the position, the order the events are streamed in,
+ * after they were committed: every event gets the next position once it is visible.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "ChangeEvent",
+        uniqueConstraints = @UniqueConstraint(name = "UQ_ChangeEvent_Position", columnNames = "Position"),
+        indexes = @Index(name = "IX_ChangeEvent_CreatedAt", columnList = "CreatedAt"))
+public class ChangeEvent implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 4907131256215096437L;
+
+    @Id
+    @ShardedSequence(name = "ChangeEventSeq")
+    @Column(name = "Id", nullable = false)
+    private Long id;
+
+    /**
+     * Position of the event in the stream, null until the relay sequenced it.
+     */
+    @Column(name = "Position")
+    private Long position;
+
+    @Column(name = "Type", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private ChangeEventType type;
+
+    @Column(name = "PersonId", nullable = false)
+    private Long personId;
+
+    /**
+     * ID of the changed person, address or contact info.
+     */
+    @Column(name = "EntityId", nullable = false)
+    private Long entityId;
+
+    @Column(name = "CreatedAt", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Creates the event of the given change.
+     *
+     * @param type the type of the change
+     * @param personId the ID of the changed person aggregate
+     * @param entityId the ID of the changed person, address or contact info
+     * @return the event, not yet sequenced
+     */
+    public static ChangeEvent of(ChangeEventType type, Long personId, Long entityId) {
+        return new ChangeEvent(null, null, type, personId, entityId, LocalDateTime.now());
+    }
+}
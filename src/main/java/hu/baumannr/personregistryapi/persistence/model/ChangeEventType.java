@@ -0,0 +1,16 @@
+package hu.baumannr.personregistryapi.persistence.model;
+
+/**
+ * Types of the changes recorded in the outbox.
+ */
+public enum ChangeEventType {
+    PERSON_CREATED,
+    PERSON_UPDATED,
+    PERSON_DELETED,
+    ADDRESS_CREATED,
+    ADDRESS_UPDATED,
+    ADDRESS_DELETED,
+    CONTACT_INFO_CREATED,
+    CONTACT_INFO_UPDATED,
+    CONTACT_INFO_DELETED
+}
@@ -1,22 +1,25 @@
 package hu.baumannr.personregistryapi.persistence.model;
 
+import hu.baumannr.personregistryapi.persistence.routing.ShardedSequence;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
-import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -30,15 +33,20 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "ContactInfo")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "ContactInfo", indexes = {
+        @Index(name = "IX_ContactInfo_ContactValue_PersonId", columnList = "ContactValue, PersonId"),
+        @Index(name = "IX_ContactInfo_PersonId", columnList = "PersonId"),
+        @Index(name = "IX_ContactInfo_Type_NormalizedValue", columnList = "Type, NormalizedValue")
+})
 public class ContactInfo implements Serializable {
 
     @Serial
     private static final long serialVersionUID = -619235190449078747L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contact_info_gen")
-    @SequenceGenerator(name = "contact_info_gen", sequenceName = "ContactInfoSeq", allocationSize = 1)
+    @ShardedSequence(name = "ContactInfoSeq")
     @Column(name = "Id", nullable = false)
     private Long id;
 
@@ -49,13 +57,19 @@ public class ContactInfo implements Serializable {
     @Column(name = "ContactValue", nullable = false, length = 100)
     private String value;
 
+    /**
+     * The value as it is looked up, see {@code ContactValueNormalizer}. Set by the services on every write.
+     */
+    @Column(name = "NormalizedValue", nullable = false, length = 254)
+    private String normalizedValue;
+
     @Column(name = "CreatedAt", nullable = false)
     private LocalDateTime createdAt;
 
     @Column(name = "UpdatedAt", nullable = false)
     private LocalDateTime updatedAt;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "PersonId")
     private Person person;
 
@@ -0,0 +1,12 @@
+package hu.baumannr.personregistryapi.persistence.model;
+
+/**
+ * A contact information with the ID of the person it belongs to, loaded without the person.
+ *
+ * @param contactInfoId the ID of the contact information
+ * @param personId the ID of the person
+ * @param type the type of the contact information
+ * @param value the value of the contact information
+ */
+public record ContactInfoOwner(Long contactInfoId, Long personId, ContactInfoType type, String value) {
+}
@@ -1,44 +1,69 @@
 package hu.baumannr.personregistryapi.persistence.model;
 
+import hu.baumannr.personregistryapi.persistence.routing.ShardedSequence;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedEntityGraphs;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderBy;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
-import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 
 import java.io.Serial;
 import java.io.Serializable;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Set;
 
 /**
- * Person entity.
+ * Person entity. The person itself is not kept in the second-level cache: every change of a child bumps its version
+ * with a bulk update, which clears the whole region of the entity. Its addresses and contact infos are cached.
  */
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "Person")
+@Table(name = "Person", indexes = {
+        @Index(name = "IX_Person_LastName_FirstName", columnList = "LastName, FirstName"),
+        @Index(name = "IX_Person_FirstName", columnList = "FirstName")
+})
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = Person.WITH_ADDRESSES, attributeNodes = @NamedAttributeNode("addresses")),
+        @NamedEntityGraph(name = Person.WITH_CONTACT_INFOS, attributeNodes = @NamedAttributeNode("contactInfos"))
+})
 public class Person implements Serializable {
 
     @Serial
     private static final long serialVersionUID = 7890655672095244948L;
 
+    /**
+     * Entity graph loading the person with its addresses.
+     */
+    public static final String WITH_ADDRESSES = "Person.withAddresses";
+
+    /**
+     * Entity graph loading the person with its contact infos.
+     */
+    public static final String WITH_CONTACT_INFOS = "Person.withContactInfos";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "person_gen")
-    @SequenceGenerator(name = "person_gen", sequenceName = "PersonSeq", allocationSize = 1)
+    @ShardedSequence(name = "PersonSeq")
     @Column(name = "Id", nullable = false)
     private Long id;
 
@@ -54,11 +79,27 @@ public class Person implements Serializable {
     @Column(name = "UpdatedAt", nullable = false)
     private LocalDateTime updatedAt;
 
-    @OneToMany(mappedBy = "person", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
-    private List<Address> addresses;
+    /**
+     * Version of the aggregate. Changes of the children do not increment it on their own, the services
+     * increment it explicitly when they change a child.
+     */
+    @Version
+    @Column(name = "Version", nullable = false)
+    private Long version;
+
+    @OneToMany(mappedBy = "person", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @OrderBy("id")
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @OptimisticLock(excluded = true)
+    private Set<Address> addresses;
 
-    @OneToMany(mappedBy = "person", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
-    private List<ContactInfo> contactInfos;
+    @OneToMany(mappedBy = "person", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @OrderBy("id")
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @OptimisticLock(excluded = true)
+    private Set<ContactInfo> contactInfos;
 
     /**
      * Adds the given Address to the Person.
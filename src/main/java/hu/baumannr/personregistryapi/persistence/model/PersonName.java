@@ -0,0 +1,21 @@
+package hu.baumannr.personregistryapi.persistence.model;
+
+/**
+ * ID and name of a person, loaded without the rest of the person.
+ *
+ * @param id the ID of the person
+ * @param firstName the first name of the person
+ * @param lastName the last name of the person
+ */
+public record PersonName(Long id, String firstName, String lastName) {
+
+    /**
+     * Takes the name of the given person.
+     *
+     * @param person the person
+     * @return the name of the person
+     */
+    public static PersonName of(Person person) {
+        return new PersonName(person.getId(), person.getFirstName(), person.getLastName());
+    }
+}
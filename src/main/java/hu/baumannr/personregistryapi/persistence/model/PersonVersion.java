@@ -0,0 +1,12 @@
+package hu.baumannr.personregistryapi.persistence.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version and last modification time of a person aggregate, loaded without the person itself.
+ *
+ * @param version the version of the aggregate
+ * @param updatedAt the time of the last change of the aggregate
+ */
+public record PersonVersion(Long version, LocalDateTime updatedAt) {
+}
@@ -2,9 +2,12 @@ package hu.baumannr.personregistryapi.persistence.repository;
 
 import hu.baumannr.personregistryapi.persistence.model.Address;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
+import java.util.Collection;
 
 /**
  * Repository for {@link Address}
@@ -12,5 +15,13 @@ import java.util.List;
 @Repository
 public interface AddressRepository extends JpaRepository<Address, Long> {
 
-    List<Address> findByPerson_Id(Long id);
+    /**
+     * Deletes the addresses of the given persons in a single statement, without loading them.
+     *
+     * @param personIds the IDs of the persons
+     * @return the number of deleted addresses
+     */
+    @Modifying
+    @Query("delete from Address a where a.person.id in :personIds")
+    int deleteByPersonIds(@Param("personIds") Collection<Long> personIds);
 }
@@ -0,0 +1,87 @@
+package hu.baumannr.personregistryapi.persistence.repository;
+
+import hu.baumannr.personregistryapi.persistence.model.ChangeEvent;
+import hu.baumannr.personregistryapi.persistence.model.ChangeEventType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for {@link ChangeEvent} entity.
+ */
+@Repository
+public interface ChangeEventRepository extends JpaRepository<ChangeEvent, Long> {
+
+    /**
+     * Finds the committed events not sequenced yet, in the order they were written.
+     *
+     * @param limit the maximum number of events
+     * @return the events without a position
+     */
+    List<ChangeEvent> findByPositionIsNullOrderByIdAsc(Limit limit);
+
+    /**
+     * Finds the sequenced events after the given position, in the order of their positions.
+     *
+     * @param position the position to seek after
+     * @param limit the maximum number of events
+     * @return the events
+     */
+    List<ChangeEvent> findByPositionGreaterThanOrderByPositionAsc(Long position, Limit limit);
+
+    /**
+     * Returns the position of the last sequenced event.
+     *
+     * @return the last position, 0 if no event was sequenced yet
+     */
+    @Query("select coalesce(max(e.position), 0) from ChangeEvent e")
+    long findLastPosition();
+
+    /**
+     * Finds which of the given IDs belong to an event, selecting only the IDs.
+     *
+     * @param ids the IDs to look for
+     * @return the IDs of the existing events
+     */
+    @Query("select e.id from ChangeEvent e where e.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Inserts a sequenced event with the ID it was generated with on another shard. The shard is kept in the ID, so
+     * it does not collide with the IDs generated on this one.
+     *
+     * @param id the ID of the event
+     * @param position the position of the event
+     * @param type the type of the change
+     * @param personId the ID of the changed person aggregate
+     * @param entityId the ID of the changed person, address or contact info
+     * @param createdAt the time the event was written
+     */
+    @Modifying
+    @Query("insert into ChangeEvent (id, position, type, personId, entityId, createdAt) "
+            + "values (:id, :position, :type, :personId, :entityId, :createdAt)")
+    void insertSequenced(@Param("id") Long id, @Param("position") Long position, @Param("type") ChangeEventType type,
+                         @Param("personId") Long personId, @Param("entityId") Long entityId,
+                         @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Deletes the sequenced events up to the last one written before the given time in a single statement. Only
+     * a prefix of the positions is deleted, so a gap after a position tells that the events after it expired. The
+     * last event is kept, so the positions continue after it instead of starting over.
+     *
+     * @param createdAt the time the events were written before
+     * @return the number of deleted events
+     */
+    @Modifying
+    @Query("delete from ChangeEvent e "
+            + "where e.position <= (select max(o.position) from ChangeEvent o where o.createdAt < :createdAt) "
+            + "and e.position < (select max(l.position) from ChangeEvent l)")
+    int deleteSequencedBefore(@Param("createdAt") LocalDateTime createdAt);
+}
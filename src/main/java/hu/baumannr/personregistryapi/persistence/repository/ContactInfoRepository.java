@@ -1,9 +1,15 @@
 package hu.baumannr.personregistryapi.persistence.repository;
 
 import hu.baumannr.personregistryapi.persistence.model.ContactInfo;
+import hu.baumannr.personregistryapi.persistence.model.ContactInfoOwner;
+import hu.baumannr.personregistryapi.persistence.model.ContactInfoType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -12,5 +18,26 @@ import java.util.List;
 @Repository
 public interface ContactInfoRepository extends JpaRepository<ContactInfo, Long> {
 
-    List<ContactInfo> findByPerson_Id(Long id);
+    /**
+     * Deletes the contact infos of the given persons in a single statement, without loading them.
+     *
+     * @param personIds the IDs of the persons
+     * @return the number of deleted contact infos
+     */
+    @Modifying
+    @Query("delete from ContactInfo c where c.person.id in :personIds")
+    int deleteByPersonIds(@Param("personIds") Collection<Long> personIds);
+
+    /**
+     * Finds the contact infos with the given type and normalized value, selecting only the columns covered by the
+     * IX_ContactInfo_Type_NormalizedValue index.
+     *
+     * @param type the type of the contact info
+     * @param normalizedValue the normalized value of the contact info
+     * @return the matching contact infos with the IDs of their persons
+     */
+    @Query("select new hu.baumannr.personregistryapi.persistence.model.ContactInfoOwner(c.id, c.person.id, c.type, "
+            + "c.value) from ContactInfo c where c.type = :type and c.normalizedValue = :normalizedValue")
+    List<ContactInfoOwner> findOwners(@Param("type") ContactInfoType type,
+                                      @Param("normalizedValue") String normalizedValue);
 }
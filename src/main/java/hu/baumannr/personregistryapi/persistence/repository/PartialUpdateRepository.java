@@ -0,0 +1,57 @@
+package hu.baumannr.personregistryapi.persistence.repository;
+
+import hu.baumannr.personregistryapi.persistence.model.Person;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Blind partial updates of the person. Each one is a single UPDATE setting only the given columns, without loading
+ * the entity, dirty checking it and writing its full row. A null value leaves its column unchanged. The updates
+ * bypass the persistence context, so they have to run before the changed rows are loaded. The person is not in the
+ * second-level cache, the statement leaves the cache alone.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PartialUpdateRepository {
+
+    private final EntityManager entityManager;
+
+    /**
+     * Sets the given names of the person and increments the version of the aggregate in the same statement.
+     *
+     * @param id the ID of the person
+     * @param firstName the new first name, or null to keep it
+     * @param lastName the new last name, or null to keep it
+     * @param expectedVersion the version the change is based on, or null to update any version
+     * @param updatedAt the time of the change
+     * @return the number of updated persons, 0 if the person does not exist or has another version
+     */
+    public int updatePerson(Long id, String firstName, String lastName, Long expectedVersion,
+                            LocalDateTime updatedAt) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Person> update = cb.createCriteriaUpdate(Person.class);
+        Root<Person> person = update.from(Person.class);
+        setIfPresent(update, "firstName", firstName);
+        setIfPresent(update, "lastName", lastName);
+        Path<Long> version = person.get("version");
+        update.set(version, cb.sum(version, 1L))
+                .set("updatedAt", updatedAt)
+                .where(expectedVersion != null
+                        ? cb.and(cb.equal(person.get("id"), id), cb.equal(version, expectedVersion))
+                        : cb.equal(person.get("id"), id));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    private static void setIfPresent(CriteriaUpdate<?> update, String attribute, Object value) {
+        if (value != null) {
+            update.set(attribute, value);
+        }
+    }
+}
@@ -1,12 +1,137 @@
 package hu.baumannr.personregistryapi.persistence.repository;
 
 import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.persistence.model.PersonName;
+import hu.baumannr.personregistryapi.persistence.model.PersonVersion;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Repository for {@link Person} entity.
  */
 @Repository
-public interface PersonRepository extends JpaRepository<Person, Long> {
+public interface PersonRepository extends JpaRepository<Person, Long>, JpaSpecificationExecutor<Person> {
+
+    /**
+     * Finds the person with its addresses in a single query.
+     *
+     * @param id the ID of the person
+     * @return the person with its addresses, if found
+     */
+    @EntityGraph(Person.WITH_ADDRESSES)
+    Optional<Person> findWithAddressesById(Long id);
+
+    /**
+     * Finds the person with its contact infos in a single query.
+     *
+     * @param id the ID of the person
+     * @return the person with its contact infos, if found
+     */
+    @EntityGraph(Person.WITH_CONTACT_INFOS)
+    Optional<Person> findWithContactInfosById(Long id);
+
+    /**
+     * Finds the version of the person aggregate, selecting only its Version and UpdatedAt columns.
+     *
+     * @param id the ID of the person
+     * @return the version of the person, if found
+     */
+    Optional<PersonVersion> findVersionById(Long id);
+
+    /**
+     * Finds the names of all persons, selecting only their Id, FirstName and LastName columns.
+     *
+     * @return the names of all persons
+     */
+    @Query("select new hu.baumannr.personregistryapi.persistence.model.PersonName(p.id, p.firstName, p.lastName) "
+            + "from Person p")
+    List<PersonName> findAllNames();
+
+    /**
+     * Finds the name of the person, selecting only its Id, FirstName and LastName columns.
+     *
+     * @param id the ID of the person
+     * @return the name of the person, if found
+     */
+    @Query("select new hu.baumannr.personregistryapi.persistence.model.PersonName(p.id, p.firstName, p.lastName) "
+            + "from Person p where p.id = :id")
+    Optional<PersonName> findNameById(@Param("id") Long id);
+
+    /**
+     * Increments the version of the person aggregate and sets its last modification time, without loading the
+     * person. Called by every change of an address or contact info, it also locks the person until the change
+     * commits.
+     *
+     * @param id the ID of the person
+     * @param updatedAt the time of the change
+     * @return the number of updated persons
+     */
+    @Modifying
+    @Query("update Person p set p.version = p.version + 1, p.updatedAt = :updatedAt where p.id = :id")
+    int touch(@Param("id") Long id, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Increments the version of the person aggregate and sets its last modification time, if its version is still
+     * the given one. A stale version is rejected by this single statement, without a lock held between the read of
+     * the client and its write.
+     *
+     * @param id the ID of the person
+     * @param version the version the change is based on
+     * @param updatedAt the time of the change
+     * @return the number of updated persons, 0 if the person does not exist or has another version
+     */
+    @Modifying
+    @Query("update Person p set p.version = p.version + 1, p.updatedAt = :updatedAt "
+            + "where p.id = :id and p.version = :version")
+    int touchIfVersion(@Param("id") Long id, @Param("version") Long version,
+                       @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Finds which of the given IDs belong to a person, selecting only the IDs.
+     *
+     * @param ids the IDs to look for
+     * @return the IDs of the existing persons
+     */
+    @Query("select p.id from Person p where p.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes the given persons in a single statement, without loading them. Their addresses and contact infos
+     * have to be deleted first.
+     *
+     * @param ids the IDs of the persons
+     * @return the number of deleted persons
+     */
+    @Modifying
+    @Query("delete from Person p where p.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Seeks the persons with an ID greater than the given one, ordered by ID.
+     * Children are loaded lazily in batches when the page is converted.
+     *
+     * @param id the ID to seek after
+     * @param limit the maximum number of persons to return
+     * @return the persons following the given ID
+     */
+    List<Person> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Finds the given persons ordered by ID. Children are loaded lazily in batches when the persons are converted.
+     *
+     * @param ids the IDs of the persons
+     * @return the existing persons of the given IDs
+     */
+    List<Person> findByIdInOrderByIdAsc(Collection<Long> ids);
 }
@@ -0,0 +1,97 @@
+package hu.baumannr.personregistryapi.persistence.repository;
+
+import hu.baumannr.personregistryapi.persistence.model.Address;
+import hu.baumannr.personregistryapi.persistence.model.ContactInfo;
+import hu.baumannr.personregistryapi.persistence.model.Person;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Search filters of {@link Person}. Every filter is written so that it can be answered by an index seek: names
+ * match exactly, and the children are filtered in uncorrelated IN subqueries. These neither duplicate persons
+ * nor need a DISTINCT, and the subquery seeks the index of the child table once instead of probing it for every
+ * person as a correlated EXISTS would on databases that do not turn it into a semi join.
+ */
+public final class PersonSpecifications {
+
+    private PersonSpecifications() {
+
+    }
+
+    /**
+     * Matches the persons with an ID greater than the given one.
+     *
+     * @param id the ID to seek after
+     * @return the specification
+     */
+    public static Specification<Person> idGreaterThan(Long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    /**
+     * Matches the persons with the given first name.
+     *
+     * @param firstName the first name
+     * @return the specification
+     */
+    public static Specification<Person> hasFirstName(String firstName) {
+        return (root, query, cb) -> cb.equal(root.get("firstName"), firstName);
+    }
+
+    /**
+     * Matches the persons with the given last name.
+     *
+     * @param lastName the last name
+     * @return the specification
+     */
+    public static Specification<Person> hasLastName(String lastName) {
+        return (root, query, cb) -> cb.equal(root.get("lastName"), lastName);
+    }
+
+    /**
+     * Matches the persons having an address with all the given values. Null values are not filtered on.
+     *
+     * @param country the country of the address
+     * @param city the city of the address
+     * @param zip the zip code of the address
+     * @return the specification
+     */
+    public static Specification<Person> hasAddress(String country, String city, String zip) {
+        return (root, query, cb) -> {
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<Address> address = subquery.from(Address.class);
+            List<Predicate> predicates = new ArrayList<>();
+            if (country != null) {
+                predicates.add(cb.equal(address.get("country"), country));
+            }
+            if (city != null) {
+                predicates.add(cb.equal(address.get("city"), city));
+            }
+            if (zip != null) {
+                predicates.add(cb.equal(address.get("zip"), zip));
+            }
+            return root.get("id").in(subquery.select(address.get("person").get("id"))
+                    .where(predicates.toArray(Predicate[]::new)));
+        };
+    }
+
+    /**
+     * Matches the persons having a contact info with the given value.
+     *
+     * @param value the value of the contact info
+     * @return the specification
+     */
+    public static Specification<Person> hasContactValue(String value) {
+        return (root, query, cb) -> {
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<ContactInfo> contactInfo = subquery.from(ContactInfo.class);
+            return root.get("id").in(subquery.select(contactInfo.get("person").get("id"))
+                    .where(cb.equal(contactInfo.get("value"), value)));
+        };
+    }
+}
@@ -0,0 +1,182 @@
+package hu.baumannr.personregistryapi.persistence.repository;
+
+import hu.baumannr.personregistryapi.persistence.model.Address;
+import hu.baumannr.personregistryapi.persistence.model.AddressType;
+import hu.baumannr.personregistryapi.persistence.model.ContactInfo;
+import hu.baumannr.personregistryapi.persistence.model.ContactInfoType;
+import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.persistence.model.PersonVersion;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking reads of the person aggregate through R2DBC, used by the reactive deployment. The rows are mapped to
+ * the JPA entities, so the reactive stack converts them to the API models with the same mappers as the servlet one.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePersonRepository {
+
+    private static final String SELECT_PERSON =
+            "SELECT Id, FirstName, LastName, CreatedAt, UpdatedAt, Version FROM Person";
+
+    private static final String SELECT_ADDRESS =
+            "SELECT Id, PersonId, Type, Country, City, Zip, Street, CreatedAt, UpdatedAt FROM Address";
+
+    private static final String SELECT_CONTACT_INFO =
+            "SELECT Id, PersonId, Type, ContactValue, NormalizedValue, CreatedAt, UpdatedAt FROM ContactInfo";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Finds the person with its addresses and contact infos.
+     *
+     * @param id the ID of the person
+     * @return the person with its children, or empty if not found
+     */
+    public Mono<Person> findWithChildrenById(Long id) {
+        return databaseClient.sql(SELECT_PERSON + " WHERE Id = :id")
+                .bind("id", id)
+                .map(ReactivePersonRepository::toPerson)
+                .one()
+                .flatMap(person -> withChildren(List.of(person)))
+                .map(persons -> persons.get(0));
+    }
+
+    /**
+     * Finds the persons with an ID greater than the given one, ordered by ID, with their addresses and contact infos.
+     *
+     * @param id the ID to seek after
+     * @param limit the maximum number of persons
+     * @return the persons with their children
+     */
+    public Mono<List<Person>> findWithChildrenByIdGreaterThan(Long id, int limit) {
+        return databaseClient.sql(SELECT_PERSON
+                        + " WHERE Id > :id ORDER BY Id OFFSET 0 ROWS FETCH NEXT :limit ROWS ONLY")
+                .bind("id", id)
+                .bind("limit", limit)
+                .map(ReactivePersonRepository::toPerson)
+                .all()
+                .collectList()
+                .flatMap(this::withChildren);
+    }
+
+    /**
+     * Finds the version of the person aggregate, selecting only its Version and UpdatedAt columns.
+     *
+     * @param id the ID of the person
+     * @return the version of the person, or empty if not found
+     */
+    public Mono<PersonVersion> findVersionById(Long id) {
+        return databaseClient.sql("SELECT Version, UpdatedAt FROM Person WHERE Id = :id")
+                .bind("id", id)
+                .map(row -> new PersonVersion(row.get("Version", Long.class),
+                        row.get("UpdatedAt", LocalDateTime.class)))
+                .one();
+    }
+
+    /**
+     * Streams the addresses of the given person ordered by ID.
+     *
+     * @param personId the ID of the person
+     * @return the addresses
+     */
+    public Flux<Address> findAddressesByPersonId(Long personId) {
+        return databaseClient.sql(SELECT_ADDRESS + " WHERE PersonId = :personId ORDER BY Id")
+                .bind("personId", personId)
+                .map(row -> toAddress(row, null))
+                .all();
+    }
+
+    /**
+     * Streams the contact infos of the given person ordered by ID.
+     *
+     * @param personId the ID of the person
+     * @return the contact infos
+     */
+    public Flux<ContactInfo> findContactInfosByPersonId(Long personId) {
+        return databaseClient.sql(SELECT_CONTACT_INFO + " WHERE PersonId = :personId ORDER BY Id")
+                .bind("personId", personId)
+                .map(row -> toContactInfo(row, null))
+                .all();
+    }
+
+    /**
+     * Loads the children of all the given persons in one query per child table, the two queries running concurrently.
+     */
+    private Mono<List<Person>> withChildren(List<Person> persons) {
+        if (persons.isEmpty()) {
+            return Mono.just(persons);
+        }
+        Map<Long, Person> personsById = persons.stream()
+                .collect(Collectors.toMap(Person::getId, Function.identity()));
+        persons.forEach(person -> {
+            person.setAddresses(new LinkedHashSet<>());
+            person.setContactInfos(new LinkedHashSet<>());
+        });
+
+        Flux<Address> addresses = databaseClient.sql(SELECT_ADDRESS + " WHERE PersonId IN (:personIds) ORDER BY Id")
+                .bind("personIds", personsById.keySet())
+                .map(row -> toAddress(row, personsById.get(row.get("PersonId", Long.class))))
+                .all()
+                .doOnNext(address -> address.getPerson().getAddresses().add(address));
+        Flux<ContactInfo> contactInfos = databaseClient.sql(SELECT_CONTACT_INFO
+                        + " WHERE PersonId IN (:personIds) ORDER BY Id")
+                .bind("personIds", personsById.keySet())
+                .map(row -> toContactInfo(row, personsById.get(row.get("PersonId", Long.class))))
+                .all()
+                .doOnNext(contactInfo -> contactInfo.getPerson().getContactInfos().add(contactInfo));
+        return Mono.when(addresses, contactInfos)
+                .thenReturn(persons);
+    }
+
+    private static Person toPerson(Readable row) {
+        Person person = new Person();
+        person.setId(row.get("Id", Long.class));
+        person.setFirstName(row.get("FirstName", String.class));
+        person.setLastName(row.get("LastName", String.class));
+        person.setCreatedAt(row.get("CreatedAt", LocalDateTime.class));
+        person.setUpdatedAt(row.get("UpdatedAt", LocalDateTime.class));
+        person.setVersion(row.get("Version", Long.class));
+        return person;
+    }
+
+    private static Address toAddress(Readable row, Person person) {
+        Address address = new Address();
+        address.setId(row.get("Id", Long.class));
+        address.setType(AddressType.valueOf(row.get("Type", String.class)));
+        address.setCountry(row.get("Country", String.class));
+        address.setCity(row.get("City", String.class));
+        address.setZip(row.get("Zip", String.class));
+        address.setStreet(row.get("Street", String.class));
+        address.setCreatedAt(row.get("CreatedAt", LocalDateTime.class));
+        address.setUpdatedAt(row.get("UpdatedAt", LocalDateTime.class));
+        address.setPerson(person);
+        return address;
+    }
+
+    private static ContactInfo toContactInfo(Readable row, Person person) {
+        ContactInfo contactInfo = new ContactInfo();
+        contactInfo.setId(row.get("Id", Long.class));
+        contactInfo.setType(ContactInfoType.valueOf(row.get("Type", String.class)));
+        contactInfo.setValue(row.get("ContactValue", String.class));
+        contactInfo.setNormalizedValue(row.get("NormalizedValue", String.class));
+        contactInfo.setCreatedAt(row.get("CreatedAt", LocalDateTime.class));
+        contactInfo.setUpdatedAt(row.get("UpdatedAt", LocalDateTime.class));
+        contactInfo.setPerson(person);
+        return contactInfo;
+    }
+}
@@ -0,0 +1,82 @@
+package hu.baumannr.personregistryapi.persistence.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Routes the read-only transactions to the replica and everything else, the writes, the work outside of a
+ * transaction and the migrations, to the primary. A request marked with {@link #PRIMARY_READS_ATTRIBUTE} reads from
+ * the primary as well, so a client sees its own writes before the replica catches up, and so do the reads run by
+ * {@link #readFromPrimary(Callable)}.
+ * <p>
+ * The key is determined when the connection is obtained, so the data source has to be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the JPA transaction asks for its
+ * connection before it is marked read-only, the proxy defers it to the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Request attribute sending the read-only transactions of the request to the primary.
+     */
+    public static final String PRIMARY_READS_ATTRIBUTE = ReadWriteRoutingDataSource.class.getName() + ".primary";
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    /**
+     * Creates the routing between the given data sources.
+     *
+     * @param primary the data source of the primary database
+     * @param replica the data source of the readable secondary
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Runs the given reads on the primary, whatever the request. Without a replica the reads run as they are.
+     *
+     * @param reads the reads
+     * @return the result of the reads
+     * @param <T> the type of the result
+     * @throws Exception if the reads fail
+     */
+    public static <T> T readFromPrimary(Callable<T> reads) throws Exception {
+        boolean nested = PRIMARY_READS.get() != null;
+        PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            return reads.call();
+        } finally {
+            if (! nested) {
+                PRIMARY_READS.remove();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && ! readsFromPrimary()
+                ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    private static boolean readsFromPrimary() {
+        if (PRIMARY_READS.get() != null) {
+            return true;
+        }
+        // Read from the request itself, the attributes of an async request are no longer active on the pool thread
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes requestAttributes
+                && requestAttributes.getRequest().getAttribute(PRIMARY_READS_ATTRIBUTE) != null;
+    }
+
+    private enum Target {
+        PRIMARY,
+        REPLICA
+    }
+}
@@ -0,0 +1,72 @@
+package hu.baumannr.personregistryapi.persistence.routing;
+
+/**
+ * The shard the current thread works on. The shard of an ID is encoded in its high bits: the sequence values of shard
+ * 0 are used as they are, so the database of an unsharded deployment becomes shard 0 with all its IDs unchanged.
+ * Work without a shard runs on shard 0.
+ */
+public final class ShardContext {
+
+    /**
+     * Maximum number of shards, the shard of an ID takes the bits above {@link #SHARD_SHIFT}.
+     */
+    public static final int MAX_SHARDS = 1 << 15;
+
+    private static final int SHARD_SHIFT = 48;
+
+    private static final long VALUE_MASK = (1L << SHARD_SHIFT) - 1;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+
+    }
+
+    /**
+     * Returns the shard of the current thread.
+     *
+     * @return the shard, or null if none is bound
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds the shard to the current thread. The statements of a transaction go to the shard bound when its first
+     * statement runs.
+     *
+     * @param shard the shard, or null to unbind it
+     */
+    public static void set(Integer shard) {
+        if (shard != null) {
+            CURRENT.set(shard);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Returns the shard owning the given ID.
+     *
+     * @param id the ID generated on a shard
+     * @return the shard encoded in the ID, 0 for the IDs of shard 0 and for negative IDs
+     */
+    public static int shardOf(long id) {
+        return id < 0 ? 0 : (int) (id >>> SHARD_SHIFT);
+    }
+
+    /**
+     * Encodes the shard into a sequence value of the shard.
+     *
+     * @param value the sequence value
+     * @param shard the shard the value was generated on
+     * @return the ID
+     * @throws IllegalStateException if the value does not fit next to the shard
+     */
+    static long encode(long value, int shard) {
+        if ((value & ~VALUE_MASK) != 0) {
+            throw new IllegalStateException("Sequence value " + value + " of shard " + shard + " is out of range");
+        }
+        return (long) shard << SHARD_SHIFT | value;
+    }
+}
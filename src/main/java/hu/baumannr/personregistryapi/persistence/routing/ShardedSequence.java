@@ -0,0 +1,32 @@
+package hu.baumannr.personregistryapi.persistence.routing;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates the identifier from a database sequence of the shard the entity is inserted into, with the shard
+ * encoded in it, see {@link ShardedSequenceGenerator}.
+ */
+@IdGeneratorType(ShardedSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface ShardedSequence {
+
+    /**
+     * The name of the sequence.
+     *
+     * @return the name of the sequence
+     */
+    String name();
+
+    /**
+     * The increment of the sequence, the number of identifiers allocated by one call.
+     *
+     * @return the increment of the sequence
+     */
+    int allocationSize() default 50;
+}
@@ -0,0 +1,73 @@
+package hu.baumannr.personregistryapi.persistence.routing;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.OptimizerDescriptor;
+import org.hibernate.id.enhanced.OptimizerFactory;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sequence generator of the sharded entities. Every shard has its own sequence, so the optimizer, of the type and
+ * size of the standard one, is kept per shard: a block allocated from the sequence of one shard is never used on
+ * another. The value is encoded with the shard the entity is inserted into. Shard 0, the only one of an unsharded
+ * deployment, runs the standard generator.
+ */
+public class ShardedSequenceGenerator extends SequenceStyleGenerator {
+
+    private final ShardedSequence config;
+
+    private final Map<Integer, Optimizer> optimizers = new ConcurrentHashMap<>();
+
+    private OptimizerDescriptor optimizerDescriptor;
+
+    private int initialValue;
+
+    /**
+     * Creates the generator of the annotated identifier.
+     *
+     * @param config the annotation of the identifier
+     */
+    public ShardedSequenceGenerator(ShardedSequence config) {
+        this.config = config;
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        parameters.put(SEQUENCE_PARAM, config.name());
+        parameters.put(INCREMENT_PARAM, String.valueOf(config.allocationSize()));
+        super.configure(type, parameters, serviceRegistry);
+    }
+
+    @Override
+    protected OptimizerDescriptor determineOptimizationStrategy(Properties parameters, int incrementSize) {
+        optimizerDescriptor = super.determineOptimizationStrategy(parameters, incrementSize);
+        return optimizerDescriptor;
+    }
+
+    @Override
+    protected int determineInitialValue(Properties parameters) {
+        initialValue = super.determineInitialValue(parameters);
+        return initialValue;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        Integer shard = ShardContext.current();
+        if (shard == null || shard == 0) {
+            return super.generate(session, object);
+        }
+        Optimizer optimizer = optimizers.computeIfAbsent(shard, key -> OptimizerFactory.buildOptimizer(
+                optimizerDescriptor, getIdentifierType().getReturnedClass(), getOptimizer().getIncrementSize(),
+                initialValue));
+        // The callback queries the sequence on the connection of the session, the one of the bound shard
+        Number value = (Number) optimizer.generate(getDatabaseStructure().buildCallback(session));
+        return ShardContext.encode(value.longValue(), shard);
+    }
+}
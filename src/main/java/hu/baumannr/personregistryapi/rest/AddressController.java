@@ -1,17 +1,22 @@
 package hu.baumannr.personregistryapi.rest;
 
+import hu.baumannr.personregistryapi.persistence.model.PersonVersion;
 import hu.baumannr.personregistryapi.rest.model.AddressCreateRequest;
 import hu.baumannr.personregistryapi.rest.model.AddressResponse;
 import hu.baumannr.personregistryapi.rest.model.AddressUpdateRequest;
 import hu.baumannr.personregistryapi.service.AddressService;
+import hu.baumannr.personregistryapi.service.PersonService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.net.URI;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST controller for managing addresses.
@@ -19,44 +24,83 @@ import java.util.List;
 @RestController
 @RequestMapping("/api")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Slf4j
 public class AddressController implements AddressApi {
 
     private final AddressService addressService;
 
+    private final PersonService personService;
+
+    private final HttpServletRequest request;
+
+    private final RequestExecutor requestExecutor;
+
     @Override
-    public ResponseEntity<List<AddressResponse>> getAddressesForPerson(Long personId) {
+    public CompletableFuture<ResponseEntity<List<AddressResponse>>> getAddressesForPerson(Long personId) {
         log.info("GET /persons/{personId}/addresses called, personId: {}", personId);
-        List<AddressResponse> response = addressService.getAddressesForPerson(personId);
-        log.info("{} addresses found for person, personId: {}", response.size(), personId);
-        return ResponseEntity.ok(response);
+        return requestExecutor.submit(() -> {
+            PersonVersion version = personService.getPersonVersion(personId);
+            if (ConditionalResponses.isNotModified(request, version)) {
+                log.info("Addresses not modified, personId: {}, version: {}", personId, version.version());
+                return ConditionalResponses.notModified(version);
+            }
+
+            List<AddressResponse> response = addressService.getAddressesForPerson(personId);
+            log.info("{} addresses found for person, personId: {}", response.size(), personId);
+            // The version was read first, so the list is at least as new as the validators sent with it
+            return ConditionalResponses.ok(response, version);
+        });
     }
 
     @Override
-    public ResponseEntity<AddressResponse> addAddress(Long personId, AddressCreateRequest addressCreateRequest) {
+    public CompletableFuture<ResponseEntity<AddressResponse>> addAddress(Long personId,
+                                                                         AddressCreateRequest addressCreateRequest) {
         log.info("POST /persons/{personId}/addresses called, personId: {}", personId);
-        AddressResponse response = addressService.addAddress(personId, addressCreateRequest);
-        log.info("Address created, addressId: {}, personId: {}", response.getId(), personId);
-        URI location = URI.create("/persons/" + personId + "/addresses/" + response.getId());
-        return ResponseEntity.created(location)
-                .body(response);
+        return requestExecutor.submit(() -> {
+            Long expectedVersion = ConditionalResponses.ifMatchVersion(request);
+            AddressResponse response = addressService.addAddress(personId, addressCreateRequest, expectedVersion);
+            log.info("Address created, addressId: {}, personId: {}", response.getId(), personId);
+            URI location = URI.create("/persons/" + personId + "/addresses/" + response.getId());
+            return ResponseEntity.created(location)
+                    .body(response);
+        });
     }
 
     @Override
-    public ResponseEntity<AddressResponse> updateAddress(Long personId,
-                                                         Long addressId,
-                                                         AddressUpdateRequest addressUpdateRequest) {
+    public CompletableFuture<ResponseEntity<AddressResponse>> updateAddress(Long personId,
+                                                                            Long addressId,
+                                                                            AddressUpdateRequest addressUpdateRequest) {
         log.info("PUT /persons/{personId}/addresses/{addressId}");
-        AddressResponse response = addressService.updateAddress(personId, addressId, addressUpdateRequest);
-        log.info("Address updated, addressId: {}, personId: {}", addressId, personId);
-        return ResponseEntity.ok(response);
+        return requestExecutor.submit(() -> {
+            Long expectedVersion = ConditionalResponses.ifMatchVersion(request);
+            AddressResponse response = addressService.updateAddress(personId, addressId, addressUpdateRequest,
+                    expectedVersion);
+            log.info("Address updated, addressId: {}, personId: {}", addressId, personId);
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<Void>> patchAddress(Long personId, Long addressId,
+                                                                AddressUpdateRequest addressUpdateRequest) {
+        log.info("PATCH /persons/{personId}/addresses/{addressId}");
+        return requestExecutor.submit(() -> {
+            Long expectedVersion = ConditionalResponses.ifMatchVersion(request);
+            addressService.patchAddress(personId, addressId, addressUpdateRequest, expectedVersion);
+            log.info("Address patched, addressId: {}, personId: {}", addressId, personId);
+            return ResponseEntity.noContent().build();
+        });
     }
 
     @Override
-    public ResponseEntity<Void> deleteAddress(Long personId, Long addressId) {
+    public CompletableFuture<ResponseEntity<Void>> deleteAddress(Long personId, Long addressId) {
         log.info("DELETE /persons/{personId}/addresses/{addressId}");
-        addressService.deleteAddress(personId, addressId);
-        log.info("Address deleted, addressId: {}, personId: {}", addressId, personId);
-        return ResponseEntity.noContent().build();
+        return requestExecutor.submit(() -> {
+            Long expectedVersion = ConditionalResponses.ifMatchVersion(request);
+            addressService.deleteAddress(personId, addressId, expectedVersion);
+            log.info("Address deleted, addressId: {}, personId: {}", addressId, personId);
+            return ResponseEntity.noContent().build();
+        });
     }
 }
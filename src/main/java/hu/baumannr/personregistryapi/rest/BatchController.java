@@ -0,0 +1,59 @@
+package hu.baumannr.personregistryapi.rest;
+
+import hu.baumannr.personregistryapi.rest.model.PersonBatchResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonBulkDeleteRequest;
+import hu.baumannr.personregistryapi.rest.model.PersonBulkDeleteResponse;
+import hu.baumannr.personregistryapi.service.PersonBatchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * REST controller for creating and deleting persons in bulk. A batch creation streams the request body, so it is
+ * served on the servlet thread that reads it, whether or not the request executor is asynchronous. A bulk delete
+ * has a bounded body and goes through the request executor like the other endpoints.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BatchController implements BatchApi {
+
+    private final PersonBatchService personBatchService;
+
+    private final RequestExecutor requestExecutor;
+
+    @Override
+    public CompletableFuture<ResponseEntity<PersonBatchResponse>> createPersonsBatch(InputStreamResource body) {
+        log.info("POST /persons:batch called");
+        try (InputStream inputStream = body.getInputStream()) {
+            PersonBatchResponse response = personBatchService.createPersons(inputStream);
+            log.info("Persons batch processed, created: {}, failed: {}", response.getCreated(), response.getFailed());
+            return CompletableFuture.completedFuture(ResponseEntity.ok(response));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<PersonBulkDeleteResponse>> deletePersonsBulk(
+            PersonBulkDeleteRequest personBulkDeleteRequest) {
+        log.info("POST /persons:bulkDelete called, IDs: {}", personBulkDeleteRequest.getIds().size());
+        return requestExecutor.submit(() -> {
+            PersonBulkDeleteResponse response = personBatchService.deletePersons(personBulkDeleteRequest.getIds());
+            log.info("Persons bulk deleted, deleted: {}, not found: {}", response.getDeleted(),
+                    response.getNotFound().size());
+            return ResponseEntity.ok(response);
+        });
+    }
+}
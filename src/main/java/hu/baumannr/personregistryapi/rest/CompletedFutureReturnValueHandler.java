@@ -0,0 +1,94 @@
+package hu.baumannr.personregistryapi.rest;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Handles a future returned by a controller that is already completed as if the controller returned its value. Spring
+ * MVC starts asynchronous processing and dispatches the request a second time for every future, which only pays off
+ * when the work runs on another thread. With the synchronous request executor every future is completed on return,
+ * so the response is written on the servlet thread right away.
+ */
+public class CompletedFutureReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+    private final HandlerMethodReturnValueHandlerComposite delegates = new HandlerMethodReturnValueHandlerComposite();
+
+    /**
+     * Creates the handler.
+     *
+     * @param delegates the handlers of the completed value and of the futures still running
+     */
+    public CompletedFutureReturnValueHandler(List<HandlerMethodReturnValueHandler> delegates) {
+        this.delegates.addHandlers(delegates);
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return CompletableFuture.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest) throws Exception {
+        if (!(returnValue instanceof CompletableFuture<?> future) || !future.isDone()) {
+            delegates.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+            return;
+        }
+
+        Object value;
+        try {
+            value = future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        delegates.handleReturnValue(value, new CompletedValueParameter(returnType, value), mavContainer, webRequest);
+    }
+
+    /**
+     * The return type of the controller method with the future unwrapped, so the handlers of the value resolve its
+     * generic type as for a method returning the value.
+     */
+    private static final class CompletedValueParameter extends MethodParameter {
+
+        private final Object value;
+
+        private final ResolvableType valueType;
+
+        private CompletedValueParameter(MethodParameter returnType, Object value) {
+            this(returnType, value, ResolvableType.forMethodParameter(returnType).getGeneric());
+        }
+
+        private CompletedValueParameter(MethodParameter original, Object value, ResolvableType valueType) {
+            super(original);
+            this.value = value;
+            this.valueType = valueType;
+        }
+
+        @Override
+        public Class<?> getParameterType() {
+            return value != null ? value.getClass() : valueType.toClass();
+        }
+
+        @Override
+        public Type getGenericParameterType() {
+            return valueType.getType();
+        }
+
+        @Override
+        public CompletedValueParameter clone() {
+            return new CompletedValueParameter(this, value, valueType);
+        }
+    }
+}
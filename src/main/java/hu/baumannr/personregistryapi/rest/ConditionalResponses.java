@@ -0,0 +1,147 @@
+package hu.baumannr.personregistryapi.rest;
+
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import hu.baumannr.personregistryapi.persistence.model.PersonVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServletServerHttpRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.INVALID_IF_MATCH;
+
+/**
+ * Builds the ETag and Last-Modified validators of the person aggregate and the responses carrying them. Shared by
+ * the servlet and the reactive controllers.
+ */
+public final class ConditionalResponses {
+
+    private static final Pattern STRONG_ETAG = Pattern.compile("\"(\\d{1,18})-\\d+\"");
+
+    private ConditionalResponses() {
+
+    }
+
+    /**
+     * Returns the strong ETag of the given aggregate version. The modification time is part of it, so a version
+     * reset by hand in the database does not reproduce an earlier tag.
+     *
+     * @param version the version of the aggregate
+     * @param updatedAt the time of the last change of the aggregate
+     * @return the quoted ETag
+     */
+    public static String eTag(Long version, LocalDateTime updatedAt) {
+        return "\"" + version + "-" + lastModified(updatedAt) + "\"";
+    }
+
+    /**
+     * Returns the strong ETag of the given aggregate version.
+     *
+     * @param version the version of the aggregate
+     * @return the quoted ETag
+     */
+    public static String eTag(PersonVersion version) {
+        return eTag(version.version(), version.updatedAt());
+    }
+
+    /**
+     * Converts the modification time stored in the server's time zone to epoch milliseconds.
+     *
+     * @param updatedAt the time of the last change of the aggregate
+     * @return the epoch milliseconds
+     */
+    public static long lastModified(LocalDateTime updatedAt) {
+        return updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Evaluates If-None-Match, or when it is missing If-Modified-Since, of the given GET request against the given
+     * version. Spring's own evaluation after the handler needs the body, this one runs before it is loaded.
+     *
+     * @param request the GET request
+     * @param version the current version of the aggregate
+     * @return true if the client holds the current version
+     */
+    public static boolean isNotModified(HttpServletRequest request, PersonVersion version) {
+        return isNotModified(new ServletServerHttpRequest(request).getHeaders(), version);
+    }
+
+    /**
+     * Evaluates If-None-Match, or when it is missing If-Modified-Since, of the given GET request headers against the
+     * given version.
+     *
+     * @param headers the headers of the GET request
+     * @param version the current version of the aggregate
+     * @return true if the client holds the current version
+     */
+    public static boolean isNotModified(HttpHeaders headers, PersonVersion version) {
+        List<String> ifNoneMatch = headers.getIfNoneMatch();
+        if (! ifNoneMatch.isEmpty()) {
+            String eTag = eTag(version);
+            // Weak comparison, as required for If-None-Match
+            return ifNoneMatch.stream()
+                    .anyMatch(tag -> tag.equals("*") || tag.replaceFirst("^W/", "").equals(eTag));
+        }
+
+        long ifModifiedSince = headers.getIfModifiedSince();
+        // HTTP dates have a precision of seconds
+        return ifModifiedSince != -1 && lastModified(version.updatedAt()) / 1000 * 1000 <= ifModifiedSince;
+    }
+
+    /**
+     * Returns the aggregate version the given write request is conditional on, taken from its If-Match header. Only
+     * the version part of the ETag is returned, the services compare it in the statement that writes the aggregate.
+     *
+     * @param request the write request
+     * @return the expected version, or null if the header is missing or is *
+     * @throws PersonApiException with 412 if the header does not hold a single strong ETag of the aggregate, which
+     * no version can match
+     */
+    public static Long ifMatchVersion(HttpServletRequest request) {
+        List<String> ifMatch = new ServletServerHttpRequest(request).getHeaders().getIfMatch();
+        if (ifMatch.isEmpty() || ifMatch.contains("*")) {
+            return null;
+        }
+        Matcher matcher = STRONG_ETAG.matcher(ifMatch.get(0));
+        if (ifMatch.size() > 1 || ! matcher.matches()) {
+            throw new PersonApiException(HttpStatus.PRECONDITION_FAILED,
+                    String.format(INVALID_IF_MATCH, String.join(", ", ifMatch)));
+        }
+        return Long.valueOf(matcher.group(1));
+    }
+
+    /**
+     * Returns a 304 response without a body.
+     *
+     * @param version the version of the aggregate
+     * @return the response
+     * @param <T> the type of the body the response would have had
+     */
+    public static <T> ResponseEntity<T> notModified(PersonVersion version) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag(version))
+                .lastModified(lastModified(version.updatedAt()))
+                .build();
+    }
+
+    /**
+     * Returns a 200 response with the validators of the given version.
+     *
+     * @param body the body of the response
+     * @param version the version of the aggregate the body was read at or after
+     * @return the response
+     * @param <T> the type of the body
+     */
+    public static <T> ResponseEntity<T> ok(T body, PersonVersion version) {
+        return ResponseEntity.ok()
+                .eTag(eTag(version))
+                .lastModified(lastModified(version.updatedAt()))
+                .body(body);
+    }
+}
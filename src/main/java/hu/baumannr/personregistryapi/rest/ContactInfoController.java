@@ -1,17 +1,23 @@
 package hu.baumannr.personregistryapi.rest;
 
+import hu.baumannr.personregistryapi.persistence.model.PersonVersion;
 import hu.baumannr.personregistryapi.rest.model.ContactInfoCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoLookupResponse;
 import hu.baumannr.personregistryapi.rest.model.ContactInfoResponse;
 import hu.baumannr.personregistryapi.rest.model.ContactInfoUpdateRequest;
 import hu.baumannr.personregistryapi.service.ContactInfoService;
+import hu.baumannr.personregistryapi.service.PersonService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.net.URI;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST controller for managing contact information.
@@ -20,44 +26,93 @@ import java.util.List;
 @RestController
 @RequestMapping("/api")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ContactInfoController implements ContactInfoApi {
 
     private final ContactInfoService contactInfoService;
 
+    private final PersonService personService;
+
+    private final HttpServletRequest request;
+
+    private final RequestExecutor requestExecutor;
+
     @Override
-    public ResponseEntity<List<ContactInfoResponse>> getContactInfosForPerson(Long personId) {
+    public CompletableFuture<ResponseEntity<List<ContactInfoResponse>>> getContactInfosForPerson(Long personId) {
         log.info("GET /persons/{personId}/contactInfos called, personId: {}", personId);
-        List<ContactInfoResponse> response = contactInfoService.getContactInfosForPerson(personId);
-        log.info("{} contact information found for person, personId: {}", response.size(), personId);
-        return ResponseEntity.ok(response);
+        return requestExecutor.submit(() -> {
+            PersonVersion version = personService.getPersonVersion(personId);
+            if (ConditionalResponses.isNotModified(request, version)) {
+                log.info("Contact infos not modified, personId: {}, version: {}", personId, version.version());
+                return ConditionalResponses.notModified(version);
+            }
+
+            List<ContactInfoResponse> response = contactInfoService.getContactInfosForPerson(personId);
+            log.info("{} contact information found for person, personId: {}", response.size(), personId);
+            // The version was read first, so the list is at least as new as the validators sent with it
+            return ConditionalResponses.ok(response, version);
+        });
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<List<ContactInfoLookupResponse>>> lookupContactInfos(String type,
+                                                                                                 String value) {
+        log.info("GET /contactInfos/lookup called, type: {}", type);
+        return requestExecutor.submit(() -> {
+            List<ContactInfoLookupResponse> response = contactInfoService.lookupContactInfos(type, value);
+            log.info("{} contact information found, type: {}", response.size(), type);
+            return ResponseEntity.ok(response);
+        });
     }
 
     @Override
-    public ResponseEntity<ContactInfoResponse> addContactInfo(Long personId,
-                                                              ContactInfoCreateRequest contactInfoCreateRequest) {
+    public CompletableFuture<ResponseEntity<ContactInfoResponse>> addContactInfo(
+            Long personId, ContactInfoCreateRequest contactInfoCreateRequest) {
         log.info("POST /persons/{personId}/contactInfos called, personId: {}", personId);
-        ContactInfoResponse response = contactInfoService.addContactInfo(personId, contactInfoCreateRequest);
-        log.info("Contact information created, contactInfoId: {}, personId: {}", response.getId(), personId);
-        URI location = URI.create("/persons/" + personId + "/contactInfos/" + response.getId());
-        return ResponseEntity.created(location)
-                .body(response);
+        return requestExecutor.submit(() -> {
+            Long expectedVersion = ConditionalResponses.ifMatchVersion(request);
+            ContactInfoResponse response = contactInfoService.addContactInfo(personId, contactInfoCreateRequest,
+                    expectedVersion);
+            log.info("Contact information created, contactInfoId: {}, personId: {}", response.getId(), personId);
+            URI location = URI.create("/persons/" + personId + "/contactInfos/" + response.getId());
+            return ResponseEntity.created(location)
+                    .body(response);
+        });
     }
 
     @Override
-    public ResponseEntity<ContactInfoResponse> updateContactInfo(Long personId,
-                                                                 Long contactInfoId,
-                                                                 ContactInfoUpdateRequest request) {
+    public CompletableFuture<ResponseEntity<ContactInfoResponse>> updateContactInfo(
+            Long personId, Long contactInfoId, ContactInfoUpdateRequest contactInfoUpdateRequest) {
         log.info("PUT /persons/{personId}/contactInfos/{contactInfoId}");
-        ContactInfoResponse response = contactInfoService.updateContactInfo(personId, contactInfoId, request);
-        log.info("Contact information updated, contactInfoId: {}, personId: {}", contactInfoId, personId);
-        return ResponseEntity.ok(response);
+        return requestExecutor.submit(() -> {
+            Long expectedVersion = ConditionalResponses.ifMatchVersion(request);
+            ContactInfoResponse response = contactInfoService.updateContactInfo(personId, contactInfoId,
+                    contactInfoUpdateRequest, expectedVersion);
+            log.info("Contact information updated, contactInfoId: {}, personId: {}", contactInfoId, personId);
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<Void>> patchContactInfo(Long personId, Long contactInfoId,
+                                                                    ContactInfoUpdateRequest contactInfoUpdateRequest) {
+        log.info("PATCH /persons/{personId}/contactInfos/{contactInfoId}");
+        return requestExecutor.submit(() -> {
+            Long expectedVersion = ConditionalResponses.ifMatchVersion(request);
+            contactInfoService.patchContactInfo(personId, contactInfoId, contactInfoUpdateRequest, expectedVersion);
+            log.info("Contact information patched, contactInfoId: {}, personId: {}", contactInfoId, personId);
+            return ResponseEntity.noContent().build();
+        });
     }
 
     @Override
-    public ResponseEntity<Void> deleteContactInfo(Long personId, Long contactInfoId) {
+    public CompletableFuture<ResponseEntity<Void>> deleteContactInfo(Long personId, Long contactInfoId) {
         log.info("DELETE /persons/{personId}/contactInfos/{contactInfoId}");
-        contactInfoService.deleteContactInfo(personId, contactInfoId);
-        log.info("Contact information deleted, contactInfoId: {}, personId: {}", contactInfoId, personId);
-        return ResponseEntity.noContent().build();
+        return requestExecutor.submit(() -> {
+            Long expectedVersion = ConditionalResponses.ifMatchVersion(request);
+            contactInfoService.deleteContactInfo(personId, contactInfoId, expectedVersion);
+            log.info("Contact information deleted, contactInfoId: {}, personId: {}", contactInfoId, personId);
+            return ResponseEntity.noContent().build();
+        });
     }
 }
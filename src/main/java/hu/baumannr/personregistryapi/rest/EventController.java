@@ -0,0 +1,76 @@
+package hu.baumannr.personregistryapi.rest;
+
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import hu.baumannr.personregistryapi.rest.model.ChangeEventResponse;
+import hu.baumannr.personregistryapi.service.ChangeEventRelay;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.INVALID_LAST_EVENT_ID;
+
+/**
+ * REST controller streaming the changes of the registry as Server-Sent Events. The events are written by the
+ * sender threads of the relay, so an open stream holds neither a servlet thread nor a thread of the request
+ * executor.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class EventController implements EventApi {
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private final ChangeEventRelay changeEventRelay;
+
+    private final HttpServletRequest request;
+
+    @Override
+    public CompletableFuture<ResponseEntity<SseEmitter>> streamChangeEvents() {
+        Long lastPosition = lastPosition(request.getHeader(LAST_EVENT_ID));
+        log.info("GET /events called, lastEventId: {}", lastPosition);
+
+        SseEmitter emitter = new SseEmitter(changeEventRelay.getStreamTimeout().toMillis());
+        ChangeEventRelay.Subscription subscription = changeEventRelay.subscribe(lastPosition,
+                events -> send(emitter, events));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return CompletableFuture.completedFuture(ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(emitter));
+    }
+
+    private static void send(SseEmitter emitter, List<ChangeEventResponse> events) throws IOException {
+        for (ChangeEventResponse event : events) {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.getPosition()))
+                    .name(event.getType().getValue())
+                    .data(event, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private static Long lastPosition(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.strip());
+        } catch (NumberFormatException e) {
+            throw new PersonApiException(HttpStatus.BAD_REQUEST, String.format(INVALID_LAST_EVENT_ID, lastEventId));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package hu.baumannr.personregistryapi.rest;
+
+import hu.baumannr.personregistryapi.service.ExportFormat;
+import hu.baumannr.personregistryapi.service.PersonExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * REST controller for exporting the registry. The export is written by the MVC task executor once the headers are
+ * sent, so the request needs no thread of the request executor.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ExportController implements ExportApi {
+
+    private final PersonExportService personExportService;
+
+    @Override
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> exportPersons(String format) {
+        log.info("GET /persons/export called, format: {}", format);
+        ExportFormat exportFormat = ExportFormat.fromValue(format);
+        ContentDisposition contentDisposition = ContentDisposition.attachment()
+                .filename("persons." + exportFormat.getValue())
+                .build();
+
+        StreamingResponseBody body = outputStream -> {
+            personExportService.exportPersons(exportFormat, outputStream);
+            log.info("Person export finished, format: {}", format);
+        };
+
+        return CompletableFuture.completedFuture(ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString())
+                .body(body));
+    }
+}
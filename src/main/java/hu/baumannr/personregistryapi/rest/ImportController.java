@@ -0,0 +1,54 @@
+package hu.baumannr.personregistryapi.rest;
+
+import hu.baumannr.personregistryapi.rest.model.ImportJobResponse;
+import hu.baumannr.personregistryapi.service.ImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * REST controller for importing CSV extracts. The imports run on their own executor, the requests only spool the
+ * file and read the job, so they are served on the servlet thread.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ImportController implements ImportApi {
+
+    private final ImportService importService;
+
+    @Override
+    public CompletableFuture<ResponseEntity<ImportJobResponse>> createImport(InputStreamResource body) {
+        log.info("POST /imports called");
+        try (InputStream inputStream = body.getInputStream()) {
+            ImportJobResponse response = importService.createImport(inputStream);
+            log.info("Import accepted, ID: {}", response.getId());
+            URI location = URI.create("/api/imports/" + response.getId());
+            return CompletableFuture.completedFuture(ResponseEntity.accepted()
+                    .location(location)
+                    .body(response));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<ImportJobResponse>> getImportById(UUID importId) {
+        log.info("GET /imports/{importId} called, import ID: {}", importId);
+        ImportJobResponse response = importService.getImportById(importId);
+        return CompletableFuture.completedFuture(ResponseEntity.ok(response));
+    }
+}
@@ -1,17 +1,25 @@
 package hu.baumannr.personregistryapi.rest;
 
+import hu.baumannr.personregistryapi.persistence.model.PersonVersion;
+import hu.baumannr.personregistryapi.rest.model.PersonChangesResponse;
 import hu.baumannr.personregistryapi.rest.model.PersonCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.PersonPageResponse;
 import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonSuggestionResponse;
 import hu.baumannr.personregistryapi.rest.model.PersonUpdateRequest;
+import hu.baumannr.personregistryapi.service.PersonSearchCriteria;
 import hu.baumannr.personregistryapi.service.PersonService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.net.URI;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST controller for managing persons.
@@ -19,48 +27,118 @@ import java.util.List;
 @RestController
 @RequestMapping("/api")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Slf4j
 public class PersonController implements PersonApi {
 
     private final PersonService personService;
 
+    private final HttpServletRequest request;
+
+    private final RequestExecutor requestExecutor;
+
     @Override
-    public ResponseEntity<PersonResponse> getPersonById(Long personId) {
+    public CompletableFuture<ResponseEntity<PersonResponse>> getPersonById(Long personId) {
         log.info("GET /persons/{personId} called, personId: {}", personId);
-        PersonResponse person = personService.getPersonById(personId);
-        return ResponseEntity.ok(person);
+        return requestExecutor.submit(() -> {
+            PersonVersion version = personService.getPersonVersion(personId);
+            if (ConditionalResponses.isNotModified(request, version)) {
+                log.info("Person not modified, personId: {}, version: {}", personId, version.version());
+                return ConditionalResponses.notModified(version);
+            }
+
+            PersonResponse person = personService.getPersonById(personId);
+            // The validators are taken from the body, the cached person may differ from the version checked above
+            return ConditionalResponses.ok(person, new PersonVersion(person.getVersion(), person.getUpdatedAt()));
+        });
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<PersonPageResponse>> getAllPersons(Integer limit, String after) {
+        log.info("GET /persons called, limit: {}, after: {}", limit, after);
+        return requestExecutor.submit(() -> {
+            PersonPageResponse page = personService.getAllPersons(limit, after);
+            return ResponseEntity.ok(page);
+        });
     }
 
     @Override
-    public ResponseEntity<List<PersonResponse>> getAllPersons() {
-        log.info("GET /persons called");
-        List<PersonResponse> persons = personService.getAllPersons();
-        return ResponseEntity.ok(persons);
+    public CompletableFuture<ResponseEntity<PersonPageResponse>> searchPersons(String firstName, String lastName,
+                                                                               String country, String city, String zip,
+                                                                               String contactValue, Integer limit,
+                                                                               String after) {
+        log.info("GET /persons/search called, limit: {}, after: {}", limit, after);
+        return requestExecutor.submit(() -> {
+            PersonSearchCriteria criteria =
+                    new PersonSearchCriteria(firstName, lastName, country, city, zip, contactValue);
+            PersonPageResponse page = personService.searchPersons(criteria, limit, after);
+            return ResponseEntity.ok(page);
+        });
     }
 
     @Override
-    public ResponseEntity<PersonResponse> createPerson(PersonCreateRequest personCreateRequest) {
+    public CompletableFuture<ResponseEntity<List<PersonSuggestionResponse>>> suggestPersons(String q, Integer limit) {
+        log.info("GET /persons/suggest called, limit: {}", limit);
+        return requestExecutor.submit(() -> {
+            List<PersonSuggestionResponse> suggestions = personService.suggestPersons(q, limit);
+            return ResponseEntity.ok(suggestions);
+        });
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<PersonChangesResponse>> getPersonChanges(String since, Integer limit) {
+        log.info("GET /persons/changes called, since: {}, limit: {}", since, limit);
+        return requestExecutor.submit(() -> {
+            PersonChangesResponse changes = personService.getPersonChanges(since, limit);
+            return ResponseEntity.ok(changes);
+        });
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<PersonResponse>> createPerson(PersonCreateRequest personCreateRequest) {
         log.info("POST /persons called");
-        PersonResponse response = personService.createPerson(personCreateRequest);
-        log.info("Person created, ID: {}", response.getId());
-        URI location = URI.create("/api/persons/" + response.getId());
-        return ResponseEntity.created(location)
-                .body(response);
+        return requestExecutor.submit(() -> {
+            PersonResponse response = personService.createPerson(personCreateRequest);
+            log.info("Person created, ID: {}", response.getId());
+            URI location = URI.create("/api/persons/" + response.getId());
+            return ResponseEntity.created(location)
+                    .body(response);
+        });
     }
 
     @Override
-    public ResponseEntity<PersonResponse> updatePerson(Long personId, PersonUpdateRequest personUpdateRequest) {
+    public CompletableFuture<ResponseEntity<PersonResponse>> updatePerson(Long personId,
+                                                                          PersonUpdateRequest personUpdateRequest) {
         log.info("PUT /persons/{personId} called, person ID: {}", personId);
-        PersonResponse response = personService.updatePerson(personId, personUpdateRequest);
-        log.info("Person updated, ID: {}", response.getId());
-        return ResponseEntity.ok(response);
+        return requestExecutor.submit(() -> {
+            Long expectedVersion = ConditionalResponses.ifMatchVersion(request);
+            PersonResponse response = personService.updatePerson(personId, personUpdateRequest, expectedVersion);
+            log.info("Person updated, ID: {}", response.getId());
+            return ConditionalResponses.ok(response, new PersonVersion(response.getVersion(),
+                    response.getUpdatedAt()));
+        });
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<Void>> patchPerson(Long personId,
+                                                               PersonUpdateRequest personUpdateRequest) {
+        log.info("PATCH /persons/{personId} called, person ID: {}", personId);
+        return requestExecutor.submit(() -> {
+            Long expectedVersion = ConditionalResponses.ifMatchVersion(request);
+            personService.patchPerson(personId, personUpdateRequest, expectedVersion);
+            log.info("Person patched, ID: {}", personId);
+            return ResponseEntity.noContent().build();
+        });
     }
 
     @Override
-    public ResponseEntity<Void> deletePerson(Long personId) {
+    public CompletableFuture<ResponseEntity<Void>> deletePerson(Long personId) {
         log.info("DELETE /persons/{personId} called, person ID: {}", personId);
-        personService.deletePerson(personId);
-        log.info("Person deleted, ID: {}", personId);
-        return ResponseEntity.noContent().build();
+        return requestExecutor.submit(() -> {
+            Long expectedVersion = ConditionalResponses.ifMatchVersion(request);
+            personService.deletePerson(personId, expectedVersion);
+            log.info("Person deleted, ID: {}", personId);
+            return ResponseEntity.noContent().build();
+        });
     }
 }
@@ -0,0 +1,67 @@
+package hu.baumannr.personregistryapi.rest;
+
+import hu.baumannr.personregistryapi.persistence.routing.ReadWriteRoutingDataSource;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Read-your-writes window of a client when the reads go to a replica. A write request gets a cookie holding the end
+ * of the window, and the reads of a request presenting it before then go to the primary, so the client does not see
+ * the replica lagging behind its own write. The cookie keeps the window on the client, any instance serves it.
+ */
+@RequiredArgsConstructor
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    static final String COOKIE_NAME = "primary-reads-until";
+
+    private static final Set<String> WRITE_METHODS = Set.of(HttpMethod.POST.name(), HttpMethod.PUT.name(),
+            HttpMethod.PATCH.name(), HttpMethod.DELETE.name());
+
+    private final Duration window;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long now = System.currentTimeMillis();
+        if (now < primaryReadsUntil(request)) {
+            request.setAttribute(ReadWriteRoutingDataSource.PRIMARY_READS_ATTRIBUTE, Boolean.TRUE);
+        }
+        // Set before the handler runs, the response may already be committed after it. An async request is
+        // dispatched again with its result, the cookie is set on the first dispatch only.
+        if (WRITE_METHODS.contains(request.getMethod()) && request.getDispatcherType() == DispatcherType.REQUEST) {
+            ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, String.valueOf(now + window.toMillis()))
+                    .path("/")
+                    .maxAge(window)
+                    .httpOnly(true)
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+        return true;
+    }
+
+    private static long primaryReadsUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
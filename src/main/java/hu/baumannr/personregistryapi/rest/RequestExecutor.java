@@ -0,0 +1,47 @@
+package hu.baumannr.personregistryapi.rest;
+
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.REQUEST_QUEUE_FULL;
+
+/**
+ * Runs the work of the controllers on the request task executor configured by
+ * {@link hu.baumannr.personregistryapi.config.RequestExecutorConfig}. Spring MVC writes the response once the
+ * returned future completes, and unwraps the exception it completes with for the exception handler.
+ */
+@Slf4j
+@Component
+public class RequestExecutor {
+
+    private final TaskExecutor requestTaskExecutor;
+
+    public RequestExecutor(@Qualifier("requestTaskExecutor") TaskExecutor requestTaskExecutor) {
+        this.requestTaskExecutor = requestTaskExecutor;
+    }
+
+    /**
+     * Submits the work of a request.
+     *
+     * @param work the work producing the response
+     * @return the future of the response
+     * @param <T> the type of the response
+     * @throws PersonApiException with 503 if too many requests are waiting for a thread
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, requestTaskExecutor);
+        } catch (TaskRejectedException e) {
+            log.warn("Request rejected, the request queue is full");
+            throw new PersonApiException(HttpStatus.SERVICE_UNAVAILABLE, REQUEST_QUEUE_FULL);
+        }
+    }
+}
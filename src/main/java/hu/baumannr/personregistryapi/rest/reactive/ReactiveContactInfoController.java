@@ -0,0 +1,45 @@
+package hu.baumannr.personregistryapi.rest.reactive;
+
+import hu.baumannr.personregistryapi.rest.ConditionalResponses;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoResponse;
+import hu.baumannr.personregistryapi.service.ReactivePersonService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive REST controller for reading contact information. The contact information is streamed to the client as
+ * it is read.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveContactInfoController implements ContactInfoApi {
+
+    private final ReactivePersonService reactivePersonService;
+
+    @Override
+    public Mono<ResponseEntity<Flux<ContactInfoResponse>>> getContactInfosForPerson(Long personId,
+                                                                                   ServerWebExchange exchange) {
+        log.info("GET /persons/{personId}/contactInfos called, personId: {}", personId);
+        return reactivePersonService.getPersonVersion(personId)
+                .map(version -> {
+                    if (ConditionalResponses.isNotModified(exchange.getRequest().getHeaders(), version)) {
+                        log.info("Contact infos not modified, personId: {}, version: {}", personId,
+                                version.version());
+                        return ConditionalResponses.notModified(version);
+                    }
+                    // The version was read first, so the list is at least as new as the validators sent with it
+                    return ConditionalResponses.ok(reactivePersonService.getContactInfosForPerson(personId),
+                            version);
+                });
+    }
+}
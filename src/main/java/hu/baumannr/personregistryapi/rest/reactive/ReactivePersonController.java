@@ -0,0 +1,52 @@
+package hu.baumannr.personregistryapi.rest.reactive;
+
+import hu.baumannr.personregistryapi.persistence.model.PersonVersion;
+import hu.baumannr.personregistryapi.rest.ConditionalResponses;
+import hu.baumannr.personregistryapi.rest.model.PersonPageResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import hu.baumannr.personregistryapi.service.ReactivePersonService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive REST controller for reading persons.
+ */
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePersonController implements PersonApi {
+
+    private final ReactivePersonService reactivePersonService;
+
+    @Override
+    public Mono<ResponseEntity<PersonResponse>> getPersonById(Long personId, ServerWebExchange exchange) {
+        log.info("GET /persons/{personId} called, personId: {}", personId);
+        return reactivePersonService.getPersonVersion(personId)
+                .flatMap(version -> {
+                    if (ConditionalResponses.isNotModified(exchange.getRequest().getHeaders(), version)) {
+                        log.info("Person not modified, personId: {}, version: {}", personId, version.version());
+                        return Mono.just(ConditionalResponses.notModified(version));
+                    }
+                    // The validators are taken from the body, which may be newer than the version checked above
+                    return reactivePersonService.getPersonById(personId)
+                            .map(person -> ConditionalResponses.ok(person,
+                                    new PersonVersion(person.getVersion(), person.getUpdatedAt())));
+                });
+    }
+
+    @Override
+    public Mono<ResponseEntity<PersonPageResponse>> getAllPersons(Integer limit, String after,
+                                                                  ServerWebExchange exchange) {
+        log.info("GET /persons called, limit: {}, after: {}", limit, after);
+        return reactivePersonService.getAllPersons(limit, after)
+                .map(ResponseEntity::ok);
+    }
+}
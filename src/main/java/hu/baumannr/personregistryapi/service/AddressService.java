@@ -24,9 +24,10 @@ public interface AddressService {
      *
      * @param personId the ID of the person
      * @param request the data for the new address
+     * @param expectedVersion the version of the person aggregate the change is based on, or null to change any version
      * @return the created address
      */
-    AddressResponse addAddress(Long personId, AddressCreateRequest request);
+    AddressResponse addAddress(Long personId, AddressCreateRequest request, Long expectedVersion);
 
     /**
      * Updates the address identified by the given ID with the provided data.
@@ -34,15 +35,27 @@ public interface AddressService {
      * @param personId the ID of the person
      * @param addressId the ID of the address to update
      * @param request the new data for the address
+     * @param expectedVersion the version of the person aggregate the change is based on, or null to change any version
      * @return the updated address
      */
-    AddressResponse updateAddress(Long personId, Long addressId, AddressUpdateRequest request);
+    AddressResponse updateAddress(Long personId, Long addressId, AddressUpdateRequest request, Long expectedVersion);
+
+    /**
+     * Sets the given fields of the address in a single statement, without loading it. Missing fields are kept.
+     *
+     * @param personId the ID of the person
+     * @param addressId the ID of the address to update
+     * @param request the fields to change
+     * @param expectedVersion the version of the person aggregate the change is based on, or null to change any version
+     */
+    void patchAddress(Long personId, Long addressId, AddressUpdateRequest request, Long expectedVersion);
 
     /**
      * Deletes the address identified by the given ID.
      *
      * @param personId the ID of the person
      * @param addressId the ID of the address to delete
+     * @param expectedVersion the version of the person aggregate the change is based on, or null to change any version
      */
-    void deleteAddress(Long personId, Long addressId);
+    void deleteAddress(Long personId, Long addressId, Long expectedVersion);
 }
@@ -1,105 +1,143 @@
 package hu.baumannr.personregistryapi.service;
 
+import hu.baumannr.personregistryapi.constant.CacheNames;
 import hu.baumannr.personregistryapi.exception.PersonApiException;
 import hu.baumannr.personregistryapi.mapper.AddressMapper;
-import hu.baumannr.personregistryapi.mapper.AddressTypeMapper;
 import hu.baumannr.personregistryapi.persistence.model.Address;
-import hu.baumannr.personregistryapi.persistence.model.AddressType;
-import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.persistence.model.ChangeEventType;
 import hu.baumannr.personregistryapi.persistence.repository.AddressRepository;
 import hu.baumannr.personregistryapi.persistence.repository.PersonRepository;
 import hu.baumannr.personregistryapi.rest.model.AddressCreateRequest;
 import hu.baumannr.personregistryapi.rest.model.AddressResponse;
 import hu.baumannr.personregistryapi.rest.model.AddressUpdateRequest;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Locale;
 
 import static hu.baumannr.personregistryapi.constant.ErrorMessages.ADDRESS_ALREADY_EXISTS;
 import static hu.baumannr.personregistryapi.constant.ErrorMessages.ADDRESS_DOES_NOT_BELONG_TO_PERSON;
 import static hu.baumannr.personregistryapi.constant.ErrorMessages.ADDRESS_NOT_FOUND;
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.PATCH_WITHOUT_CHANGE;
 import static hu.baumannr.personregistryapi.constant.ErrorMessages.PERSON_NOT_FOUND;
 
 @Service
 @RequiredArgsConstructor
 public class AddressServiceImpl implements AddressService {
 
+    private static final String UQ_PERSON_ID_TYPE = "UQ_PersonId_Type";
+
     private final AddressRepository addressRepository;
 
     private final PersonRepository personRepository;
 
     private final AddressMapper addressMapper;
 
-    private final AddressTypeMapper addressTypeMapper;
+    private final ChangeEventService changeEventService;
 
     @Override
+    @Transactional(readOnly = true)
     public List<AddressResponse> getAddressesForPerson(Long personId) {
-        checkPersonExists(personId);
-        List<Address> addresses = addressRepository.findByPerson_Id(personId);
-        return addresses.stream()
+        return personRepository.findWithAddressesById(personId)
+                .orElseThrow(() -> personNotFound(personId))
+                .getAddresses().stream()
                 .map(addressMapper::convert)
                 .toList();
     }
 
     @Override
-    public AddressResponse addAddress(Long personId, AddressCreateRequest request) {
-        Person person = getPerson(personId);
-        checkAddressNotExistsByType(person, request);
+    @Transactional
+    @CacheEvict(cacheNames = CacheNames.PERSONS, key = "#personId")
+    public AddressResponse addAddress(Long personId, AddressCreateRequest request, Long expectedVersion) {
+        PersonVersions.touch(personRepository, personId, expectedVersion);
 
         Address address = addressMapper.convert(request);
-        person.addAddress(address);
-        Address savedAddress = addressRepository.save(address);
-        return addressMapper.convert(savedAddress);
+        // Only the owning side is set, the addresses of the person are not loaded
+        address.setPerson(personRepository.getReferenceById(personId));
+        try {
+            // The UQ_PersonId_Type constraint rejects a second address of the same type
+            Address savedAddress = addressRepository.saveAndFlush(address);
+            changeEventService.recordChange(ChangeEventType.ADDRESS_CREATED, personId, savedAddress.getId());
+            return addressMapper.convert(savedAddress);
+        } catch (DataIntegrityViolationException e) {
+            if (! violates(e, UQ_PERSON_ID_TYPE)) {
+                throw e;
+            }
+            throw new PersonApiException(HttpStatus.BAD_REQUEST,
+                    String.format(ADDRESS_ALREADY_EXISTS, request.getType().getValue(), personId));
+        }
     }
 
     @Override
-    public AddressResponse updateAddress(Long personId, Long addressId, AddressUpdateRequest request) {
+    @Transactional
+    @CacheEvict(cacheNames = CacheNames.PERSONS, key = "#personId")
+    public AddressResponse updateAddress(Long personId, Long addressId, AddressUpdateRequest request,
+                                         Long expectedVersion) {
+        PersonVersions.touch(personRepository, personId, expectedVersion);
         Address address = getAddress(addressId);
         checkAddressBelongsToPerson(address, personId);
 
         addressMapper.updateAddress(address, request);
-        Address updatedAddress = addressRepository.save(address);
+        Address updatedAddress = addressRepository.saveAndFlush(address);
+        changeEventService.recordChange(ChangeEventType.ADDRESS_UPDATED, personId, addressId);
         return addressMapper.convert(updatedAddress);
     }
 
     @Override
-    public void deleteAddress(Long personId, Long addressId) {
+    @Transactional
+    @CacheEvict(cacheNames = CacheNames.PERSONS, key = "#personId")
+    public void patchAddress(Long personId, Long addressId, AddressUpdateRequest request, Long expectedVersion) {
+        if (request.getCountry() == null && request.getCity() == null && request.getZip() == null
+                && request.getStreet() == null) {
+            throw new PersonApiException(HttpStatus.BAD_REQUEST, PATCH_WITHOUT_CHANGE);
+        }
+        PersonVersions.touch(personRepository, personId, expectedVersion);
         Address address = getAddress(addressId);
         checkAddressBelongsToPerson(address, personId);
 
-        addressRepository.deleteById(addressId);
+        addressMapper.patchAddress(address, request);
+        changeEventService.recordChange(ChangeEventType.ADDRESS_UPDATED, personId, addressId);
     }
 
-    private void checkPersonExists(Long personId) {
-        if (! personRepository.existsById(personId)) {
-            throw new PersonApiException(HttpStatus.NOT_FOUND, String.format(PERSON_NOT_FOUND, personId));
-        }
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheNames.PERSONS, key = "#personId")
+    public void deleteAddress(Long personId, Long addressId, Long expectedVersion) {
+        PersonVersions.touch(personRepository, personId, expectedVersion);
+        Address address = getAddress(addressId);
+        checkAddressBelongsToPerson(address, personId);
+
+        addressRepository.delete(address);
+        changeEventService.recordChange(ChangeEventType.ADDRESS_DELETED, personId, addressId);
     }
 
-    private void checkAddressBelongsToPerson(Address address, Long personId) {
-        if (! personId.equals(address.getPerson().getId())) {
-            throw new PersonApiException(HttpStatus.NOT_FOUND,
-                    String.format(ADDRESS_DOES_NOT_BELONG_TO_PERSON, address.getId(), personId));
-        }
+    private static boolean violates(DataIntegrityViolationException e, String constraintName) {
+        // H2 reports the constraint in upper case, with its schema and index around it
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toUpperCase(Locale.ROOT)
+                        .contains(constraintName.toUpperCase(Locale.ROOT));
     }
 
-    private void checkAddressNotExistsByType(Person person, AddressCreateRequest request) {
-        AddressType addressType = addressTypeMapper.convert(request.getType());
-        boolean exists = person.getAddresses().stream()
-                .anyMatch(a -> a.getType().equals(addressType));
+    private static PersonApiException personNotFound(Long personId) {
+        return new PersonApiException(HttpStatus.NOT_FOUND, String.format(PERSON_NOT_FOUND, personId));
+    }
 
-        if (exists) {
-            throw new PersonApiException(HttpStatus.BAD_REQUEST,
-                    String.format(ADDRESS_ALREADY_EXISTS, request.getType().getValue(), person.getId()));
-        }
+    private static PersonApiException addressDoesNotBelongToPerson(Address address, Long personId) {
+        return new PersonApiException(HttpStatus.NOT_FOUND,
+                String.format(ADDRESS_DOES_NOT_BELONG_TO_PERSON, address.getId(), personId));
     }
 
-    private Person getPerson(Long personId) {
-        return personRepository.findById(personId)
-                .orElseThrow(() -> new PersonApiException(HttpStatus.NOT_FOUND,
-                        String.format(PERSON_NOT_FOUND, personId)));
+    private void checkAddressBelongsToPerson(Address address, Long personId) {
+        if (! personId.equals(address.getPerson().getId())) {
+            throw addressDoesNotBelongToPerson(address, personId);
+        }
     }
 
     private Address getAddress(Long addressId) {
@@ -0,0 +1,21 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.rest.model.ChangeEventResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receiver of the change events relayed to a subscriber.
+ */
+@FunctionalInterface
+public interface ChangeEventListener {
+
+    /**
+     * Called with the next events of the stream, on the thread of the relay.
+     *
+     * @param events the events in the order of their positions, never empty
+     * @throws IOException if the subscriber can no longer be reached, which ends the subscription
+     */
+    void onEvents(List<ChangeEventResponse> events) throws IOException;
+}
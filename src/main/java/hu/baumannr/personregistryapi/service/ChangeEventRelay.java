@@ -0,0 +1,227 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.rest.model.ChangeEventResponse;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tails the change event outbox and pushes the new events to the subscribers of the change stream. The events are
+ * queued per subscriber and sent by the sender executor, so a slow subscriber delays only itself. With sharding the
+ * stream is read from shard 0, where the events of the further shards are moved first.
+ * <p>
+ * Every instance of the application runs a relay. They share the positions written to the database, so a client
+ * can resume on any instance.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ChangeEventRelay implements SmartInitializingSingleton {
+
+    /**
+     * Events sequenced or read in one statement.
+     */
+    static final int PAGE_SIZE = 500;
+
+    /**
+     * Pages queued for a subscriber, the further ones are read from the database once it caught up.
+     */
+    static final int QUEUE_CAPACITY = 16;
+
+    private final ChangeEventService changeEventService;
+
+    private final Duration retention;
+
+    /**
+     * The time a stream stays open, the client reconnects with the position of its last event after.
+     */
+    @Getter
+    private final Duration streamTimeout;
+
+    private final Executor senderExecutor;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    private volatile long head;
+
+    /**
+     * Starts the stream at the last event sequenced before the application started.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        head = changeEventService.getLastPosition();
+    }
+
+    /**
+     * Subscribes to the events after the given position.
+     *
+     * @param lastPosition the position of the last event received by the subscriber, or null for the new events
+     * @param listener the receiver of the events
+     * @return the subscription
+     */
+    public Subscription subscribe(Long lastPosition, ChangeEventListener listener) {
+        Subscription subscription = new Subscription(lastPosition != null ? lastPosition : head, listener);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Sequences the committed events and queues the new ones for the subscribers, a page at a time until the
+     * stream is drained.
+     */
+    @Scheduled(initialDelayString = "${person-registry.events.poll-interval:500}",
+            fixedDelayString = "${person-registry.events.poll-interval:500}")
+    public synchronized void relay() {
+        try {
+            boolean full;
+            do {
+                int sequenced = sequence();
+                List<ChangeEventResponse> events = changeEventService.getEventsAfter(head, PAGE_SIZE);
+                publish(events);
+                full = sequenced >= PAGE_SIZE || events.size() == PAGE_SIZE;
+            } while (full);
+        } catch (DataAccessException e) {
+            log.warn("Change events could not be relayed", e);
+        }
+    }
+
+    /**
+     * Deletes the events older than the retention. A client resuming from a deleted position misses them.
+     */
+    @Scheduled(initialDelayString = "${person-registry.events.cleanup-interval:3600000}",
+            fixedDelayString = "${person-registry.events.cleanup-interval:3600000}")
+    public void deleteExpiredEvents() {
+        int deleted = changeEventService.deleteEventsBefore(LocalDateTime.now().minus(retention));
+        log.info("{} expired change events deleted", deleted);
+    }
+
+    private int sequence() {
+        try {
+            int moved = changeEventService.moveShardEvents(PAGE_SIZE);
+            return moved + changeEventService.sequenceEvents(PAGE_SIZE);
+        } catch (DataIntegrityViolationException e) {
+            // Another relay sequenced the same events first
+            log.debug("Change events sequenced concurrently by another relay");
+            return 0;
+        }
+    }
+
+    private void publish(List<ChangeEventResponse> events) {
+        long previousHead = head;
+        if (! events.isEmpty()) {
+            head = events.get(events.size() - 1).getPosition();
+        }
+        for (Subscription subscription : subscriptions) {
+            if (! events.isEmpty() || subscription.position < previousHead) {
+                subscription.push(new Page(previousHead, events));
+            }
+        }
+    }
+
+    /**
+     * Events following the given position.
+     */
+    private record Page(long after, List<ChangeEventResponse> events) {
+    }
+
+    /**
+     * Subscription to the change stream, tracking the position of the last event sent to the subscriber.
+     */
+    public final class Subscription {
+
+        private final ChangeEventListener listener;
+
+        private final Queue<Page> pages = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private volatile long position;
+
+        private Subscription(long position, ChangeEventListener listener) {
+            this.position = position;
+            this.listener = listener;
+        }
+
+        /**
+         * Ends the subscription, no event is sent after the one being sent.
+         */
+        public void cancel() {
+            subscriptions.remove(this);
+            pages.clear();
+        }
+
+        private void push(Page page) {
+            if (! pages.offer(page)) {
+                log.debug("Change event subscriber is behind, its page is read again once it caught up");
+            }
+            if (sending.compareAndSet(false, true)) {
+                try {
+                    senderExecutor.execute(this::sendPages);
+                } catch (RejectedExecutionException e) {
+                    log.warn("Change events could not be sent", e);
+                    sending.set(false);
+                }
+            }
+        }
+
+        private void sendPages() {
+            // A page pushed while the sending was being released is sent by another round
+            do {
+                try {
+                    Page page;
+                    while ((page = pages.poll()) != null) {
+                        catchUp(page.after());
+                        send(page.events());
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Change event subscriber is gone", e);
+                    cancel();
+                } catch (DataAccessException e) {
+                    log.warn("Missed change events could not be read", e);
+                } finally {
+                    sending.set(false);
+                }
+            } while (! pages.isEmpty() && sending.compareAndSet(false, true));
+        }
+
+        /**
+         * Sends the events missed before the given position, read only for this subscriber.
+         */
+        private void catchUp(long after) throws IOException {
+            while (position < after) {
+                List<ChangeEventResponse> missed = changeEventService.getEventsAfter(position, PAGE_SIZE);
+                if (missed.isEmpty()) {
+                    position = after;
+                    return;
+                }
+                send(missed);
+            }
+        }
+
+        private void send(List<ChangeEventResponse> events) throws IOException {
+            List<ChangeEventResponse> unsent = events.stream()
+                    .filter(event -> event.getPosition() > position)
+                    .toList();
+            if (unsent.isEmpty()) {
+                return;
+            }
+            listener.onEvents(unsent);
+            position = unsent.get(unsent.size() - 1).getPosition();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.persistence.model.ChangeEventType;
+import hu.baumannr.personregistryapi.rest.model.ChangeEventResponse;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Service interface of the change event outbox. The events are written in the transaction of the change, so an
+ * event exists exactly when its change was committed.
+ */
+public interface ChangeEventService {
+
+    /**
+     * Records a change in the current transaction.
+     *
+     * @param type the type of the change
+     * @param personId the ID of the changed person aggregate
+     * @param entityId the ID of the changed person, address or contact info
+     */
+    void recordChange(ChangeEventType type, Long personId, Long entityId);
+
+    /**
+     * Records a change of each of the given persons in the current transaction, inserted in JDBC batches.
+     *
+     * @param type the type of the changes, one of the person changes
+     * @param personIds the IDs of the changed persons
+     */
+    void recordChanges(ChangeEventType type, Collection<Long> personIds);
+
+    /**
+     * Assigns the next positions to the committed events waiting for one, in the order they were written.
+     *
+     * @param limit the maximum number of events to sequence
+     * @return the number of sequenced events
+     */
+    int sequenceEvents(int limit);
+
+    /**
+     * Moves the committed events of the further shards to the outbox of shard 0, with the next positions. An event
+     * is written on the shard of its change, in its transaction, and is streamed from shard 0 once moved. Without
+     * sharding there is nothing to move.
+     *
+     * @param limit the maximum number of events moved from a shard
+     * @return the number of moved events
+     */
+    int moveShardEvents(int limit);
+
+    /**
+     * Returns the sequenced events after the given position.
+     *
+     * @param position the position to seek after
+     * @param limit the maximum number of events
+     * @return the events in the order of their positions
+     */
+    List<ChangeEventResponse> getEventsAfter(long position, int limit);
+
+    /**
+     * Returns the position of the last sequenced event.
+     *
+     * @return the last position, 0 if no event was sequenced yet
+     */
+    long getLastPosition();
+
+    /**
+     * Deletes the sequenced events up to the last one written before the given time, keeping the last event.
+     *
+     * @param createdAt the time the events were written before
+     * @return the number of deleted events
+     */
+    int deleteEventsBefore(LocalDateTime createdAt);
+}
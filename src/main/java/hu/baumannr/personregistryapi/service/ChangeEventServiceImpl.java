@@ -0,0 +1,121 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.mapper.ChangeEventMapper;
+import hu.baumannr.personregistryapi.persistence.model.ChangeEvent;
+import hu.baumannr.personregistryapi.persistence.model.ChangeEventType;
+import hu.baumannr.personregistryapi.persistence.repository.ChangeEventRepository;
+import hu.baumannr.personregistryapi.rest.model.ChangeEventResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class ChangeEventServiceImpl implements ChangeEventService {
+
+    private final ChangeEventRepository changeEventRepository;
+
+    private final ChangeEventMapper changeEventMapper;
+
+    private final ShardRouter shardRouter;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(ChangeEventType type, Long personId, Long entityId) {
+        changeEventRepository.save(ChangeEvent.of(type, personId, entityId));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanges(ChangeEventType type, Collection<Long> personIds) {
+        changeEventRepository.saveAll(personIds.stream()
+                .map(personId -> ChangeEvent.of(type, personId, personId))
+                .toList());
+    }
+
+    @Override
+    @Transactional
+    public int sequenceEvents(int limit) {
+        List<ChangeEvent> events = changeEventRepository.findByPositionIsNullOrderByIdAsc(Limit.of(limit));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        long position = changeEventRepository.findLastPosition();
+        for (ChangeEvent event : events) {
+            event.setPosition(++position);
+        }
+        return events.size();
+    }
+
+    @Override
+    public int moveShardEvents(int limit) {
+        int moved = 0;
+        for (int shard = 1; shard < shardRouter.getShardCount(); shard++) {
+            List<ChangeEvent> events = shardRouter.onShard(shard, () -> transactionTemplate.execute(status ->
+                    changeEventRepository.findByPositionIsNullOrderByIdAsc(Limit.of(limit))));
+            if (events.isEmpty()) {
+                continue;
+            }
+            shardRouter.onShard(0, () -> transactionTemplate.execute(status -> appendEvents(events)));
+            // Moved again after a failure here, the ID found on shard 0 keeps it from a second position
+            List<Long> ids = events.stream()
+                    .map(ChangeEvent::getId)
+                    .toList();
+            shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> {
+                changeEventRepository.deleteAllByIdInBatch(ids);
+                return null;
+            }));
+            moved += events.size();
+        }
+        return moved;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ChangeEventResponse> getEventsAfter(long position, int limit) {
+        return changeEventRepository.findByPositionGreaterThanOrderByPositionAsc(position, Limit.of(limit)).stream()
+                .map(changeEventMapper::convert)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getLastPosition() {
+        return changeEventRepository.findLastPosition();
+    }
+
+    @Override
+    @Transactional
+    public int deleteEventsBefore(LocalDateTime createdAt) {
+        return changeEventRepository.deleteSequencedBefore(createdAt);
+    }
+
+    /**
+     * Inserts the events of another shard on the current one with the next positions, keeping their IDs. The events
+     * already moved are skipped.
+     */
+    private int appendEvents(List<ChangeEvent> events) {
+        Set<Long> existing = new HashSet<>(changeEventRepository.findExistingIds(events.stream()
+                .map(ChangeEvent::getId)
+                .toList()));
+        long position = changeEventRepository.findLastPosition();
+        for (ChangeEvent event : events) {
+            if (! existing.contains(event.getId())) {
+                changeEventRepository.insertSequenced(event.getId(), ++position, event.getType(), event.getPersonId(),
+                        event.getEntityId(), event.getCreatedAt());
+            }
+        }
+        return events.size();
+    }
+}
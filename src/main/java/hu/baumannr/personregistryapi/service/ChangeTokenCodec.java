@@ -0,0 +1,59 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.INVALID_CHANGE_TOKEN;
+
+/**
+ * Encodes and decodes the opaque tokens of the delta sync, which hold the position of the last change event seen.
+ */
+public final class ChangeTokenCodec {
+
+    private static final String PREFIX = "position:";
+
+    private ChangeTokenCodec() {
+
+    }
+
+    /**
+     * Encodes the position of the last change event seen into a token.
+     *
+     * @param position the position of the last change event
+     * @return the opaque token
+     */
+    public static String encode(long position) {
+        byte[] bytes = (PREFIX + position).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Decodes the given token into the position of the last change event seen.
+     *
+     * @param token the opaque token
+     * @return the position to seek after
+     * @throws PersonApiException if the token is malformed
+     */
+    public static long decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (! value.startsWith(PREFIX)) {
+                throw invalidToken(token);
+            }
+            long position = Long.parseLong(value.substring(PREFIX.length()));
+            if (position < 0) {
+                throw invalidToken(token);
+            }
+            return position;
+        } catch (IllegalArgumentException e) {
+            throw invalidToken(token);
+        }
+    }
+
+    private static PersonApiException invalidToken(String token) {
+        return new PersonApiException(HttpStatus.BAD_REQUEST, String.format(INVALID_CHANGE_TOKEN, token));
+    }
+}
@@ -1,6 +1,7 @@
 package hu.baumannr.personregistryapi.service;
 
 import hu.baumannr.personregistryapi.rest.model.ContactInfoCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoLookupResponse;
 import hu.baumannr.personregistryapi.rest.model.ContactInfoResponse;
 import hu.baumannr.personregistryapi.rest.model.ContactInfoUpdateRequest;
 
@@ -19,14 +20,24 @@ public interface ContactInfoService {
      */
     List<ContactInfoResponse> getContactInfosForPerson(Long personId);
 
+    /**
+     * Finds the contact information of the given type whose normalized value equals the normalized given value.
+     *
+     * @param type the type of the contact information, as in the API
+     * @param value the value to look up
+     * @return the matching contact information with the IDs of their persons
+     */
+    List<ContactInfoLookupResponse> lookupContactInfos(String type, String value);
+
     /**
      * Adds a new contact information entry for the person identified by the given ID.
      *
      * @param personId the ID of the person
      * @param request the data for the new contact information
+     * @param expectedVersion the version of the person aggregate the change is based on, or null to change any version
      * @return the created contact information
      */
-    ContactInfoResponse addContactInfo(Long personId, ContactInfoCreateRequest request);
+    ContactInfoResponse addContactInfo(Long personId, ContactInfoCreateRequest request, Long expectedVersion);
 
     /**
      * Updates the contact information identified by the given ID with the provided data.
@@ -34,15 +45,29 @@ public interface ContactInfoService {
      * @param personId the ID of the person
      * @param contactInfoId the ID of the contact information to update
      * @param request the new data for the contact information
+     * @param expectedVersion the version of the person aggregate the change is based on, or null to change any version
      * @return the updated contact information
      */
-    ContactInfoResponse updateContactInfo(Long personId, Long contactInfoId, ContactInfoUpdateRequest request);
+    ContactInfoResponse updateContactInfo(Long personId, Long contactInfoId, ContactInfoUpdateRequest request,
+                                          Long expectedVersion);
+
+    /**
+     * Sets the given fields of the contact information in a single statement, without loading it. Missing fields
+     * are kept.
+     *
+     * @param personId the ID of the person
+     * @param contactInfoId the ID of the contact information to update
+     * @param request the fields to change, the type only together with the value
+     * @param expectedVersion the version of the person aggregate the change is based on, or null to change any version
+     */
+    void patchContactInfo(Long personId, Long contactInfoId, ContactInfoUpdateRequest request, Long expectedVersion);
 
     /**
      * Deletes the contact information identified by the given ID.
      *
      * @param personId the ID of the person
      * @param contactInfoId the ID of the contact information to delete
+     * @param expectedVersion the version of the person aggregate the change is based on, or null to change any version
      */
-    void deleteContactInfo(Long personId, Long contactInfoId);
+    void deleteContactInfo(Long personId, Long contactInfoId, Long expectedVersion);
 }
@@ -1,22 +1,30 @@
 package hu.baumannr.personregistryapi.service;
 
+import hu.baumannr.personregistryapi.constant.CacheNames;
 import hu.baumannr.personregistryapi.exception.PersonApiException;
 import hu.baumannr.personregistryapi.mapper.ContactInfoMapper;
+import hu.baumannr.personregistryapi.persistence.model.ChangeEventType;
 import hu.baumannr.personregistryapi.persistence.model.ContactInfo;
-import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.persistence.model.ContactInfoType;
 import hu.baumannr.personregistryapi.persistence.repository.ContactInfoRepository;
 import hu.baumannr.personregistryapi.persistence.repository.PersonRepository;
 import hu.baumannr.personregistryapi.rest.model.ContactInfoCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoLookupResponse;
 import hu.baumannr.personregistryapi.rest.model.ContactInfoResponse;
 import hu.baumannr.personregistryapi.rest.model.ContactInfoUpdateRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
 import java.util.List;
 
 import static hu.baumannr.personregistryapi.constant.ErrorMessages.CONTACT_INFO_DOES_NOT_BELONG_TO_PERSON;
 import static hu.baumannr.personregistryapi.constant.ErrorMessages.CONTACT_INFO_NOT_FOUND;
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.INVALID_CONTACT_INFO_TYPE;
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.PATCH_WITHOUT_CHANGE;
 import static hu.baumannr.personregistryapi.constant.ErrorMessages.PERSON_NOT_FOUND;
 
 @Service
@@ -26,63 +34,117 @@ public class ContactInfoServiceImpl implements ContactInfoService {
     private final ContactInfoRepository contactInfoRepository;
 
     private final PersonRepository personRepository;
-    
+
     private final ContactInfoMapper contactInfoMapper;
 
+    private final ChangeEventService changeEventService;
+
+    private final ShardRouter shardRouter;
+
     @Override
+    @Transactional(readOnly = true)
     public List<ContactInfoResponse> getContactInfosForPerson(Long personId) {
-        checkPersonExists(personId);
-        List<ContactInfo> contactInfos = contactInfoRepository.findByPerson_Id(personId);
+        return personRepository.findWithContactInfosById(personId)
+                .orElseThrow(() -> personNotFound(personId))
+                .getContactInfos().stream()
+                .map(contactInfoMapper::convert)
+                .toList();
+    }
 
-        return contactInfos.stream()
+    @Override
+    @Transactional(readOnly = true)
+    public List<ContactInfoLookupResponse> lookupContactInfos(String type, String value) {
+        ContactInfoType contactInfoType = toContactInfoType(type);
+        String normalizedValue = ContactValueNormalizer.normalize(contactInfoType, value);
+        return shardRouter.onEveryShard(() -> contactInfoRepository.findOwners(contactInfoType, normalizedValue))
+                .stream()
+                .flatMap(List::stream)
                 .map(contactInfoMapper::convert)
                 .toList();
     }
 
     @Override
-    public ContactInfoResponse addContactInfo(Long personId, ContactInfoCreateRequest request) {
-        Person person = getPerson(personId);
+    @Transactional
+    @CacheEvict(cacheNames = CacheNames.PERSONS, key = "#personId")
+    public ContactInfoResponse addContactInfo(Long personId, ContactInfoCreateRequest request, Long expectedVersion) {
+        PersonVersions.touch(personRepository, personId, expectedVersion);
+
         ContactInfo contactInfo = contactInfoMapper.convert(request);
-        person.addContactInfo(contactInfo);
+        // Only the owning side is set, the contact infos of the person are not loaded
+        contactInfo.setPerson(personRepository.getReferenceById(personId));
+        ContactValueNormalizer.normalize(contactInfo);
         ContactInfo savedContactInfo = contactInfoRepository.save(contactInfo);
+        changeEventService.recordChange(ChangeEventType.CONTACT_INFO_CREATED, personId, savedContactInfo.getId());
         return contactInfoMapper.convert(savedContactInfo);
     }
 
     @Override
-    public ContactInfoResponse updateContactInfo(Long personId, Long contactInfoId, ContactInfoUpdateRequest request) {
+    @Transactional
+    @CacheEvict(cacheNames = CacheNames.PERSONS, key = "#personId")
+    public ContactInfoResponse updateContactInfo(Long personId, Long contactInfoId, ContactInfoUpdateRequest request,
+                                                 Long expectedVersion) {
+        PersonVersions.touch(personRepository, personId, expectedVersion);
         ContactInfo contactInfo = getContactInfo(contactInfoId);
         checkContactInfoBelongsToPerson(contactInfo, personId);
 
         contactInfoMapper.updateContactInfo(contactInfo, request);
-        ContactInfo updatedContactInfo = contactInfoRepository.save(contactInfo);
+        ContactValueNormalizer.normalize(contactInfo);
+        ContactInfo updatedContactInfo = contactInfoRepository.saveAndFlush(contactInfo);
+        changeEventService.recordChange(ChangeEventType.CONTACT_INFO_UPDATED, personId, contactInfoId);
         return contactInfoMapper.convert(updatedContactInfo);
     }
 
     @Override
-    public void deleteContactInfo(Long personId, Long contactInfoId) {
+    @Transactional
+    @CacheEvict(cacheNames = CacheNames.PERSONS, key = "#personId")
+    public void patchContactInfo(Long personId, Long contactInfoId, ContactInfoUpdateRequest request,
+                                 Long expectedVersion) {
+        if (request.getType() == null && request.getValue() == null) {
+            throw new PersonApiException(HttpStatus.BAD_REQUEST, PATCH_WITHOUT_CHANGE);
+        }
+
+        PersonVersions.touch(personRepository, personId, expectedVersion);
+        ContactInfo contactInfo = getContactInfo(contactInfoId);
+        checkContactInfoBelongsToPerson(contactInfo, personId);
+
+        contactInfoMapper.patchContactInfo(contactInfo, request);
+        ContactValueNormalizer.normalize(contactInfo);
+        changeEventService.recordChange(ChangeEventType.CONTACT_INFO_UPDATED, personId, contactInfoId);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheNames.PERSONS, key = "#personId")
+    public void deleteContactInfo(Long personId, Long contactInfoId, Long expectedVersion) {
+        PersonVersions.touch(personRepository, personId, expectedVersion);
         ContactInfo contactInfo = getContactInfo(contactInfoId);
         checkContactInfoBelongsToPerson(contactInfo, personId);
 
-        contactInfoRepository.deleteById(contactInfoId);
+        contactInfoRepository.delete(contactInfo);
+        changeEventService.recordChange(ChangeEventType.CONTACT_INFO_DELETED, personId, contactInfoId);
     }
 
-    private void checkPersonExists(Long personId) {
-        if (! personRepository.existsById(personId)) {
-            throw new PersonApiException(HttpStatus.NOT_FOUND, String.format(PERSON_NOT_FOUND, personId));
-        }
+    private static ContactInfoType toContactInfoType(String type) {
+        return Arrays.stream(ContactInfoType.values())
+                .filter(contactInfoType -> contactInfoType.name().equalsIgnoreCase(type))
+                .findFirst()
+                .orElseThrow(() -> new PersonApiException(HttpStatus.BAD_REQUEST,
+                        String.format(INVALID_CONTACT_INFO_TYPE, type)));
     }
 
     private void checkContactInfoBelongsToPerson(ContactInfo contactInfo, Long personId) {
         if (! personId.equals(contactInfo.getPerson().getId())) {
-            throw new PersonApiException(HttpStatus.NOT_FOUND,
-                    String.format(CONTACT_INFO_DOES_NOT_BELONG_TO_PERSON, contactInfo.getId(), personId));
+            throw contactInfoDoesNotBelongToPerson(contactInfo, personId);
         }
     }
 
-    private Person getPerson(Long personId) {
-        return personRepository.findById(personId)
-                .orElseThrow(() -> new PersonApiException(HttpStatus.NOT_FOUND,
-                        String.format(PERSON_NOT_FOUND, personId)));
+    private static PersonApiException personNotFound(Long personId) {
+        return new PersonApiException(HttpStatus.NOT_FOUND, String.format(PERSON_NOT_FOUND, personId));
+    }
+
+    private static PersonApiException contactInfoDoesNotBelongToPerson(ContactInfo contactInfo, Long personId) {
+        return new PersonApiException(HttpStatus.NOT_FOUND,
+                String.format(CONTACT_INFO_DOES_NOT_BELONG_TO_PERSON, contactInfo.getId(), personId));
     }
 
     private ContactInfo getContactInfo(Long contactInfoId) {
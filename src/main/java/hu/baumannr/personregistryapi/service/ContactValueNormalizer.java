@@ -0,0 +1,56 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.persistence.model.ContactInfo;
+import hu.baumannr.personregistryapi.persistence.model.ContactInfoType;
+
+import java.util.Locale;
+
+/**
+ * Normalizes contact information values, so the same email or phone number written differently is stored and
+ * looked up under the same normalized value.
+ */
+public final class ContactValueNormalizer {
+
+    private static final String INTERNATIONAL_PREFIX = "00";
+
+    private ContactValueNormalizer() {
+
+    }
+
+    /**
+     * Normalizes the given value. Emails and LinkedIn profiles are trimmed and lower-cased. Phone numbers keep
+     * only their ASCII digits, with a leading + or 00 written as +, so "+36 30 123 4567" and "0036-30-1234567" are
+     * both "+36301234567".
+     *
+     * @param type the type of the contact information
+     * @param value the value of the contact information
+     * @return the normalized value
+     */
+    public static String normalize(ContactInfoType type, String value) {
+        String trimmed = value.strip();
+        if (type != ContactInfoType.PHONE) {
+            return trimmed.toLowerCase(Locale.ROOT);
+        }
+
+        StringBuilder digits = new StringBuilder(trimmed.length());
+        trimmed.chars()
+                .filter(c -> c >= '0' && c <= '9')
+                .forEach(digits::appendCodePoint);
+        if (trimmed.startsWith("+")) {
+            return "+" + digits;
+        }
+        if (digits.indexOf(INTERNATIONAL_PREFIX) == 0) {
+            return "+" + digits.substring(INTERNATIONAL_PREFIX.length());
+        }
+        return digits.toString();
+    }
+
+    /**
+     * Sets the normalized value of the given contact information from its type and value.
+     *
+     * @param contactInfo the contact information
+     */
+    public static void normalize(ContactInfo contactInfo) {
+        contactInfo.setNormalizedValue(normalize(contactInfo.getType(), contactInfo.getValue()));
+    }
+}
@@ -0,0 +1,55 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.INVALID_CURSOR;
+
+/**
+ * Encodes and decodes the opaque cursors used by seek pagination.
+ */
+public final class CursorCodec {
+
+    private static final String PREFIX = "id:";
+
+    private CursorCodec() {
+
+    }
+
+    /**
+     * Encodes the ID of the last item of a page into a cursor.
+     *
+     * @param id the ID of the last item
+     * @return the opaque cursor
+     */
+    public static String encode(Long id) {
+        byte[] bytes = (PREFIX + id).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Decodes the given cursor into the ID of the last item of the previous page.
+     *
+     * @param cursor the opaque cursor
+     * @return the ID to seek after
+     * @throws PersonApiException if the cursor is malformed
+     */
+    public static Long decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (! value.startsWith(PREFIX)) {
+                throw invalidCursor(cursor);
+            }
+            return Long.valueOf(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw invalidCursor(cursor);
+        }
+    }
+
+    private static PersonApiException invalidCursor(String cursor) {
+        return new PersonApiException(HttpStatus.BAD_REQUEST, String.format(INVALID_CURSOR, cursor));
+    }
+}
@@ -0,0 +1,40 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.INVALID_EXPORT_FORMAT;
+
+/**
+ * Supported formats of the person export.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+    NDJSON("ndjson", MediaType.APPLICATION_NDJSON),
+    CSV("csv", MediaType.parseMediaType("text/csv"));
+
+    private final String value;
+
+    private final MediaType mediaType;
+
+    /**
+     * Resolves the export format from its request parameter value.
+     *
+     * @param value the request parameter value
+     * @return the export format
+     * @throws PersonApiException if the value is not a supported format
+     */
+    public static ExportFormat fromValue(String value) {
+        return Arrays.stream(values())
+                .filter(format -> format.value.equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new PersonApiException(HttpStatus.BAD_REQUEST,
+                        String.format(INVALID_EXPORT_FORMAT, value)));
+    }
+}
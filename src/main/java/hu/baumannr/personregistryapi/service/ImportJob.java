@@ -0,0 +1,116 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.rest.model.ImportJobResponse;
+import hu.baumannr.personregistryapi.rest.model.ImportRowError;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of an import job. It is updated by the parsing thread and the writer threads, and read by the
+ * request threads polling it, so every field is safe to access concurrently.
+ */
+final class ImportJob {
+
+    /**
+     * Rejected rows kept for the response, the rest is only counted.
+     */
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    @Getter
+    private final UUID id = UUID.randomUUID();
+
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private final long bytesTotal;
+
+    private final AtomicLong bytesRead = new AtomicLong();
+
+    private final AtomicLong rowsRead = new AtomicLong();
+
+    private final AtomicLong personsImported = new AtomicLong();
+
+    private final AtomicLong personsFailed = new AtomicLong();
+
+    private final Queue<ImportRowError> errors = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger errorCount = new AtomicInteger();
+
+    private volatile ImportJobResponse.StatusEnum status = ImportJobResponse.StatusEnum.QUEUED;
+
+    private volatile String message;
+
+    private volatile LocalDateTime startedAt;
+
+    @Getter
+    private volatile LocalDateTime finishedAt;
+
+    ImportJob(long bytesTotal) {
+        this.bytesTotal = bytesTotal;
+    }
+
+    void start() {
+        startedAt = LocalDateTime.now();
+        status = ImportJobResponse.StatusEnum.RUNNING;
+    }
+
+    void complete() {
+        finish(ImportJobResponse.StatusEnum.COMPLETED, null);
+    }
+
+    void fail(String message) {
+        finish(ImportJobResponse.StatusEnum.FAILED, message);
+    }
+
+    void progress(long bytesRead, long rowsRead) {
+        this.bytesRead.set(bytesRead);
+        this.rowsRead.set(rowsRead);
+    }
+
+    void imported(int count) {
+        personsImported.addAndGet(count);
+    }
+
+    void rejected(long line, String message) {
+        personsFailed.incrementAndGet();
+        error(line, message);
+    }
+
+    void error(long line, String message) {
+        if (errorCount.getAndIncrement() < MAX_REPORTED_ERRORS) {
+            errors.add(new ImportRowError().line(line).message(message));
+        }
+    }
+
+    ImportJobResponse toResponse() {
+        return new ImportJobResponse()
+                .id(id)
+                .status(status)
+                .bytesTotal(bytesTotal)
+                .bytesRead(bytesRead.get())
+                .rowsRead(rowsRead.get())
+                .personsImported(personsImported.get())
+                .personsFailed(personsFailed.get())
+                .errors(errors.stream()
+                        .sorted(Comparator.comparing(ImportRowError::getLine))
+                        .toList())
+                .errorsTruncated(errorCount.get() > MAX_REPORTED_ERRORS)
+                .message(message)
+                .createdAt(createdAt)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt);
+    }
+
+    private void finish(ImportJobResponse.StatusEnum status, String message) {
+        this.message = message;
+        this.finishedAt = LocalDateTime.now();
+        // Written last, a poller seeing the final status sees the final counters too
+        this.status = status;
+    }
+}
@@ -0,0 +1,28 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.rest.model.ImportJobResponse;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * Service interface for importing CSV extracts in the background.
+ */
+public interface ImportService {
+
+    /**
+     * Stores the CSV read from the given stream and starts an import job for it.
+     *
+     * @param inputStream the stream of the CSV file
+     * @return the state of the queued job
+     */
+    ImportJobResponse createImport(InputStream inputStream);
+
+    /**
+     * Returns the current state of the import job with the given ID.
+     *
+     * @param importId the ID of the import job
+     * @return the state of the job
+     */
+    ImportJobResponse getImportById(UUID importId);
+}
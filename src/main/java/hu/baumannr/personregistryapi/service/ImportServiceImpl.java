@@ -0,0 +1,411 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import hu.baumannr.personregistryapi.mapper.PersonMapper;
+import hu.baumannr.personregistryapi.persistence.model.ChangeEvent;
+import hu.baumannr.personregistryapi.persistence.model.ChangeEventType;
+import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.persistence.model.PersonName;
+import hu.baumannr.personregistryapi.rest.model.AddressCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.ImportJobResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonBatchCreateRequest;
+import jakarta.persistence.PersistenceException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.IMPORT_COLUMN_MISSING;
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.IMPORT_INVALID_TYPE;
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.IMPORT_NOT_FOUND;
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.IMPORT_ORPHAN_ROW;
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.IMPORT_PERSON_REJECTED;
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.IMPORT_QUEUE_FULL;
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.IMPORT_READ_FAILED;
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.IMPORT_UNKNOWN_RECORD_TYPE;
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.UNEXPECTED_ERROR;
+
+/**
+ * Imports CSV files in the layout of the CSV export. A PERSON row starts a person, the ADDRESS and CONTACT_INFO
+ * rows following it belong to that person.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImportServiceImpl implements ImportService {
+
+    /**
+     * Persons written in one transaction, a multiple of the JDBC batch size.
+     */
+    static final int CHUNK_SIZE = 500;
+
+    private static final Duration JOB_RETENTION = Duration.ofHours(24);
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("recordType", "personId", "type", "firstName",
+            "lastName", "country", "city", "zip", "street", "value");
+
+    private final SessionFactory sessionFactory;
+
+    private final PersonMapper personMapper;
+
+    private final PersonBatchValidator personBatchValidator;
+
+    private final ThreadPoolTaskExecutor importJobExecutor;
+
+    private final ThreadPoolTaskExecutor importWriterExecutor;
+
+    private final PersonNameIndex personNameIndex;
+
+    private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Override
+    public ImportJobResponse createImport(InputStream inputStream) {
+        evictFinishedJobs();
+
+        Path file = store(inputStream);
+        ImportJob job = new ImportJob(size(file));
+        jobs.put(job.getId(), job);
+        try {
+            importJobExecutor.execute(() -> run(job, file));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            delete(file);
+            throw new PersonApiException(HttpStatus.SERVICE_UNAVAILABLE, IMPORT_QUEUE_FULL);
+        }
+        return job.toResponse();
+    }
+
+    @Override
+    public ImportJobResponse getImportById(UUID importId) {
+        ImportJob job = jobs.get(importId);
+        if (job == null) {
+            throw new PersonApiException(HttpStatus.NOT_FOUND, String.format(IMPORT_NOT_FOUND, importId));
+        }
+        return job.toResponse();
+    }
+
+    private void evictFinishedJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minus(JOB_RETENTION);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(threshold));
+    }
+
+    /**
+     * Copies the upload to a temporary file, so the request does not have to stay open while the file is imported.
+     */
+    private static Path store(InputStream inputStream) {
+        Path file = null;
+        try {
+            file = Files.createTempFile("person-import-", ".csv");
+            Files.copy(inputStream, file, StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        } catch (IOException e) {
+            delete(file);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void run(ImportJob job, Path file) {
+        log.info("Import {} started", job.getId());
+        job.start();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            importFile(job, channel);
+            job.complete();
+        } catch (PersonApiException e) {
+            job.fail(e.getMessage());
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Import {} could not read its file", job.getId(), e);
+            job.fail(IMPORT_READ_FAILED);
+        } catch (RuntimeException e) {
+            log.error("Import {} failed", job.getId(), e);
+            job.fail(UNEXPECTED_ERROR);
+        } finally {
+            delete(file);
+        }
+        log.info("Import {} finished", job.getId());
+    }
+
+    /**
+     * Parses the file on the current thread and hands the chunks over to the writer threads.
+     */
+    private void importFile(ImportJob job, FileChannel channel) throws IOException {
+        CsvReader reader = new CsvReader(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), -1));
+        Map<String, Integer> columns = columns(reader.readRecord());
+
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        List<PendingPerson> chunk = new ArrayList<>(CHUNK_SIZE);
+        PendingPerson person = null;
+        long rows = 0;
+        try {
+            List<String> values;
+            while ((values = reader.readRecord()) != null) {
+                if (values.size() == 1 && values.get(0).isEmpty()) {
+                    continue;
+                }
+                rows++;
+                Row row = new Row(reader.getRecordLine(), values, columns);
+                String recordType = Objects.toString(row.get("recordType"), "");
+                switch (recordType) {
+                    case "PERSON" -> {
+                        collect(job, person, chunk);
+                        person = new PendingPerson(row.line(), row.get("personId"), new PersonBatchCreateRequest()
+                                .firstName(row.get("firstName"))
+                                .lastName(row.get("lastName")));
+                    }
+                    case "ADDRESS" -> addAddress(job, person, row);
+                    case "CONTACT_INFO" -> addContactInfo(job, person, row);
+                    default -> job.error(row.line(), String.format(IMPORT_UNKNOWN_RECORD_TYPE, recordType));
+                }
+
+                if (chunk.size() == CHUNK_SIZE) {
+                    submit(job, chunk, writes);
+                    job.progress(channel.position(), rows);
+                }
+            }
+            collect(job, person, chunk);
+        } finally {
+            // The persons completed before a parse error are still written
+            submit(job, chunk, writes);
+            CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+            job.progress(channel.position(), rows);
+        }
+    }
+
+    private static Map<String, Integer> columns(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        if (header != null) {
+            for (int i = 0; i < header.size(); i++) {
+                // Spreadsheet tools tend to start the file with a byte order mark
+                columns.putIfAbsent(header.get(i).replace("\uFEFF", "").strip(), i);
+            }
+        }
+        for (String column : REQUIRED_COLUMNS) {
+            if (! columns.containsKey(column)) {
+                throw new PersonApiException(HttpStatus.BAD_REQUEST, String.format(IMPORT_COLUMN_MISSING, column));
+            }
+        }
+        return columns;
+    }
+
+    private static void addAddress(ImportJob job, PendingPerson person, Row row) {
+        if (! belongsTo(job, person, row)) {
+            return;
+        }
+        try {
+            person.request().addAddressesItem(new AddressCreateRequest()
+                    .type(AddressCreateRequest.TypeEnum.fromValue(row.get("type")))
+                    .country(row.get("country"))
+                    .city(row.get("city"))
+                    .zip(row.get("zip"))
+                    .street(row.get("street")));
+        } catch (IllegalArgumentException e) {
+            person.reject(job, row.line(), String.format(IMPORT_INVALID_TYPE, row.get("type")));
+        }
+    }
+
+    private static void addContactInfo(ImportJob job, PendingPerson person, Row row) {
+        if (! belongsTo(job, person, row)) {
+            return;
+        }
+        try {
+            person.request().addContactInfosItem(new ContactInfoCreateRequest()
+                    .type(ContactInfoCreateRequest.TypeEnum.fromValue(row.get("type")))
+                    .value(row.get("value")));
+        } catch (IllegalArgumentException e) {
+            person.reject(job, row.line(), String.format(IMPORT_INVALID_TYPE, row.get("type")));
+        }
+    }
+
+    private static boolean belongsTo(ImportJob job, PendingPerson person, Row row) {
+        String personId = row.get("personId");
+        if (person == null || ! Objects.equals(person.personId(), personId)) {
+            job.error(row.line(), String.format(IMPORT_ORPHAN_ROW, personId));
+            return false;
+        }
+        return true;
+    }
+
+    private void collect(ImportJob job, PendingPerson person, List<PendingPerson> chunk) {
+        if (person == null) {
+            return;
+        }
+        if (person.isRejected()) {
+            job.rejected(person.line(), IMPORT_PERSON_REJECTED);
+            return;
+        }
+
+        String error = personBatchValidator.validate(person.request());
+        if (error != null) {
+            job.rejected(person.line(), error);
+        } else {
+            chunk.add(person);
+        }
+    }
+
+    private void submit(ImportJob job, List<PendingPerson> chunk, List<CompletableFuture<Void>> writes) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<PendingPerson> persons = List.copyOf(chunk);
+        chunk.clear();
+        // Failed writes are kept, so they fail the job when it waits for the writes
+        writes.removeIf(write -> write.isDone() && ! write.isCompletedExceptionally());
+        writes.add(CompletableFuture.runAsync(() -> writeChunk(job, persons), importWriterExecutor));
+    }
+
+    private void writeChunk(ImportJob job, List<PendingPerson> persons) {
+        try {
+            insert(persons);
+            job.imported(persons.size());
+        } catch (PersistenceException e) {
+            for (PendingPerson person : persons) {
+                try {
+                    insert(List.of(person));
+                    job.imported(1);
+                } catch (PersistenceException personException) {
+                    job.rejected(person.line(),
+                            NestedExceptionUtils.getMostSpecificCause(personException).getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts the persons with their children in a stateless transaction of their own.
+     */
+    private void insert(List<PendingPerson> pendingPersons) {
+        List<Person> persons = pendingPersons.stream()
+                .map(person -> personMapper.convert(person.request()))
+                .toList();
+        sessionFactory.inStatelessTransaction(session -> {
+            LocalDateTime now = LocalDateTime.now();
+            // A stateless session runs neither cascades nor entity callbacks
+            for (Person person : persons) {
+                person.setCreatedAt(now);
+                person.setUpdatedAt(now);
+                session.insert(person);
+            }
+            persons.stream()
+                    .flatMap(person -> Stream.ofNullable(person.getAddresses()).flatMap(Set::stream))
+                    .forEach(address -> {
+                        address.setCreatedAt(now);
+                        address.setUpdatedAt(now);
+                        session.insert(address);
+                    });
+            persons.stream()
+                    .flatMap(person -> Stream.ofNullable(person.getContactInfos()).flatMap(Set::stream))
+                    .forEach(contactInfo -> {
+                        contactInfo.setCreatedAt(now);
+                        contactInfo.setUpdatedAt(now);
+                        ContactValueNormalizer.normalize(contactInfo);
+                        session.insert(contactInfo);
+                    });
+            for (Person person : persons) {
+                session.insert(ChangeEvent.of(ChangeEventType.PERSON_CREATED, person.getId(), person.getId()));
+            }
+        });
+        // Not synchronized with Spring, the index is updated once the transaction committed
+        personNameIndex.put(persons.stream()
+                .map(PersonName::of)
+                .toList());
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            delete(file);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void delete(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Temporary import file {} could not be deleted", file, e);
+        }
+    }
+
+    private record Row(long line, List<String> values, Map<String, Integer> columns) {
+
+        /**
+         * Returns the value of the given column, null if it is empty, as the export writes null values.
+         */
+        String get(String column) {
+            int index = columns.get(column);
+            if (index >= values.size() || values.get(index).isEmpty()) {
+                return null;
+            }
+            return values.get(index);
+        }
+    }
+
+    private static final class PendingPerson {
+
+        private final long line;
+
+        private final String personId;
+
+        private final PersonBatchCreateRequest request;
+
+        private boolean rejected;
+
+        private PendingPerson(long line, String personId, PersonBatchCreateRequest request) {
+            this.line = line;
+            this.personId = personId;
+            this.request = request;
+        }
+
+        long line() {
+            return line;
+        }
+
+        String personId() {
+            return personId;
+        }
+
+        PersonBatchCreateRequest request() {
+            return request;
+        }
+
+        boolean isRejected() {
+            return rejected;
+        }
+
+        void reject(ImportJob job, long line, String message) {
+            rejected = true;
+            job.error(line, message);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.rest.model.PersonBatchResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonBulkDeleteResponse;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Service interface for creating and deleting persons in bulk.
+ */
+public interface PersonBatchService {
+
+    /**
+     * Creates the persons of a JSON array of PersonBatchCreateRequest items read from the given stream.
+     *
+     * @param inputStream the stream of the JSON array
+     * @return the result of each item
+     */
+    PersonBatchResponse createPersons(InputStream inputStream);
+
+    /**
+     * Deletes the given persons with their addresses and contact infos, one transaction per chunk.
+     *
+     * @param personIds the IDs of the persons to delete
+     * @return the number of deleted persons and the IDs not found
+     */
+    PersonBulkDeleteResponse deletePersons(List<Long> personIds);
+}
@@ -0,0 +1,242 @@
+package hu.baumannr.personregistryapi.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import hu.baumannr.personregistryapi.mapper.PersonMapper;
+import hu.baumannr.personregistryapi.persistence.model.ChangeEventType;
+import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.persistence.model.PersonName;
+import hu.baumannr.personregistryapi.persistence.repository.PersonRepository;
+import hu.baumannr.personregistryapi.rest.model.PersonBatchCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.PersonBatchItemResult;
+import hu.baumannr.personregistryapi.rest.model.PersonBatchResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonBulkDeleteResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.BATCH_INVALID_JSON;
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.BATCH_NOT_AN_ARRAY;
+
+@Service
+@RequiredArgsConstructor
+public class PersonBatchServiceImpl implements PersonBatchService {
+
+    /**
+     * Items written in one transaction, a multiple of the JDBC batch size.
+     */
+    static final int CHUNK_SIZE = 500;
+
+    private final PersonRepository personRepository;
+
+    private final PersonMapper personMapper;
+
+    private final ObjectMapper objectMapper;
+
+    private final PersonBatchValidator personBatchValidator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final PersonNameIndex personNameIndex;
+
+    private final PersonService personService;
+
+    private final ChangeEventService changeEventService;
+
+    private final ShardRouter shardRouter;
+
+    @Override
+    public PersonBatchResponse createPersons(InputStream inputStream) {
+        PersonBatchResponse response = new PersonBatchResponse()
+                .created(0)
+                .failed(0);
+        List<PendingItem> chunk = new ArrayList<>(CHUNK_SIZE);
+        int index = 0;
+
+        try (JsonParser parser = objectMapper.createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new PersonApiException(HttpStatus.BAD_REQUEST, BATCH_NOT_AN_ARRAY);
+            }
+
+            JsonToken token;
+            while ((token = nextToken(parser, index)) != JsonToken.END_ARRAY) {
+                JsonNode node = readItem(parser, token, index);
+                PersonBatchCreateRequest request = toRequest(node);
+                String error = personBatchValidator.validate(request);
+                if (error != null) {
+                    fail(response, index, error);
+                } else {
+                    chunk.add(new PendingItem(index, request));
+                }
+
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(chunk, response);
+                    chunk.clear();
+                }
+                index++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        writeChunk(chunk, response);
+        return response;
+    }
+
+    @Override
+    public PersonBulkDeleteResponse deletePersons(List<Long> personIds) {
+        List<Long> ids = personIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<Integer, List<Long>> idsByShard = ids.stream()
+                .collect(Collectors.groupingBy(shardRouter::shardOf, TreeMap::new, Collectors.toList()));
+        Set<Long> deleted = new HashSet<>(ids.size());
+        for (Map.Entry<Integer, List<Long>> shard : idsByShard.entrySet()) {
+            List<Long> shardIds = shard.getValue();
+            for (int from = 0; from < shardIds.size(); from += CHUNK_SIZE) {
+                List<Long> chunk = shardIds.subList(from, Math.min(from + CHUNK_SIZE, shardIds.size()));
+                deleted.addAll(shardRouter.onShard(shard.getKey(), () -> deleteChunk(chunk)));
+            }
+        }
+        return new PersonBulkDeleteResponse()
+                .deleted(deleted.size())
+                .notFound(ids.stream()
+                        .filter(id -> ! deleted.contains(id))
+                        .toList());
+    }
+
+    /**
+     * Deletes the existing persons of the chunk in a transaction of its own on the current shard, in four statements
+     * whatever the number of children.
+     */
+    private List<Long> deleteChunk(List<Long> chunk) {
+        return transactionTemplate.execute(status -> {
+            List<Long> existing = personRepository.findExistingIds(chunk);
+            personService.deletePersons(existing);
+            return existing;
+        });
+    }
+
+    private static JsonToken nextToken(JsonParser parser, int index) throws IOException {
+        try {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                throw invalidJson(index);
+            }
+            return token;
+        } catch (JsonProcessingException e) {
+            throw invalidJson(index);
+        }
+    }
+
+    private JsonNode readItem(JsonParser parser, JsonToken token, int index) throws IOException {
+        try {
+            return token == JsonToken.START_OBJECT ? objectMapper.readTree(parser) : skip(parser);
+        } catch (JsonProcessingException e) {
+            throw invalidJson(index);
+        }
+    }
+
+    private static JsonNode skip(JsonParser parser) throws IOException {
+        parser.skipChildren();
+        return null;
+    }
+
+    private PersonBatchCreateRequest toRequest(JsonNode node) {
+        if (node == null) {
+            return null;
+        }
+        try {
+            return objectMapper.treeToValue(node, PersonBatchCreateRequest.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private void writeChunk(List<PendingItem> chunk, PersonBatchResponse response) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Long> ids = persist(chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                succeed(response, chunk.get(i).index(), ids.get(i));
+            }
+        } catch (DataAccessException e) {
+            for (PendingItem item : chunk) {
+                try {
+                    succeed(response, item.index(), persist(List.of(item)).get(0));
+                } catch (DataAccessException itemException) {
+                    fail(response, item.index(), itemException.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Persists the items in a transaction of their own.
+     */
+    private List<Long> persist(List<PendingItem> items) {
+        return transactionTemplate.execute(status -> {
+            List<Person> persons = items.stream()
+                    .map(item -> personMapper.convert(item.request()))
+                    .toList();
+            persons.stream()
+                    .flatMap(person -> Stream.ofNullable(person.getContactInfos()).flatMap(Set::stream))
+                    .forEach(ContactValueNormalizer::normalize);
+            List<Person> savedPersons = personRepository.saveAllAndFlush(persons);
+            personNameIndex.put(savedPersons.stream()
+                    .map(PersonName::of)
+                    .toList());
+            List<Long> ids = savedPersons.stream()
+                    .map(Person::getId)
+                    .toList();
+            changeEventService.recordChanges(ChangeEventType.PERSON_CREATED, ids);
+            return ids;
+        });
+    }
+
+    private static void succeed(PersonBatchResponse response, int index, Long id) {
+        response.created(response.getCreated() + 1)
+                .addResultsItem(new PersonBatchItemResult()
+                        .index(index)
+                        .status(PersonBatchItemResult.StatusEnum.CREATED)
+                        .id(id));
+    }
+
+    private static void fail(PersonBatchResponse response, int index, String error) {
+        response.failed(response.getFailed() + 1)
+                .addResultsItem(new PersonBatchItemResult()
+                        .index(index)
+                        .status(PersonBatchItemResult.StatusEnum.FAILED)
+                        .error(error));
+    }
+
+    private static PersonApiException invalidJson(int index) {
+        return new PersonApiException(HttpStatus.BAD_REQUEST, String.format(BATCH_INVALID_JSON, index));
+    }
+
+    private record PendingItem(int index, PersonBatchCreateRequest request) {
+    }
+}
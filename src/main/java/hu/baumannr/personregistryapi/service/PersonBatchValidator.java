@@ -0,0 +1,57 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.rest.model.AddressCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.PersonBatchCreateRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.BATCH_DUPLICATE_ADDRESS_TYPE;
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.BATCH_ITEM_NOT_READABLE;
+
+/**
+ * Validates the persons of the bulk write paths item by item, so an invalid item is reported instead of failing
+ * the whole request.
+ */
+@Component
+@RequiredArgsConstructor
+public class PersonBatchValidator {
+
+    private final Validator validator;
+
+    /**
+     * Validates the given request against its constraints and the one address per type rule.
+     *
+     * @param request the request to validate, null if it could not be read
+     * @return the error message, or null if the request is valid
+     */
+    public String validate(PersonBatchCreateRequest request) {
+        if (request == null) {
+            return BATCH_ITEM_NOT_READABLE;
+        }
+
+        Set<ConstraintViolation<PersonBatchCreateRequest>> violations = validator.validate(request);
+        if (! violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+
+        if (request.getAddresses() == null) {
+            return null;
+        }
+        Set<AddressCreateRequest.TypeEnum> addressTypes = new HashSet<>();
+        for (AddressCreateRequest address : request.getAddresses()) {
+            if (! addressTypes.add(address.getType())) {
+                return String.format(BATCH_DUPLICATE_ADDRESS_TYPE, address.getType().getValue());
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,19 @@
+package hu.baumannr.personregistryapi.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Service interface for exporting the whole registry.
+ */
+public interface PersonExportService {
+
+    /**
+     * Writes every person with its addresses and contact infos to the given stream.
+     *
+     * @param format the format of the export
+     * @param outputStream the stream to write the export to
+     * @throws IOException if writing to the stream fails
+     */
+    void exportPersons(ExportFormat format, OutputStream outputStream) throws IOException;
+}
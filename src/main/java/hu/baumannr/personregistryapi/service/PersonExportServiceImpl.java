@@ -0,0 +1,140 @@
+package hu.baumannr.personregistryapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hu.baumannr.personregistryapi.mapper.PersonMapper;
+import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.persistence.repository.PersonRepository;
+import hu.baumannr.personregistryapi.rest.model.AddressResponse;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class PersonExportServiceImpl implements PersonExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Persons read in one query, their children are loaded in batches of the collections.
+     */
+    static final int CHUNK_SIZE = 500;
+
+    private static final List<String> CSV_HEADER = List.of("recordType", "personId", "id", "type", "firstName",
+            "lastName", "country", "city", "zip", "street", "value", "createdAt", "updatedAt");
+
+    private final PersonRepository personRepository;
+
+    private final PersonMapper personMapper;
+
+    private final ObjectMapper objectMapper;
+
+    private final EntityManager entityManager;
+
+    private final ShardRouter shardRouter;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportPersons(ExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == ExportFormat.CSV) {
+            writeCsvRow(writer, CSV_HEADER);
+        }
+
+        try {
+            shardRouter.onEveryShardInTurn(() -> writePersons(format, writer));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void writePersons(ExportFormat format, Writer writer) {
+        // Keeps the export from evicting the cached collections of the active persons
+        entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        try {
+            long afterId = 0L;
+            List<Person> persons;
+            do {
+                persons = personRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(CHUNK_SIZE));
+                for (Person person : persons) {
+                    PersonResponse response = personMapper.convert(person);
+                    if (format == ExportFormat.CSV) {
+                        writeCsv(writer, response);
+                    } else {
+                        writeNdjson(writer, response);
+                    }
+                    afterId = person.getId();
+                }
+                entityManager.clear();
+            } while (persons.size() == CHUNK_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeNdjson(Writer writer, PersonResponse response) throws IOException {
+        writer.write(objectMapper.writeValueAsString(response));
+        writer.write('\n');
+    }
+
+    private void writeCsv(Writer writer, PersonResponse person) throws IOException {
+        Long personId = person.getId();
+        writeCsvRow(writer, row("PERSON", personId, personId, null, person.getFirstName(), person.getLastName(),
+                null, null, null, null, null, person.getCreatedAt(), person.getUpdatedAt()));
+
+        for (AddressResponse address : nullSafe(person.getAddresses())) {
+            writeCsvRow(writer, row("ADDRESS", personId, address.getId(), address.getType(), null, null,
+                    address.getCountry(), address.getCity(), address.getZip(), address.getStreet(), null,
+                    address.getCreatedAt(), address.getUpdatedAt()));
+        }
+
+        for (ContactInfoResponse contactInfo : nullSafe(person.getContactInfos())) {
+            writeCsvRow(writer, row("CONTACT_INFO", personId, contactInfo.getId(), contactInfo.getType(), null,
+                    null, null, null, null, null, contactInfo.getValue(), contactInfo.getCreatedAt(),
+                    contactInfo.getUpdatedAt()));
+        }
+    }
+
+    private static List<String> row(Object... values) {
+        return Stream.of(values)
+                .map(value -> Objects.toString(value, ""))
+                .toList();
+    }
+
+    private static void writeCsvRow(Writer writer, List<String> values) throws IOException {
+        writer.write(values.stream()
+                .map(PersonExportServiceImpl::escapeCsv)
+                .collect(Collectors.joining(",")));
+        writer.write("\r\n");
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static <T> List<T> nullSafe(List<T> list) {
+        return list != null ? list : List.of();
+    }
+}
@@ -0,0 +1,261 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.persistence.model.PersonName;
+import hu.baumannr.personregistryapi.persistence.repository.PersonRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory prefix index of the person names, serving the typeahead without querying the database. Every person
+ * is indexed under "first name last name" and "last name first name", lower-cased and without accents, in arrays
+ * sorted by the normalized name. A prefix is looked up by a binary search to its first match.
+ * <p>
+ * The index is an immutable snapshot published through a volatile field, so readers take no lock and always see a
+ * complete index. It has two segments: the large base built at startup, and a small delta holding the persons
+ * changed since, whose base entries are hidden. A change copies only the delta, and once the delta grows large it
+ * is merged into a new base. Writers are serialized. Changes made inside a transaction are applied when it
+ * commits, so a rolled back write never shows up in the suggestions.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PersonNameIndex implements SmartInitializingSingleton {
+
+    /**
+     * Entries and hidden persons the delta may hold before it is merged into the base.
+     */
+    static final int MAX_DELTA = 4096;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::key)
+            .thenComparingLong(Entry::personId);
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private final PersonRepository personRepository;
+
+    private final ShardRouter shardRouter;
+
+    private volatile Snapshot snapshot = new Snapshot(NO_ENTRIES, NO_ENTRIES, Set.of());
+
+    /**
+     * Builds the index from the database, from every shard, before the application starts serving requests.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<PersonName> names = shardRouter.onEveryShard(personRepository::findAllNames).stream()
+                .flatMap(List::stream)
+                .toList();
+        Entry[] base = sortedEntriesOf(names);
+        synchronized (this) {
+            snapshot = new Snapshot(base, NO_ENTRIES, Set.of());
+        }
+        log.info("Person name index built with {} persons", names.size());
+    }
+
+    /**
+     * Returns the persons whose name starts with the given text, ordered by the matching name.
+     *
+     * @param prefix the beginning of the name
+     * @param limit the maximum number of persons to return
+     * @return the matching persons, each at most once
+     */
+    public List<PersonName> suggest(String prefix, int limit) {
+        String key = normalize(prefix).stripLeading();
+        // A single read of the field, the snapshot does not change under the lookup
+        Snapshot current = snapshot;
+        Entry[] base = current.base();
+        Entry[] delta = current.delta();
+        int i = firstAtLeast(base, key);
+        int j = firstAtLeast(delta, key);
+        Map<Long, PersonName> matches = new LinkedHashMap<>();
+        while (matches.size() < limit) {
+            Entry fromBase = matching(base, i, key);
+            Entry fromDelta = matching(delta, j, key);
+            Entry next;
+            if (fromBase != null && (fromDelta == null || ORDER.compare(fromBase, fromDelta) <= 0)) {
+                next = fromBase;
+                i++;
+                if (current.hidden().contains(next.personId())) {
+                    continue;
+                }
+            } else if (fromDelta != null) {
+                next = fromDelta;
+                j++;
+            } else {
+                break;
+            }
+            matches.putIfAbsent(next.personId(), next.name());
+        }
+        return List.copyOf(matches.values());
+    }
+
+    /**
+     * Adds or replaces the names of the given persons once the current transaction commits.
+     *
+     * @param names the names of the persons
+     */
+    public void put(Collection<PersonName> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        List<PersonName> changed = List.copyOf(names);
+        afterCommit(() -> apply(ids(changed), changed));
+    }
+
+    /**
+     * Adds or replaces the name of the given person once the current transaction commits.
+     *
+     * @param name the name of the person
+     */
+    public void put(PersonName name) {
+        put(List.of(name));
+    }
+
+    /**
+     * Removes the given person once the current transaction commits.
+     *
+     * @param personId the ID of the person
+     */
+    public void remove(Long personId) {
+        remove(List.of(personId));
+    }
+
+    /**
+     * Removes the given persons once the current transaction commits.
+     *
+     * @param personIds the IDs of the persons
+     */
+    public void remove(Collection<Long> personIds) {
+        if (personIds.isEmpty()) {
+            return;
+        }
+        Set<Long> removed = Set.copyOf(personIds);
+        afterCommit(() -> apply(removed, List.of()));
+    }
+
+    private synchronized void apply(Set<Long> changedIds, List<PersonName> added) {
+        Snapshot current = snapshot;
+        Entry[] kept = Arrays.stream(current.delta())
+                .filter(entry -> ! changedIds.contains(entry.personId()))
+                .toArray(Entry[]::new);
+        Entry[] delta = merge(kept, sortedEntriesOf(added));
+        Set<Long> hidden = new HashSet<>(current.hidden());
+        hidden.addAll(changedIds);
+
+        if (delta.length + hidden.size() <= MAX_DELTA) {
+            snapshot = new Snapshot(current.base(), delta, hidden);
+            return;
+        }
+        Entry[] visible = Arrays.stream(current.base())
+                .filter(entry -> ! hidden.contains(entry.personId()))
+                .toArray(Entry[]::new);
+        snapshot = new Snapshot(merge(visible, delta), NO_ENTRIES, Set.of());
+    }
+
+    private static Entry matching(Entry[] entries, int index, String key) {
+        return index < entries.length && entries[index].key().startsWith(key) ? entries[index] : null;
+    }
+
+    private static Entry[] sortedEntriesOf(List<PersonName> names) {
+        return names.stream()
+                .flatMap(name -> entriesOf(name).stream())
+                .sorted(ORDER)
+                .toArray(Entry[]::new);
+    }
+
+    private static Entry[] merge(Entry[] left, Entry[] right) {
+        Entry[] merged = new Entry[left.length + right.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < left.length && j < right.length) {
+            merged[k++] = ORDER.compare(left[i], right[j]) <= 0 ? left[i++] : right[j++];
+        }
+        System.arraycopy(left, i, merged, k, left.length - i);
+        System.arraycopy(right, j, merged, k + left.length - i, right.length - j);
+        return merged;
+    }
+
+    /**
+     * Returns the position of the first entry whose key is not less than the given one.
+     */
+    private static int firstAtLeast(Entry[] entries, String key) {
+        int low = 0;
+        int high = entries.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (entries[middle].key().compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static List<Entry> entriesOf(PersonName name) {
+        String firstName = normalize(name.firstName()).strip();
+        String lastName = normalize(name.lastName()).strip();
+        return List.of(
+                new Entry(firstName + " " + lastName, name.id(), name),
+                new Entry(lastName + " " + firstName, name.id(), name));
+    }
+
+    /**
+     * Lower-cases the value, strips its accents and collapses its whitespace, so "Kovács  Ödön" matches "kovacs od".
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        String unaccented = MARKS.matcher(decomposed).replaceAll("");
+        return WHITESPACE.matcher(unaccented).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<Long> ids(List<PersonName> names) {
+        return names.stream()
+                .map(PersonName::id)
+                .collect(Collectors.toSet());
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (! TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    private record Snapshot(Entry[] base, Entry[] delta, Set<Long> hidden) {
+    }
+
+    private record Entry(String key, long personId, PersonName name) {
+    }
+}
@@ -0,0 +1,114 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.mapper.PersonMapper;
+import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.rest.model.PersonPageResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Seek pagination of persons, shared by the servlet and the reactive services. A page is queried with one row more
+ * than its size, the extra row tells whether a next page exists without a count query. A sharded page is queried on
+ * every shard and merged by ID.
+ */
+final class PersonPages {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
+    private PersonPages() {
+
+    }
+
+    /**
+     * Returns the size of the page requested with the given limit.
+     *
+     * @param limit the requested limit, or null for the default
+     * @return the size of the page
+     */
+    static int pageSize(Integer limit) {
+        return limit != null ? limit : DEFAULT_PAGE_SIZE;
+    }
+
+    /**
+     * Returns the ID the page starts after.
+     *
+     * @param after the cursor of the previous page, or null for the first page
+     * @return the ID to seek after
+     */
+    static Long afterId(String after) {
+        return after != null ? CursorCodec.decode(after) : Long.MIN_VALUE;
+    }
+
+    /**
+     * Converts the persons queried for a page into the page response.
+     *
+     * @param persons the persons, at most one more than the page size
+     * @param pageSize the size of the page
+     * @param personMapper the mapper of the persons
+     * @return the page with the cursor of the next page, if there is one
+     */
+    static PersonPageResponse of(List<Person> persons, int pageSize, PersonMapper personMapper) {
+        return merge(List.of(slice(persons, pageSize, personMapper)), pageSize);
+    }
+
+    /**
+     * Converts the persons queried for a page on one shard. The extra row is not converted.
+     *
+     * @param persons the persons of the shard ordered by ID, at most one more than the page size
+     * @param pageSize the size of the page
+     * @param personMapper the mapper of the persons
+     * @return the converted persons of the shard
+     */
+    static Slice slice(List<Person> persons, int pageSize, PersonMapper personMapper) {
+        List<Item> items = persons.stream()
+                .limit(pageSize)
+                .map(person -> new Item(person.getId(), personMapper.convert(person)))
+                .toList();
+        return new Slice(items, persons.size() > pageSize);
+    }
+
+    /**
+     * Merges the slices of the shards into the page response. Each shard holds the first persons of the page it
+     * owns, so the first persons of the merged slices are the page.
+     *
+     * @param slices the slices of the shards
+     * @param pageSize the size of the page
+     * @return the page with the cursor of the next page, if there is one
+     */
+    static PersonPageResponse merge(List<Slice> slices, int pageSize) {
+        List<Item> merged = slices.size() == 1 ? slices.get(0).items() : slices.stream()
+                .flatMap(slice -> slice.items().stream())
+                .sorted(Comparator.comparing(Item::id))
+                .toList();
+        boolean hasNext = merged.size() > pageSize || slices.stream().anyMatch(Slice::hasNext);
+
+        List<Item> page = merged.size() > pageSize ? merged.subList(0, pageSize) : merged;
+        PersonPageResponse response = new PersonPageResponse().items(page.stream()
+                .map(Item::person)
+                .toList());
+        if (hasNext) {
+            response.nextCursor(CursorCodec.encode(page.get(pageSize - 1).id()));
+        }
+        return response;
+    }
+
+    /**
+     * The persons of a page queried on one shard.
+     *
+     * @param items the converted persons ordered by ID, at most the page size of them
+     * @param hasNext whether the shard has more persons
+     */
+    record Slice(List<Item> items, boolean hasNext) {
+    }
+
+    /**
+     * A converted person with the ID it is ordered by.
+     *
+     * @param id the ID of the person
+     * @param person the converted person
+     */
+    record Item(Long id, PersonResponse person) {
+    }
+}
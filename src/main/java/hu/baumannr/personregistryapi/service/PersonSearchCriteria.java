@@ -0,0 +1,24 @@
+package hu.baumannr.personregistryapi.service;
+
+/**
+ * Filters of the person search. Null filters are not applied.
+ *
+ * @param firstName the first name
+ * @param lastName the last name
+ * @param country the country of an address
+ * @param city the city of the same address
+ * @param zip the zip code of the same address
+ * @param contactValue the value of a contact info
+ */
+public record PersonSearchCriteria(String firstName, String lastName, String country, String city, String zip,
+                                   String contactValue) {
+
+    /**
+     * Tells whether any of the address filters is given.
+     *
+     * @return true if an address filter is given
+     */
+    public boolean hasAddressFilter() {
+        return country != null || city != null || zip != null;
+    }
+}
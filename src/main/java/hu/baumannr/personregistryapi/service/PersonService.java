@@ -1,9 +1,14 @@
 package hu.baumannr.personregistryapi.service;
 
+import hu.baumannr.personregistryapi.persistence.model.PersonVersion;
+import hu.baumannr.personregistryapi.rest.model.PersonChangesResponse;
 import hu.baumannr.personregistryapi.rest.model.PersonCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.PersonPageResponse;
 import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonSuggestionResponse;
 import hu.baumannr.personregistryapi.rest.model.PersonUpdateRequest;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -20,11 +25,51 @@ public interface PersonService {
     PersonResponse getPersonById(Long personId);
 
     /**
-     * Retrieves all persons.
+     * Retrieves the version of a person aggregate without loading the person.
      *
-     * @return list of all persons
+     * @param personId the ID of the person
+     * @return the version of the person
+     */
+    PersonVersion getPersonVersion(Long personId);
+
+    /**
+     * Retrieves a page of persons ordered by ID.
+     *
+     * @param limit the maximum number of persons on the page
+     * @param after the cursor of the previous page, or null for the first page
+     * @return the page of persons
+     */
+    PersonPageResponse getAllPersons(Integer limit, String after);
+
+    /**
+     * Retrieves a page of the persons matching the given criteria, ordered by ID.
+     *
+     * @param criteria the search criteria
+     * @param limit the maximum number of persons on the page
+     * @param after the cursor of the previous page, or null for the first page
+     * @return the page of persons
+     */
+    PersonPageResponse searchPersons(PersonSearchCriteria criteria, Integer limit, String after);
+
+    /**
+     * Suggests the persons whose name starts with the given text.
+     *
+     * @param prefix the beginning of the name
+     * @param limit the maximum number of suggestions
+     * @return the suggested persons, ordered by the matching name
      */
-    List<PersonResponse> getAllPersons();
+    List<PersonSuggestionResponse> suggestPersons(String prefix, Integer limit);
+
+    /**
+     * Retrieves the changes of the persons after the given sync token: the persons created or changed in their
+     * current state, and the delete events as tombstones. Costs a seek on the change events, and a query of the
+     * changed persons with their children loaded in batches, proportional to the changes instead of the persons.
+     *
+     * @param since the token returned by the previous call, or null to get the current token only
+     * @param limit the maximum number of change events to return
+     * @return the changes with the token to continue from
+     */
+    PersonChangesResponse getPersonChanges(String since, Integer limit);
 
     /**
      * Creates a new person using the provided request data.
@@ -39,14 +84,35 @@ public interface PersonService {
      *
      * @param personId the ID of the person to update
      * @param request the new data for the person
+     * @param expectedVersion the version of the person aggregate the change is based on, or null to change any version
      * @return the updated person
      */
-    PersonResponse updatePerson(Long personId, PersonUpdateRequest request);
+    PersonResponse updatePerson(Long personId, PersonUpdateRequest request, Long expectedVersion);
 
     /**
-     * Deletes the person identified by the given ID.
+     * Sets the given names of the person and increments its version in a single statement, without loading it.
+     * Missing names are kept.
+     *
+     * @param personId the ID of the person to update
+     * @param request the names to change
+     * @param expectedVersion the version of the person aggregate the change is based on, or null to change any version
+     */
+    void patchPerson(Long personId, PersonUpdateRequest request, Long expectedVersion);
+
+    /**
+     * Deletes the person identified by the given ID with its addresses and contact infos.
      *
      * @param personId the ID of the person to delete
+     * @param expectedVersion the version of the person aggregate the change is based on, or null to change any version
+     */
+    void deletePerson(Long personId, Long expectedVersion);
+
+    /**
+     * Deletes the given persons with their addresses and contact infos in a constant number of statements,
+     * without loading them. With sharding, the persons have to be on the shard the caller runs on.
+     *
+     * @param personIds the IDs of the persons to delete
+     * @return the number of deleted persons
      */
-    void deletePerson(Long personId);
+    int deletePersons(Collection<Long> personIds);
 }
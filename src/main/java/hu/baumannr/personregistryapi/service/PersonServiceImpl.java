@@ -1,63 +1,266 @@
 package hu.baumannr.personregistryapi.service;
 
+import hu.baumannr.personregistryapi.constant.CacheNames;
 import hu.baumannr.personregistryapi.constant.ErrorMessages;
 import hu.baumannr.personregistryapi.exception.PersonApiException;
 import hu.baumannr.personregistryapi.mapper.PersonMapper;
+import hu.baumannr.personregistryapi.persistence.model.ChangeEventType;
 import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.persistence.model.PersonName;
+import hu.baumannr.personregistryapi.persistence.model.PersonVersion;
+import hu.baumannr.personregistryapi.persistence.repository.AddressRepository;
+import hu.baumannr.personregistryapi.persistence.repository.ContactInfoRepository;
+import hu.baumannr.personregistryapi.persistence.repository.PartialUpdateRepository;
 import hu.baumannr.personregistryapi.persistence.repository.PersonRepository;
+import hu.baumannr.personregistryapi.persistence.repository.PersonSpecifications;
+import hu.baumannr.personregistryapi.rest.model.ChangeEventResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonChangesResponse;
 import hu.baumannr.personregistryapi.rest.model.PersonCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.PersonPageResponse;
 import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonSuggestionResponse;
 import hu.baumannr.personregistryapi.rest.model.PersonUpdateRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class PersonServiceImpl implements PersonService {
 
+    private static final int DEFAULT_SUGGESTION_COUNT = 10;
+
+    private static final Set<ChangeEventResponse.TypeEnum> DELETES = Set.of(
+            ChangeEventResponse.TypeEnum.PERSON_DELETED,
+            ChangeEventResponse.TypeEnum.ADDRESS_DELETED,
+            ChangeEventResponse.TypeEnum.CONTACT_INFO_DELETED);
+
     private final PersonRepository personRepository;
 
+    private final PartialUpdateRepository partialUpdateRepository;
+
     private final PersonMapper personMapper;
 
+    private final PersonNameIndex personNameIndex;
+
+    private final AddressRepository addressRepository;
+
+    private final ContactInfoRepository contactInfoRepository;
+
+    private final CacheManager cacheManager;
+
+    private final ChangeEventService changeEventService;
+
+    private final ShardRouter shardRouter;
+
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheNames.PERSONS, key = "#personId", sync = true)
     public PersonResponse getPersonById(Long personId) {
-        Person person = getPerson(personId);
+        Person person = getPersonWithChildren(personId);
         return personMapper.convert(person);
     }
 
     @Override
-    public List<PersonResponse> getAllPersons() {
-        List<Person> persons = personRepository.findAll();
-        return persons.stream()
+    @Transactional(readOnly = true)
+    public PersonVersion getPersonVersion(Long personId) {
+        return personRepository.findVersionById(personId)
+                .orElseThrow(() -> new PersonApiException(HttpStatus.NOT_FOUND,
+                        String.format(ErrorMessages.PERSON_NOT_FOUND, personId)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PersonPageResponse getAllPersons(Integer limit, String after) {
+        int pageSize = PersonPages.pageSize(limit);
+        Long afterId = PersonPages.afterId(after);
+
+        List<PersonPages.Slice> slices = shardRouter.onEveryShard(() -> PersonPages.slice(
+                personRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1)), pageSize,
+                personMapper));
+        return PersonPages.merge(slices, pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PersonPageResponse searchPersons(PersonSearchCriteria criteria, Integer limit, String after) {
+        int pageSize = PersonPages.pageSize(limit);
+        Long afterId = PersonPages.afterId(after);
+
+        List<Specification<Person>> specifications = new ArrayList<>();
+        specifications.add(PersonSpecifications.idGreaterThan(afterId));
+        if (criteria.firstName() != null) {
+            specifications.add(PersonSpecifications.hasFirstName(criteria.firstName()));
+        }
+        if (criteria.lastName() != null) {
+            specifications.add(PersonSpecifications.hasLastName(criteria.lastName()));
+        }
+        if (criteria.hasAddressFilter()) {
+            specifications.add(PersonSpecifications.hasAddress(criteria.country(), criteria.city(), criteria.zip()));
+        }
+        if (criteria.contactValue() != null) {
+            specifications.add(PersonSpecifications.hasContactValue(criteria.contactValue()));
+        }
+
+        List<PersonPages.Slice> slices = shardRouter.onEveryShard(() -> PersonPages.slice(
+                personRepository.findBy(Specification.allOf(specifications), query -> query
+                        .sortBy(Sort.by("id"))
+                        .limit(pageSize + 1)
+                        .all()), pageSize, personMapper));
+        return PersonPages.merge(slices, pageSize);
+    }
+
+    @Override
+    public List<PersonSuggestionResponse> suggestPersons(String prefix, Integer limit) {
+        int count = limit != null ? limit : DEFAULT_SUGGESTION_COUNT;
+        return personNameIndex.suggest(prefix, count).stream()
                 .map(personMapper::convert)
                 .toList();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public PersonChangesResponse getPersonChanges(String since, Integer limit) {
+        if (since == null) {
+            return new PersonChangesResponse()
+                    .nextToken(ChangeTokenCodec.encode(changeEventService.getLastPosition()))
+                    .hasMore(false);
+        }
+        long position = ChangeTokenCodec.decode(since);
+        int pageSize = PersonPages.pageSize(limit);
+
+        List<ChangeEventResponse> events = changeEventService.getEventsAfter(position, pageSize + 1);
+        // The positions are contiguous and expire from the first one, a gap after the token means it expired
+        if (! events.isEmpty() && events.get(0).getPosition() != position + 1) {
+            throw new PersonApiException(HttpStatus.GONE, String.format(ErrorMessages.CHANGE_TOKEN_EXPIRED, since));
+        }
+        List<ChangeEventResponse> page = events.stream()
+                .limit(pageSize)
+                .toList();
+
+        Set<Long> changedIds = new LinkedHashSet<>();
+        List<ChangeEventResponse> deleted = new ArrayList<>();
+        for (ChangeEventResponse event : page) {
+            if (DELETES.contains(event.getType())) {
+                deleted.add(event);
+            }
+            if (event.getType() != ChangeEventResponse.TypeEnum.PERSON_DELETED) {
+                changedIds.add(event.getPersonId());
+            }
+        }
+        // A person deleted after its change is not found, its tombstone is in this page or a following one
+        List<PersonResponse> persons = changedIds.isEmpty() ? List.of()
+                : shardRouter.onEveryShard(() -> personRepository.findByIdInOrderByIdAsc(changedIds).stream()
+                                .map(personMapper::convert)
+                                .toList()).stream()
+                        .flatMap(List::stream)
+                        .sorted(Comparator.comparing(PersonResponse::getId))
+                        .toList();
+
+        long nextPosition = page.isEmpty() ? position : page.get(page.size() - 1).getPosition();
+        return new PersonChangesResponse()
+                .persons(persons)
+                .deleted(deleted)
+                .nextToken(ChangeTokenCodec.encode(nextPosition))
+                .hasMore(events.size() > pageSize);
+    }
+
+    @Override
+    @Transactional
     public PersonResponse createPerson(PersonCreateRequest request) {
-        Person person = personMapper.convert(request);
-        Person savedPerson = personRepository.save(person);
-        return personMapper.convert(savedPerson);
+        // The connection is obtained at the first statement, so the insert goes to the shard picked here
+        return shardRouter.onNewShard(() -> {
+            Person person = personMapper.convert(request);
+            Person savedPerson = personRepository.saveAndFlush(person);
+            personNameIndex.put(PersonName.of(savedPerson));
+            changeEventService.recordChange(ChangeEventType.PERSON_CREATED, savedPerson.getId(), savedPerson.getId());
+            return personMapper.convert(savedPerson);
+        });
     }
 
     @Override
-    public PersonResponse updatePerson(Long personId, PersonUpdateRequest request) {
-        Person person = getPerson(personId);
+    @Transactional
+    @CacheEvict(cacheNames = CacheNames.PERSONS, key = "#personId")
+    public PersonResponse updatePerson(Long personId, PersonUpdateRequest request, Long expectedVersion) {
+        Person person = getPersonWithChildren(personId);
+        PersonVersions.check(person, expectedVersion);
         personMapper.updatePerson(person, request);
-        Person updatedPerson = personRepository.save(person);
+        Person updatedPerson = personRepository.saveAndFlush(person);
+        personNameIndex.put(PersonName.of(updatedPerson));
+        changeEventService.recordChange(ChangeEventType.PERSON_UPDATED, personId, personId);
         return personMapper.convert(updatedPerson);
     }
 
     @Override
-    public void deletePerson(Long personId) {
-        personRepository.deleteById(personId);
+    @Transactional
+    @CacheEvict(cacheNames = CacheNames.PERSONS, key = "#personId")
+    public void patchPerson(Long personId, PersonUpdateRequest request, Long expectedVersion) {
+        String firstName = request.getFirstName();
+        String lastName = request.getLastName();
+        if (firstName == null && lastName == null) {
+            throw new PersonApiException(HttpStatus.BAD_REQUEST, ErrorMessages.PATCH_WITHOUT_CHANGE);
+        }
+        if (partialUpdateRepository.updatePerson(personId, firstName, lastName, expectedVersion,
+                LocalDateTime.now()) == 0) {
+            throw PersonVersions.notWritten(personRepository, personId, expectedVersion);
+        }
+        PersonName name = firstName != null && lastName != null ? new PersonName(personId, firstName, lastName)
+                : personRepository.findNameById(personId).orElseThrow();
+        personNameIndex.put(name);
+        changeEventService.recordChange(ChangeEventType.PERSON_UPDATED, personId, personId);
+    }
+
+    @Override
+    @Transactional
+    public void deletePerson(Long personId, Long expectedVersion) {
+        if (expectedVersion != null) {
+            // The set-based deletes do not check the version, the conditional bump does and locks the person
+            PersonVersions.touch(personRepository, personId, expectedVersion);
+        }
+        if (deletePersons(List.of(personId)) == 0) {
+            throw new PersonApiException(HttpStatus.NOT_FOUND,
+                    String.format(ErrorMessages.PERSON_NOT_FOUND, personId));
+        }
+    }
+
+    @Override
+    @Transactional
+    public int deletePersons(Collection<Long> personIds) {
+        if (personIds.isEmpty()) {
+            return 0;
+        }
+        contactInfoRepository.deleteByPersonIds(personIds);
+        addressRepository.deleteByPersonIds(personIds);
+        int deleted = personRepository.deleteByIds(personIds);
+        changeEventService.recordChanges(ChangeEventType.PERSON_DELETED, personIds);
+
+        personNameIndex.remove(personIds);
+        Cache persons = cacheManager.getCache(CacheNames.PERSONS);
+        if (persons != null) {
+            personIds.forEach(persons::evict);
+        }
+        return deleted;
     }
 
-    private Person getPerson(Long personId) {
-        return personRepository.findById(personId)
+    private Person getPersonWithChildren(Long personId) {
+        // Fetching both collections would join the product of their rows
+        return personRepository.findWithAddressesById(personId)
                 .orElseThrow(() -> new PersonApiException(HttpStatus.NOT_FOUND,
                         String.format(ErrorMessages.PERSON_NOT_FOUND, personId)));
     }
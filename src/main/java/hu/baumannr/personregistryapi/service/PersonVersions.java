@@ -0,0 +1,75 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.persistence.repository.PersonRepository;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.PERSON_NOT_FOUND;
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.PERSON_VERSION_MISMATCH;
+
+/**
+ * Optimistic concurrency of the person aggregate, shared by the services writing it. The version of the person is
+ * the concurrency token of the whole aggregate, a write conditional on it fails with 412 if the person has changed
+ * since, in the same statement that bumps the version.
+ */
+final class PersonVersions {
+
+    private PersonVersions() {
+
+    }
+
+    /**
+     * Increments the version of the person aggregate, so its ETag changes with the children, and locks the person
+     * until the change commits.
+     *
+     * @param personRepository the repository of the persons
+     * @param personId the ID of the person
+     * @param expectedVersion the version the change is based on, or null to change any version
+     * @throws PersonApiException with 404 if the person does not exist, or with 412 if it has another version
+     */
+    static void touch(PersonRepository personRepository, Long personId, Long expectedVersion) {
+        LocalDateTime now = LocalDateTime.now();
+        int touched = expectedVersion != null ? personRepository.touchIfVersion(personId, expectedVersion, now)
+                : personRepository.touch(personId, now);
+        if (touched == 0) {
+            throw notWritten(personRepository, personId, expectedVersion);
+        }
+    }
+
+    /**
+     * Tells why a write of the person aggregate updated no row. Only a failed write pays for the query.
+     *
+     * @param personRepository the repository of the persons
+     * @param personId the ID of the person
+     * @param expectedVersion the version the write was based on, or null if it was unconditional
+     * @return the exception with 404 if the person does not exist, or with 412 if it has another version
+     */
+    static PersonApiException notWritten(PersonRepository personRepository, Long personId, Long expectedVersion) {
+        if (expectedVersion == null || personRepository.findVersionById(personId).isEmpty()) {
+            return new PersonApiException(HttpStatus.NOT_FOUND, String.format(PERSON_NOT_FOUND, personId));
+        }
+        return versionMismatch(personId, expectedVersion);
+    }
+
+    /**
+     * Checks the version of a loaded person. A change committed between the load and the flush is still caught by
+     * the version check of the update.
+     *
+     * @param person the loaded person
+     * @param expectedVersion the version the change is based on, or null to change any version
+     * @throws PersonApiException with 412 if the person has another version
+     */
+    static void check(Person person, Long expectedVersion) {
+        if (expectedVersion != null && ! expectedVersion.equals(person.getVersion())) {
+            throw versionMismatch(person.getId(), expectedVersion);
+        }
+    }
+
+    private static PersonApiException versionMismatch(Long personId, Long expectedVersion) {
+        return new PersonApiException(HttpStatus.PRECONDITION_FAILED,
+                String.format(PERSON_VERSION_MISMATCH, personId, expectedVersion));
+    }
+}
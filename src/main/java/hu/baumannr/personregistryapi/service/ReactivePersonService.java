@@ -0,0 +1,56 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.persistence.model.PersonVersion;
+import hu.baumannr.personregistryapi.rest.model.AddressResponse;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonPageResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service interface for the non-blocking reads of the reactive deployment.
+ */
+public interface ReactivePersonService {
+
+    /**
+     * Retrieves a person by their id.
+     *
+     * @param personId the ID of the person
+     * @return the person data, or an error with 404 if the person does not exist
+     */
+    Mono<PersonResponse> getPersonById(Long personId);
+
+    /**
+     * Retrieves the version of a person aggregate without loading the person.
+     *
+     * @param personId the ID of the person
+     * @return the version of the person, or an error with 404 if the person does not exist
+     */
+    Mono<PersonVersion> getPersonVersion(Long personId);
+
+    /**
+     * Retrieves a page of persons ordered by ID.
+     *
+     * @param limit the maximum number of persons on the page
+     * @param after the cursor of the previous page, or null for the first page
+     * @return the page of persons
+     */
+    Mono<PersonPageResponse> getAllPersons(Integer limit, String after);
+
+    /**
+     * Streams the addresses of a person.
+     *
+     * @param personId the ID of the person
+     * @return the addresses of the person
+     */
+    Flux<AddressResponse> getAddressesForPerson(Long personId);
+
+    /**
+     * Streams the contact information of a person.
+     *
+     * @param personId the ID of the person
+     * @return the contact information of the person
+     */
+    Flux<ContactInfoResponse> getContactInfosForPerson(Long personId);
+}
@@ -0,0 +1,72 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.constant.ErrorMessages;
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import hu.baumannr.personregistryapi.mapper.AddressMapper;
+import hu.baumannr.personregistryapi.mapper.ContactInfoMapper;
+import hu.baumannr.personregistryapi.mapper.PersonMapper;
+import hu.baumannr.personregistryapi.persistence.model.PersonVersion;
+import hu.baumannr.personregistryapi.persistence.repository.ReactivePersonRepository;
+import hu.baumannr.personregistryapi.rest.model.AddressResponse;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonPageResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePersonServiceImpl implements ReactivePersonService {
+
+    private final ReactivePersonRepository reactivePersonRepository;
+
+    private final PersonMapper personMapper;
+
+    private final AddressMapper addressMapper;
+
+    private final ContactInfoMapper contactInfoMapper;
+
+    @Override
+    public Mono<PersonResponse> getPersonById(Long personId) {
+        return reactivePersonRepository.findWithChildrenById(personId)
+                .switchIfEmpty(Mono.error(() -> personNotFound(personId)))
+                .map(personMapper::convert);
+    }
+
+    @Override
+    public Mono<PersonVersion> getPersonVersion(Long personId) {
+        return reactivePersonRepository.findVersionById(personId)
+                .switchIfEmpty(Mono.error(() -> personNotFound(personId)));
+    }
+
+    @Override
+    public Mono<PersonPageResponse> getAllPersons(Integer limit, String after) {
+        // Deferred, so an invalid cursor is signalled as an error instead of being thrown on assembly
+        return Mono.defer(() -> {
+            int pageSize = PersonPages.pageSize(limit);
+            return reactivePersonRepository.findWithChildrenByIdGreaterThan(PersonPages.afterId(after), pageSize + 1)
+                    .map(persons -> PersonPages.of(persons, pageSize, personMapper));
+        });
+    }
+
+    @Override
+    public Flux<AddressResponse> getAddressesForPerson(Long personId) {
+        return reactivePersonRepository.findAddressesByPersonId(personId)
+                .map(addressMapper::convert);
+    }
+
+    @Override
+    public Flux<ContactInfoResponse> getContactInfosForPerson(Long personId) {
+        return reactivePersonRepository.findContactInfosByPersonId(personId)
+                .map(contactInfoMapper::convert);
+    }
+
+    private static PersonApiException personNotFound(Long personId) {
+        return new PersonApiException(HttpStatus.NOT_FOUND, String.format(ErrorMessages.PERSON_NOT_FOUND, personId));
+    }
+}
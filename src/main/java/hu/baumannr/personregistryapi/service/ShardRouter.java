@@ -0,0 +1,172 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.persistence.routing.ShardContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Runs the work of the services on the shards configured by
+ * {@link hu.baumannr.personregistryapi.config.ShardingConfig}. A person lives on one shard with its addresses and
+ * contact infos, the work on a person runs on its shard, and the work on every person is scattered to the shards in
+ * parallel. Without sharding there is a single shard, and the work runs on the calling thread in its transaction.
+ */
+public class ShardRouter {
+
+    private final int shardCount;
+
+    private final Executor executor;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final TransactionTemplate newReadOnlyTransaction;
+
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    /**
+     * Creates the router of an unsharded database.
+     */
+    public ShardRouter() {
+        this.shardCount = 1;
+        this.executor = null;
+        this.readOnlyTransaction = null;
+        this.newReadOnlyTransaction = null;
+    }
+
+    /**
+     * Creates the router of the given number of shards.
+     *
+     * @param shardCount the number of shards
+     * @param executor the executor scattering the work to the shards
+     * @param transactionManager the transaction manager of the shards
+     */
+    public ShardRouter(int shardCount, Executor executor, PlatformTransactionManager transactionManager) {
+        this.shardCount = shardCount;
+        this.executor = executor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.newReadOnlyTransaction = new TransactionTemplate(transactionManager, readOnlyTransaction);
+        this.newReadOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return the number of shards
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Returns the shard of the given person. An ID of no shard, which cannot belong to a person, is routed to shard
+     * 0, where it is not found.
+     *
+     * @param personId the ID of the person
+     * @return the shard of the person
+     */
+    public int shardOf(Long personId) {
+        int shard = ShardContext.shardOf(personId);
+        return shard < shardCount ? shard : 0;
+    }
+
+    /**
+     * Runs the work on the shard of the given person.
+     *
+     * @param personId the ID of the person
+     * @param work the work
+     * @return the result of the work
+     * @param <T> the type of the result
+     */
+    public <T> T onShardOf(Long personId, Supplier<T> work) {
+        return onShard(shardOf(personId), work);
+    }
+
+    /**
+     * Runs the work creating a person on the next shard, the new persons are spread evenly over the shards.
+     *
+     * @param work the work
+     * @return the result of the work
+     * @param <T> the type of the result
+     */
+    public <T> T onNewShard(Supplier<T> work) {
+        return onShard(Math.floorMod(nextShard.getAndIncrement(), shardCount), work);
+    }
+
+    /**
+     * Runs the read-only work on every shard in parallel, each in its own read-only transaction, and waits for all
+     * of them.
+     *
+     * @param work the work
+     * @return the results of the shards, in the order of the shards
+     * @param <T> the type of the results
+     */
+    public <T> List<T> onEveryShard(Supplier<T> work) {
+        if (shardCount == 1) {
+            return List.of(work.get());
+        }
+        List<CompletableFuture<T>> results = IntStream.range(0, shardCount)
+                .mapToObj(shard -> CompletableFuture.supplyAsync(
+                        () -> onShard(shard, () -> readOnlyTransaction.execute(status -> work.get())), executor))
+                .toList();
+        try {
+            return results.stream()
+                    .map(CompletableFuture::join)
+                    .toList();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the read-only work on every shard in turn on the calling thread, each in a new read-only transaction. The
+     * IDs of a shard are above those of the previous one, so work streaming the persons by ID streams all of them
+     * in the order of their IDs.
+     *
+     * @param work the work
+     */
+    public void onEveryShardInTurn(Runnable work) {
+        if (shardCount == 1) {
+            work.run();
+            return;
+        }
+        for (int shard = 0; shard < shardCount; shard++) {
+            onShard(shard, () -> newReadOnlyTransaction.execute(status -> {
+                work.run();
+                return null;
+            }));
+        }
+    }
+
+    /**
+     * Runs the work on the given shard.
+     *
+     * @param shard the shard
+     * @param work the work
+     * @return the result of the work
+     * @param <T> the type of the result
+     */
+    public <T> T onShard(int shard, Supplier<T> work) {
+        if (shardCount == 1) {
+            return work.get();
+        }
+        Integer previous = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            return work.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.persistence.routing.ShardContext;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs every method of PersonService, AddressService and ContactInfoService taking a {@code personId} on the shard
+ * of the person, registered by {@link hu.baumannr.personregistryapi.config.ShardingConfig} when sharding is on. It
+ * is ordered before the cache advice of {@link hu.baumannr.personregistryapi.config.CacheConfig} and the transaction
+ * advice, so a cache miss, the transaction, and the cache entry evicted at its commit belong to the shard. The methods without a person pick their shards themselves.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class ShardRoutingAspect {
+
+    private static final String PERSON_ID = "personId";
+
+    private static final int NONE = -1;
+
+    private final ShardRouter shardRouter;
+
+    private final Map<Method, Integer> personIdPositions = new ConcurrentHashMap<>();
+
+    @Around("execution(* hu.baumannr.personregistryapi.service.PersonService.*(..))"
+            + " || execution(* hu.baumannr.personregistryapi.service.AddressService.*(..))"
+            + " || execution(* hu.baumannr.personregistryapi.service.ContactInfoService.*(..))")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        int position = personIdPositions.computeIfAbsent(signature.getMethod(),
+                method -> List.of(signature.getParameterNames()).indexOf(PERSON_ID));
+        Object personId = position != NONE ? joinPoint.getArgs()[position] : null;
+        if (! (personId instanceof Long id)) {
+            return joinPoint.proceed();
+        }
+        Integer previous = ShardContext.current();
+        ShardContext.set(shardRouter.shardOf(id));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+-- Hibernate reserves 50 ids per sequence call (pooled optimizer), the increment has to match the allocationSize
+ALTER SEQUENCE PersonSeq INCREMENT BY 50;
+ALTER SEQUENCE AddressSeq INCREMENT BY 50;
+ALTER SEQUENCE ContactInfoSeq INCREMENT BY 50;
@@ -0,0 +1,2 @@
+-- Version of the whole person aggregate, incremented by every change of the person, its addresses or contact infos
+ALTER TABLE Person ADD Version BIGINT NOT NULL CONSTRAINT DF_Person_Version DEFAULT 0;
@@ -0,0 +1,8 @@
+-- Indexes of the person search. The trailing PersonId lets the EXISTS subqueries be answered from the index alone
+CREATE INDEX IX_Person_LastName_FirstName ON Person (LastName, FirstName);
+CREATE INDEX IX_Person_FirstName ON Person (FirstName);
+CREATE INDEX IX_Address_City_Zip_PersonId ON Address (City, Zip, PersonId);
+CREATE INDEX IX_Address_Zip_PersonId ON Address (Zip, PersonId);
+CREATE INDEX IX_ContactInfo_ContactValue_PersonId ON ContactInfo (ContactValue, PersonId);
+-- The contact infos of a page of persons are loaded by PersonId, SQL Server does not index foreign keys by itself
+CREATE INDEX IX_ContactInfo_PersonId ON ContactInfo (PersonId);
@@ -0,0 +1,21 @@
+-- Contact information values as they are looked up: emails and LinkedIn profiles trimmed and lower-cased, phone
+-- numbers as digits with a leading + for the international prefix. Written by the application on every change.
+ALTER TABLE ContactInfo ADD NormalizedValue NVARCHAR(254) NULL;
+GO
+
+UPDATE ContactInfo SET NormalizedValue = LOWER(LTRIM(RTRIM(ContactValue))) WHERE Type <> 'PHONE';
+
+-- The separators written in the phone numbers of the sample data and the API clients
+UPDATE ContactInfo
+SET NormalizedValue = REPLACE(TRANSLATE(LTRIM(RTRIM(ContactValue)), '+-()./', '      '), ' ', '')
+WHERE Type = 'PHONE';
+UPDATE ContactInfo
+SET NormalizedValue = '+' + CASE WHEN LTRIM(ContactValue) LIKE '+%' THEN NormalizedValue
+                                 ELSE SUBSTRING(NormalizedValue, 3, 254) END
+WHERE Type = 'PHONE' AND (LTRIM(ContactValue) LIKE '+%' OR NormalizedValue LIKE '00%');
+
+ALTER TABLE ContactInfo ALTER COLUMN NormalizedValue NVARCHAR(254) NOT NULL;
+
+-- The lookup reads only the included columns, so it is a single seek without key lookups
+CREATE INDEX IX_ContactInfo_Type_NormalizedValue ON ContactInfo (Type, NormalizedValue)
+    INCLUDE (PersonId, ContactValue);
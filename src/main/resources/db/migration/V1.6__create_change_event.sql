@@ -0,0 +1,21 @@
+-- Outbox of the changes, streamed to the subscribers of GET /events by the relay
+CREATE SEQUENCE ChangeEventSeq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE ChangeEvent (
+    Id BIGINT PRIMARY KEY DEFAULT NEXT VALUE FOR ChangeEventSeq,
+    Position BIGINT NULL,
+    Type NVARCHAR(20) NOT NULL,
+    PersonId BIGINT NOT NULL,
+    EntityId BIGINT NOT NULL,
+    CreatedAt DATETIME2 NOT NULL DEFAULT SYSDATETIME(),
+
+    CONSTRAINT CHK_ChangeEvent_Type CHECK (Type IN ('PERSON_CREATED', 'PERSON_UPDATED', 'PERSON_DELETED',
+        'ADDRESS_CREATED', 'ADDRESS_UPDATED', 'ADDRESS_DELETED',
+        'CONTACT_INFO_CREATED', 'CONTACT_INFO_UPDATED', 'CONTACT_INFO_DELETED'))
+);
+
+-- Two relays sequencing the same events at once collide here, the one committing second rolls back
+CREATE UNIQUE INDEX UQ_ChangeEvent_Position ON ChangeEvent (Position) WHERE Position IS NOT NULL;
+-- The relay seeks the events waiting for a position without reading the sequenced ones
+CREATE INDEX IX_ChangeEvent_Unsequenced ON ChangeEvent (Id) WHERE Position IS NULL;
+CREATE INDEX IX_ChangeEvent_CreatedAt ON ChangeEvent (CreatedAt);
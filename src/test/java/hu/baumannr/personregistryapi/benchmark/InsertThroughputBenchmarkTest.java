@@ -0,0 +1,97 @@
+package hu.baumannr.personregistryapi.benchmark;
+
+import hu.baumannr.personregistryapi.persistence.model.Address;
+import hu.baumannr.personregistryapi.persistence.model.AddressType;
+import hu.baumannr.personregistryapi.persistence.model.ContactInfo;
+import hu.baumannr.personregistryapi.persistence.model.ContactInfoType;
+import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.persistence.repository.PersonRepository;
+import hu.baumannr.personregistryapi.service.ContactValueNormalizer;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashSet;
+
+/**
+ * Measures the insert throughput of person aggregates.
+ * Run with {@code ./mvnw test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class InsertThroughputBenchmarkTest {
+
+    private static final int WARMUP_PERSONS = 2_000;
+
+    private static final int MEASURED_PERSONS = 10_000;
+
+    private static final int CONTACT_INFOS_PER_PERSON = 8;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void insertPersonsWithChildren() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        insertPersons(WARMUP_PERSONS);
+
+        statistics.clear();
+        long start = System.nanoTime();
+        insertPersons(MEASURED_PERSONS);
+        long elapsedNanos = System.nanoTime() - start;
+
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        log.info("Inserted {} persons with {} children each in {} ms: {} persons/s, {} statements per person",
+                MEASURED_PERSONS, CONTACT_INFOS_PER_PERSON + 2, elapsedNanos / 1_000_000,
+                String.format("%.0f", MEASURED_PERSONS / seconds),
+                String.format("%.2f", (double) statistics.getPrepareStatementCount() / MEASURED_PERSONS));
+    }
+
+    private void insertPersons(int count) {
+        for (int i = 0; i < count; i++) {
+            transactionTemplate.executeWithoutResult(status -> personRepository.save(person()));
+        }
+    }
+
+    private static Person person() {
+        Person person = new Person();
+        person.setFirstName("Elek");
+        person.setLastName("Teszt");
+        person.setAddresses(new LinkedHashSet<>());
+        person.setContactInfos(new LinkedHashSet<>());
+
+        for (AddressType type : AddressType.values()) {
+            Address address = new Address();
+            address.setType(type);
+            address.setCountry("Magyarország");
+            address.setCity("Budapest");
+            address.setZip("1120");
+            address.setStreet("Teszt utca 15.");
+            person.addAddress(address);
+        }
+
+        for (int i = 0; i < CONTACT_INFOS_PER_PERSON; i++) {
+            ContactInfo contactInfo = new ContactInfo();
+            contactInfo.setType(ContactInfoType.EMAIL);
+            contactInfo.setValue("elek" + i + "@example.com");
+            ContactValueNormalizer.normalize(contactInfo);
+            person.addContactInfo(contactInfo);
+        }
+        return person;
+    }
+}
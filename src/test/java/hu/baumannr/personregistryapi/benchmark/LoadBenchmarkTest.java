@@ -0,0 +1,77 @@
+package hu.baumannr.personregistryapi.benchmark;
+
+import hu.baumannr.personregistryapi.benchmark.LoadOperation.SeededPerson;
+import hu.baumannr.personregistryapi.rest.model.AddressCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.PersonCreateRequest;
+import hu.baumannr.personregistryapi.service.AddressService;
+import hu.baumannr.personregistryapi.service.PersonService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a load scenario over HTTP against the application started on H2, and writes the latency percentiles per
+ * operation to {@code target/load}.
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=LoadBenchmarkTest -Dload.scenario=read-heavy}.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=false",
+        "spring.datasource.url=jdbc:h2:mem:loaddb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+@ActiveProfiles("test")
+class LoadBenchmarkTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private AddressService addressService;
+
+    @Test
+    void runLoadScenario() throws IOException {
+        LoadScenario scenario = LoadScenario.load(System.getProperty("load.scenario", "read-heavy"));
+        List<SeededPerson> persons = seedPersons(scenario.persons());
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        OpenModelLoadGenerator generator = new OpenModelLoadGenerator(httpClient,
+                URI.create("http://localhost:" + port + "/api/"), persons);
+        LoadReport report = generator.run(scenario);
+        log.info("\n{}", report.write(Path.of("target", "load")));
+    }
+
+    private List<SeededPerson> seedPersons(int count) {
+        List<SeededPerson> persons = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Long personId = personService.createPerson(new PersonCreateRequest()
+                    .firstName("Seed" + i)
+                    .lastName("Teszt")).getId();
+            Long addressId = addressService.addAddress(personId, new AddressCreateRequest()
+                    .type(AddressCreateRequest.TypeEnum.PERMANENT)
+                    .country("Magyarország")
+                    .city("Budapest")
+                    .zip("1120")
+                    .street("Teszt utca 15."), null).getId();
+            persons.add(new SeededPerson(personId, addressId));
+        }
+        return persons;
+    }
+}
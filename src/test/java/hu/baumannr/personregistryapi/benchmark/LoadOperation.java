@@ -0,0 +1,80 @@
+package hu.baumannr.personregistryapi.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+
+/**
+ * Operations a load scenario can mix, named after the operation IDs of the OpenAPI specification.
+ */
+enum LoadOperation {
+
+    getPersonById {
+        @Override
+        HttpRequest request(URI baseUri, SeededPerson person, long sequence) {
+            return HttpRequest.newBuilder(baseUri.resolve("persons/" + person.personId()))
+                    .GET()
+                    .build();
+        }
+    },
+
+    getAllPersons {
+        @Override
+        HttpRequest request(URI baseUri, SeededPerson person, long sequence) {
+            return HttpRequest.newBuilder(baseUri.resolve("persons?limit=20"))
+                    .GET()
+                    .build();
+        }
+    },
+
+    createPerson {
+        @Override
+        HttpRequest request(URI baseUri, SeededPerson person, long sequence) {
+            return json(baseUri.resolve("persons"), "POST", """
+                    {"firstName": "Load%d", "lastName": "Teszt"}""".formatted(sequence));
+        }
+    },
+
+    addContactInfo {
+        @Override
+        HttpRequest request(URI baseUri, SeededPerson person, long sequence) {
+            return json(baseUri.resolve("persons/" + person.personId() + "/contactInfos"), "POST", """
+                    {"type": "email", "value": "load%d@example.com"}""".formatted(sequence));
+        }
+    },
+
+    updateAddress {
+        @Override
+        HttpRequest request(URI baseUri, SeededPerson person, long sequence) {
+            return json(baseUri.resolve("persons/" + person.personId() + "/addresses/" + person.addressId()), "PUT", """
+                    {"country": "Magyarország", "city": "Budapest", "zip": "1120", "street": "Teszt utca %d."}"""
+                    .formatted(sequence));
+        }
+    };
+
+    /**
+     * Builds the request of one execution of the operation.
+     *
+     * @param baseUri the base URI of the API, ending with a slash
+     * @param person a seeded person picked for this execution
+     * @param sequence the sequence number of this execution, unique within the run
+     * @return the request
+     */
+    abstract HttpRequest request(URI baseUri, SeededPerson person, long sequence);
+
+    private static HttpRequest json(URI uri, String method, String body) {
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * A person created before the run, with one address.
+     *
+     * @param personId the ID of the person
+     * @param addressId the ID of the address of the person
+     */
+    record SeededPerson(Long personId, Long addressId) {
+
+    }
+}
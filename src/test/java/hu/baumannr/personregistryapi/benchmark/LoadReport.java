@@ -0,0 +1,104 @@
+package hu.baumannr.personregistryapi.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency percentiles and error counts per operation of a load run.
+ */
+class LoadReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final LoadScenario scenario;
+
+    private final Map<LoadOperation, Histogram> histograms = new EnumMap<>(LoadOperation.class);
+
+    private final Map<LoadOperation, AtomicLong> errors = new EnumMap<>(LoadOperation.class);
+
+    private long elapsedNanos;
+
+    LoadReport(LoadScenario scenario) {
+        this.scenario = scenario;
+        // Filled up front, the maps are only read while the responses are recorded
+        for (LoadOperation operation : scenario.weights().keySet()) {
+            histograms.put(operation, new ConcurrentHistogram(3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    void record(LoadOperation operation, long latencyNanos, boolean successful) {
+        histograms.get(operation).recordValue(latencyNanos);
+        if (! successful) {
+            errors.get(operation).incrementAndGet();
+        }
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Writes the summary table to {@code <scenario>.txt} and the full percentile distribution of each operation,
+     * in milliseconds, to {@code <scenario>-<operation>.hgrm} in the given directory. The .hgrm files can be
+     * plotted with the HdrHistogram plotter.
+     *
+     * @param directory the directory to write to
+     * @return the summary table
+     * @throws IOException if a file cannot be written
+     */
+    String write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        String summary = summary();
+        Files.writeString(directory.resolve(scenario.name() + ".txt"), summary);
+        for (Map.Entry<LoadOperation, Histogram> entry : histograms.entrySet()) {
+            Path file = directory.resolve(scenario.name() + "-" + entry.getKey() + ".hgrm");
+            try (PrintStream printStream = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+                entry.getValue().outputPercentileDistribution(printStream, NANOS_PER_MILLI);
+            }
+        }
+        return summary;
+    }
+
+    String summary() {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        StringBuilder summary = new StringBuilder()
+                .append(String.format("Scenario %s: %.0f req/s offered for %s after %s warmup%n",
+                        scenario.name(), scenario.rate(), scenario.duration(), scenario.warmup()))
+                .append(String.format("%-16s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                        "operation", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (Map.Entry<LoadOperation, Histogram> entry : histograms.entrySet()) {
+            long operationErrors = errors.get(entry.getKey()).get();
+            appendRow(summary, entry.getKey().name(), entry.getValue(), operationErrors, seconds);
+            total.add(entry.getValue());
+            totalErrors += operationErrors;
+        }
+        appendRow(summary, "total", total, totalErrors, seconds);
+        return summary.toString();
+    }
+
+    private static void appendRow(StringBuilder summary, String name, Histogram histogram, long errors,
+                                  double seconds) {
+        summary.append(String.format("%-16s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name,
+                histogram.getTotalCount(),
+                errors,
+                histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(90) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                histogram.getMaxValue() / NANOS_PER_MILLI));
+    }
+}
@@ -0,0 +1,79 @@
+package hu.baumannr.personregistryapi.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Traffic mix and arrival rate of a load run, read from {@code load-scenarios/<name>.properties} on the test
+ * classpath. The rate, warmup and duration can be overridden with the {@code load.rate}, {@code load.warmup} and
+ * {@code load.duration} system properties.
+ *
+ * @param name the name of the scenario
+ * @param rate the arrival rate in requests per second
+ * @param warmup the time the load runs before it is measured
+ * @param duration the measured time
+ * @param persons the number of persons, each with one address, created before the run
+ * @param weights the relative weight of each operation in the mix
+ */
+record LoadScenario(String name, double rate, Duration warmup, Duration duration, int persons,
+                    Map<LoadOperation, Integer> weights) {
+
+    private static final String OPERATION_PREFIX = "operation.";
+
+    static LoadScenario load(String name) {
+        Properties properties = new Properties();
+        String resource = "load-scenarios/" + name + ".properties";
+        try (InputStream inputStream = LoadScenario.class.getClassLoader().getResourceAsStream(resource)) {
+            if (inputStream == null) {
+                throw new IllegalArgumentException("Unknown load scenario: " + name);
+            }
+            properties.load(inputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Map<LoadOperation, Integer> weights = new EnumMap<>(LoadOperation.class);
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(OPERATION_PREFIX)) {
+                weights.put(LoadOperation.valueOf(key.substring(OPERATION_PREFIX.length())),
+                        Integer.parseInt(properties.getProperty(key)));
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Load scenario " + name + " has no operations");
+        }
+
+        return new LoadScenario(name,
+                Double.parseDouble(System.getProperty("load.rate", properties.getProperty("rate"))),
+                Duration.parse(System.getProperty("load.warmup", properties.getProperty("warmup"))),
+                Duration.parse(System.getProperty("load.duration", properties.getProperty("duration"))),
+                Integer.parseInt(properties.getProperty("persons")),
+                weights);
+    }
+
+    /**
+     * Picks the operation of the mix the given uniform random number falls to.
+     *
+     * @param random a random number in [0, 1)
+     * @return the operation
+     */
+    LoadOperation pick(double random) {
+        int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        double point = random * total;
+        int cumulative = 0;
+        LoadOperation picked = null;
+        for (Map.Entry<LoadOperation, Integer> entry : weights.entrySet()) {
+            picked = entry.getKey();
+            cumulative += entry.getValue();
+            if (point < cumulative) {
+                break;
+            }
+        }
+        return picked;
+    }
+}
@@ -0,0 +1,67 @@
+package hu.baumannr.personregistryapi.benchmark;
+
+import hu.baumannr.personregistryapi.benchmark.LoadOperation.SeededPerson;
+import lombok.RequiredArgsConstructor;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a fixed arrival rate, independently of how fast the responses come back (open model).
+ * The latency of a request is measured from the time it was scheduled to be sent, not from the time it was
+ * actually sent, so a stalled server or a paused generator shows up in the percentiles instead of silently
+ * lowering the number of requests (coordinated omission).
+ */
+@RequiredArgsConstructor
+class OpenModelLoadGenerator {
+
+    private final HttpClient httpClient;
+
+    private final URI baseUri;
+
+    private final List<SeededPerson> persons;
+
+    /**
+     * Runs the warmup and the measured phase of the given scenario.
+     *
+     * @param scenario the scenario to run
+     * @return the report of the measured phase
+     */
+    LoadReport run(LoadScenario scenario) {
+        long intervalNanos = (long) (1_000_000_000L / scenario.rate());
+        long warmupRequests = scenario.warmup().toNanos() / intervalNanos;
+        long totalRequests = warmupRequests + scenario.duration().toNanos() / intervalNanos;
+
+        LoadReport report = new LoadReport(scenario);
+        CompletableFuture<?>[] inFlight = new CompletableFuture<?>[(int) (totalRequests - warmupRequests)];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long start = System.nanoTime();
+        for (long i = 0; i < totalRequests; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long delay;
+            while ((delay = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+
+            LoadOperation operation = scenario.pick(random.nextDouble());
+            SeededPerson person = persons.get(random.nextInt(persons.size()));
+            boolean measured = i >= warmupRequests;
+            CompletableFuture<HttpResponse<Void>> response = httpClient.sendAsync(
+                    operation.request(baseUri, person, i), HttpResponse.BodyHandlers.discarding());
+            if (measured) {
+                inFlight[(int) (i - warmupRequests)] = response.handle((result, e) -> {
+                    report.record(operation, System.nanoTime() - intendedStart, e == null && result.statusCode() < 400);
+                    return null;
+                });
+            }
+        }
+        CompletableFuture.allOf(inFlight).join();
+        report.finish(System.nanoTime() - start - warmupRequests * intervalNanos);
+        return report;
+    }
+}
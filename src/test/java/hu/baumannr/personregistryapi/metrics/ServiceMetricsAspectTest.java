@@ -0,0 +1,95 @@
+package hu.baumannr.personregistryapi.metrics;
+
+import hu.baumannr.personregistryapi.constant.MetricNames;
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import hu.baumannr.personregistryapi.service.PersonServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceMetricsAspectTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ServiceMetricsAspect serviceMetricsAspect;
+
+    @Mock
+    private ProceedingJoinPoint joinPoint;
+
+    @Mock
+    private Signature signature;
+
+    @BeforeEach
+    void setUp() {
+        serviceMetricsAspect = new ServiceMetricsAspect(meterRegistry);
+        when(joinPoint.getTarget()).thenReturn(mock(PersonServiceImpl.class));
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(signature.getName()).thenReturn("getPersonById");
+    }
+
+    @Test
+    void time_HappyPath() throws Throwable {
+        // Arrange
+        Object result = new Object();
+        when(joinPoint.proceed()).thenReturn(result);
+
+        // Act
+        Object actual = serviceMetricsAspect.time(joinPoint);
+
+        // Assert
+        assertSame(result, actual);
+        Timer timer = timer("none", "none");
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void time_WhenPersonApiException_ThenTagsStatus() throws Throwable {
+        // Arrange
+        PersonApiException exception = new PersonApiException(HttpStatus.NOT_FOUND, "Not found");
+        when(joinPoint.proceed()).thenThrow(exception);
+
+        // Act
+        PersonApiException actual = assertThrows(PersonApiException.class, () -> serviceMetricsAspect.time(joinPoint));
+
+        // Assert
+        assertSame(exception, actual);
+        assertEquals(1, timer("PersonApiException", "404").count());
+    }
+
+    @Test
+    void time_WhenOtherException_ThenTagsException() throws Throwable {
+        // Arrange
+        when(joinPoint.proceed()).thenThrow(new IllegalStateException());
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> serviceMetricsAspect.time(joinPoint));
+
+        // Assert
+        assertEquals(1, timer("IllegalStateException", "none").count());
+    }
+
+    private Timer timer(String exception, String status) {
+        return meterRegistry.find(MetricNames.SERVICE)
+                .tag("method", "getPersonById")
+                .tag("exception", exception)
+                .tag("status", status)
+                .timer();
+    }
+}
@@ -0,0 +1,80 @@
+package hu.baumannr.personregistryapi.metrics;
+
+import hu.baumannr.personregistryapi.constant.MetricNames;
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import hu.baumannr.personregistryapi.rest.model.PersonCreateRequest;
+import hu.baumannr.personregistryapi.service.PersonService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Asserts that the service calls, including cache hits, are timed and the Hibernate statistics are published.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ServiceMetricsTest {
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void getPersonById_TimesCacheHits() {
+        Long personId = personService.createPerson(new PersonCreateRequest()
+                .firstName("Elek")
+                .lastName("Teszt")).getId();
+        personService.getPersonById(personId);
+        long count = timer("getPersonById", "none").count();
+
+        statementCounter.reset();
+        personService.getPersonById(personId);
+
+        assertEquals(0, statementCounter.count());
+        assertEquals(count + 1, timer("getPersonById", "none").count());
+    }
+
+    @Test
+    void getPersonById_WhenNotFound_ThenTagsStatus() {
+        long count = timer("getPersonById", "404") != null ? timer("getPersonById", "404").count() : 0;
+
+        assertThrows(PersonApiException.class, () -> personService.getPersonById(-1L));
+
+        assertEquals(count + 1, timer("getPersonById", "404").count());
+    }
+
+    @Test
+    void createPerson_CountsStatementsAndPublishesHibernateStatistics() {
+        statementCounter.reset();
+
+        personService.createPerson(new PersonCreateRequest()
+                .firstName("Angéla")
+                .lastName("Teszt"));
+
+        // The person and its change event, with a call of each pooled sequence at most
+        assertEquals(3, statementCounter.count(), 1);
+        assertNotNull(meterRegistry.find("hibernate.statements").functionCounter());
+        assertNotNull(meterRegistry.find("hibernate.entities.inserts").functionCounter());
+        assertNotNull(meterRegistry.find("hibernate.flushes").functionCounter());
+    }
+
+    private Timer timer(String method, String status) {
+        return meterRegistry.find(MetricNames.SERVICE)
+                .tag("class", "PersonServiceImpl")
+                .tag("method", method)
+                .tag("status", status)
+                .timer();
+    }
+}
@@ -0,0 +1,96 @@
+package hu.baumannr.personregistryapi.metrics;
+
+import hu.baumannr.personregistryapi.constant.MetricNames;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatementCountInterceptorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final StatementCounter statementCounter = new StatementCounter();
+
+    private StatementCountInterceptor statementCountInterceptor;
+
+    @BeforeEach
+    void setUp() {
+        statementCountInterceptor = new StatementCountInterceptor(statementCounter, meterRegistry);
+    }
+
+    @Test
+    void afterCompletion_HappyPath() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/persons/13");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/persons/{personId}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        statementCounter.inspect("select 1");
+
+        // Act
+        assertTrue(statementCountInterceptor.preHandle(request, response, new Object()));
+        statementCounter.inspect("select 1");
+        statementCounter.inspect("select 2");
+        statementCountInterceptor.afterCompletion(request, response, new Object(), null);
+
+        // Assert
+        DistributionSummary summary = meterRegistry.find(MetricNames.REQUEST_STATEMENTS)
+                .tag("method", "GET")
+                .tag("uri", "/api/persons/{personId}")
+                .summary();
+        assertNotNull(summary);
+        assertEquals(1, summary.count());
+        assertEquals(2, summary.totalAmount());
+    }
+
+    @Test
+    void afterCompletion_WhenNoHandlerMatched_ThenTagsUnknownUri() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/unknown");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        statementCountInterceptor.preHandle(request, response, new Object());
+        statementCountInterceptor.afterCompletion(request, response, new Object(), null);
+
+        // Assert
+        DistributionSummary summary = meterRegistry.find(MetricNames.REQUEST_STATEMENTS)
+                .tag("uri", "UNKNOWN")
+                .summary();
+        assertNotNull(summary);
+        assertEquals(0, summary.totalAmount());
+    }
+
+    @Test
+    void afterCompletion_WhenRequestIsDispatchedAgain_ThenContinuesItsCount() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/persons/13");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/persons/{personId}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        statementCountInterceptor.preHandle(request, response, new Object());
+        statementCounter.inspect("select 1");
+        // The thread serves another request before the asynchronous result is dispatched
+        statementCounter.reset();
+        statementCounter.inspect("select 2");
+        statementCountInterceptor.preHandle(request, response, new Object());
+        statementCounter.inspect("select 3");
+        statementCountInterceptor.afterCompletion(request, response, new Object(), null);
+
+        // Assert
+        DistributionSummary summary = meterRegistry.find(MetricNames.REQUEST_STATEMENTS)
+                .tag("uri", "/api/persons/{personId}")
+                .summary();
+        assertNotNull(summary);
+        assertEquals(2, summary.totalAmount());
+    }
+}
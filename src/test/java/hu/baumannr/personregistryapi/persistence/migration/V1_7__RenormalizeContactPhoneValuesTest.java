@@ -0,0 +1,73 @@
+package hu.baumannr.personregistryapi.persistence.migration;
+
+import hu.baumannr.personregistryapi.rest.model.ContactInfoCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoLookupResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonCreateRequest;
+import hu.baumannr.personregistryapi.service.ContactInfoService;
+import hu.baumannr.personregistryapi.service.PersonService;
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stores phone numbers the way the V1.5 backfill did, migrates them and looks them up through the service.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class V1_7__RenormalizeContactPhoneValuesTest {
+
+    private static final String PHONE = "+36\u00A030 765 4321";
+
+    @Autowired
+    private V1_7__RenormalizeContactPhoneValues migration;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private ContactInfoService contactInfoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void migrate_WhenBackfillKeptOtherCharacters_ThenPhoneIsFoundByLookup() throws Exception {
+        Long personId = personService.createPerson(new PersonCreateRequest()
+                .firstName("Miklós")
+                .lastName("Migrált")).getId();
+        Long contactInfoId = contactInfoService.addContactInfo(personId, new ContactInfoCreateRequest()
+                .type(ContactInfoCreateRequest.TypeEnum.PHONE)
+                .value(PHONE), null).getId();
+        // The backfill stripped only +-()./ and spaces, the no-break space stayed in the value
+        jdbcTemplate.update("UPDATE ContactInfo SET NormalizedValue = ? WHERE Id = ?", "+36\u00A0307654321",
+                contactInfoId);
+        assertTrue(contactInfoService.lookupContactInfos("phone", "+36 30 765 4321").isEmpty());
+
+        try (Connection connection = dataSource.getConnection()) {
+            Context context = mock(Context.class);
+            when(context.getConnection()).thenReturn(connection);
+            migration.migrate(context);
+        }
+
+        List<ContactInfoLookupResponse> found = contactInfoService.lookupContactInfos("phone", "+36 30 765 4321");
+        assertEquals(1, found.size());
+        assertEquals(personId, found.get(0).getPersonId());
+        assertEquals("+36307654321", jdbcTemplate.queryForObject(
+                "SELECT NormalizedValue FROM ContactInfo WHERE Id = ?", String.class, contactInfoId));
+    }
+}
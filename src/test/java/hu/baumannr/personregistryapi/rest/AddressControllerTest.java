@@ -1,38 +1,60 @@
 package hu.baumannr.personregistryapi.rest;
 
+import hu.baumannr.personregistryapi.persistence.model.PersonVersion;
 import hu.baumannr.personregistryapi.rest.model.AddressCreateRequest;
 import hu.baumannr.personregistryapi.rest.model.AddressResponse;
 import hu.baumannr.personregistryapi.rest.model.AddressUpdateRequest;
 import hu.baumannr.personregistryapi.service.AddressService;
+import hu.baumannr.personregistryapi.service.PersonServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class AddressControllerTest {
 
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2025, 3, 14, 15, 9, 26);
+
+    private static final String ETAG = "\"4-" + ConditionalResponses.lastModified(UPDATED_AT) + "\"";
+
     @InjectMocks
     AddressController addressController;
 
     @Mock
     AddressService addressService;
 
+    @Mock
+    private PersonServiceImpl personService;
+
+    @Spy
+    private MockHttpServletRequest request = new MockHttpServletRequest();
+
+    @Spy
+    private RequestExecutor requestExecutor = new RequestExecutor(new SyncTaskExecutor());
+
     @Test
     void getAddressesForPerson_HappyPath() {
         // Arrange
@@ -41,17 +63,41 @@ class AddressControllerTest {
         AddressResponse response2 = mock(AddressResponse.class);
         List<AddressResponse> response = List.of(response1, response2);
 
+        when(personService.getPersonVersion(anyLong())).thenReturn(new PersonVersion(4L, UPDATED_AT));
         when(addressService.getAddressesForPerson(anyLong())).thenReturn(response);
 
         // Act
-        ResponseEntity<List<AddressResponse>> actual = addressController.getAddressesForPerson(personId);
+        ResponseEntity<List<AddressResponse>> actual = addressController.getAddressesForPerson(personId).join();
 
         // Assert
         assertEquals(HttpStatus.OK, actual.getStatusCode());
         assertIterableEquals(response, actual.getBody());
+        assertEquals(ETAG, actual.getHeaders().getETag());
+        assertEquals(ConditionalResponses.lastModified(UPDATED_AT), actual.getHeaders().getLastModified());
 
+        verify(personService).getPersonVersion(personId);
         verify(addressService).getAddressesForPerson(personId);
-        verifyNoMoreInteractions(addressService);
+        verifyNoMoreInteractions(addressService, personService);
+    }
+
+    @Test
+    void getAddressesForPerson_WhenETagMatches_ThenReturnsNotModified() {
+        // Arrange
+        Long personId = 13L;
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+
+        when(personService.getPersonVersion(anyLong())).thenReturn(new PersonVersion(4L, UPDATED_AT));
+
+        // Act
+        ResponseEntity<List<AddressResponse>> actual = addressController.getAddressesForPerson(personId).join();
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, actual.getStatusCode());
+        assertNull(actual.getBody());
+        assertEquals(ETAG, actual.getHeaders().getETag());
+
+        verify(personService).getPersonVersion(personId);
+        verifyNoInteractions(addressService);
     }
 
     @Test
@@ -64,10 +110,10 @@ class AddressControllerTest {
         AddressResponse response = mock(AddressResponse.class);
 
         when(response.getId()).thenReturn(addressId);
-        when(addressService.addAddress(any(), any())).thenReturn(response);
+        when(addressService.addAddress(any(), any(), any())).thenReturn(response);
 
         // Act
-        ResponseEntity<AddressResponse> actual = addressController.addAddress(personId, request);
+        ResponseEntity<AddressResponse> actual = addressController.addAddress(personId, request).join();
 
         // Assert
         assertEquals(HttpStatus.CREATED, actual.getStatusCode());
@@ -77,7 +123,7 @@ class AddressControllerTest {
         assertNotNull(actual.getHeaders().getLocation().toString());
         assertEquals(location, actual.getHeaders().getLocation().toString());
 
-        verify(addressService).addAddress(personId, request);
+        verify(addressService).addAddress(personId, request, null);
         verifyNoMoreInteractions(addressService);
     }
 
@@ -89,16 +135,33 @@ class AddressControllerTest {
         AddressUpdateRequest request = mock(AddressUpdateRequest.class);
         AddressResponse response = mock(AddressResponse.class);
 
-        when(addressService.updateAddress(any(), any(), any())).thenReturn(response);
+        when(addressService.updateAddress(any(), any(), any(), any())).thenReturn(response);
 
         // Act
-        ResponseEntity<AddressResponse> actual = addressController.updateAddress(personId, addressId, request);
+        ResponseEntity<AddressResponse> actual = addressController.updateAddress(personId, addressId, request).join();
 
         // Assert
         assertEquals(HttpStatus.OK, actual.getStatusCode());
         assertEquals(response, actual.getBody());
 
-        verify(addressService).updateAddress(personId, addressId, request);
+        verify(addressService).updateAddress(personId, addressId, request, null);
+        verifyNoMoreInteractions(addressService);
+    }
+
+    @Test
+    void patchAddress() {
+        // Arrange
+        long personId = 13L;
+        long addressId = 17L;
+        AddressUpdateRequest request = new AddressUpdateRequest().street("Fő utca 1.");
+
+        // Act
+        ResponseEntity<Void> actual = addressController.patchAddress(personId, addressId, request).join();
+
+        // Assert
+        assertEquals(HttpStatus.NO_CONTENT, actual.getStatusCode());
+
+        verify(addressService).patchAddress(personId, addressId, request, null);
         verifyNoMoreInteractions(addressService);
     }
 
@@ -109,12 +172,12 @@ class AddressControllerTest {
         long addressId = 17L;
 
         // Act
-        ResponseEntity<Void> actual = addressController.deleteAddress(personId, addressId);
+        ResponseEntity<Void> actual = addressController.deleteAddress(personId, addressId).join();
 
         // Assert
         assertEquals(HttpStatus.NO_CONTENT, actual.getStatusCode());
 
-        verify(addressService).deleteAddress(personId, addressId);
+        verify(addressService).deleteAddress(personId, addressId, null);
         verifyNoMoreInteractions(addressService);
     }
 }
\ No newline at end of file
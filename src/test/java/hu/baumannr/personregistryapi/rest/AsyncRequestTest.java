@@ -0,0 +1,144 @@
+package hu.baumannr.personregistryapi.rest;
+
+import hu.baumannr.personregistryapi.constant.MetricNames;
+import hu.baumannr.personregistryapi.rest.model.PersonCreateRequest;
+import hu.baumannr.personregistryapi.service.PersonService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Serves requests through the asynchronous request executor and asserts that the request, its validators and its
+ * statement count reach the pool thread. The context differs from the one of the other tests, so it gets a database
+ * of its own.
+ */
+@SpringBootTest(properties = {
+        "person-registry.async-requests.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:asyncdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AsyncRequestTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("requestTaskExecutor")
+    private ThreadPoolTaskExecutor requestTaskExecutor;
+
+    @Test
+    void getPersonById_WhenAsyncRequestsEnabled_ThenServesOnRequestExecutor() throws Exception {
+        Long personId = personService.createPerson(new PersonCreateRequest()
+                .firstName("Elek")
+                .lastName("Aszinkron")).getId();
+        long completedTasks = requestTaskExecutor.getThreadPoolExecutor().getCompletedTaskCount();
+
+        MvcResult result = perform(get("/api/persons/{personId}", personId));
+        String eTag = result.getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertEquals(200, result.getResponse().getStatus());
+        assertNotNull(eTag);
+        assertTrue(requestTaskExecutor.getThreadPoolExecutor().getCompletedTaskCount() > completedTasks);
+        DistributionSummary statements = meterRegistry.find(MetricNames.REQUEST_STATEMENTS)
+                .tag("uri", "/api/persons/{personId}")
+                .summary();
+        assertNotNull(statements);
+        assertTrue(statements.totalAmount() > 0);
+
+        MvcResult notModified = perform(get("/api/persons/{personId}", personId)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag));
+
+        assertEquals(304, notModified.getResponse().getStatus());
+    }
+
+    @Test
+    void getPersonById_WhenPersonIsMissing_ThenReturnsNotFound() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/persons/{personId}", Long.MAX_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Person with id " + Long.MAX_VALUE + " not found"));
+    }
+
+    @Test
+    void deletePerson_WhenIfMatchIsStale_ThenReturnsPreconditionFailed() throws Exception {
+        Long personId = personService.createPerson(new PersonCreateRequest()
+                .firstName("Elek")
+                .lastName("Feltételes")).getId();
+        String eTag = perform(get("/api/persons/{personId}", personId)).getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult patched = perform(patch("/api/persons/{personId}", personId)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\": \"Elemér\"}"));
+        MvcResult stale = perform(delete("/api/persons/{personId}", personId)
+                .header(HttpHeaders.IF_MATCH, eTag));
+
+        assertEquals(204, patched.getResponse().getStatus());
+        assertEquals(412, stale.getResponse().getStatus());
+        assertEquals("Elemér", personService.getPersonById(personId).getFirstName());
+
+        String currentETag = perform(get("/api/persons/{personId}", personId)).getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        MvcResult deleted = perform(delete("/api/persons/{personId}", personId)
+                .header(HttpHeaders.IF_MATCH, currentETag));
+
+        assertEquals(204, deleted.getResponse().getStatus());
+    }
+
+    @Test
+    void exportPersons_WhenBodyIsStreamed_ThenTimesOutWithExportTimeout() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/persons/export").param("format", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult streamed = mockMvc.perform(asyncDispatch(result))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult other = mockMvc.perform(get("/api/persons/{personId}", Long.MAX_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(3_600_000L, streamed.getRequest().getAsyncContext().getTimeout());
+        assertNotEquals(3_600_000L, other.getRequest().getAsyncContext().getTimeout());
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result)).andReturn();
+    }
+}
@@ -0,0 +1,79 @@
+package hu.baumannr.personregistryapi.rest;
+
+import hu.baumannr.personregistryapi.rest.model.PersonBatchResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonBulkDeleteRequest;
+import hu.baumannr.personregistryapi.rest.model.PersonBulkDeleteResponse;
+import hu.baumannr.personregistryapi.service.PersonBatchServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchControllerTest {
+
+    @InjectMocks
+    private BatchController batchController;
+
+    @Mock
+    private PersonBatchServiceImpl personBatchService;
+
+    @Spy
+    private RequestExecutor requestExecutor = new RequestExecutor(new SyncTaskExecutor());
+
+    @Test
+    void createPersonsBatch_HappyPath() {
+        // Arrange
+        InputStream inputStream = new ByteArrayInputStream("[]".getBytes());
+        PersonBatchResponse response = new PersonBatchResponse().created(0).failed(0);
+
+        when(personBatchService.createPersons(any())).thenReturn(response);
+
+        // Act
+        ResponseEntity<PersonBatchResponse> actual =
+                batchController.createPersonsBatch(new InputStreamResource(inputStream)).join();
+
+        // Assert
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(response, actual.getBody());
+
+        verify(personBatchService).createPersons(inputStream);
+        verifyNoMoreInteractions(personBatchService);
+    }
+
+    @Test
+    void deletePersonsBulk_HappyPath() {
+        // Arrange
+        List<Long> ids = List.of(13L, 17L);
+        PersonBulkDeleteResponse response = new PersonBulkDeleteResponse().deleted(1).notFound(List.of(17L));
+
+        when(personBatchService.deletePersons(any())).thenReturn(response);
+
+        // Act
+        ResponseEntity<PersonBulkDeleteResponse> actual =
+                batchController.deletePersonsBulk(new PersonBulkDeleteRequest().ids(ids)).join();
+
+        // Assert
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(response, actual.getBody());
+
+        verify(personBatchService).deletePersons(ids);
+        verifyNoMoreInteractions(personBatchService);
+    }
+}
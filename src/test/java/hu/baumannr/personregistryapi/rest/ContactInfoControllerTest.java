@@ -1,38 +1,82 @@
 package hu.baumannr.personregistryapi.rest;
 
+import hu.baumannr.personregistryapi.persistence.model.PersonVersion;
 import hu.baumannr.personregistryapi.rest.model.ContactInfoCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoLookupResponse;
 import hu.baumannr.personregistryapi.rest.model.ContactInfoResponse;
 import hu.baumannr.personregistryapi.rest.model.ContactInfoUpdateRequest;
 import hu.baumannr.personregistryapi.service.ContactInfoService;
+import hu.baumannr.personregistryapi.service.PersonServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class ContactInfoControllerTest {
 
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2025, 3, 14, 15, 9, 26);
+
+    private static final String ETAG = "\"4-" + ConditionalResponses.lastModified(UPDATED_AT) + "\"";
+
     @InjectMocks
     private ContactInfoController contactInfoController;
     
     @Mock
     private ContactInfoService contactInfoService;
 
+    @Mock
+    private PersonServiceImpl personService;
+
+    @Spy
+    private MockHttpServletRequest request = new MockHttpServletRequest();
+
+    @Spy
+    private RequestExecutor requestExecutor = new RequestExecutor(new SyncTaskExecutor());
+
+    @Test
+    void lookupContactInfos_HappyPath() {
+        // Arrange
+        String type = "phone";
+        String value = "+36 30 123 4567";
+        List<ContactInfoLookupResponse> response = List.of(mock(ContactInfoLookupResponse.class));
+
+        when(contactInfoService.lookupContactInfos(any(), any())).thenReturn(response);
+
+        // Act
+        ResponseEntity<List<ContactInfoLookupResponse>> actual =
+                contactInfoController.lookupContactInfos(type, value).join();
+
+        // Assert
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(response, actual.getBody());
+
+        verify(contactInfoService).lookupContactInfos(type, value);
+        verifyNoMoreInteractions(contactInfoService);
+    }
+
     @Test
     void getContactInfosForPerson_HappyPath() {
         // Arrange
@@ -41,17 +85,43 @@ class ContactInfoControllerTest {
         ContactInfoResponse response2 = mock(ContactInfoResponse.class);
         List<ContactInfoResponse> response = List.of(response1, response2);
 
+        when(personService.getPersonVersion(anyLong())).thenReturn(new PersonVersion(4L, UPDATED_AT));
         when(contactInfoService.getContactInfosForPerson(anyLong())).thenReturn(response);
 
         // Act
-        ResponseEntity<List<ContactInfoResponse>> actual = contactInfoController.getContactInfosForPerson(personId);
+        ResponseEntity<List<ContactInfoResponse>> actual =
+                contactInfoController.getContactInfosForPerson(personId).join();
 
         // Assert
         assertEquals(HttpStatus.OK, actual.getStatusCode());
         assertIterableEquals(response, actual.getBody());
+        assertEquals(ETAG, actual.getHeaders().getETag());
+        assertEquals(ConditionalResponses.lastModified(UPDATED_AT), actual.getHeaders().getLastModified());
 
+        verify(personService).getPersonVersion(personId);
         verify(contactInfoService).getContactInfosForPerson(personId);
-        verifyNoMoreInteractions(contactInfoService);
+        verifyNoMoreInteractions(contactInfoService, personService);
+    }
+
+    @Test
+    void getContactInfosForPerson_WhenETagMatches_ThenReturnsNotModified() {
+        // Arrange
+        Long personId = 13L;
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+
+        when(personService.getPersonVersion(anyLong())).thenReturn(new PersonVersion(4L, UPDATED_AT));
+
+        // Act
+        ResponseEntity<List<ContactInfoResponse>> actual =
+                contactInfoController.getContactInfosForPerson(personId).join();
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, actual.getStatusCode());
+        assertNull(actual.getBody());
+        assertEquals(ETAG, actual.getHeaders().getETag());
+
+        verify(personService).getPersonVersion(personId);
+        verifyNoInteractions(contactInfoService);
     }
 
     @Test
@@ -64,10 +134,10 @@ class ContactInfoControllerTest {
         ContactInfoResponse response = mock(ContactInfoResponse.class);
 
         when(response.getId()).thenReturn(contactInfoId);
-        when(contactInfoService.addContactInfo(any(), any())).thenReturn(response);
+        when(contactInfoService.addContactInfo(any(), any(), any())).thenReturn(response);
 
         // Act
-        ResponseEntity<ContactInfoResponse> actual = contactInfoController.addContactInfo(personId, request);
+        ResponseEntity<ContactInfoResponse> actual = contactInfoController.addContactInfo(personId, request).join();
 
         // Assert
         assertEquals(HttpStatus.CREATED, actual.getStatusCode());
@@ -77,7 +147,7 @@ class ContactInfoControllerTest {
         assertNotNull(actual.getHeaders().getLocation().toString());
         assertEquals(location, actual.getHeaders().getLocation().toString());
 
-        verify(contactInfoService).addContactInfo(personId, request);
+        verify(contactInfoService).addContactInfo(personId, request, null);
         verifyNoMoreInteractions(contactInfoService);
     }
 
@@ -89,16 +159,34 @@ class ContactInfoControllerTest {
         ContactInfoUpdateRequest request = mock(ContactInfoUpdateRequest.class);
         ContactInfoResponse response = mock(ContactInfoResponse.class);
 
-        when(contactInfoService.updateContactInfo(any(), any(), any())).thenReturn(response);
+        when(contactInfoService.updateContactInfo(any(), any(), any(), any())).thenReturn(response);
 
         // Act
-        ResponseEntity<ContactInfoResponse> actual = contactInfoController.updateContactInfo(personId, contactInfoId, request);
+        ResponseEntity<ContactInfoResponse> actual =
+                contactInfoController.updateContactInfo(personId, contactInfoId, request).join();
 
         // Assert
         assertEquals(HttpStatus.OK, actual.getStatusCode());
         assertEquals(response, actual.getBody());
 
-        verify(contactInfoService).updateContactInfo(personId, contactInfoId, request);
+        verify(contactInfoService).updateContactInfo(personId, contactInfoId, request, null);
+        verifyNoMoreInteractions(contactInfoService);
+    }
+
+    @Test
+    void patchContactInfo_HappyPath() {
+        // Arrange
+        long personId = 13L;
+        long contactInfoId = 17L;
+        ContactInfoUpdateRequest request = new ContactInfoUpdateRequest().value("elek@example.com");
+
+        // Act
+        ResponseEntity<Void> actual = contactInfoController.patchContactInfo(personId, contactInfoId, request).join();
+
+        // Assert
+        assertEquals(HttpStatus.NO_CONTENT, actual.getStatusCode());
+
+        verify(contactInfoService).patchContactInfo(personId, contactInfoId, request, null);
         verifyNoMoreInteractions(contactInfoService);
     }
 
@@ -109,12 +197,12 @@ class ContactInfoControllerTest {
         long contactInfoId = 17L;
 
         // Act
-        ResponseEntity<Void> actual = contactInfoController.deleteContactInfo(personId, contactInfoId);
+        ResponseEntity<Void> actual = contactInfoController.deleteContactInfo(personId, contactInfoId).join();
 
         // Assert
         assertEquals(HttpStatus.NO_CONTENT, actual.getStatusCode());
 
-        verify(contactInfoService).deleteContactInfo(personId, contactInfoId);
+        verify(contactInfoService).deleteContactInfo(personId, contactInfoId, null);
         verifyNoMoreInteractions(contactInfoService);
     }
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package hu.baumannr.personregistryapi.rest;
+
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import hu.baumannr.personregistryapi.service.ChangeEventRelay;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventControllerTest {
+
+    @InjectMocks
+    private EventController eventController;
+
+    @Mock
+    private ChangeEventRelay changeEventRelay;
+
+    @Spy
+    private MockHttpServletRequest request = new MockHttpServletRequest();
+
+    @Test
+    void streamChangeEvents_HappyPath() {
+        // Arrange
+        when(changeEventRelay.getStreamTimeout()).thenReturn(Duration.ofHours(1));
+        when(changeEventRelay.subscribe(any(), any())).thenReturn(mock(ChangeEventRelay.Subscription.class));
+
+        // Act
+        ResponseEntity<SseEmitter> actual = eventController.streamChangeEvents().join();
+
+        // Assert
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(MediaType.TEXT_EVENT_STREAM, actual.getHeaders().getContentType());
+        assertNotNull(actual.getBody());
+        assertEquals(3_600_000L, actual.getBody().getTimeout());
+        verify(changeEventRelay).subscribe(isNull(), any());
+    }
+
+    @Test
+    void streamChangeEvents_WhenLastEventIdIsGiven_ThenResumesAfterIt() {
+        // Arrange
+        request.addHeader("Last-Event-ID", "42");
+
+        when(changeEventRelay.getStreamTimeout()).thenReturn(Duration.ofHours(1));
+        when(changeEventRelay.subscribe(any(), any())).thenReturn(mock(ChangeEventRelay.Subscription.class));
+
+        // Act
+        eventController.streamChangeEvents().join();
+
+        // Assert
+        verify(changeEventRelay).subscribe(eq(42L), any());
+    }
+
+    @Test
+    void streamChangeEvents_WhenLastEventIdIsInvalid_ThenThrowsException() {
+        // Arrange
+        request.addHeader("Last-Event-ID", "forty-two");
+
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> eventController.streamChangeEvents());
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertEquals("Last-Event-ID forty-two is invalid", exception.getMessage());
+        verifyNoInteractions(changeEventRelay);
+    }
+}
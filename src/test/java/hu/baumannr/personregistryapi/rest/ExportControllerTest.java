@@ -0,0 +1,55 @@
+package hu.baumannr.personregistryapi.rest;
+
+import hu.baumannr.personregistryapi.service.ExportFormat;
+import hu.baumannr.personregistryapi.service.PersonExportServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ExportControllerTest {
+
+    @InjectMocks
+    private ExportController exportController;
+
+    @Mock
+    private PersonExportServiceImpl personExportService;
+
+    @Test
+    void exportPersons_HappyPath() throws IOException {
+        // Arrange
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        ResponseEntity<StreamingResponseBody> actual = exportController.exportPersons("csv").join();
+
+        // Assert
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(MediaType.parseMediaType("text/csv"), actual.getHeaders().getContentType());
+        assertEquals("attachment; filename=\"persons.csv\"",
+                actual.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        assertNotNull(actual.getBody());
+        verifyNoInteractions(personExportService);
+
+        actual.getBody().writeTo(outputStream);
+
+        verify(personExportService).exportPersons(ExportFormat.CSV, outputStream);
+        verifyNoMoreInteractions(personExportService);
+    }
+}
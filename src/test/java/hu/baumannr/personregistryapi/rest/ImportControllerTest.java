@@ -0,0 +1,77 @@
+package hu.baumannr.personregistryapi.rest;
+
+import hu.baumannr.personregistryapi.rest.model.ImportJobResponse;
+import hu.baumannr.personregistryapi.service.ImportServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ImportControllerTest {
+
+    private static final UUID IMPORT_ID = UUID.fromString("6f1c7a52-2f0e-4c1e-9d4a-3b5e8c0f1a2b");
+
+    @InjectMocks
+    private ImportController importController;
+
+    @Mock
+    private ImportServiceImpl importService;
+
+    @Test
+    void createImport_HappyPath() {
+        // Arrange
+        InputStream inputStream = new ByteArrayInputStream("recordType".getBytes());
+        ImportJobResponse response = new ImportJobResponse()
+                .id(IMPORT_ID)
+                .status(ImportJobResponse.StatusEnum.QUEUED);
+
+        when(importService.createImport(inputStream)).thenReturn(response);
+
+        // Act
+        ResponseEntity<ImportJobResponse> actual =
+                importController.createImport(new InputStreamResource(inputStream)).join();
+
+        // Assert
+        assertEquals(HttpStatus.ACCEPTED, actual.getStatusCode());
+        assertEquals(URI.create("/api/imports/" + IMPORT_ID), actual.getHeaders().getLocation());
+        assertEquals(response, actual.getBody());
+
+        verify(importService).createImport(inputStream);
+        verifyNoMoreInteractions(importService);
+    }
+
+    @Test
+    void getImportById_HappyPath() {
+        // Arrange
+        ImportJobResponse response = new ImportJobResponse()
+                .id(IMPORT_ID)
+                .status(ImportJobResponse.StatusEnum.RUNNING);
+
+        when(importService.getImportById(IMPORT_ID)).thenReturn(response);
+
+        // Act
+        ResponseEntity<ImportJobResponse> actual = importController.getImportById(IMPORT_ID).join();
+
+        // Assert
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(response, actual.getBody());
+
+        verify(importService).getImportById(IMPORT_ID);
+        verifyNoMoreInteractions(importService);
+    }
+}
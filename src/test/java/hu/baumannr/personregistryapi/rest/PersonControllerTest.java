@@ -1,74 +1,241 @@
 package hu.baumannr.personregistryapi.rest;
 
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import hu.baumannr.personregistryapi.persistence.model.PersonVersion;
+import hu.baumannr.personregistryapi.rest.model.PersonChangesResponse;
 import hu.baumannr.personregistryapi.rest.model.PersonCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.PersonPageResponse;
 import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonSuggestionResponse;
 import hu.baumannr.personregistryapi.rest.model.PersonUpdateRequest;
+import hu.baumannr.personregistryapi.service.PersonSearchCriteria;
 import hu.baumannr.personregistryapi.service.PersonServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class PersonControllerTest {
 
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_000_000);
+
+    private static final String ETAG = "\"4-" + ConditionalResponses.lastModified(UPDATED_AT) + "\"";
+
     @InjectMocks
     private PersonController personController;
 
     @Mock
     private PersonServiceImpl personService;
 
+    @Spy
+    private MockHttpServletRequest request = new MockHttpServletRequest();
+
+    @Spy
+    private RequestExecutor requestExecutor = new RequestExecutor(new SyncTaskExecutor());
+
     @Test
     void getPersonById_HappyPath() {
         // Arrange
         Long personId = 13L;
-        PersonResponse response = mock(PersonResponse.class);
+        PersonResponse response = new PersonResponse()
+                .id(personId)
+                .version(4L)
+                .updatedAt(UPDATED_AT);
 
+        when(personService.getPersonVersion(anyLong())).thenReturn(new PersonVersion(4L, UPDATED_AT));
         when(personService.getPersonById(anyLong())).thenReturn(response);
 
         // Act
-        ResponseEntity<PersonResponse> actual = personController.getPersonById(personId);
+        ResponseEntity<PersonResponse> actual = personController.getPersonById(personId).join();
 
         // Assert
         assertEquals(HttpStatus.OK, actual.getStatusCode());
         assertEquals(response, actual.getBody());
+        assertEquals(ETAG, actual.getHeaders().getETag());
+        // HTTP dates have a precision of seconds
+        assertEquals(ConditionalResponses.lastModified(UPDATED_AT) / 1000 * 1000, actual.getHeaders().getLastModified());
 
+        verify(personService).getPersonVersion(personId);
         verify(personService).getPersonById(personId);
         verifyNoMoreInteractions(personService);
     }
 
+    @Test
+    void getPersonById_WhenETagMatches_ThenReturnsNotModified() {
+        // Arrange
+        Long personId = 13L;
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"3-0\", W/" + ETAG);
+
+        when(personService.getPersonVersion(anyLong())).thenReturn(new PersonVersion(4L, UPDATED_AT));
+
+        // Act
+        ResponseEntity<PersonResponse> actual = personController.getPersonById(personId).join();
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, actual.getStatusCode());
+        assertNull(actual.getBody());
+        assertEquals(ETAG, actual.getHeaders().getETag());
+
+        verify(personService).getPersonVersion(personId);
+        verifyNoMoreInteractions(personService);
+    }
+
+    @Test
+    void getPersonById_WhenETagDoesNotMatch_ThenIgnoresIfModifiedSince() {
+        // Arrange
+        Long personId = 13L;
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"3-0\"");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, "Wed, 01 Jan 2100 00:00:00 GMT");
+
+        when(personService.getPersonVersion(anyLong())).thenReturn(new PersonVersion(4L, UPDATED_AT));
+        when(personService.getPersonById(anyLong())).thenReturn(new PersonResponse().version(4L).updatedAt(UPDATED_AT));
+
+        // Act
+        ResponseEntity<PersonResponse> actual = personController.getPersonById(personId).join();
+
+        // Assert
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+    }
+
+    @Test
+    void getPersonById_WhenNotModifiedSince_ThenReturnsNotModified() {
+        // Arrange
+        Long personId = 13L;
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, httpDate(ConditionalResponses.lastModified(UPDATED_AT)));
+
+        when(personService.getPersonVersion(anyLong())).thenReturn(new PersonVersion(4L, UPDATED_AT));
+
+        // Act
+        ResponseEntity<PersonResponse> actual = personController.getPersonById(personId).join();
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, actual.getStatusCode());
+        verify(personService, never()).getPersonById(any());
+    }
+
+    @Test
+    void getPersonById_WhenModifiedSince_ThenReturnsPerson() {
+        // Arrange
+        Long personId = 13L;
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, httpDate(ConditionalResponses.lastModified(UPDATED_AT) - 1000));
+
+        when(personService.getPersonVersion(anyLong())).thenReturn(new PersonVersion(4L, UPDATED_AT));
+        when(personService.getPersonById(anyLong())).thenReturn(new PersonResponse().version(4L).updatedAt(UPDATED_AT));
+
+        // Act
+        ResponseEntity<PersonResponse> actual = personController.getPersonById(personId).join();
+
+        // Assert
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+    }
+
     @Test
     void getAllPersons_HappyPath() {
         // Arrange
-        PersonResponse response1 = mock(PersonResponse.class);
-        PersonResponse response2 = mock(PersonResponse.class);
-        List<PersonResponse> responses = List.of(response1, response2);
+        Integer limit = 20;
+        String after = "aWQ6MTM";
+        PersonPageResponse response = mock(PersonPageResponse.class);
 
-        when(personService.getAllPersons()).thenReturn(responses);
+        when(personService.getAllPersons(any(), any())).thenReturn(response);
 
         // Act
-        ResponseEntity<List<PersonResponse>> actual = personController.getAllPersons();
+        ResponseEntity<PersonPageResponse> actual = personController.getAllPersons(limit, after).join();
 
         // Assert
         assertEquals(HttpStatus.OK, actual.getStatusCode());
-        assertIterableEquals(responses, actual.getBody());
+        assertEquals(response, actual.getBody());
 
-        verify(personService).getAllPersons();
+        verify(personService).getAllPersons(limit, after);
+        verifyNoMoreInteractions(personService);
+    }
+
+    @Test
+    void searchPersons_HappyPath() {
+        // Arrange
+        Integer limit = 20;
+        String after = "aWQ6MTM";
+        PersonSearchCriteria criteria = new PersonSearchCriteria("Teszt", "Elek", "Magyarország", "Budapest",
+                "1111", "teszt.elek@example.com");
+        PersonPageResponse response = mock(PersonPageResponse.class);
+
+        when(personService.searchPersons(any(), any(), any())).thenReturn(response);
+
+        // Act
+        ResponseEntity<PersonPageResponse> actual = personController.searchPersons(criteria.firstName(),
+                criteria.lastName(), criteria.country(), criteria.city(), criteria.zip(), criteria.contactValue(),
+                limit, after).join();
+
+        // Assert
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(response, actual.getBody());
+
+        verify(personService).searchPersons(criteria, limit, after);
+        verifyNoMoreInteractions(personService);
+    }
+
+    @Test
+    void suggestPersons_HappyPath() {
+        // Arrange
+        String q = "tesz";
+        Integer limit = 5;
+        List<PersonSuggestionResponse> response = List.of(mock(PersonSuggestionResponse.class));
+
+        when(personService.suggestPersons(any(), any())).thenReturn(response);
+
+        // Act
+        ResponseEntity<List<PersonSuggestionResponse>> actual = personController.suggestPersons(q, limit).join();
+
+        // Assert
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(response, actual.getBody());
+
+        verify(personService).suggestPersons(q, limit);
+        verifyNoMoreInteractions(personService);
+    }
+
+    @Test
+    void getPersonChanges_HappyPath() {
+        // Arrange
+        String since = "cG9zaXRpb246MTM";
+        Integer limit = 20;
+        PersonChangesResponse response = mock(PersonChangesResponse.class);
+
+        when(personService.getPersonChanges(any(), any())).thenReturn(response);
+
+        // Act
+        ResponseEntity<PersonChangesResponse> actual = personController.getPersonChanges(since, limit).join();
+
+        // Assert
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(response, actual.getBody());
+
+        verify(personService).getPersonChanges(since, limit);
         verifyNoMoreInteractions(personService);
     }
 
@@ -84,7 +251,7 @@ class PersonControllerTest {
         when(personService.createPerson(any())).thenReturn(response);
 
         // Act
-        ResponseEntity<PersonResponse> actual = personController.createPerson(request);
+        ResponseEntity<PersonResponse> actual = personController.createPerson(request).join();
 
         // Assert
         assertEquals(HttpStatus.CREATED, actual.getStatusCode());
@@ -103,18 +270,79 @@ class PersonControllerTest {
         // Arrange
         long personId = 13L;
         PersonUpdateRequest request = mock(PersonUpdateRequest.class);
-        PersonResponse response = mock(PersonResponse.class);
+        PersonResponse response = new PersonResponse()
+                .id(personId)
+                .version(4L)
+                .updatedAt(UPDATED_AT);
 
-        when(personService.updatePerson(personId, request)).thenReturn(response);
+        when(personService.updatePerson(personId, request, null)).thenReturn(response);
 
         // Act
-        ResponseEntity<PersonResponse> actual = personController.updatePerson(personId, request);
+        ResponseEntity<PersonResponse> actual = personController.updatePerson(personId, request).join();
 
         // Assert
         assertEquals(HttpStatus.OK, actual.getStatusCode());
         assertEquals(response, actual.getBody());
+        assertEquals(ETAG, actual.getHeaders().getETag());
+
+        verify(personService).updatePerson(personId, request, null);
+        verifyNoMoreInteractions(personService);
+    }
+
+    @Test
+    void updatePerson_WhenIfMatchIsGiven_ThenPassesItsVersion() {
+        // Arrange
+        long personId = 13L;
+        PersonUpdateRequest updateRequest = mock(PersonUpdateRequest.class);
+        PersonResponse response = new PersonResponse()
+                .id(personId)
+                .version(4L)
+                .updatedAt(UPDATED_AT);
+        request.addHeader(HttpHeaders.IF_MATCH, "\"3-1741961366535\"");
+
+        when(personService.updatePerson(personId, updateRequest, 3L)).thenReturn(response);
+
+        // Act
+        ResponseEntity<PersonResponse> actual = personController.updatePerson(personId, updateRequest).join();
+
+        // Assert
+        assertEquals(HttpStatus.OK, actual.getStatusCode());
+        assertEquals(ETAG, actual.getHeaders().getETag());
+
+        verify(personService).updatePerson(personId, updateRequest, 3L);
+        verifyNoMoreInteractions(personService);
+    }
+
+    @Test
+    void patchPerson_HappyPath() {
+        // Arrange
+        long personId = 13L;
+        PersonUpdateRequest request = new PersonUpdateRequest().lastName("Próba");
+
+        // Act
+        ResponseEntity<Void> actual = personController.patchPerson(personId, request).join();
 
-        verify(personService).updatePerson(personId, request);
+        // Assert
+        assertEquals(HttpStatus.NO_CONTENT, actual.getStatusCode());
+
+        verify(personService).patchPerson(personId, request, null);
+        verifyNoMoreInteractions(personService);
+    }
+
+    @Test
+    void patchPerson_WhenIfMatchIsAny_ThenChangesAnyVersion() {
+        // Arrange
+        long personId = 13L;
+        PersonUpdateRequest updateRequest = new PersonUpdateRequest().lastName("Próba");
+        request.addHeader(HttpHeaders.IF_MATCH, "*");
+
+        // Act
+        ResponseEntity<Void> actual = personController.patchPerson(personId, updateRequest).join();
+
+        // Assert
+        assertEquals(HttpStatus.NO_CONTENT, actual.getStatusCode());
+
+        verify(personService).patchPerson(personId, updateRequest, null);
         verifyNoMoreInteractions(personService);
     }
 
@@ -124,12 +352,53 @@ class PersonControllerTest {
         long personId = 13L;
 
         // Act
-        ResponseEntity<Void> actual = personController.deletePerson(personId);
+        ResponseEntity<Void> actual = personController.deletePerson(personId).join();
 
         // Assert
         assertEquals(HttpStatus.NO_CONTENT, actual.getStatusCode());
 
-        verify(personService).deletePerson(personId);
+        verify(personService).deletePerson(personId, null);
         verifyNoMoreInteractions(personService);
     }
-}
\ No newline at end of file
+
+    @Test
+    void deletePerson_WhenIfMatchIsWeak_ThenThrowsPreconditionFailed() {
+        // Arrange
+        long personId = 13L;
+        request.addHeader(HttpHeaders.IF_MATCH, "W/" + ETAG);
+
+        // Act
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> personController.deletePerson(personId).join());
+
+        // Assert
+        PersonApiException cause = assertInstanceOf(PersonApiException.class, exception.getCause());
+        assertEquals(HttpStatus.PRECONDITION_FAILED, cause.getStatusCode());
+        assertEquals("If-Match W/" + ETAG + " does not hold a single ETag of the person", cause.getMessage());
+
+        verifyNoInteractions(personService);
+    }
+
+    @Test
+    void deletePerson_WhenIfMatchHoldsMoreETags_ThenThrowsPreconditionFailed() {
+        // Arrange
+        long personId = 13L;
+        request.addHeader(HttpHeaders.IF_MATCH, "\"3-0\", " + ETAG);
+
+        // Act
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> personController.deletePerson(personId).join());
+
+        // Assert
+        PersonApiException cause = assertInstanceOf(PersonApiException.class, exception.getCause());
+        assertEquals(HttpStatus.PRECONDITION_FAILED, cause.getStatusCode());
+
+        verifyNoInteractions(personService);
+    }
+
+    private static String httpDate(long epochMillis) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfModifiedSince(epochMillis);
+        return headers.getFirst(HttpHeaders.IF_MODIFIED_SINCE);
+    }
+}
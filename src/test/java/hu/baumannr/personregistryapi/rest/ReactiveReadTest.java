@@ -0,0 +1,236 @@
+package hu.baumannr.personregistryapi.rest;
+
+import hu.baumannr.personregistryapi.config.ReactiveReadConfig;
+import hu.baumannr.personregistryapi.rest.model.AddressCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.AddressResponse;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.PersonPageResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import hu.baumannr.personregistryapi.service.AddressService;
+import hu.baumannr.personregistryapi.service.ContactInfoService;
+import hu.baumannr.personregistryapi.service.PersonService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Reads persons through the reactive deployment, with the R2DBC H2 driver on the database the JPA services write.
+ * The context differs from the one of the other tests, so it gets a database of its own.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactivedb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "person-registry.reactive.r2dbc.url=r2dbc:h2:mem:///reactivedb?options=DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureWebTestClient
+@ActiveProfiles({"test", "reactive"})
+class ReactiveReadTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private AddressService addressService;
+
+    @Autowired
+    private ContactInfoService contactInfoService;
+
+    @Test
+    void reactiveDatabaseClient_WhenPersonsAreSharded_ThenRefusesToStart() {
+        ReactiveReadConfig config = new ReactiveReadConfig();
+
+        assertThrows(IllegalStateException.class, () -> config.reactiveDatabaseClient(
+                "r2dbc:h2:mem:///shardeddb", "sa", "", 1, true));
+    }
+
+    @Test
+    void getPersonById_HappyPath() {
+        Long personId = createPerson("Reaktív");
+
+        PersonResponse actual = webTestClient.get().uri("/api/persons/{personId}", personId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectHeader().exists(HttpHeaders.LAST_MODIFIED)
+                .expectBody(PersonResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(actual);
+        assertEquals("Reaktív", actual.getLastName());
+        assertEquals(1, actual.getAddresses().size());
+        assertEquals("Budapest", actual.getAddresses().get(0).getCity());
+        assertEquals(1, actual.getContactInfos().size());
+        assertEquals("reaktiv@example.com", actual.getContactInfos().get(0).getValue());
+    }
+
+    @Test
+    void getPersonById_WhenETagMatches_ThenReturnsNotModified() {
+        Long personId = createPerson("Változatlan");
+        String eTag = webTestClient.get().uri("/api/persons/{personId}", personId)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(PersonResponse.class)
+                .getResponseHeaders()
+                .getETag();
+
+        webTestClient.get().uri("/api/persons/{personId}", personId)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, eTag);
+    }
+
+    @Test
+    void getPersonById_WhenPersonNotFound_ThenReturnsNotFound() {
+        webTestClient.get().uri("/api/persons/{personId}", Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void getAllPersons_WhenMorePagesExist_ThenSeeksAfterCursor() {
+        Long firstId = createPerson("Első");
+        Long secondId = createPerson("Második");
+        String cursor = webTestClient.get().uri("/api/persons?limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(PersonPageResponse.class)
+                .returnResult()
+                .getResponseBody()
+                .getNextCursor();
+        assertNotNull(cursor);
+
+        List<Long> ids = new ArrayList<>();
+        while (cursor != null) {
+            PersonPageResponse page = webTestClient.get().uri("/api/persons?limit=1&after={after}", cursor)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(PersonPageResponse.class)
+                    .returnResult()
+                    .getResponseBody();
+            page.getItems().forEach(person -> ids.add(person.getId()));
+            cursor = page.getNextCursor();
+        }
+
+        assertEquals(secondId, ids.get(ids.size() - 1));
+        assertEquals(firstId, ids.get(ids.size() - 2));
+    }
+
+    @Test
+    void getAllPersons_WhenCursorIsInvalid_ThenReturnsBadRequest() {
+        webTestClient.get().uri("/api/persons?after=invalid")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getAddressesForPerson_HappyPath() {
+        Long personId = createPerson("Címes");
+
+        List<AddressResponse> actual = webTestClient.get().uri("/api/persons/{personId}/addresses", personId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBodyList(AddressResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(actual);
+        assertEquals(1, actual.size());
+        assertEquals("Budapest", actual.get(0).getCity());
+    }
+
+    @Test
+    void getAddressesForPerson_WhenETagMatches_ThenReturnsNotModified() {
+        Long personId = createPerson("Címes");
+        String eTag = webTestClient.get().uri("/api/persons/{personId}/addresses", personId)
+                .exchange()
+                .returnResult(AddressResponse.class)
+                .getResponseHeaders()
+                .getETag();
+
+        webTestClient.get().uri("/api/persons/{personId}/addresses", personId)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void getContactInfosForPerson_HappyPath() {
+        Long personId = createPerson("Elérhető");
+
+        List<ContactInfoResponse> actual = webTestClient.get().uri("/api/persons/{personId}/contactInfos", personId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ContactInfoResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(actual);
+        assertEquals(1, actual.size());
+        assertEquals("reaktiv@example.com", actual.get(0).getValue());
+    }
+
+    @Test
+    void getContactInfosForPerson_WhenETagMatches_ThenReturnsNotModified() {
+        Long personId = createPerson("Elérhető");
+        String eTag = webTestClient.get().uri("/api/persons/{personId}/contactInfos", personId)
+                .exchange()
+                .returnResult(ContactInfoResponse.class)
+                .getResponseHeaders()
+                .getETag();
+
+        webTestClient.get().uri("/api/persons/{personId}/contactInfos", personId)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void getContactInfosForPerson_WhenPersonNotFound_ThenReturnsNotFound() {
+        webTestClient.get().uri("/api/persons/{personId}/contactInfos", Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void createPerson_WhenDeploymentIsReactive_ThenWritesAreNotServed() {
+        webTestClient.post().uri("/api/persons")
+                .bodyValue(new PersonCreateRequest().firstName("Írás").lastName("Tiltott"))
+                .exchange()
+                .expectStatus().isEqualTo(405);
+    }
+
+    private Long createPerson(String lastName) {
+        Long personId = personService.createPerson(new PersonCreateRequest()
+                .firstName("Teszt")
+                .lastName(lastName)).getId();
+        addressService.addAddress(personId, new AddressCreateRequest()
+                .type(AddressCreateRequest.TypeEnum.PERMANENT)
+                .country("Magyarország")
+                .city("Budapest")
+                .zip("1011")
+                .street("Fő utca 1."), null);
+        contactInfoService.addContactInfo(personId, new ContactInfoCreateRequest()
+                .type(ContactInfoCreateRequest.TypeEnum.EMAIL)
+                .value("reaktiv@example.com"), null);
+        return personId;
+    }
+}
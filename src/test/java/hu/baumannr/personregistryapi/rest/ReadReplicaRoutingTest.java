@@ -0,0 +1,135 @@
+package hu.baumannr.personregistryapi.rest;
+
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import hu.baumannr.personregistryapi.rest.model.PersonCreateRequest;
+import hu.baumannr.personregistryapi.service.AddressService;
+import hu.baumannr.personregistryapi.service.PersonService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Routes the reads to a replica and asserts which database serves them. The primary and the replica are two
+ * separate H2 databases without replication, so a row written to one is not visible in the other, which tells the
+ * database serving a read apart.
+ */
+@SpringBootTest(properties = {
+        "person-registry.async-requests.enabled=true",
+        "person-registry.read-replica.enabled=true",
+        "person-registry.read-replica.read-your-writes-window=5s",
+        "spring.datasource.url=jdbc:h2:mem:primarydb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest {
+
+    private static final String REPLICA_URL = "jdbc:h2:mem:replicadb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+    private static final long REPLICA_PERSON_ID = 1_000_000L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private AddressService addressService;
+
+    @DynamicPropertySource
+    static void replica(DynamicPropertyRegistry registry) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+            statement.executeUpdate("INSERT INTO Person (Id, FirstName, LastName) VALUES ("
+                    + REPLICA_PERSON_ID + ", 'Elek', 'Replika')");
+        }
+        registry.add("person-registry.read-replica.url", () -> REPLICA_URL);
+    }
+
+    @Test
+    void readOnlyTransaction_ReadsFromReplica() {
+        Long primaryPersonId = createPerson();
+
+        assertTrue(addressService.getAddressesForPerson(REPLICA_PERSON_ID).isEmpty());
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> addressService.getAddressesForPerson(primaryPersonId));
+        assertEquals(404, exception.getStatusCode().value());
+    }
+
+    @Test
+    void getPersonById_WhenNotCached_ThenLoadsFromPrimary() {
+        Long primaryPersonId = createPerson();
+
+        assertEquals("Elsődleges", personService.getPersonById(primaryPersonId).getLastName());
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> personService.getPersonById(REPLICA_PERSON_ID));
+        assertEquals(404, exception.getStatusCode().value());
+    }
+
+    @Test
+    void getAddressesForPerson_WhenWrittenWithinWindow_ThenReadsFromPrimary() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/persons")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\": \"Elek\", \"lastName\": \"Elsődleges\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String setCookie = created.getResponse().getHeader(HttpHeaders.SET_COOKIE);
+        assertNotNull(setCookie);
+        assertTrue(setCookie.startsWith(ReadYourWritesInterceptor.COOKIE_NAME + "="));
+        assertTrue(setCookie.contains("HttpOnly"));
+        String location = mockMvc.perform(asyncDispatch(created)).andReturn().getResponse()
+                .getHeader(HttpHeaders.LOCATION);
+        Cookie cookie = new Cookie(ReadYourWritesInterceptor.COOKIE_NAME,
+                setCookie.substring(setCookie.indexOf('=') + 1, setCookie.indexOf(';')));
+
+        MvcResult fromPrimary = perform(get(location + "/addresses").cookie(cookie));
+        MvcResult fromReplica = perform(get(location + "/addresses"));
+        MvcResult expired = perform(get(location + "/addresses")
+                .cookie(new Cookie(ReadYourWritesInterceptor.COOKIE_NAME, "1")));
+
+        assertEquals(200, fromPrimary.getResponse().getStatus());
+        assertEquals(404, fromReplica.getResponse().getStatus());
+        assertEquals(404, expired.getResponse().getStatus());
+    }
+
+    private Long createPerson() {
+        return personService.createPerson(new PersonCreateRequest()
+                .firstName("Elek")
+                .lastName("Elsődleges")).getId();
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result)).andReturn();
+    }
+}
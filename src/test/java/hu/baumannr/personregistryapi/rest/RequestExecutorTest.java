@@ -0,0 +1,44 @@
+package hu.baumannr.personregistryapi.rest;
+
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+
+import java.util.concurrent.CompletableFuture;
+
+import static hu.baumannr.personregistryapi.constant.ErrorMessages.REQUEST_QUEUE_FULL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestExecutorTest {
+
+    @Test
+    void submit_HappyPath() {
+        // Arrange
+        RequestExecutor requestExecutor = new RequestExecutor(new SyncTaskExecutor());
+
+        // Act
+        CompletableFuture<String> actual = requestExecutor.submit(() -> "response");
+
+        // Assert
+        assertEquals("response", actual.join());
+    }
+
+    @Test
+    void submit_WhenQueueIsFull_ThenThrowsServiceUnavailable() {
+        // Arrange
+        RequestExecutor requestExecutor = new RequestExecutor(task -> {
+            throw new TaskRejectedException("Queue is full");
+        });
+
+        // Act
+        PersonApiException actual = assertThrows(PersonApiException.class,
+                () -> requestExecutor.submit(() -> "response"));
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, actual.getStatusCode());
+        assertEquals(REQUEST_QUEUE_FULL, actual.getMessage());
+    }
+}
@@ -0,0 +1,66 @@
+package hu.baumannr.personregistryapi.rest;
+
+import hu.baumannr.personregistryapi.rest.model.PersonCreateRequest;
+import hu.baumannr.personregistryapi.service.PersonService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Serves requests through the synchronous request executor and asserts that the completed futures of the controllers
+ * are written without an asynchronous dispatch. The context differs from the one of the other tests, so it gets a
+ * database of its own.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:syncdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SyncRequestTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PersonService personService;
+
+    @Test
+    void getPersonById_WhenAsyncRequestsDisabled_ThenWritesResponseWithoutAsyncDispatch() throws Exception {
+        Long personId = personService.createPerson(new PersonCreateRequest()
+                .firstName("Elek")
+                .lastName("Szinkron")).getId();
+
+        mockMvc.perform(get("/api/persons/{personId}", personId))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.lastName").value("Szinkron"));
+    }
+
+    @Test
+    void getPersonById_WhenPersonIsMissing_ThenReturnsNotFoundWithoutAsyncDispatch() throws Exception {
+        mockMvc.perform(get("/api/persons/{personId}", Long.MAX_VALUE))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Person with id " + Long.MAX_VALUE + " not found"));
+    }
+
+    @Test
+    void exportPersons_WhenAsyncRequestsDisabled_ThenStreamsBodyWithExportTimeout() throws Exception {
+        MvcResult streamed = mockMvc.perform(get("/api/persons/export").param("format", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(3_600_000L, streamed.getRequest().getAsyncContext().getTimeout());
+    }
+}
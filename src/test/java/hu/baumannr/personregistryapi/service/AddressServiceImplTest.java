@@ -2,15 +2,16 @@ package hu.baumannr.personregistryapi.service;
 
 import hu.baumannr.personregistryapi.exception.PersonApiException;
 import hu.baumannr.personregistryapi.mapper.AddressMapper;
-import hu.baumannr.personregistryapi.mapper.AddressTypeMapper;
 import hu.baumannr.personregistryapi.persistence.model.Address;
-import hu.baumannr.personregistryapi.persistence.model.AddressType;
+import hu.baumannr.personregistryapi.persistence.model.ChangeEventType;
 import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.persistence.model.PersonVersion;
 import hu.baumannr.personregistryapi.persistence.repository.AddressRepository;
 import hu.baumannr.personregistryapi.persistence.repository.PersonRepository;
 import hu.baumannr.personregistryapi.rest.model.AddressCreateRequest;
 import hu.baumannr.personregistryapi.rest.model.AddressResponse;
 import hu.baumannr.personregistryapi.rest.model.AddressUpdateRequest;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InOrder;
@@ -19,18 +20,26 @@ import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -49,7 +58,7 @@ class AddressServiceImplTest {
     private AddressMapper addressMapper;
 
     @Mock
-    private AddressTypeMapper addressTypeMapper;
+    private ChangeEventService changeEventService;
 
     @Test
     void getAddressesForPerson_HappyPath() {
@@ -62,8 +71,10 @@ class AddressServiceImplTest {
         AddressResponse response2 = mock(AddressResponse.class);
         List<AddressResponse> expected = List.of(response1, response2);
 
-        when(personRepository.existsById(any())).thenReturn(true);
-        when(addressRepository.findByPerson_Id(any())).thenReturn(addresses);
+        Person person = mock(Person.class);
+
+        when(personRepository.findWithAddressesById(any())).thenReturn(Optional.of(person));
+        when(person.getAddresses()).thenReturn(new LinkedHashSet<>(addresses));
         when(addressMapper.convert(address1)).thenReturn(response1);
         when(addressMapper.convert(address2)).thenReturn(response2);
 
@@ -74,8 +85,7 @@ class AddressServiceImplTest {
         assertIterableEquals(expected, actual);
 
         InOrder inOrder = inOrder(personRepository, addressRepository, addressMapper);
-        inOrder.verify(personRepository).existsById(personId);
-        inOrder.verify(addressRepository).findByPerson_Id(personId);
+        inOrder.verify(personRepository).findWithAddressesById(personId);
         inOrder.verify(addressMapper).convert(address1);
         inOrder.verify(addressMapper).convert(address2);
         inOrder.verifyNoMoreInteractions();
@@ -88,7 +98,7 @@ class AddressServiceImplTest {
         String message = "Person with id " + personId + " not found";
         LocalDateTime now = LocalDateTime.now();
 
-        when(personRepository.existsById(any())).thenReturn(false);
+        when(personRepository.findWithAddressesById(any())).thenReturn(Optional.empty());
 
         try (MockedStatic<LocalDateTime> mockedTime = Mockito.mockStatic(LocalDateTime.class)) {
             mockedTime.when(LocalDateTime::now).thenReturn(now);
@@ -113,21 +123,25 @@ class AddressServiceImplTest {
         AddressCreateRequest request = mock(AddressCreateRequest.class);
         AddressResponse expected = mock(AddressResponse.class);
 
-        when(personRepository.findById(any())).thenReturn(Optional.of(person));
+        when(personRepository.touch(any(), any())).thenReturn(1);
+        when(personRepository.getReferenceById(any())).thenReturn(person);
         when(addressMapper.convert(any(AddressCreateRequest.class))).thenReturn(address);
-        when(addressRepository.save(any())).thenReturn(savedAddress);
+        when(addressRepository.saveAndFlush(any())).thenReturn(savedAddress);
+        when(savedAddress.getId()).thenReturn(17L);
         when(addressMapper.convert(any(Address.class))).thenReturn(expected);
 
         // Act
-        AddressResponse actual = addressService.addAddress(personId, request);
+        AddressResponse actual = addressService.addAddress(personId, request, null);
 
         // Assert
         assertEquals(expected, actual);
 
-        InOrder inOrder = inOrder(personRepository, addressMapper, addressRepository);
-        inOrder.verify(personRepository).findById(personId);
+        InOrder inOrder = inOrder(personRepository, addressMapper, addressRepository, address, changeEventService);
+        inOrder.verify(personRepository).touch(eq(personId), any());
         inOrder.verify(addressMapper).convert(request);
-        inOrder.verify(addressRepository).save(address);
+        inOrder.verify(address).setPerson(person);
+        inOrder.verify(addressRepository).saveAndFlush(address);
+        inOrder.verify(changeEventService).recordChange(ChangeEventType.ADDRESS_CREATED, personId, 17L);
         inOrder.verify(addressMapper).convert(savedAddress);
         inOrder.verifyNoMoreInteractions();
     }
@@ -145,7 +159,7 @@ class AddressServiceImplTest {
 
             // Act
             PersonApiException exception = assertThrows(PersonApiException.class,
-                    () -> addressService.addAddress(personId,request));
+                    () -> addressService.addAddress(personId,request, null));
 
             // Assert
             assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
@@ -158,19 +172,15 @@ class AddressServiceImplTest {
     void addAddress_WhenAddressTypeAlreadyExists_ThenThrowsException() {
         // Arrange
         Long personId = 13L;
-        Person person = mock(Person.class);
         Address address = mock(Address.class);
-        AddressType addressType = AddressType.PERMANENT;
         AddressCreateRequest request = mock(AddressCreateRequest.class);
         AddressCreateRequest.TypeEnum type = AddressCreateRequest.TypeEnum.PERMANENT;
         LocalDateTime now = LocalDateTime.now();
         String message = "Address with type " + type + " already exists for person " + personId;
 
-        when(personRepository.findById(any())).thenReturn(Optional.of(person));
-        when(person.getId()).thenReturn(personId);
-        when(person.getAddresses()).thenReturn(List.of(address));
-        when(address.getType()).thenReturn(addressType);
-        when(addressTypeMapper.convert(any())).thenReturn(addressType);
+        when(personRepository.touch(any(), any())).thenReturn(1);
+        when(addressMapper.convert(any(AddressCreateRequest.class))).thenReturn(address);
+        when(addressRepository.saveAndFlush(any())).thenThrow(integrityViolation("UQ_PERSONID_TYPE_INDEX_3"));
         when(request.getType()).thenReturn(type);
 
         try (MockedStatic<LocalDateTime> mockedTime = Mockito.mockStatic(LocalDateTime.class)) {
@@ -178,7 +188,7 @@ class AddressServiceImplTest {
 
             // Act
             PersonApiException exception = assertThrows(PersonApiException.class,
-                    () -> addressService.addAddress(personId, request));
+                    () -> addressService.addAddress(personId, request, null));
 
             // Assert
             assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
@@ -187,6 +197,24 @@ class AddressServiceImplTest {
         }
     }
 
+    @Test
+    void addAddress_WhenOtherConstraintIsViolated_ThenRethrowsViolation() {
+        // Arrange
+        DataIntegrityViolationException violation = integrityViolation(null);
+
+        when(personRepository.touch(any(), any())).thenReturn(1);
+        when(addressMapper.convert(any(AddressCreateRequest.class))).thenReturn(mock(Address.class));
+        when(addressRepository.saveAndFlush(any())).thenThrow(violation);
+
+        // Act
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class,
+                () -> addressService.addAddress(13L, mock(AddressCreateRequest.class), null));
+
+        // Assert
+        assertSame(violation, exception);
+        verifyNoInteractions(changeEventService);
+    }
+
     @Test
     void updateAddress_HappyPath() {
         // Arrange
@@ -201,19 +229,22 @@ class AddressServiceImplTest {
         when(address.getPerson()).thenReturn(person);
         when(person.getId()).thenReturn(personId);
         when(addressRepository.findById(any())).thenReturn(Optional.of(address));
-        when(addressRepository.save(any())).thenReturn(updatedAddress);
+        when(addressRepository.saveAndFlush(any())).thenReturn(updatedAddress);
+        when(personRepository.touch(any(), any())).thenReturn(1);
         when(addressMapper.convert(any(Address.class))).thenReturn(expected);
 
         // Act
-        AddressResponse actual = addressService.updateAddress(personId, addressId, request);
+        AddressResponse actual = addressService.updateAddress(personId, addressId, request, null);
 
         // Assert
         assertEquals(expected, actual);
 
-        InOrder inOrder = inOrder(personRepository, addressMapper, addressRepository);
+        InOrder inOrder = inOrder(personRepository, addressMapper, addressRepository, changeEventService);
+        inOrder.verify(personRepository).touch(eq(personId), any());
         inOrder.verify(addressRepository).findById(addressId);
         inOrder.verify(addressMapper).updateAddress(address, request);
-        inOrder.verify(addressRepository).save(address);
+        inOrder.verify(addressRepository).saveAndFlush(address);
+        inOrder.verify(changeEventService).recordChange(ChangeEventType.ADDRESS_UPDATED, personId, addressId);
         inOrder.verify(addressMapper).convert(updatedAddress);
         inOrder.verifyNoMoreInteractions();
     }
@@ -227,12 +258,14 @@ class AddressServiceImplTest {
         String message = "Address with id " + addressId + " not found";
         LocalDateTime now = LocalDateTime.now();
 
+        when(personRepository.touch(any(), any())).thenReturn(1);
+
         try (MockedStatic<LocalDateTime> mockedTime = Mockito.mockStatic(LocalDateTime.class)) {
             mockedTime.when(LocalDateTime::now).thenReturn(now);
 
             // Act
             PersonApiException exception = assertThrows(PersonApiException.class,
-                    () -> addressService.updateAddress(personId, addressId, request));
+                    () -> addressService.updateAddress(personId, addressId, request, null));
 
             // Assert
             assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
@@ -257,12 +290,13 @@ class AddressServiceImplTest {
         when(address.getPerson()).thenReturn(person);
         when(person.getId()).thenReturn(personId);
         when(addressRepository.findById(any())).thenReturn(Optional.of(address));
+        when(personRepository.touch(any(), any())).thenReturn(1);
 
         try (MockedStatic<LocalDateTime> mockedTime = Mockito.mockStatic(LocalDateTime.class)) {
             mockedTime.when(LocalDateTime::now).thenReturn(now);
 
             PersonApiException exception = assertThrows(PersonApiException.class,
-                    () -> addressService.updateAddress(otherPersonId, addressId, request));
+                    () -> addressService.updateAddress(otherPersonId, addressId, request, null));
 
 
             assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
@@ -271,6 +305,70 @@ class AddressServiceImplTest {
         }
     }
 
+    @Test
+    void patchAddress_HappyPath() {
+        // Arrange
+        Long personId = 13L;
+        Long addressId = 17L;
+        Person person = mock(Person.class);
+        Address address = mock(Address.class);
+        AddressUpdateRequest request = new AddressUpdateRequest().city("Szeged");
+
+        when(address.getPerson()).thenReturn(person);
+        when(person.getId()).thenReturn(personId);
+        when(addressRepository.findById(any())).thenReturn(Optional.of(address));
+        when(personRepository.touch(any(), any())).thenReturn(1);
+
+        // Act
+        addressService.patchAddress(personId, addressId, request, null);
+
+        // Assert
+        InOrder inOrder = inOrder(personRepository, addressMapper, addressRepository, changeEventService);
+        inOrder.verify(personRepository).touch(eq(personId), any());
+        inOrder.verify(addressRepository).findById(addressId);
+        inOrder.verify(addressMapper).patchAddress(address, request);
+        inOrder.verify(changeEventService).recordChange(ChangeEventType.ADDRESS_UPDATED, personId, addressId);
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void patchAddress_WhenNoFieldIsGiven_ThenThrowsException() {
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> addressService.patchAddress(13L, 17L, new AddressUpdateRequest(), null));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertEquals("Request does not change any field", exception.getMessage());
+        verifyNoInteractions(addressRepository, personRepository, changeEventService);
+    }
+
+    @Test
+    void patchAddress_WhenAddressDoesNotBelongToPerson_ThenThrowsException() {
+        // Arrange
+        Long otherPersonId = 51L;
+        Long addressId = 17L;
+        Person person = mock(Person.class);
+        Address address = mock(Address.class);
+        String message = "Address with id " + addressId + " does not belong to person " + otherPersonId;
+
+        when(address.getId()).thenReturn(addressId);
+        when(address.getPerson()).thenReturn(person);
+        when(person.getId()).thenReturn(13L);
+        when(addressRepository.findById(any())).thenReturn(Optional.of(address));
+        when(personRepository.touch(any(), any())).thenReturn(1);
+
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> addressService.patchAddress(otherPersonId, addressId, new AddressUpdateRequest().zip("6720"),
+                        null));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        assertEquals(message, exception.getMessage());
+        verifyNoInteractions(addressMapper, changeEventService);
+    }
+
     @Test
     void deleteAddress_HappyPath() {
         // Arrange
@@ -282,14 +380,104 @@ class AddressServiceImplTest {
         when(address.getPerson()).thenReturn(person);
         when(person.getId()).thenReturn(personId);
         when(addressRepository.findById(any())).thenReturn(Optional.of(address));
+        when(personRepository.touch(any(), any())).thenReturn(1);
 
         // Act
-        addressService.deleteAddress(personId, addressId);
+        addressService.deleteAddress(personId, addressId, null);
 
         // Assert
-        InOrder inOrder = inOrder(personRepository, addressMapper, addressRepository);
+        InOrder inOrder = inOrder(personRepository, addressMapper, addressRepository, changeEventService);
+        inOrder.verify(personRepository).touch(eq(personId), any());
         inOrder.verify(addressRepository).findById(addressId);
-        inOrder.verify(addressRepository).deleteById(addressId);
+        inOrder.verify(addressRepository).delete(address);
+        inOrder.verify(changeEventService).recordChange(ChangeEventType.ADDRESS_DELETED, personId, addressId);
         inOrder.verifyNoMoreInteractions();
     }
-}
\ No newline at end of file
+
+    @Test
+    void deleteAddress_WhenAddressNotFound_ThenThrowsException() {
+        // Arrange
+        long personId = 13L;
+        long addressId = 17L;
+        String message = "Address with id " + addressId + " not found";
+
+        when(addressRepository.findById(any())).thenReturn(Optional.empty());
+        when(personRepository.touch(any(), any())).thenReturn(1);
+
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> addressService.deleteAddress(personId, addressId, null));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        assertEquals(message, exception.getMessage());
+        verifyNoInteractions(changeEventService);
+    }
+
+    @Test
+    void deleteAddress_WhenAddressDoesNotBelongToPerson_ThenThrowsException() {
+        // Arrange
+        Long otherPersonId = 51L;
+        Long addressId = 17L;
+        Person person = mock(Person.class);
+        Address address = mock(Address.class);
+        String message = "Address with id " + addressId + " does not belong to person " + otherPersonId;
+
+        when(address.getId()).thenReturn(addressId);
+        when(address.getPerson()).thenReturn(person);
+        when(person.getId()).thenReturn(13L);
+        when(addressRepository.findById(any())).thenReturn(Optional.of(address));
+        when(personRepository.touch(any(), any())).thenReturn(1);
+
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> addressService.deleteAddress(otherPersonId, addressId, null));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        assertEquals(message, exception.getMessage());
+        verify(addressRepository, never()).delete(any());
+        verifyNoInteractions(changeEventService);
+    }
+
+    @Test
+    void deleteAddress_WhenVersionIsStale_ThenThrowsPreconditionFailed() {
+        // Arrange
+        Long personId = 13L;
+
+        when(personRepository.touchIfVersion(any(), any(), any())).thenReturn(0);
+        when(personRepository.findVersionById(any())).thenReturn(Optional.of(new PersonVersion(5L,
+                LocalDateTime.now())));
+
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> addressService.deleteAddress(personId, 17L, 4L));
+
+        // Assert
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatusCode());
+        assertEquals("Person with id 13 has changed, its version is not 4", exception.getMessage());
+        verify(personRepository).touchIfVersion(eq(personId), eq(4L), any());
+        verifyNoInteractions(addressRepository, changeEventService);
+    }
+
+    @Test
+    void updateAddress_WhenVersionIsGivenAndPersonNotFound_ThenThrowsException() {
+        // Arrange
+        when(personRepository.touchIfVersion(any(), any(), any())).thenReturn(0);
+        when(personRepository.findVersionById(any())).thenReturn(Optional.empty());
+
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> addressService.updateAddress(13L, 17L, new AddressUpdateRequest(), 4L));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        assertEquals("Person with id 13 not found", exception.getMessage());
+        verifyNoInteractions(addressRepository, changeEventService);
+    }
+
+    private static DataIntegrityViolationException integrityViolation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("constraint violated", new SQLException(), constraintName));
+    }
+}
@@ -0,0 +1,276 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.rest.model.ChangeEventResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeEventRelayTest {
+
+    @Mock
+    private ChangeEventService changeEventService;
+
+    private ChangeEventRelay changeEventRelay;
+
+    @BeforeEach
+    void setUp() {
+        when(changeEventService.getLastPosition()).thenReturn(40L);
+        changeEventRelay = new ChangeEventRelay(changeEventService, Duration.ofDays(7), Duration.ofHours(1),
+                Runnable::run);
+        changeEventRelay.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void relay_HappyPath() {
+        // Arrange
+        List<ChangeEventResponse> received = new ArrayList<>();
+        changeEventRelay.subscribe(null, received::addAll);
+
+        when(changeEventService.sequenceEvents(anyInt())).thenReturn(2);
+        when(changeEventService.getEventsAfter(40L, ChangeEventRelay.PAGE_SIZE)).thenReturn(events(41, 42));
+
+        // Act
+        changeEventRelay.relay();
+
+        // Assert
+        assertEquals(events(41, 42), received);
+        verify(changeEventService).moveShardEvents(ChangeEventRelay.PAGE_SIZE);
+        verify(changeEventService).sequenceEvents(ChangeEventRelay.PAGE_SIZE);
+    }
+
+    @Test
+    void relay_WhenSubscriberResumes_ThenSendsMissedEventsFirst() {
+        // Arrange
+        List<ChangeEventResponse> received = new ArrayList<>();
+        changeEventRelay.subscribe(38L, received::addAll);
+
+        when(changeEventService.getEventsAfter(40L, ChangeEventRelay.PAGE_SIZE)).thenReturn(events(41));
+        when(changeEventService.getEventsAfter(38L, ChangeEventRelay.PAGE_SIZE)).thenReturn(events(39, 40, 41));
+
+        // Act
+        changeEventRelay.relay();
+
+        // Assert
+        assertEquals(events(39, 40, 41), received);
+    }
+
+    @Test
+    void relay_WhenMissedEventsWereDeleted_ThenContinuesWithNewEvents() {
+        // Arrange
+        List<ChangeEventResponse> received = new ArrayList<>();
+        changeEventRelay.subscribe(3L, received::addAll);
+
+        when(changeEventService.getEventsAfter(40L, ChangeEventRelay.PAGE_SIZE)).thenReturn(events(41));
+        when(changeEventService.getEventsAfter(3L, ChangeEventRelay.PAGE_SIZE)).thenReturn(List.of());
+
+        // Act
+        changeEventRelay.relay();
+
+        // Assert
+        assertEquals(events(41), received);
+    }
+
+    @Test
+    void relay_WhenPageIsFull_ThenRelaysNextPage() {
+        // Arrange
+        List<ChangeEventResponse> received = new ArrayList<>();
+        changeEventRelay.subscribe(null, received::addAll);
+        List<ChangeEventResponse> firstPage = events(LongStream.range(41, 41 + ChangeEventRelay.PAGE_SIZE).toArray());
+        long lastOfFirstPage = 40L + ChangeEventRelay.PAGE_SIZE;
+
+        when(changeEventService.getEventsAfter(40L, ChangeEventRelay.PAGE_SIZE)).thenReturn(firstPage);
+        when(changeEventService.getEventsAfter(lastOfFirstPage, ChangeEventRelay.PAGE_SIZE))
+                .thenReturn(events(lastOfFirstPage + 1));
+
+        // Act
+        changeEventRelay.relay();
+
+        // Assert
+        assertEquals(ChangeEventRelay.PAGE_SIZE + 1, received.size());
+        assertEquals(lastOfFirstPage + 1, received.get(received.size() - 1).getPosition());
+    }
+
+    @Test
+    void relay_WhenAnotherRelaySequencedTheEvents_ThenReadsThem() {
+        // Arrange
+        List<ChangeEventResponse> received = new ArrayList<>();
+        changeEventRelay.subscribe(null, received::addAll);
+
+        when(changeEventService.sequenceEvents(anyInt())).thenThrow(new DataIntegrityViolationException("position"));
+        when(changeEventService.getEventsAfter(40L, ChangeEventRelay.PAGE_SIZE)).thenReturn(events(41));
+
+        // Act
+        changeEventRelay.relay();
+
+        // Assert
+        assertEquals(events(41), received);
+    }
+
+    @Test
+    void relay_WhenDatabaseFails_ThenKeepsSubscribers() {
+        // Arrange
+        List<ChangeEventResponse> received = new ArrayList<>();
+        changeEventRelay.subscribe(null, received::addAll);
+
+        when(changeEventService.getEventsAfter(anyLong(), anyInt()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(events(41));
+
+        // Act
+        changeEventRelay.relay();
+        changeEventRelay.relay();
+
+        // Assert
+        assertEquals(events(41), received);
+    }
+
+    @Test
+    void relay_WhenSubscriberIsGone_ThenCancelsSubscription() throws IOException {
+        // Arrange
+        ChangeEventListener listener = mock(ChangeEventListener.class);
+        changeEventRelay.subscribe(null, listener);
+
+        doThrow(new IOException("Broken pipe")).when(listener).onEvents(any());
+        when(changeEventService.getEventsAfter(40L, ChangeEventRelay.PAGE_SIZE)).thenReturn(events(41));
+
+        // Act
+        changeEventRelay.relay();
+        changeEventRelay.relay();
+
+        // Assert
+        verify(listener).onEvents(events(41));
+    }
+
+    @Test
+    void relay_WhenSubscriberIsCompleted_ThenCancelsItAndSendsToOthers() throws IOException {
+        // Arrange
+        ChangeEventListener completed = mock(ChangeEventListener.class);
+        changeEventRelay.subscribe(null, completed);
+        List<ChangeEventResponse> received = new ArrayList<>();
+        changeEventRelay.subscribe(null, received::addAll);
+
+        doThrow(new IllegalStateException("ResponseBodyEmitter has already completed")).when(completed).onEvents(any());
+        when(changeEventService.getEventsAfter(40L, ChangeEventRelay.PAGE_SIZE)).thenReturn(events(41));
+        when(changeEventService.getEventsAfter(41L, ChangeEventRelay.PAGE_SIZE)).thenReturn(events(42));
+
+        // Act
+        changeEventRelay.relay();
+        changeEventRelay.relay();
+
+        // Assert
+        assertEquals(events(41, 42), received);
+        verify(completed).onEvents(events(41));
+    }
+
+    @Test
+    void relay_WhenSubscriberIsSlow_ThenReturnsBeforeSending() {
+        // Arrange
+        List<Runnable> sends = new ArrayList<>();
+        ChangeEventRelay relay = new ChangeEventRelay(changeEventService, Duration.ofDays(7), Duration.ofHours(1),
+                sends::add);
+        relay.afterSingletonsInstantiated();
+        List<ChangeEventResponse> received = new ArrayList<>();
+        relay.subscribe(null, received::addAll);
+
+        when(changeEventService.getEventsAfter(40L, ChangeEventRelay.PAGE_SIZE)).thenReturn(events(41));
+
+        // Act
+        relay.relay();
+
+        // Assert
+        assertTrue(received.isEmpty());
+        sends.forEach(Runnable::run);
+        assertEquals(events(41), received);
+    }
+
+    @Test
+    void relay_WhenQueueOfSubscriberIsFull_ThenReadsMissedEventsFromDatabase() {
+        // Arrange
+        List<Runnable> sends = new ArrayList<>();
+        ChangeEventRelay relay = new ChangeEventRelay(changeEventService, Duration.ofDays(7), Duration.ofHours(1),
+                sends::add);
+        relay.afterSingletonsInstantiated();
+        List<ChangeEventResponse> received = new ArrayList<>();
+        relay.subscribe(null, received::addAll);
+        long last = 41L + ChangeEventRelay.QUEUE_CAPACITY;
+
+        when(changeEventService.getEventsAfter(anyLong(), eq(ChangeEventRelay.PAGE_SIZE))).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            return after < last ? events(after + 1) : List.of();
+        });
+
+        // Act
+        for (long position = 41L; position <= last; position++) {
+            relay.relay();
+        }
+        sends.forEach(Runnable::run);
+        sends.clear();
+        relay.relay();
+        sends.forEach(Runnable::run);
+
+        // Assert
+        assertEquals(events(LongStream.rangeClosed(41L, last).toArray()), received);
+    }
+
+    @Test
+    void cancel_HappyPath() throws IOException {
+        // Arrange
+        ChangeEventListener listener = mock(ChangeEventListener.class);
+        ChangeEventRelay.Subscription subscription = changeEventRelay.subscribe(null, listener);
+
+        when(changeEventService.getEventsAfter(40L, ChangeEventRelay.PAGE_SIZE)).thenReturn(events(41));
+
+        // Act
+        subscription.cancel();
+        changeEventRelay.relay();
+
+        // Assert
+        verify(listener, never()).onEvents(any());
+    }
+
+    @Test
+    void deleteExpiredEvents_HappyPath() {
+        // Act
+        changeEventRelay.deleteExpiredEvents();
+
+        // Assert
+        verify(changeEventService).deleteEventsBefore(argThat(createdAt ->
+                createdAt.isBefore(LocalDateTime.now().minusDays(6))
+                        && createdAt.isAfter(LocalDateTime.now().minusDays(8))));
+    }
+
+    private static List<ChangeEventResponse> events(long... positions) {
+        return LongStream.of(positions)
+                .mapToObj(position -> new ChangeEventResponse()
+                        .position(position)
+                        .type(ChangeEventResponse.TypeEnum.PERSON_UPDATED)
+                        .personId(13L)
+                        .entityId(13L))
+                .toList();
+    }
+}
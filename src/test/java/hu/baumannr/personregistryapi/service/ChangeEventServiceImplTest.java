@@ -0,0 +1,189 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.mapper.ChangeEventMapper;
+import hu.baumannr.personregistryapi.persistence.model.ChangeEvent;
+import hu.baumannr.personregistryapi.persistence.model.ChangeEventType;
+import hu.baumannr.personregistryapi.persistence.repository.ChangeEventRepository;
+import hu.baumannr.personregistryapi.rest.model.ChangeEventResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeEventServiceImplTest {
+
+    @InjectMocks
+    private ChangeEventServiceImpl changeEventService;
+
+    @Mock
+    private ChangeEventRepository changeEventRepository;
+
+    @Mock
+    private ChangeEventMapper changeEventMapper;
+
+    @Test
+    void recordChange_HappyPath() {
+        // Arrange
+        ArgumentCaptor<ChangeEvent> captor = ArgumentCaptor.forClass(ChangeEvent.class);
+
+        // Act
+        changeEventService.recordChange(ChangeEventType.ADDRESS_UPDATED, 13L, 17L);
+
+        // Assert
+        verify(changeEventRepository).save(captor.capture());
+        ChangeEvent actual = captor.getValue();
+        assertEquals(ChangeEventType.ADDRESS_UPDATED, actual.getType());
+        assertEquals(13L, actual.getPersonId());
+        assertEquals(17L, actual.getEntityId());
+        assertNull(actual.getPosition());
+        assertNotNull(actual.getCreatedAt());
+    }
+
+    @Test
+    void recordChanges_HappyPath() {
+        // Arrange
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ChangeEvent>> captor = ArgumentCaptor.forClass(List.class);
+
+        // Act
+        changeEventService.recordChanges(ChangeEventType.PERSON_DELETED, List.of(13L, 17L));
+
+        // Assert
+        verify(changeEventRepository).saveAll(captor.capture());
+        List<ChangeEvent> actual = captor.getValue();
+        assertEquals(List.of(13L, 17L), actual.stream().map(ChangeEvent::getPersonId).toList());
+        assertEquals(List.of(13L, 17L), actual.stream().map(ChangeEvent::getEntityId).toList());
+        assertEquals(List.of(ChangeEventType.PERSON_DELETED, ChangeEventType.PERSON_DELETED),
+                actual.stream().map(ChangeEvent::getType).toList());
+    }
+
+    @Test
+    void sequenceEvents_HappyPath() {
+        // Arrange
+        ChangeEvent first = ChangeEvent.of(ChangeEventType.PERSON_CREATED, 13L, 13L);
+        ChangeEvent second = ChangeEvent.of(ChangeEventType.PERSON_UPDATED, 13L, 13L);
+
+        when(changeEventRepository.findByPositionIsNullOrderByIdAsc(any())).thenReturn(List.of(first, second));
+        when(changeEventRepository.findLastPosition()).thenReturn(41L);
+
+        // Act
+        int actual = changeEventService.sequenceEvents(100);
+
+        // Assert
+        assertEquals(2, actual);
+        assertEquals(42L, first.getPosition());
+        assertEquals(43L, second.getPosition());
+        verify(changeEventRepository).findByPositionIsNullOrderByIdAsc(Limit.of(100));
+    }
+
+    @Test
+    void sequenceEvents_WhenNoEventIsWaiting_ThenSequencesNothing() {
+        // Arrange
+        when(changeEventRepository.findByPositionIsNullOrderByIdAsc(any())).thenReturn(List.of());
+
+        // Act
+        int actual = changeEventService.sequenceEvents(100);
+
+        // Assert
+        assertEquals(0, actual);
+        verify(changeEventRepository, never()).findLastPosition();
+    }
+
+    @Test
+    void moveShardEvents_WhenEventsAreOnOtherShards_ThenMovesThemToShard0() {
+        // Arrange
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        ChangeEventServiceImpl shardedService = new ChangeEventServiceImpl(changeEventRepository, changeEventMapper,
+                new ShardRouter(3, Runnable::run, mock(PlatformTransactionManager.class)), transactionTemplate);
+        ChangeEvent moved = new ChangeEvent((1L << 48) | 1, null, ChangeEventType.PERSON_CREATED, 13L, 13L,
+                LocalDateTime.of(2025, 3, 14, 15, 9, 26));
+        ChangeEvent movedBefore = new ChangeEvent((1L << 48) | 2, null, ChangeEventType.PERSON_UPDATED, 13L, 13L,
+                LocalDateTime.of(2025, 3, 14, 15, 9, 27));
+
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(changeEventRepository.findByPositionIsNullOrderByIdAsc(any()))
+                .thenReturn(List.of(moved, movedBefore), List.of());
+        when(changeEventRepository.findExistingIds(any())).thenReturn(List.of(movedBefore.getId()));
+        when(changeEventRepository.findLastPosition()).thenReturn(41L);
+
+        // Act
+        int actual = shardedService.moveShardEvents(100);
+
+        // Assert
+        assertEquals(2, actual);
+        verify(changeEventRepository, times(2)).findByPositionIsNullOrderByIdAsc(Limit.of(100));
+        verify(changeEventRepository).insertSequenced(moved.getId(), 42L, ChangeEventType.PERSON_CREATED, 13L, 13L,
+                moved.getCreatedAt());
+        verify(changeEventRepository, never()).insertSequenced(eq(movedBefore.getId()), any(), any(), any(), any(),
+                any());
+        verify(changeEventRepository).deleteAllByIdInBatch(List.of(moved.getId(), movedBefore.getId()));
+    }
+
+    @Test
+    void moveShardEvents_WhenNotSharded_ThenMovesNothing() {
+        // Act
+        int actual = new ChangeEventServiceImpl(changeEventRepository, changeEventMapper, new ShardRouter(), null)
+                .moveShardEvents(100);
+
+        // Assert
+        assertEquals(0, actual);
+        verifyNoInteractions(changeEventRepository);
+    }
+
+    @Test
+    void getEventsAfter_HappyPath() {
+        // Arrange
+        ChangeEvent event = ChangeEvent.of(ChangeEventType.PERSON_CREATED, 13L, 13L);
+        ChangeEventResponse expected = mock(ChangeEventResponse.class);
+
+        when(changeEventRepository.findByPositionGreaterThanOrderByPositionAsc(any(), any()))
+                .thenReturn(List.of(event));
+        when(changeEventMapper.convert(any())).thenReturn(expected);
+
+        // Act
+        List<ChangeEventResponse> actual = changeEventService.getEventsAfter(41L, 100);
+
+        // Assert
+        assertEquals(List.of(expected), actual);
+        verify(changeEventRepository).findByPositionGreaterThanOrderByPositionAsc(41L, Limit.of(100));
+        verify(changeEventMapper).convert(event);
+    }
+
+    @Test
+    void deleteEventsBefore_HappyPath() {
+        // Arrange
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 14, 15, 9, 26);
+
+        when(changeEventRepository.deleteSequencedBefore(any())).thenReturn(3);
+
+        // Act
+        int actual = changeEventService.deleteEventsBefore(createdAt);
+
+        // Assert
+        assertEquals(3, actual);
+        verify(changeEventRepository).deleteSequencedBefore(createdAt);
+    }
+}
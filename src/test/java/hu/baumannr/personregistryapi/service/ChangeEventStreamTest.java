@@ -0,0 +1,227 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import hu.baumannr.personregistryapi.rest.model.AddressCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.AddressResponse;
+import hu.baumannr.personregistryapi.rest.model.AddressUpdateRequest;
+import hu.baumannr.personregistryapi.rest.model.ChangeEventResponse;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.PersonChangesResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonUpdateRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Writes changes through the services, relays the outbox and reads the change stream and the delta sync the way a
+ * consumer does. The context differs from the one of the other tests, so it gets a database of its own.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:eventdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ChangeEventStreamTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private AddressService addressService;
+
+    @Autowired
+    private ContactInfoService contactInfoService;
+
+    @Autowired
+    private ChangeEventService changeEventService;
+
+    @Autowired
+    private ChangeEventRelay changeEventRelay;
+
+    private long lastPosition;
+
+    @BeforeEach
+    void setUp() {
+        // Sequences the events of the earlier tests
+        changeEventRelay.relay();
+        lastPosition = changeEventService.getLastPosition();
+    }
+
+    @Test
+    void mutations_RecordEventsInOrderOfCommit() {
+        Long personId = personService.createPerson(personCreateRequest()).getId();
+        AddressResponse address = addressService.addAddress(personId, addressCreateRequest(), null);
+        Long contactInfoId = contactInfoService.addContactInfo(personId, new ContactInfoCreateRequest()
+                .type(ContactInfoCreateRequest.TypeEnum.EMAIL)
+                .value("esemeny@example.com"), null).getId();
+        addressService.updateAddress(personId, address.getId(), new AddressUpdateRequest()
+                .country("Magyarország")
+                .city("Debrecen")
+                .zip("4025")
+                .street("Piac utca 1."), null);
+        contactInfoService.deleteContactInfo(personId, contactInfoId, null);
+        personService.updatePerson(personId, new PersonUpdateRequest()
+                .firstName("Elemér")
+                .lastName("Esemény"), null);
+        personService.deletePerson(personId, null);
+
+        changeEventRelay.relay();
+        List<ChangeEventResponse> events = changeEventService.getEventsAfter(lastPosition, 100);
+
+        assertEquals(List.of(
+                ChangeEventResponse.TypeEnum.PERSON_CREATED,
+                ChangeEventResponse.TypeEnum.ADDRESS_CREATED,
+                ChangeEventResponse.TypeEnum.CONTACT_INFO_CREATED,
+                ChangeEventResponse.TypeEnum.ADDRESS_UPDATED,
+                ChangeEventResponse.TypeEnum.CONTACT_INFO_DELETED,
+                ChangeEventResponse.TypeEnum.PERSON_UPDATED,
+                ChangeEventResponse.TypeEnum.PERSON_DELETED), events.stream()
+                .map(ChangeEventResponse::getType)
+                .toList());
+        assertTrue(events.stream().allMatch(event -> personId.equals(event.getPersonId())));
+        assertEquals(address.getId(), events.get(1).getEntityId());
+        assertEquals(contactInfoId, events.get(4).getEntityId());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(lastPosition + i + 1, events.get(i).getPosition());
+        }
+    }
+
+    @Test
+    void mutation_WhenRolledBack_ThenRecordsNoEvent() {
+        Long personId = personService.createPerson(personCreateRequest()).getId();
+        addressService.addAddress(personId, addressCreateRequest(), null);
+
+        assertThrows(PersonApiException.class, () -> addressService.addAddress(personId, addressCreateRequest(), null));
+
+        changeEventRelay.relay();
+        assertEquals(List.of(ChangeEventResponse.TypeEnum.PERSON_CREATED, ChangeEventResponse.TypeEnum.ADDRESS_CREATED),
+                changeEventService.getEventsAfter(lastPosition, 100).stream()
+                        .map(ChangeEventResponse::getType)
+                        .toList());
+    }
+
+    @Test
+    void streamChangeEvents_WhenLastEventIdIsGiven_ThenStreamsEventsAfterIt() throws Exception {
+        Long personId = personService.createPerson(personCreateRequest()).getId();
+        changeEventRelay.relay();
+
+        MvcResult streamResult = mockMvc.perform(get("/api/events")
+                        .header("Last-Event-ID", lastPosition))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        personService.deletePerson(personId, null);
+        changeEventRelay.relay();
+
+        String stream = awaitStream(streamResult, "PERSON_DELETED");
+        assertTrue(stream.contains("id:" + (lastPosition + 1) + "\nevent:PERSON_CREATED\ndata:{"), stream);
+        assertTrue(stream.contains("id:" + (lastPosition + 2) + "\nevent:PERSON_DELETED\ndata:{"), stream);
+        assertTrue(stream.contains("\"personId\":" + personId), stream);
+    }
+
+    @Test
+    void getPersonChanges_AfterToken_ReturnsChangedPersonsAndTombstones() {
+        String token = personService.getPersonChanges(null, null).getNextToken();
+        Long keptId = personService.createPerson(personCreateRequest()).getId();
+        Long addressId = addressService.addAddress(keptId, addressCreateRequest(), null).getId();
+        Long deletedId = personService.createPerson(personCreateRequest()).getId();
+        addressService.deleteAddress(keptId, addressId, null);
+        personService.deletePerson(deletedId, null);
+        changeEventRelay.relay();
+
+        PersonChangesResponse changes = personService.getPersonChanges(token, 100);
+
+        assertEquals(List.of(keptId), changes.getPersons().stream()
+                .map(PersonResponse::getId)
+                .toList());
+        assertTrue(changes.getPersons().get(0).getAddresses().isEmpty());
+        assertEquals(List.of(addressId, deletedId), changes.getDeleted().stream()
+                .map(ChangeEventResponse::getEntityId)
+                .toList());
+        assertFalse(changes.getHasMore());
+        PersonChangesResponse next = personService.getPersonChanges(changes.getNextToken(), 100);
+        assertTrue(next.getPersons().isEmpty());
+        assertTrue(next.getDeleted().isEmpty());
+        assertEquals(changes.getNextToken(), next.getNextToken());
+    }
+
+    @Test
+    void getPersonChanges_WhenMoreChangesThanLimit_ThenReturnsThemInPages() {
+        String token = ChangeTokenCodec.encode(lastPosition);
+        Long firstId = personService.createPerson(personCreateRequest()).getId();
+        Long secondId = personService.createPerson(personCreateRequest()).getId();
+        changeEventRelay.relay();
+
+        PersonChangesResponse first = personService.getPersonChanges(token, 1);
+        PersonChangesResponse second = personService.getPersonChanges(first.getNextToken(), 1);
+
+        assertEquals(firstId, first.getPersons().get(0).getId());
+        assertTrue(first.getHasMore());
+        assertEquals(secondId, second.getPersons().get(0).getId());
+        assertFalse(second.getHasMore());
+    }
+
+    @Test
+    void getPersonChanges_WhenEventsAfterTokenExpired_ThenThrowsGone() {
+        String token = ChangeTokenCodec.encode(lastPosition);
+        personService.createPerson(personCreateRequest());
+        personService.createPerson(personCreateRequest());
+        changeEventRelay.relay();
+        long last = changeEventService.getLastPosition();
+
+        changeEventService.deleteEventsBefore(LocalDateTime.now().plusMinutes(1));
+
+        // The last event is kept, the positions continue after it
+        assertEquals(last, changeEventService.getLastPosition());
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> personService.getPersonChanges(token, 100));
+        assertEquals(HttpStatus.GONE, exception.getStatusCode());
+    }
+
+    /**
+     * Waits for the sender threads of the relay to write the given event.
+     */
+    private static String awaitStream(MvcResult streamResult, String event) throws Exception {
+        for (int i = 0; i < 200; i++) {
+            String stream = streamResult.getResponse().getContentAsString();
+            if (stream.contains("event:" + event)) {
+                return stream;
+            }
+            Thread.sleep(50);
+        }
+        throw new IllegalStateException("Event " + event + " was not streamed");
+    }
+
+    private static PersonCreateRequest personCreateRequest() {
+        return new PersonCreateRequest()
+                .firstName("Elek")
+                .lastName("Esemény");
+    }
+
+    private static AddressCreateRequest addressCreateRequest() {
+        return new AddressCreateRequest()
+                .type(AddressCreateRequest.TypeEnum.PERMANENT)
+                .country("Magyarország")
+                .city("Budapest")
+                .zip("1120")
+                .street("Teszt utca 15.");
+    }
+}
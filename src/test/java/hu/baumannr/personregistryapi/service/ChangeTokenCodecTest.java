@@ -0,0 +1,72 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChangeTokenCodecTest {
+
+    @Test
+    void encode_ThenDecode_ReturnsSamePosition() {
+        // Arrange
+        long position = 1234567L;
+
+        // Act
+        long actual = ChangeTokenCodec.decode(ChangeTokenCodec.encode(position));
+
+        // Assert
+        assertEquals(position, actual);
+    }
+
+    @Test
+    void decode_WhenNotBase64_ThenThrowsException() {
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class, () -> ChangeTokenCodec.decode("%%%"));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertEquals("Change token %%% is invalid", exception.getMessage());
+    }
+
+    @Test
+    void decode_WhenPrefixMissing_ThenThrowsException() {
+        // Arrange
+        String token = Base64.getUrlEncoder().encodeToString("13".getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class, () -> ChangeTokenCodec.decode(token));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+
+    @Test
+    void decode_WhenPositionIsNotANumber_ThenThrowsException() {
+        // Arrange
+        String token = Base64.getUrlEncoder().encodeToString("position:abc".getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class, () -> ChangeTokenCodec.decode(token));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+
+    @Test
+    void decode_WhenPositionIsNegative_ThenThrowsException() {
+        // Arrange
+        String token = Base64.getUrlEncoder().encodeToString("position:-1".getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class, () -> ChangeTokenCodec.decode(token));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+}
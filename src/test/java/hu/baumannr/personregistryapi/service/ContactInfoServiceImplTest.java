@@ -2,11 +2,16 @@ package hu.baumannr.personregistryapi.service;
 
 import hu.baumannr.personregistryapi.exception.PersonApiException;
 import hu.baumannr.personregistryapi.mapper.ContactInfoMapper;
+import hu.baumannr.personregistryapi.persistence.model.ChangeEventType;
 import hu.baumannr.personregistryapi.persistence.model.ContactInfo;
+import hu.baumannr.personregistryapi.persistence.model.ContactInfoOwner;
+import hu.baumannr.personregistryapi.persistence.model.ContactInfoType;
 import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.persistence.model.PersonVersion;
 import hu.baumannr.personregistryapi.persistence.repository.ContactInfoRepository;
 import hu.baumannr.personregistryapi.persistence.repository.PersonRepository;
 import hu.baumannr.personregistryapi.rest.model.ContactInfoCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoLookupResponse;
 import hu.baumannr.personregistryapi.rest.model.ContactInfoResponse;
 import hu.baumannr.personregistryapi.rest.model.ContactInfoUpdateRequest;
 import org.junit.jupiter.api.Test;
@@ -16,10 +21,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,8 +34,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,6 +58,12 @@ class ContactInfoServiceImplTest {
     @Mock
     private ContactInfoMapper contactInfoMapper;
 
+    @Mock
+    private ChangeEventService changeEventService;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter();
+
     @Test
     void getContactInfosForPerson_HappyPath() {
         // Arrange
@@ -57,8 +75,10 @@ class ContactInfoServiceImplTest {
         ContactInfoResponse response2 = mock(ContactInfoResponse.class);
         List<ContactInfoResponse> expected = List.of(response1, response2);
 
-        when(personRepository.existsById(any())).thenReturn(true);
-        when(contactInfoRepository.findByPerson_Id(any())).thenReturn(contactInfoes);
+        Person person = mock(Person.class);
+
+        when(personRepository.findWithContactInfosById(any())).thenReturn(Optional.of(person));
+        when(person.getContactInfos()).thenReturn(new LinkedHashSet<>(contactInfoes));
         when(contactInfoMapper.convert(contactInfo1)).thenReturn(response1);
         when(contactInfoMapper.convert(contactInfo2)).thenReturn(response2);
 
@@ -69,8 +89,7 @@ class ContactInfoServiceImplTest {
         assertIterableEquals(expected, actual);
 
         InOrder inOrder = inOrder(personRepository, contactInfoRepository, contactInfoMapper);
-        inOrder.verify(personRepository).existsById(personId);
-        inOrder.verify(contactInfoRepository).findByPerson_Id(personId);
+        inOrder.verify(personRepository).findWithContactInfosById(personId);
         inOrder.verify(contactInfoMapper).convert(contactInfo1);
         inOrder.verify(contactInfoMapper).convert(contactInfo2);
         inOrder.verifyNoMoreInteractions();
@@ -83,7 +102,7 @@ class ContactInfoServiceImplTest {
         String message = "Person with id " + personId + " not found";
         LocalDateTime now = LocalDateTime.now();
 
-        when(personRepository.existsById(any())).thenReturn(false);
+        when(personRepository.findWithContactInfosById(any())).thenReturn(Optional.empty());
 
         try (MockedStatic<LocalDateTime> mockedTime = Mockito.mockStatic(LocalDateTime.class)) {
             mockedTime.when(LocalDateTime::now).thenReturn(now);
@@ -99,6 +118,40 @@ class ContactInfoServiceImplTest {
         }
     }
 
+    @Test
+    void lookupContactInfos_HappyPath() {
+        // Arrange
+        ContactInfoOwner owner = new ContactInfoOwner(17L, 13L, ContactInfoType.EMAIL, "Elek.Teszt@gmail.com");
+        ContactInfoLookupResponse response = mock(ContactInfoLookupResponse.class);
+
+        when(contactInfoRepository.findOwners(any(), any())).thenReturn(List.of(owner));
+        when(contactInfoMapper.convert(any(ContactInfoOwner.class))).thenReturn(response);
+
+        // Act
+        List<ContactInfoLookupResponse> actual = contactInfoService.lookupContactInfos("email",
+                "ELEK.teszt@gmail.com ");
+
+        // Assert
+        assertEquals(List.of(response), actual);
+
+        InOrder inOrder = inOrder(personRepository, contactInfoMapper, contactInfoRepository);
+        inOrder.verify(contactInfoRepository).findOwners(ContactInfoType.EMAIL, "elek.teszt@gmail.com");
+        inOrder.verify(contactInfoMapper).convert(owner);
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void lookupContactInfos_WhenTypeIsInvalid_ThenThrowsException() {
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> contactInfoService.lookupContactInfos("fax", "123"));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertEquals("Contact information type fax is invalid", exception.getMessage());
+        verifyNoInteractions(contactInfoRepository);
+    }
+
     @Test
     void addContactInfo_HappyPath() {
         // Arrange
@@ -109,21 +162,29 @@ class ContactInfoServiceImplTest {
         ContactInfoCreateRequest request = mock(ContactInfoCreateRequest.class);
         ContactInfoResponse expected = mock(ContactInfoResponse.class);
 
-        when(personRepository.findById(any())).thenReturn(Optional.of(person));
+        when(contactInfo.getType()).thenReturn(ContactInfoType.EMAIL);
+        when(contactInfo.getValue()).thenReturn(" Elek.Teszt@Gmail.com ");
+        when(personRepository.touch(any(), any())).thenReturn(1);
+        when(personRepository.getReferenceById(any())).thenReturn(person);
         when(contactInfoMapper.convert(any(ContactInfoCreateRequest.class))).thenReturn(contactInfo);
         when(contactInfoRepository.save(any())).thenReturn(savedContactInfo);
+        when(savedContactInfo.getId()).thenReturn(17L);
         when(contactInfoMapper.convert(any(ContactInfo.class))).thenReturn(expected);
 
         // Act
-        ContactInfoResponse actual = contactInfoService.addContactInfo(personId, request);
+        ContactInfoResponse actual = contactInfoService.addContactInfo(personId, request, null);
 
         // Assert
         assertEquals(expected, actual);
 
-        InOrder inOrder = inOrder(personRepository, contactInfoMapper, contactInfoRepository);
-        inOrder.verify(personRepository).findById(personId);
+        InOrder inOrder = inOrder(personRepository, contactInfoMapper, contactInfo, contactInfoRepository,
+                changeEventService);
+        inOrder.verify(personRepository).touch(eq(personId), any());
         inOrder.verify(contactInfoMapper).convert(request);
+        inOrder.verify(contactInfo).setPerson(person);
+        inOrder.verify(contactInfo).setNormalizedValue("elek.teszt@gmail.com");
         inOrder.verify(contactInfoRepository).save(contactInfo);
+        inOrder.verify(changeEventService).recordChange(ChangeEventType.CONTACT_INFO_CREATED, personId, 17L);
         inOrder.verify(contactInfoMapper).convert(savedContactInfo);
         inOrder.verifyNoMoreInteractions();
     }
@@ -141,7 +202,7 @@ class ContactInfoServiceImplTest {
 
             // Act
             PersonApiException exception = assertThrows(PersonApiException.class,
-                    () -> contactInfoService.addContactInfo(personId,request));
+                    () -> contactInfoService.addContactInfo(personId,request, null));
 
             // Assert
             assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
@@ -162,21 +223,29 @@ class ContactInfoServiceImplTest {
         ContactInfoResponse expected = mock(ContactInfoResponse.class);
 
         when(contactInfo.getPerson()).thenReturn(person);
+        when(contactInfo.getType()).thenReturn(ContactInfoType.PHONE);
+        when(contactInfo.getValue()).thenReturn("0036 (30) 123-4567");
         when(person.getId()).thenReturn(personId);
         when(contactInfoRepository.findById(any())).thenReturn(Optional.of(contactInfo));
-        when(contactInfoRepository.save(any())).thenReturn(updatedContactInfo);
+        when(contactInfoRepository.saveAndFlush(any())).thenReturn(updatedContactInfo);
+        when(personRepository.touch(any(), any())).thenReturn(1);
         when(contactInfoMapper.convert(any(ContactInfo.class))).thenReturn(expected);
 
         // Act
-        ContactInfoResponse actual = contactInfoService.updateContactInfo(personId, contactInfoId, request);
+        ContactInfoResponse actual = contactInfoService.updateContactInfo(personId, contactInfoId, request, null);
 
         // Assert
         assertEquals(expected, actual);
 
-        InOrder inOrder = inOrder(personRepository, contactInfoMapper, contactInfoRepository);
+        InOrder inOrder = inOrder(personRepository, contactInfoMapper, contactInfo, contactInfoRepository,
+                changeEventService);
+        inOrder.verify(personRepository).touch(eq(personId), any());
         inOrder.verify(contactInfoRepository).findById(contactInfoId);
         inOrder.verify(contactInfoMapper).updateContactInfo(contactInfo, request);
-        inOrder.verify(contactInfoRepository).save(contactInfo);
+        inOrder.verify(contactInfo).setNormalizedValue("+36301234567");
+        inOrder.verify(contactInfoRepository).saveAndFlush(contactInfo);
+        inOrder.verify(changeEventService).recordChange(ChangeEventType.CONTACT_INFO_UPDATED, personId,
+                contactInfoId);
         inOrder.verify(contactInfoMapper).convert(updatedContactInfo);
         inOrder.verifyNoMoreInteractions();
     }
@@ -190,12 +259,14 @@ class ContactInfoServiceImplTest {
         String message = "Contact information with id " + contactInfoId + " not found";
         LocalDateTime now = LocalDateTime.now();
 
+        when(personRepository.touch(any(), any())).thenReturn(1);
+
         try (MockedStatic<LocalDateTime> mockedTime = Mockito.mockStatic(LocalDateTime.class)) {
             mockedTime.when(LocalDateTime::now).thenReturn(now);
 
             // Act
             PersonApiException exception = assertThrows(PersonApiException.class,
-                    () -> contactInfoService.updateContactInfo(personId, contactInfoId, request));
+                    () -> contactInfoService.updateContactInfo(personId, contactInfoId, request, null));
 
             // Assert
             assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
@@ -220,12 +291,13 @@ class ContactInfoServiceImplTest {
         when(contactInfo.getPerson()).thenReturn(person);
         when(person.getId()).thenReturn(personId);
         when(contactInfoRepository.findById(any())).thenReturn(Optional.of(contactInfo));
+        when(personRepository.touch(any(), any())).thenReturn(1);
 
         try (MockedStatic<LocalDateTime> mockedTime = Mockito.mockStatic(LocalDateTime.class)) {
             mockedTime.when(LocalDateTime::now).thenReturn(now);
 
             PersonApiException exception = assertThrows(PersonApiException.class,
-                    () -> contactInfoService.updateContactInfo(otherPersonId, contactInfoId, request));
+                    () -> contactInfoService.updateContactInfo(otherPersonId, contactInfoId, request, null));
 
             assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
             assertEquals(message, exception.getMessage());
@@ -233,6 +305,98 @@ class ContactInfoServiceImplTest {
         }
     }
 
+    @Test
+    void patchContactInfo_HappyPath() {
+        // Arrange
+        Long personId = 13L;
+        Long contactInfoId = 17L;
+        Person person = mock(Person.class);
+        ContactInfo contactInfo = new ContactInfo();
+        contactInfo.setPerson(person);
+        contactInfo.setType(ContactInfoType.PHONE);
+        contactInfo.setValue("+36 30 123 4567");
+        ContactInfoUpdateRequest request = new ContactInfoUpdateRequest()
+                .type(ContactInfoUpdateRequest.TypeEnum.PHONE)
+                .value("+36 30 123 4567");
+
+        when(person.getId()).thenReturn(personId);
+        when(contactInfoRepository.findById(any())).thenReturn(Optional.of(contactInfo));
+        when(personRepository.touch(any(), any())).thenReturn(1);
+
+        // Act
+        contactInfoService.patchContactInfo(personId, contactInfoId, request, null);
+
+        // Assert
+        InOrder inOrder = inOrder(personRepository, contactInfoRepository, contactInfoMapper, changeEventService);
+        inOrder.verify(personRepository).touch(eq(personId), any());
+        inOrder.verify(contactInfoRepository).findById(contactInfoId);
+        inOrder.verify(contactInfoMapper).patchContactInfo(contactInfo, request);
+        inOrder.verify(changeEventService).recordChange(ChangeEventType.CONTACT_INFO_UPDATED, personId, contactInfoId);
+        inOrder.verifyNoMoreInteractions();
+        assertEquals("+36301234567", contactInfo.getNormalizedValue());
+    }
+
+    @Test
+    void patchContactInfo_WhenOnlyTypeIsGiven_ThenNormalizesStoredValueForNewType() {
+        // Arrange
+        Long personId = 13L;
+        Long contactInfoId = 17L;
+        Person person = mock(Person.class);
+        ContactInfo contactInfo = new ContactInfo();
+        contactInfo.setPerson(person);
+        contactInfo.setType(ContactInfoType.EMAIL);
+        contactInfo.setValue("+36 30 123 4567");
+        ContactInfoUpdateRequest request = new ContactInfoUpdateRequest()
+                .type(ContactInfoUpdateRequest.TypeEnum.PHONE);
+
+        when(person.getId()).thenReturn(personId);
+        when(contactInfoRepository.findById(any())).thenReturn(Optional.of(contactInfo));
+        when(personRepository.touch(any(), any())).thenReturn(1);
+        doAnswer(invocation -> {
+            contactInfo.setType(ContactInfoType.PHONE);
+            return null;
+        }).when(contactInfoMapper).patchContactInfo(contactInfo, request);
+
+        // Act
+        contactInfoService.patchContactInfo(personId, contactInfoId, request, null);
+
+        // Assert
+        assertEquals("+36 30 123 4567", contactInfo.getValue());
+        assertEquals("+36301234567", contactInfo.getNormalizedValue());
+        verify(changeEventService).recordChange(ChangeEventType.CONTACT_INFO_UPDATED, personId, contactInfoId);
+    }
+
+    @Test
+    void patchContactInfo_WhenNoFieldIsGiven_ThenThrowsException() {
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> contactInfoService.patchContactInfo(13L, 17L, new ContactInfoUpdateRequest(), null));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertEquals("Request does not change any field", exception.getMessage());
+        verifyNoInteractions(contactInfoRepository);
+    }
+
+    @Test
+    void patchContactInfo_WhenContactInfoNotFound_ThenThrowsException() {
+        // Arrange
+        Long contactInfoId = 17L;
+
+        when(contactInfoRepository.findById(any())).thenReturn(Optional.empty());
+        when(personRepository.touch(any(), any())).thenReturn(1);
+
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class, () -> contactInfoService
+                .patchContactInfo(13L, contactInfoId, new ContactInfoUpdateRequest().value("elek@example.com"),
+                        null));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        assertEquals("Contact information with id " + contactInfoId + " not found", exception.getMessage());
+        verifyNoInteractions(contactInfoMapper, changeEventService);
+    }
+
     @Test
     void deleteContactInfo() {
         // Arrange
@@ -244,14 +408,82 @@ class ContactInfoServiceImplTest {
         when(contactInfo.getPerson()).thenReturn(person);
         when(person.getId()).thenReturn(personId);
         when(contactInfoRepository.findById(any())).thenReturn(Optional.of(contactInfo));
+        when(personRepository.touch(any(), any())).thenReturn(1);
 
         // Act
-        contactInfoService.deleteContactInfo(personId, contactInfoId);
+        contactInfoService.deleteContactInfo(personId, contactInfoId, null);
 
         // Assert
-        InOrder inOrder = inOrder(personRepository, contactInfoMapper, contactInfoRepository);
+        InOrder inOrder = inOrder(personRepository, contactInfoMapper, contactInfoRepository, changeEventService);
+        inOrder.verify(personRepository).touch(eq(personId), any());
         inOrder.verify(contactInfoRepository).findById(contactInfoId);
-        inOrder.verify(contactInfoRepository).deleteById(contactInfoId);
+        inOrder.verify(contactInfoRepository).delete(contactInfo);
+        inOrder.verify(changeEventService).recordChange(ChangeEventType.CONTACT_INFO_DELETED, personId,
+                contactInfoId);
         inOrder.verifyNoMoreInteractions();
     }
-}
\ No newline at end of file
+
+    @Test
+    void deleteContactInfo_WhenContactInfoNotFound_ThenThrowsException() {
+        // Arrange
+        long personId = 13L;
+        long contactInfoId = 17L;
+        String message = "Contact information with id " + contactInfoId + " not found";
+
+        when(contactInfoRepository.findById(any())).thenReturn(Optional.empty());
+        when(personRepository.touch(any(), any())).thenReturn(1);
+
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> contactInfoService.deleteContactInfo(personId, contactInfoId, null));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        assertEquals(message, exception.getMessage());
+        verifyNoInteractions(changeEventService);
+    }
+
+    @Test
+    void deleteContactInfo_WhenContactInfoDoesNotBelongToPerson_ThenThrowsException() {
+        // Arrange
+        Long otherPersonId = 51L;
+        Long contactInfoId = 17L;
+        Person person = mock(Person.class);
+        ContactInfo contactInfo = mock(ContactInfo.class);
+
+        when(contactInfo.getId()).thenReturn(contactInfoId);
+        when(contactInfo.getPerson()).thenReturn(person);
+        when(person.getId()).thenReturn(13L);
+        when(contactInfoRepository.findById(any())).thenReturn(Optional.of(contactInfo));
+        when(personRepository.touch(any(), any())).thenReturn(1);
+
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> contactInfoService.deleteContactInfo(otherPersonId, contactInfoId, null));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        verify(contactInfoRepository, never()).delete(any());
+        verifyNoInteractions(changeEventService);
+    }
+
+    @Test
+    void addContactInfo_WhenVersionIsStale_ThenThrowsPreconditionFailed() {
+        // Arrange
+        Long personId = 13L;
+        ContactInfoCreateRequest request = mock(ContactInfoCreateRequest.class);
+
+        when(personRepository.touchIfVersion(any(), any(), any())).thenReturn(0);
+        when(personRepository.findVersionById(any())).thenReturn(Optional.of(new PersonVersion(5L,
+                LocalDateTime.now())));
+
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> contactInfoService.addContactInfo(personId, request, 4L));
+
+        // Assert
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatusCode());
+        verify(personRepository).touchIfVersion(eq(personId), eq(4L), any());
+        verifyNoInteractions(contactInfoMapper, contactInfoRepository, changeEventService);
+    }
+}
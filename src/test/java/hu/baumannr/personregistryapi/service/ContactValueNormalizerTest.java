@@ -0,0 +1,69 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.persistence.model.ContactInfo;
+import hu.baumannr.personregistryapi.persistence.model.ContactInfoType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ContactValueNormalizerTest {
+
+    @Test
+    void normalize_WhenEmail_ThenTrimsAndLowerCases() {
+        // Act
+        String actual = ContactValueNormalizer.normalize(ContactInfoType.EMAIL, "  Elek.Teszt@Gmail.COM ");
+
+        // Assert
+        assertEquals("elek.teszt@gmail.com", actual);
+    }
+
+    @Test
+    void normalize_WhenPhoneWithPlus_ThenKeepsPlusAndDigits() {
+        // Act
+        String actual = ContactValueNormalizer.normalize(ContactInfoType.PHONE, "+36 (30) 123-4567");
+
+        // Assert
+        assertEquals("+36301234567", actual);
+    }
+
+    @Test
+    void normalize_WhenPhoneWithInternationalPrefix_ThenReplacesItWithPlus() {
+        // Act
+        String actual = ContactValueNormalizer.normalize(ContactInfoType.PHONE, "0036/30/123 45 67");
+
+        // Assert
+        assertEquals("+36301234567", actual);
+    }
+
+    @Test
+    void normalize_WhenPhoneWithoutPrefix_ThenKeepsDigits() {
+        // Act
+        String actual = ContactValueNormalizer.normalize(ContactInfoType.PHONE, "06 30 123 4567");
+
+        // Assert
+        assertEquals("06301234567", actual);
+    }
+
+    @Test
+    void normalize_WhenPhoneHasOtherDigits_ThenKeepsAsciiDigitsOnly() {
+        // Act
+        String actual = ContactValueNormalizer.normalize(ContactInfoType.PHONE, "+36\u00A030 123 4567 \u0661\u0662");
+
+        // Assert
+        assertEquals("+36301234567", actual);
+    }
+
+    @Test
+    void normalize_WhenContactInfo_ThenSetsNormalizedValue() {
+        // Arrange
+        ContactInfo contactInfo = new ContactInfo();
+        contactInfo.setType(ContactInfoType.LINKEDIN);
+        contactInfo.setValue("linkedin.com/in/Elek-Teszt");
+
+        // Act
+        ContactValueNormalizer.normalize(contactInfo);
+
+        // Assert
+        assertEquals("linkedin.com/in/elek-teszt", contactInfo.getNormalizedValue());
+    }
+}
@@ -0,0 +1,56 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvReaderTest {
+
+    @Test
+    void readRecord_HappyPath() throws IOException {
+        // Arrange
+        CsvReader reader = new CsvReader(new StringReader("a,b,c\r\n1,,3\n"));
+
+        // Act & Assert
+        assertEquals(List.of("a", "b", "c"), reader.readRecord());
+        assertEquals(1, reader.getRecordLine());
+        assertEquals(List.of("1", "", "3"), reader.readRecord());
+        assertEquals(2, reader.getRecordLine());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void readRecord_WhenFieldsAreQuoted_ThenUnescapesThem() throws IOException {
+        // Arrange
+        CsvReader reader = new CsvReader(new StringReader("\"Teszt utca 15., 2. em.\",\"\"\"Elek\"\"\",\"a\r\nb\"\r\nlast"));
+
+        // Act & Assert
+        assertEquals(List.of("Teszt utca 15., 2. em.", "\"Elek\"", "a\r\nb"), reader.readRecord());
+        assertEquals(1, reader.getRecordLine());
+        assertEquals(List.of("last"), reader.readRecord());
+        assertEquals(3, reader.getRecordLine());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    void readRecord_WhenQuoteIsNotClosed_ThenThrowsException() throws IOException {
+        // Arrange
+        CsvReader reader = new CsvReader(new StringReader("a,b\n\"c,d\n"));
+        reader.readRecord();
+
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class, reader::readRecord);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertEquals("Invalid CSV at line 2", exception.getMessage());
+    }
+}
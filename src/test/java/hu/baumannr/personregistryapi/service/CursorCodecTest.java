@@ -0,0 +1,60 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CursorCodecTest {
+
+    @Test
+    void encode_ThenDecode_ReturnsSameId() {
+        // Arrange
+        Long id = 1234567L;
+
+        // Act
+        Long actual = CursorCodec.decode(CursorCodec.encode(id));
+
+        // Assert
+        assertEquals(id, actual);
+    }
+
+    @Test
+    void decode_WhenNotBase64_ThenThrowsException() {
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class, () -> CursorCodec.decode("%%%"));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertEquals("Cursor %%% is invalid", exception.getMessage());
+    }
+
+    @Test
+    void decode_WhenPrefixMissing_ThenThrowsException() {
+        // Arrange
+        String cursor = Base64.getUrlEncoder().encodeToString("13".getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class, () -> CursorCodec.decode(cursor));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+
+    @Test
+    void decode_WhenIdIsNotANumber_ThenThrowsException() {
+        // Arrange
+        String cursor = Base64.getUrlEncoder().encodeToString("id:abc".getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class, () -> CursorCodec.decode(cursor));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+}
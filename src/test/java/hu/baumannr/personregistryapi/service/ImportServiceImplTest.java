@@ -0,0 +1,357 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import hu.baumannr.personregistryapi.mapper.PersonMapper;
+import hu.baumannr.personregistryapi.persistence.model.Address;
+import hu.baumannr.personregistryapi.persistence.model.ChangeEvent;
+import hu.baumannr.personregistryapi.persistence.model.ChangeEventType;
+import hu.baumannr.personregistryapi.persistence.model.ContactInfo;
+import hu.baumannr.personregistryapi.persistence.model.ContactInfoType;
+import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.persistence.model.PersonName;
+import hu.baumannr.personregistryapi.rest.model.ImportJobResponse;
+import hu.baumannr.personregistryapi.rest.model.ImportRowError;
+import hu.baumannr.personregistryapi.rest.model.PersonBatchCreateRequest;
+import jakarta.validation.Validation;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ImportServiceImplTest {
+
+    private static final String HEADER =
+            "recordType,personId,id,type,firstName,lastName,country,city,zip,street,value,createdAt,updatedAt\r\n";
+
+    private static final String ELEK = """
+            PERSON,1,1,,Elek,Teszt,,,,,,2025-01-01T10:00,2025-01-01T10:00
+            ADDRESS,1,1,Permanent,,,Magyarország,Budapest,1120,"Teszt utca 15., 2. em.",,,
+            CONTACT_INFO,1,1,email,,,,,,,elekteszt@gmail.com,,
+            CONTACT_INFO,1,2,phone,,,,,,,+36301234567,,
+            """;
+
+    private static final String ANGELA = """
+            PERSON,2,2,,Angéla,Kacagó,,,,,,,
+            """;
+
+    private ImportServiceImpl importService;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private PersonMapper personMapper;
+
+    @Spy
+    private PersonBatchValidator personBatchValidator =
+            new PersonBatchValidator(Validation.buildDefaultValidatorFactory().getValidator());
+
+    @Mock
+    private ThreadPoolTaskExecutor importJobExecutor;
+
+    @Mock
+    private ThreadPoolTaskExecutor importWriterExecutor;
+
+    @Mock
+    private StatelessSession session;
+
+    @Mock
+    private PersonNameIndex personNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        // Both executors have the same type, so they are passed by hand instead of by @InjectMocks
+        importService = new ImportServiceImpl(sessionFactory, personMapper, personBatchValidator, importJobExecutor,
+                importWriterExecutor, personNameIndex);
+        runSynchronously(importJobExecutor);
+        runSynchronously(importWriterExecutor);
+        doAnswer(invocation -> {
+            invocation.<Consumer<StatelessSession>>getArgument(0).accept(session);
+            return null;
+        }).when(sessionFactory).inStatelessTransaction(any());
+        when(personMapper.convert(any(PersonBatchCreateRequest.class)))
+                .thenAnswer(invocation -> person(invocation.getArgument(0)));
+    }
+
+    @Test
+    void createImport_HappyPath() {
+        // Act
+        ImportJobResponse actual = importService.createImport(csv(HEADER + ELEK + ANGELA));
+
+        // Assert
+        assertNotNull(actual.getId());
+        assertEquals(ImportJobResponse.StatusEnum.COMPLETED, actual.getStatus());
+        assertEquals(actual.getBytesTotal(), actual.getBytesRead());
+        assertEquals(5, actual.getRowsRead());
+        assertEquals(2, actual.getPersonsImported());
+        assertEquals(0, actual.getPersonsFailed());
+        assertEquals(List.of(), actual.getErrors());
+        assertFalse(actual.getErrorsTruncated());
+        assertNull(actual.getMessage());
+        assertNotNull(actual.getStartedAt());
+        assertNotNull(actual.getFinishedAt());
+
+        verify(sessionFactory).inStatelessTransaction(any());
+        verify(session, times(2)).insert(any(Person.class));
+        verify(session).insert(any(Address.class));
+        verify(session).insert(argThat(contactInfo -> contactInfo instanceof ContactInfo email
+                && "elekteszt@gmail.com".equals(email.getNormalizedValue())));
+        verify(session).insert(argThat(contactInfo -> contactInfo instanceof ContactInfo phone
+                && "+36301234567".equals(phone.getNormalizedValue())));
+        verify(session, times(2)).insert(argThat(event -> event instanceof ChangeEvent personCreated
+                && personCreated.getType() == ChangeEventType.PERSON_CREATED));
+        verify(personNameIndex).put(List.of(new PersonName(null, "Elek", "Teszt"),
+                new PersonName(null, "Angéla", "Kacagó")));
+    }
+
+    @Test
+    void createImport_WhenRowsAreInvalid_ThenReportsThem() {
+        // Arrange
+        String csv = HEADER + """
+                PERSON,1,1,,Elek,,,,,,,,
+                PERSON,2,2,,Béla,Teszt,,,,,,,
+                ADDRESS,2,1,Summer,,,Magyarország,Budapest,1120,Teszt utca 15.,,,
+                ADDRESS,1,2,Permanent,,,Magyarország,Budapest,1120,Teszt utca 15.,,,
+
+                CONTACT_INFO,3,1,pager,,,,,,,123,,
+                PERSON,3,3,,Cecília,Teszt,,,,,,,
+                CONTACT_INFO,3,1,pager,,,,,,,123,,
+                PHONE,3,1,,,,,,,,,,
+                """ + ANGELA;
+
+        // Act
+        ImportJobResponse actual = importService.createImport(csv(csv));
+
+        // Assert
+        assertEquals(ImportJobResponse.StatusEnum.COMPLETED, actual.getStatus());
+        assertEquals(9, actual.getRowsRead());
+        assertEquals(1, actual.getPersonsImported());
+        assertEquals(3, actual.getPersonsFailed());
+        assertEquals(List.of(
+                error(2, "lastName must not be null"),
+                error(3, "Person is rejected because of its rows"),
+                error(4, "Type Summer is invalid"),
+                error(5, "Row does not follow the row of person 1"),
+                error(7, "Row does not follow the row of person 3"),
+                error(8, "Person is rejected because of its rows"),
+                error(9, "Type pager is invalid"),
+                error(10, "Record type PHONE is unknown")), actual.getErrors());
+    }
+
+    @Test
+    void createImport_WhenChunkFails_ThenRetriesPersonsOneByOne() {
+        // Arrange
+        ConstraintViolationException exception = new ConstraintViolationException("Insert failed",
+                new SQLException("Value too long for column FirstName"), "FirstName");
+        doThrow(exception).doAnswer(invocation -> {
+            invocation.<Consumer<StatelessSession>>getArgument(0).accept(session);
+            return null;
+        }).doThrow(exception).when(sessionFactory).inStatelessTransaction(any());
+
+        // Act
+        ImportJobResponse actual = importService.createImport(csv(HEADER + ELEK + ANGELA));
+
+        // Assert
+        assertEquals(ImportJobResponse.StatusEnum.COMPLETED, actual.getStatus());
+        assertEquals(1, actual.getPersonsImported());
+        assertEquals(1, actual.getPersonsFailed());
+        assertEquals(List.of(error(6, "Value too long for column FirstName")), actual.getErrors());
+
+        verify(sessionFactory, times(3)).inStatelessTransaction(any());
+        // The rolled back writes are not indexed
+        verify(personNameIndex).put(List.of(new PersonName(null, "Elek", "Teszt")));
+        verifyNoMoreInteractions(personNameIndex);
+    }
+
+    @Test
+    void createImport_WhenMorePersonsThanChunkSize_ThenWritesInChunks() {
+        // Arrange
+        String csv = IntStream.range(0, ImportServiceImpl.CHUNK_SIZE + 1)
+                .mapToObj(i -> "PERSON," + i + "," + i + ",,Angéla,Kacagó,,,,,,,")
+                .collect(Collectors.joining("\n", HEADER, "\n"));
+
+        // Act
+        ImportJobResponse actual = importService.createImport(csv(csv));
+
+        // Assert
+        assertEquals(ImportServiceImpl.CHUNK_SIZE + 1, actual.getPersonsImported());
+        verify(sessionFactory, times(2)).inStatelessTransaction(any());
+    }
+
+    @Test
+    void createImport_WhenTooManyRowsAreRejected_ThenTruncatesErrors() {
+        // Arrange
+        String csv = IntStream.range(0, ImportJob.MAX_REPORTED_ERRORS + 1)
+                .mapToObj(i -> "PHONE,1,1,,,,,,,,,,")
+                .collect(Collectors.joining("\n", HEADER, "\n"));
+
+        // Act
+        ImportJobResponse actual = importService.createImport(csv(csv));
+
+        // Assert
+        assertEquals(ImportJob.MAX_REPORTED_ERRORS, actual.getErrors().size());
+        assertTrue(actual.getErrorsTruncated());
+    }
+
+    @Test
+    void createImport_WhenColumnIsMissing_ThenFailsJob() {
+        // Act
+        ImportJobResponse actual = importService.createImport(csv("recordType,personId,firstName,lastName\n"));
+
+        // Assert
+        assertEquals(ImportJobResponse.StatusEnum.FAILED, actual.getStatus());
+        assertEquals("Column type is missing from the header", actual.getMessage());
+        verify(sessionFactory, never()).inStatelessTransaction(any());
+    }
+
+    @Test
+    void createImport_WhenFileIsEmpty_ThenFailsJob() {
+        // Act
+        ImportJobResponse actual = importService.createImport(csv(""));
+
+        // Assert
+        assertEquals(ImportJobResponse.StatusEnum.FAILED, actual.getStatus());
+        assertEquals("Column recordType is missing from the header", actual.getMessage());
+    }
+
+    @Test
+    void createImport_WhenCsvIsMalformed_ThenFailsJobAfterWritingPrecedingRows() {
+        // Arrange
+        String csv = HEADER + ELEK + ANGELA + "PERSON,3,3,,\"Cecília,Teszt,,,,,,,\n";
+
+        // Act
+        ImportJobResponse actual = importService.createImport(csv(csv));
+
+        // Assert
+        assertEquals(ImportJobResponse.StatusEnum.FAILED, actual.getStatus());
+        assertEquals("Invalid CSV at line 7", actual.getMessage());
+        assertEquals(5, actual.getRowsRead());
+        assertEquals(1, actual.getPersonsImported());
+    }
+
+    @Test
+    void createImport_WhenWriteFailsUnexpectedly_ThenFailsJob() {
+        // Arrange
+        when(personMapper.convert(any(PersonBatchCreateRequest.class))).thenThrow(new IllegalStateException());
+
+        // Act
+        ImportJobResponse actual = importService.createImport(csv(HEADER + ANGELA));
+
+        // Assert
+        assertEquals(ImportJobResponse.StatusEnum.FAILED, actual.getStatus());
+        assertEquals("Unexpected error happened", actual.getMessage());
+    }
+
+    @Test
+    void createImport_WhenQueueIsFull_ThenThrowsException() {
+        // Arrange
+        doThrow(new TaskRejectedException("Queue is full")).when(importJobExecutor).execute(any(Runnable.class));
+
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> importService.createImport(csv(HEADER + ANGELA)));
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+        assertEquals("Too many imports are waiting, try again later", exception.getMessage());
+        verify(sessionFactory, never()).inStatelessTransaction(any());
+    }
+
+    @Test
+    void getImportById_HappyPath() {
+        // Arrange
+        ImportJobResponse created = importService.createImport(csv(HEADER + ANGELA));
+
+        // Act
+        ImportJobResponse actual = importService.getImportById(created.getId());
+
+        // Assert
+        assertEquals(created.getId(), actual.getId());
+        assertEquals(ImportJobResponse.StatusEnum.COMPLETED, actual.getStatus());
+        assertEquals(1, actual.getPersonsImported());
+    }
+
+    @Test
+    void getImportById_WhenImportDoesNotExist_ThenThrowsException() {
+        // Arrange
+        UUID importId = UUID.fromString("6f1c7a52-2f0e-4c1e-9d4a-3b5e8c0f1a2b");
+
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> importService.getImportById(importId));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        assertEquals("Import with id 6f1c7a52-2f0e-4c1e-9d4a-3b5e8c0f1a2b not found", exception.getMessage());
+    }
+
+    private static void runSynchronously(ThreadPoolTaskExecutor executor) {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+    }
+
+    private static InputStream csv(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Person person(PersonBatchCreateRequest request) {
+        Person person = new Person();
+        person.setFirstName(request.getFirstName());
+        person.setLastName(request.getLastName());
+        person.setAddresses(new HashSet<>());
+        person.setContactInfos(new HashSet<>());
+        request.getAddresses().forEach(address -> person.addAddress(new Address()));
+        request.getContactInfos().forEach(contactInfoRequest -> {
+            ContactInfo contactInfo = new ContactInfo();
+            contactInfo.setType(ContactInfoType.valueOf(contactInfoRequest.getType().name()));
+            contactInfo.setValue(contactInfoRequest.getValue());
+            person.addContactInfo(contactInfo);
+        });
+        return person;
+    }
+
+    private static ImportRowError error(long line, String message) {
+        return new ImportRowError().line(line).message(message);
+    }
+}
@@ -0,0 +1,301 @@
+package hu.baumannr.personregistryapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import hu.baumannr.personregistryapi.mapper.PersonMapper;
+import hu.baumannr.personregistryapi.persistence.model.ChangeEventType;
+import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.persistence.model.PersonName;
+import hu.baumannr.personregistryapi.persistence.repository.PersonRepository;
+import hu.baumannr.personregistryapi.rest.model.PersonBatchCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.PersonBatchItemResult;
+import hu.baumannr.personregistryapi.rest.model.PersonBatchResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonBulkDeleteResponse;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PersonBatchServiceImplTest {
+
+    private static final String ELEK = """
+            {"firstName": "Elek", "lastName": "Teszt",
+             "addresses": [{"type": "Permanent", "country": "Magyarország", "city": "Budapest",
+                            "zip": "1120", "street": "Teszt utca 15."}],
+             "contactInfos": [{"type": "email", "value": "elekteszt@gmail.com"}]}""";
+
+    private static final String ANGELA = """
+            {"firstName": "Angéla", "lastName": "Kacagó"}""";
+
+    @InjectMocks
+    private PersonBatchServiceImpl personBatchService;
+
+    @Mock
+    private PersonRepository personRepository;
+
+    @Mock
+    private PersonMapper personMapper;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private PersonBatchValidator personBatchValidator =
+            new PersonBatchValidator(Validation.buildDefaultValidatorFactory().getValidator());
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private PersonNameIndex personNameIndex;
+
+    @Mock
+    private PersonService personService;
+
+    @Mock
+    private ChangeEventService changeEventService;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(personMapper.convert(any(PersonBatchCreateRequest.class))).thenAnswer(invocation -> new Person());
+        when(personRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<Person> persons = invocation.getArgument(0);
+            persons.forEach(person -> person.setId(sequence.incrementAndGet()));
+            return persons;
+        });
+    }
+
+    @Test
+    void createPersons_HappyPath() {
+        // Act
+        PersonBatchResponse actual = personBatchService.createPersons(json("[" + ELEK + "," + ANGELA + "]"));
+
+        // Assert
+        assertEquals(2, actual.getCreated());
+        assertEquals(0, actual.getFailed());
+        assertEquals(List.of(created(0, 1L), created(1, 2L)), actual.getResults());
+
+        verify(personMapper, times(2)).convert(any(PersonBatchCreateRequest.class));
+        verify(personRepository).saveAllAndFlush(anyList());
+        verify(personNameIndex).put(List.of(new PersonName(1L, null, null), new PersonName(2L, null, null)));
+        verify(changeEventService).recordChanges(ChangeEventType.PERSON_CREATED, List.of(1L, 2L));
+    }
+
+    @Test
+    void createPersons_WhenItemsAreInvalid_ThenReportsThemAsFailed() {
+        // Arrange
+        String missingLastName = """
+                {"firstName": "Elek"}""";
+        String duplicateAddressType = """
+                {"firstName": "Elek", "lastName": "Teszt", "addresses": [
+                  {"type": "Permanent", "country": "HU", "city": "Budapest", "zip": "1120", "street": "A"},
+                  {"type": "Permanent", "country": "HU", "city": "Budapest", "zip": "1061", "street": "B"}]}""";
+        String unknownAddressType = """
+                {"firstName": "Elek", "lastName": "Teszt", "addresses": [{"type": "Summer"}]}""";
+        String body = "[" + missingLastName + "," + duplicateAddressType + "," + unknownAddressType + ",42,"
+                + ANGELA + "]";
+
+        // Act
+        PersonBatchResponse actual = personBatchService.createPersons(json(body));
+
+        // Assert
+        assertEquals(1, actual.getCreated());
+        assertEquals(4, actual.getFailed());
+        assertEquals(List.of(
+                failed(0, "lastName must not be null"),
+                failed(1, "Address type Permanent is given more than once"),
+                failed(2, "Item is not a valid person"),
+                failed(3, "Item is not a valid person"),
+                created(4, 1L)), actual.getResults());
+    }
+
+    @Test
+    void createPersons_WhenChunkFails_ThenRetriesItemsOneByOne() {
+        // Arrange
+        DataIntegrityViolationException exception = new DataIntegrityViolationException("constraint violated");
+        when(personRepository.saveAllAndFlush(anyList()))
+                .thenThrow(exception)
+                .thenReturn(List.of(person(7L)))
+                .thenThrow(exception);
+
+        // Act
+        PersonBatchResponse actual = personBatchService.createPersons(json("[" + ELEK + "," + ANGELA + "]"));
+
+        // Assert
+        assertEquals(1, actual.getCreated());
+        assertEquals(1, actual.getFailed());
+        assertEquals(List.of(created(0, 7L), failed(1, "constraint violated")), actual.getResults());
+
+        verify(personRepository, times(3)).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    void createPersons_WhenMoreItemsThanChunkSize_ThenWritesInChunks() {
+        // Arrange
+        String body = IntStream.range(0, PersonBatchServiceImpl.CHUNK_SIZE + 1)
+                .mapToObj(i -> ANGELA)
+                .collect(Collectors.joining(",", "[", "]"));
+
+        // Act
+        PersonBatchResponse actual = personBatchService.createPersons(json(body));
+
+        // Assert
+        assertEquals(PersonBatchServiceImpl.CHUNK_SIZE + 1, actual.getCreated());
+        verify(personRepository, times(2)).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    void createPersons_WhenBodyIsNotAnArray_ThenThrowsException() {
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> personBatchService.createPersons(json(ANGELA)));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertEquals("Request body must be a JSON array", exception.getMessage());
+        verifyNoInteractions(personRepository);
+    }
+
+    @Test
+    void createPersons_WhenJsonIsMalformed_ThenThrowsException() {
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> personBatchService.createPersons(json("[" + ANGELA + ", {\"firstName\": ")));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertEquals("Invalid JSON at item 1, the preceding items were processed", exception.getMessage());
+    }
+
+    @Test
+    void createPersons_WhenArrayIsNotClosed_ThenThrowsException() {
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> personBatchService.createPersons(json("[" + ANGELA)));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertEquals("Invalid JSON at item 1, the preceding items were processed", exception.getMessage());
+    }
+
+    @Test
+    void deletePersons_HappyPath() {
+        // Arrange
+        when(personRepository.findExistingIds(anyList())).thenReturn(List.of(13L, 19L));
+
+        // Act
+        PersonBulkDeleteResponse actual = personBatchService.deletePersons(Arrays.asList(13L, 17L, null, 13L, 19L));
+
+        // Assert
+        assertEquals(2, actual.getDeleted());
+        assertEquals(List.of(17L), actual.getNotFound());
+
+        verify(personRepository).findExistingIds(List.of(13L, 17L, 19L));
+        verify(personService).deletePersons(List.of(13L, 19L));
+    }
+
+    @Test
+    void deletePersons_WhenMoreIdsThanChunkSize_ThenDeletesInChunks() {
+        // Arrange
+        List<Long> ids = LongStream.rangeClosed(1, PersonBatchServiceImpl.CHUNK_SIZE + 1)
+                .boxed()
+                .toList();
+
+        when(personRepository.findExistingIds(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        PersonBulkDeleteResponse actual = personBatchService.deletePersons(ids);
+
+        // Assert
+        assertEquals(PersonBatchServiceImpl.CHUNK_SIZE + 1, actual.getDeleted());
+        assertEquals(List.of(), actual.getNotFound());
+
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(personService).deletePersons(ids.subList(0, PersonBatchServiceImpl.CHUNK_SIZE));
+        verify(personService).deletePersons(List.of(PersonBatchServiceImpl.CHUNK_SIZE + 1L));
+    }
+
+    @Test
+    void deletePersons_WhenPersonsAreOnSeveralShards_ThenDeletesShardByShard() {
+        // Arrange
+        doReturn(1).when(shardRouter).shardOf(19L);
+        when(personRepository.findExistingIds(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        PersonBulkDeleteResponse actual = personBatchService.deletePersons(List.of(13L, 19L, 17L));
+
+        // Assert
+        assertEquals(3, actual.getDeleted());
+        assertEquals(List.of(), actual.getNotFound());
+
+        verify(shardRouter).onShard(eq(0), any());
+        verify(shardRouter).onShard(eq(1), any());
+        verify(personService).deletePersons(List.of(13L, 17L));
+        verify(personService).deletePersons(List.of(19L));
+    }
+
+    private static InputStream json(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Person person(Long id) {
+        Person person = mock(Person.class);
+        when(person.getId()).thenReturn(id);
+        return person;
+    }
+
+    private static PersonBatchItemResult created(int index, Long id) {
+        return new PersonBatchItemResult()
+                .index(index)
+                .status(PersonBatchItemResult.StatusEnum.CREATED)
+                .id(id);
+    }
+
+    private static PersonBatchItemResult failed(int index, String error) {
+        return new PersonBatchItemResult()
+                .index(index)
+                .status(PersonBatchItemResult.StatusEnum.FAILED)
+                .error(error);
+    }
+}
@@ -0,0 +1,135 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.constant.CacheNames;
+import hu.baumannr.personregistryapi.rest.model.AddressCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.PersonCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonUpdateRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Asserts that the person cache serves repeated reads and is invalidated only by committed mutations.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PersonCacheTest {
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private AddressService addressService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        cache = cacheManager.getCache(CacheNames.PERSONS);
+    }
+
+    @Test
+    void getPersonById_WhenCached_ThenDoesNotQueryDatabase() {
+        Long personId = createPerson("Elek");
+        personService.getPersonById(personId);
+        double hits = cacheGets("hit");
+
+        statistics.clear();
+        PersonResponse person = personService.getPersonById(personId);
+
+        assertEquals("Elek", person.getFirstName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(hits + 1, cacheGets("hit"));
+    }
+
+    @Test
+    void addAddress_EvictsPerson() {
+        Long personId = createPerson("Angéla");
+        personService.getPersonById(personId);
+
+        addressService.addAddress(personId, new AddressCreateRequest()
+                .type(AddressCreateRequest.TypeEnum.PERMANENT)
+                .country("Magyarország")
+                .city("Budapest")
+                .zip("1120")
+                .street("Teszt utca 15."), null);
+
+        assertEquals(1, personService.getPersonById(personId).getAddresses().size());
+    }
+
+    @Test
+    void updatePerson_EvictsPersonOnlyAfterCommit() {
+        Long personId = createPerson("Béla");
+        personService.getPersonById(personId);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            personService.updatePerson(personId, personUpdateRequest("Benedek"), null);
+            assertNotNull(cache.get(personId));
+        });
+
+        assertNull(cache.get(personId));
+        assertEquals("Benedek", personService.getPersonById(personId).getFirstName());
+    }
+
+    @Test
+    void updatePerson_WhenRolledBack_ThenKeepsPerson() {
+        Long personId = createPerson("Cecília");
+        personService.getPersonById(personId);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            personService.updatePerson(personId, personUpdateRequest("Csilla"), null);
+            status.setRollbackOnly();
+        });
+
+        assertEquals("Cecília", personService.getPersonById(personId).getFirstName());
+    }
+
+    private Long createPerson(String firstName) {
+        return personService.createPerson(new PersonCreateRequest()
+                .firstName(firstName)
+                .lastName("Teszt")).getId();
+    }
+
+    private static PersonUpdateRequest personUpdateRequest(String firstName) {
+        return new PersonUpdateRequest()
+                .firstName(firstName)
+                .lastName("Teszt");
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", CacheNames.PERSONS)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
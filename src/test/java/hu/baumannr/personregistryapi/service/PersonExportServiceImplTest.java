@@ -0,0 +1,175 @@
+package hu.baumannr.personregistryapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import hu.baumannr.personregistryapi.mapper.PersonMapper;
+import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.persistence.repository.PersonRepository;
+import hu.baumannr.personregistryapi.rest.model.AddressResponse;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.SpecHints;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PersonExportServiceImplTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 5, 6, 7, 8, 9);
+
+    @InjectMocks
+    private PersonExportServiceImpl personExportService;
+
+    @Mock
+    private PersonRepository personRepository;
+
+    @Mock
+    private PersonMapper personMapper;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter();
+
+    @Test
+    void exportPersons_WhenNdjson_ThenWritesOnePersonPerLine() throws IOException {
+        // Arrange
+        Person person1 = mock(Person.class);
+        Person person2 = mock(Person.class);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        when(person1.getId()).thenReturn(1L);
+        when(person2.getId()).thenReturn(2L);
+        when(personRepository.findByIdGreaterThanOrderByIdAsc(any(), any())).thenReturn(List.of(person1, person2));
+        when(personMapper.convert(person1)).thenReturn(new PersonResponse().id(1L).lastName("Teszt"));
+        when(personMapper.convert(person2)).thenReturn(new PersonResponse().id(2L).lastName("Kacagó"));
+
+        // Act
+        personExportService.exportPersons(ExportFormat.NDJSON, outputStream);
+
+        // Assert
+        String expected = """
+                {"id":1,"version":null,"firstName":null,"lastName":"Teszt","createdAt":null,"updatedAt":null,\
+                "addresses":[],"contactInfos":[]}
+                {"id":2,"version":null,"firstName":null,"lastName":"Kacagó","createdAt":null,"updatedAt":null,\
+                "addresses":[],"contactInfos":[]}
+                """;
+        assertEquals(expected, outputStream.toString(StandardCharsets.UTF_8));
+
+        InOrder inOrder = inOrder(personRepository, personMapper, entityManager);
+        inOrder.verify(entityManager).setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        inOrder.verify(personRepository).findByIdGreaterThanOrderByIdAsc(0L,
+                Limit.of(PersonExportServiceImpl.CHUNK_SIZE));
+        inOrder.verify(personMapper).convert(person1);
+        inOrder.verify(personMapper).convert(person2);
+        inOrder.verify(entityManager).clear();
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void exportPersons_WhenChunkIsFull_ThenReadsPersonsAfterIt() throws IOException {
+        // Arrange
+        Person person = mock(Person.class);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        when(person.getId()).thenReturn(7L);
+        when(personRepository.findByIdGreaterThanOrderByIdAsc(any(), any()))
+                .thenReturn(Collections.nCopies(PersonExportServiceImpl.CHUNK_SIZE, person))
+                .thenReturn(List.of());
+        when(personMapper.convert(person)).thenReturn(new PersonResponse().id(7L));
+
+        // Act
+        personExportService.exportPersons(ExportFormat.NDJSON, outputStream);
+
+        // Assert
+        InOrder inOrder = inOrder(personRepository, entityManager);
+        inOrder.verify(entityManager).setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        inOrder.verify(personRepository).findByIdGreaterThanOrderByIdAsc(0L,
+                Limit.of(PersonExportServiceImpl.CHUNK_SIZE));
+        inOrder.verify(entityManager).clear();
+        inOrder.verify(personRepository).findByIdGreaterThanOrderByIdAsc(7L,
+                Limit.of(PersonExportServiceImpl.CHUNK_SIZE));
+        inOrder.verify(entityManager).clear();
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void exportPersons_WhenCsv_ThenWritesPersonAndChildRows() throws IOException {
+        // Arrange
+        Person person = mock(Person.class);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PersonResponse response = new PersonResponse()
+                .id(1L)
+                .firstName("Elek")
+                .lastName("Teszt")
+                .createdAt(TIMESTAMP)
+                .updatedAt(TIMESTAMP)
+                .addresses(List.of(new AddressResponse()
+                        .id(3L)
+                        .type("PERMANENT")
+                        .country("Magyarország")
+                        .city("Budapest")
+                        .zip("1120")
+                        .street("Teszt utca 15., \"B\" épület")))
+                .contactInfos(List.of(new ContactInfoResponse()
+                        .id(4L)
+                        .type("EMAIL")
+                        .value("elekteszt@gmail.com")));
+
+        when(person.getId()).thenReturn(1L);
+        when(personRepository.findByIdGreaterThanOrderByIdAsc(any(), any())).thenReturn(List.of(person));
+        when(personMapper.convert(person)).thenReturn(response);
+
+        // Act
+        personExportService.exportPersons(ExportFormat.CSV, outputStream);
+
+        // Assert
+        String expected = "recordType,personId,id,type,firstName,lastName,country,city,zip,street,value,"
+                + "createdAt,updatedAt\r\n"
+                + "PERSON,1,1,,Elek,Teszt,,,,,,2024-05-06T07:08:09,2024-05-06T07:08:09\r\n"
+                + "ADDRESS,1,3,PERMANENT,,,Magyarország,Budapest,1120,\"Teszt utca 15., \"\"B\"\" épület\",,,\r\n"
+                + "CONTACT_INFO,1,4,EMAIL,,,,,,,elekteszt@gmail.com,,\r\n";
+        assertEquals(expected, outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportFormat_WhenValueUnknown_ThenThrowsException() {
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class, () -> ExportFormat.fromValue("xml"));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertEquals("Export format xml is invalid", exception.getMessage());
+    }
+}
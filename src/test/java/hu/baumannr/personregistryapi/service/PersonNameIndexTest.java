@@ -0,0 +1,161 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.persistence.model.PersonName;
+import hu.baumannr.personregistryapi.persistence.repository.PersonRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PersonNameIndexTest {
+
+    private static final PersonName ELEK = new PersonName(1L, "Elek", "Teszt");
+
+    private static final PersonName ANGELA = new PersonName(2L, "Angéla", "Kacagó");
+
+    private static final PersonName ODON = new PersonName(3L, "Ödön", "Kovács");
+
+    private static final PersonName TESZTA = new PersonName(4L, "Teszta", "Aladár");
+
+    @InjectMocks
+    private PersonNameIndex personNameIndex;
+
+    @Mock
+    private PersonRepository personRepository;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter();
+
+    @BeforeEach
+    void setUp() {
+        when(personRepository.findAllNames()).thenReturn(List.of(ELEK, ANGELA, ODON, TESZTA));
+        personNameIndex.afterSingletonsInstantiated();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void suggest_HappyPath() {
+        // Act
+        List<PersonName> actual = personNameIndex.suggest("tesz", 10);
+
+        // Assert
+        assertEquals(List.of(ELEK, TESZTA), actual);
+    }
+
+    @Test
+    void suggest_WhenPrefixHasAccentsAndCase_ThenIgnoresThem() {
+        // Act
+        List<PersonName> actual = personNameIndex.suggest("  KOVACS  öd", 10);
+
+        // Assert
+        assertEquals(List.of(ODON), actual);
+    }
+
+    @Test
+    void suggest_WhenBothNamesMatch_ThenReturnsPersonOnce() {
+        // Arrange
+        PersonName anna = new PersonName(5L, "Anna", "Annus");
+        personNameIndex.put(anna);
+
+        // Act
+        List<PersonName> actual = personNameIndex.suggest("ann", 10);
+
+        // Assert
+        assertEquals(List.of(anna), actual);
+    }
+
+    @Test
+    void suggest_WhenMorePersonsMatch_ThenReturnsLimit() {
+        // Act
+        List<PersonName> actual = personNameIndex.suggest("", 3);
+
+        // Assert
+        assertEquals(List.of(TESZTA, ANGELA, ELEK), actual);
+    }
+
+    @Test
+    void suggest_WhenNothingMatches_ThenReturnsEmptyList() {
+        // Act
+        List<PersonName> actual = personNameIndex.suggest("zzz", 10);
+
+        // Assert
+        assertEquals(List.of(), actual);
+    }
+
+    @Test
+    void put_WhenPersonIsIndexed_ThenReplacesName() {
+        // Arrange
+        PersonName renamed = new PersonName(1L, "Elemér", "Próba");
+
+        // Act
+        personNameIndex.put(renamed);
+
+        // Assert
+        assertEquals(List.of(TESZTA), personNameIndex.suggest("tesz", 10));
+        assertEquals(List.of(renamed), personNameIndex.suggest("proba el", 10));
+    }
+
+    @Test
+    void remove_HappyPath() {
+        // Act
+        personNameIndex.remove(ELEK.id());
+
+        // Assert
+        assertEquals(List.of(TESZTA), personNameIndex.suggest("tesz", 10));
+    }
+
+    @Test
+    void put_WhenDeltaOverflows_ThenMergesItIntoBase() {
+        // Arrange
+        List<PersonName> names = IntStream.range(0, PersonNameIndex.MAX_DELTA)
+                .mapToObj(i -> new PersonName(100L + i, "Zoltán", "Zsidó" + i))
+                .toList();
+        PersonName renamed = new PersonName(1L, "Elemér", "Próba");
+
+        // Act
+        names.forEach(personNameIndex::put);
+        personNameIndex.put(renamed);
+        personNameIndex.remove(ODON.id());
+
+        // Assert
+        assertEquals(List.of(TESZTA), personNameIndex.suggest("tesz", 10));
+        assertEquals(List.of(renamed), personNameIndex.suggest("proba", 10));
+        assertEquals(List.of(), personNameIndex.suggest("kovacs", 10));
+        assertEquals(List.of(names.get(4000)), personNameIndex.suggest("zsido4000", 10));
+        assertEquals(PersonNameIndex.MAX_DELTA, personNameIndex.suggest("zoltan", Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void put_WhenTransactionIsActive_ThenAppliesChangeAfterCommit() {
+        // Arrange
+        PersonName bela = new PersonName(6L, "Béla", "Teszt");
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        personNameIndex.put(bela);
+
+        // Assert
+        assertEquals(List.of(ELEK, TESZTA), personNameIndex.suggest("tesz", 10));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(List.of(bela, ELEK, TESZTA), personNameIndex.suggest("tesz", 10));
+    }
+}
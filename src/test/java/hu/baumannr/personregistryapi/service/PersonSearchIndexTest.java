@@ -0,0 +1,194 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.rest.model.ContactInfoLookupResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonPageResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the person search and the contact information lookup against a large dataset and asserts from the H2 query
+ * plans that the generated queries seek the indexes instead of scanning the tables.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PersonSearchIndexTest {
+
+    private static final long FIRST_ID = 50_000_000L;
+
+    private static final int PERSONS = 20_000;
+
+    private static final int CITIES = 200;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private ContactInfoService contactInfoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void insertPersons() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> persons = new ArrayList<>(PERSONS);
+        List<Object[]> addresses = new ArrayList<>(PERSONS);
+        List<Object[]> contactInfos = new ArrayList<>(PERSONS);
+        for (int i = 0; i < PERSONS; i++) {
+            long id = FIRST_ID + i;
+            persons.add(new Object[] {id, "First" + i, "Last" + i, now, now, 0L});
+            addresses.add(new Object[] {id, id, "PERMANENT", "Magyarország", "City" + i % CITIES,
+                    String.valueOf(1000 + i % 3000), "Teszt utca " + i + ".", now, now});
+            contactInfos.add(new Object[] {id, id, "EMAIL", "search" + i + "@example.com",
+                    "search" + i + "@example.com", now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO Person (Id, FirstName, LastName, CreatedAt, UpdatedAt, Version) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", persons);
+        jdbcTemplate.batchUpdate("INSERT INTO Address (Id, PersonId, Type, Country, City, Zip, Street, CreatedAt, "
+                + "UpdatedAt) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", addresses);
+        jdbcTemplate.batchUpdate("INSERT INTO ContactInfo (Id, PersonId, Type, ContactValue, NormalizedValue, "
+                + "CreatedAt, UpdatedAt) VALUES (?, ?, ?, ?, ?, ?, ?)", contactInfos);
+        // Gives the optimizer the selectivity of the columns
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void deletePersons() {
+        jdbcTemplate.update("DELETE FROM ContactInfo WHERE PersonId >= ?", FIRST_ID);
+        jdbcTemplate.update("DELETE FROM Address WHERE PersonId >= ?", FIRST_ID);
+        jdbcTemplate.update("DELETE FROM Person WHERE Id >= ?", FIRST_ID);
+    }
+
+    @Test
+    void searchPersons_ByLastName_SeeksLastNameIndex() {
+        PersonPageResponse page = search(new PersonSearchCriteria(null, "Last12345", null, null, null, null),
+                "IX_PERSON_LASTNAME_FIRSTNAME");
+
+        assertEquals(List.of("Last12345"), lastNames(page));
+    }
+
+    @Test
+    void searchPersons_ByFirstName_SeeksFirstNameIndex() {
+        PersonPageResponse page = search(new PersonSearchCriteria("First12345", null, null, null, null, null),
+                "IX_PERSON_FIRSTNAME");
+
+        assertEquals(List.of("Last12345"), lastNames(page));
+    }
+
+    @Test
+    void searchPersons_ByCityAndZip_SeeksAddressIndex() {
+        PersonPageResponse page = search(new PersonSearchCriteria(null, null, "Magyarország", "City7", "1007", null),
+                "IX_ADDRESS_CITY_ZIP_PERSONID");
+
+        // Persons 7, 3007, 6007... live in City7 at 1007
+        assertEquals(7, page.getItems().size());
+        assertEquals("City7", page.getItems().get(0).getAddresses().get(0).getCity());
+    }
+
+    @Test
+    void searchPersons_ByContactValue_SeeksContactInfoIndex() {
+        PersonPageResponse page = search(new PersonSearchCriteria(null, null, null, null, null,
+                "search42@example.com"), "IX_CONTACTINFO_CONTACTVALUE_PERSONID");
+
+        assertEquals(List.of("Last42"), lastNames(page));
+    }
+
+    @Test
+    void searchPersons_WhenMorePagesMatch_ThenSeeksAfterCursor() {
+        PersonSearchCriteria criteria = new PersonSearchCriteria(null, null, null, "City9", null, null);
+
+        PersonPageResponse first = personService.searchPersons(criteria, 60, null);
+        PersonPageResponse second = personService.searchPersons(criteria, 60, first.getNextCursor());
+
+        assertEquals(60, first.getItems().size());
+        assertNotNull(first.getNextCursor());
+        assertEquals(PERSONS / CITIES - 60, second.getItems().size());
+        assertNull(second.getNextCursor());
+        assertTrue(second.getItems().get(0).getId() > first.getItems().get(59).getId());
+    }
+
+    @Test
+    void lookupContactInfos_ByNormalizedEmail_SeeksTypeAndNormalizedValueIndex() {
+        List<ContactInfoLookupResponse> actual = explained(
+                () -> contactInfoService.lookupContactInfos("email", " Search42@Example.com"),
+                "IX_CONTACTINFO_TYPE_NORMALIZEDVALUE");
+
+        assertEquals(1, actual.size());
+        assertEquals(FIRST_ID + 42, actual.get(0).getPersonId());
+        assertEquals("search42@example.com", actual.get(0).getValue());
+    }
+
+    private PersonPageResponse search(PersonSearchCriteria criteria, String index) {
+        return explained(() -> personService.searchPersons(criteria, 50, null), index);
+    }
+
+    /**
+     * Runs the search, then explains every query it issued and asserts that no table is scanned and that its first
+     * query seeks the given index.
+     */
+    private <T> T explained(Supplier<T> search, String index) {
+        // Toggling clears the statistics of the earlier statements
+        jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+        jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+        T result = search.get();
+        List<String> statements = jdbcTemplate.queryForList(
+                "SELECT SQL_STATEMENT FROM INFORMATION_SCHEMA.QUERY_STATISTICS", String.class);
+        jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+
+        List<String> queries = statements.stream()
+                .filter(sql -> sql.startsWith("select"))
+                .toList();
+        assertFalse(queries.isEmpty());
+        List<String> plans = queries.stream()
+                .map(this::explain)
+                .toList();
+        for (String plan : plans) {
+            assertFalse(plan.contains("tableScan"), "Table scan in the plan:\n" + plan);
+        }
+        assertTrue(plans.get(0).contains(index), "Index " + index + " not used:\n" + plans.get(0));
+        return result;
+    }
+
+    private String explain(String query) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("EXPLAIN " + query);
+            // The plan does not depend on the values, only the parameter types have to be convertible
+            ParameterMetaData parameters = statement.getParameterMetaData();
+            for (int i = 1; i <= parameters.getParameterCount(); i++) {
+                statement.setString(i, parameters.getParameterType(i) == Types.VARCHAR ? "A" : "1");
+            }
+            return statement;
+        }, resultSet -> {
+            resultSet.next();
+            return resultSet.getString(1);
+        });
+    }
+
+    private static List<String> lastNames(PersonPageResponse page) {
+        return page.getItems().stream()
+                .map(PersonResponse::getLastName)
+                .toList();
+    }
+}
@@ -1,11 +1,22 @@
 package hu.baumannr.personregistryapi.service;
 
+import hu.baumannr.personregistryapi.constant.CacheNames;
 import hu.baumannr.personregistryapi.exception.PersonApiException;
 import hu.baumannr.personregistryapi.mapper.PersonMapper;
+import hu.baumannr.personregistryapi.persistence.model.ChangeEventType;
 import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.persistence.model.PersonName;
+import hu.baumannr.personregistryapi.persistence.model.PersonVersion;
+import hu.baumannr.personregistryapi.persistence.repository.AddressRepository;
+import hu.baumannr.personregistryapi.persistence.repository.ContactInfoRepository;
+import hu.baumannr.personregistryapi.persistence.repository.PartialUpdateRepository;
 import hu.baumannr.personregistryapi.persistence.repository.PersonRepository;
+import hu.baumannr.personregistryapi.rest.model.ChangeEventResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonChangesResponse;
 import hu.baumannr.personregistryapi.rest.model.PersonCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.PersonPageResponse;
 import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonSuggestionResponse;
 import hu.baumannr.personregistryapi.rest.model.PersonUpdateRequest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,20 +25,38 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor.SpecificationFluentQuery;
 import org.springframework.http.HttpStatus;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
@@ -40,9 +69,30 @@ class PersonServiceImplTest {
     @Mock
     private PersonRepository personRepository;
 
+    @Mock
+    private PartialUpdateRepository partialUpdateRepository;
+
     @Mock
     private PersonMapper personMapper;
 
+    @Mock
+    private PersonNameIndex personNameIndex;
+
+    @Mock
+    private AddressRepository addressRepository;
+
+    @Mock
+    private ContactInfoRepository contactInfoRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private ChangeEventService changeEventService;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter();
+
     @Test
     void getPersonById_HappyPath() {
         // Arrange
@@ -51,7 +101,7 @@ class PersonServiceImplTest {
         Optional<Person> personOptional = Optional.of(person);
         PersonResponse expected = mock(PersonResponse.class);
 
-        when(personRepository.findById(any())).thenReturn(personOptional);
+        when(personRepository.findWithAddressesById(any())).thenReturn(personOptional);
         when(personMapper.convert(any(Person.class))).thenReturn(expected);
 
         // Act
@@ -61,7 +111,7 @@ class PersonServiceImplTest {
         assertEquals(actual, expected);
 
         InOrder inOrder = inOrder(personRepository, personMapper);
-        inOrder.verify(personRepository).findById(personId);
+        inOrder.verify(personRepository).findWithAddressesById(personId);
         inOrder.verify(personMapper).convert(person);
         inOrder.verifyNoMoreInteractions();
     }
@@ -74,7 +124,7 @@ class PersonServiceImplTest {
         LocalDateTime now = mock(LocalDateTime.class);
         String message = "Person with id " + personId + " not found";
 
-        when(personRepository.findById(any())).thenReturn(personOptional);
+        when(personRepository.findWithAddressesById(any())).thenReturn(personOptional);
 
         try (MockedStatic<LocalDateTime> localDateTimeMockedStatic = Mockito.mockStatic(LocalDateTime.class)) {
             localDateTimeMockedStatic.when(LocalDateTime::now).thenReturn(now);
@@ -89,7 +139,7 @@ class PersonServiceImplTest {
             assertEquals(now, personApiException.getTimestamp());
 
             InOrder inOrder = inOrder(personRepository, personMapper);
-            inOrder.verify(personRepository).findById(personId);
+            inOrder.verify(personRepository).findWithAddressesById(personId);
             inOrder.verifyNoMoreInteractions();
         }
     }
@@ -105,23 +155,323 @@ class PersonServiceImplTest {
         PersonResponse personResponse2 = mock(PersonResponse.class);
         List<PersonResponse> expected = List.of(personResponse1, personResponse2);
 
-        when(personRepository.findAll()).thenReturn(persons);
+        when(personRepository.findByIdGreaterThanOrderByIdAsc(any(), any())).thenReturn(persons);
         when(personMapper.convert(person1)).thenReturn(personResponse1);
         when(personMapper.convert(person2)).thenReturn(personResponse2);
 
         // Act
-        List<PersonResponse> actual = personService.getAllPersons();
+        PersonPageResponse actual = personService.getAllPersons(null, null);
 
         // Assert
-        assertIterableEquals(expected, actual);
+        assertIterableEquals(expected, actual.getItems());
+        assertNull(actual.getNextCursor());
 
         InOrder inOrder = inOrder(personRepository, personMapper);
-        inOrder.verify(personRepository).findAll();
+        inOrder.verify(personRepository).findByIdGreaterThanOrderByIdAsc(Long.MIN_VALUE, Limit.of(51));
         inOrder.verify(personMapper).convert(person1);
         inOrder.verify(personMapper).convert(person2);
         inOrder.verifyNoMoreInteractions();
     }
 
+    @Test
+    void getAllPersons_WhenMorePersonsExist_ThenReturnsNextCursor() {
+        // Arrange
+        Long afterId = 40L;
+        String after = CursorCodec.encode(afterId);
+        Person person1 = mock(Person.class);
+        Person person2 = mock(Person.class);
+        Person person3 = mock(Person.class);
+        List<Person> persons = List.of(person1, person2, person3);
+
+        PersonResponse personResponse1 = mock(PersonResponse.class);
+        PersonResponse personResponse2 = mock(PersonResponse.class);
+        List<PersonResponse> expected = List.of(personResponse1, personResponse2);
+
+        when(person2.getId()).thenReturn(42L);
+        when(personRepository.findByIdGreaterThanOrderByIdAsc(any(), any())).thenReturn(persons);
+        when(personMapper.convert(person1)).thenReturn(personResponse1);
+        when(personMapper.convert(person2)).thenReturn(personResponse2);
+
+        // Act
+        PersonPageResponse actual = personService.getAllPersons(2, after);
+
+        // Assert
+        assertIterableEquals(expected, actual.getItems());
+        assertEquals(CursorCodec.encode(42L), actual.getNextCursor());
+
+        InOrder inOrder = inOrder(personRepository, personMapper);
+        inOrder.verify(personRepository).findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(3));
+        inOrder.verify(personMapper).convert(person1);
+        inOrder.verify(personMapper).convert(person2);
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void getAllPersons_WhenCursorIsInvalid_ThenThrowsException() {
+        // Arrange
+        String after = "not-a-cursor";
+
+        // Act
+        PersonApiException personApiException = assertThrows(PersonApiException.class,
+                () -> personService.getAllPersons(10, after));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, personApiException.getStatusCode());
+        assertEquals("Cursor " + after + " is invalid", personApiException.getMessage());
+        verifyNoMoreInteractions(personRepository, personMapper);
+    }
+
+    @Test
+    void searchPersons_HappyPath() {
+        // Arrange
+        PersonSearchCriteria criteria = new PersonSearchCriteria("Teszt", "Elek", "Magyarország", "Budapest",
+                "1111", "teszt.elek@example.com");
+        Person person1 = mock(Person.class);
+        Person person2 = mock(Person.class);
+        SpecificationFluentQuery<Person> query = mockQuery(List.of(person1, person2));
+
+        PersonResponse personResponse1 = mock(PersonResponse.class);
+        PersonResponse personResponse2 = mock(PersonResponse.class);
+        List<PersonResponse> expected = List.of(personResponse1, personResponse2);
+
+        when(personMapper.convert(person1)).thenReturn(personResponse1);
+        when(personMapper.convert(person2)).thenReturn(personResponse2);
+
+        // Act
+        PersonPageResponse actual = personService.searchPersons(criteria, null, null);
+
+        // Assert
+        assertIterableEquals(expected, actual.getItems());
+        assertNull(actual.getNextCursor());
+
+        verify(query).sortBy(Sort.by("id"));
+        verify(query).limit(51);
+        verify(personMapper).convert(person1);
+        verify(personMapper).convert(person2);
+    }
+
+    @Test
+    void searchPersons_WhenMorePersonsMatch_ThenReturnsNextCursor() {
+        // Arrange
+        PersonSearchCriteria criteria = new PersonSearchCriteria(null, "Elek", null, null, null, null);
+        Person person1 = mock(Person.class);
+        Person person2 = mock(Person.class);
+        SpecificationFluentQuery<Person> query = mockQuery(List.of(person1, person2));
+
+        PersonResponse personResponse1 = mock(PersonResponse.class);
+
+        when(person1.getId()).thenReturn(42L);
+        when(personMapper.convert(person1)).thenReturn(personResponse1);
+
+        // Act
+        PersonPageResponse actual = personService.searchPersons(criteria, 1, CursorCodec.encode(40L));
+
+        // Assert
+        assertIterableEquals(List.of(personResponse1), actual.getItems());
+        assertEquals(CursorCodec.encode(42L), actual.getNextCursor());
+
+        verify(query).limit(2);
+        verify(personMapper).convert(person1);
+        verifyNoMoreInteractions(personMapper);
+    }
+
+    @SuppressWarnings("unchecked")
+    private SpecificationFluentQuery<Person> mockQuery(List<Person> persons) {
+        SpecificationFluentQuery<Person> query = mock(SpecificationFluentQuery.class, RETURNS_SELF);
+        when(query.all()).thenReturn(persons);
+        when(personRepository.findBy(any(Specification.class), any())).thenAnswer(invocation ->
+                invocation.<Function<SpecificationFluentQuery<Person>, List<Person>>>getArgument(1).apply(query));
+        return query;
+    }
+
+    @Test
+    void getPersonChanges_HappyPath() {
+        // Arrange
+        ChangeEventResponse updated = event(41L, ChangeEventResponse.TypeEnum.PERSON_UPDATED, 7L, 7L);
+        ChangeEventResponse addressDeleted = event(42L, ChangeEventResponse.TypeEnum.ADDRESS_DELETED, 7L, 70L);
+        ChangeEventResponse created = event(43L, ChangeEventResponse.TypeEnum.PERSON_CREATED, 8L, 8L);
+        ChangeEventResponse deleted = event(44L, ChangeEventResponse.TypeEnum.PERSON_DELETED, 8L, 8L);
+        Person person = mock(Person.class);
+        PersonResponse personResponse = mock(PersonResponse.class);
+
+        when(changeEventService.getEventsAfter(anyLong(), anyInt()))
+                .thenReturn(List.of(updated, addressDeleted, created, deleted));
+        when(personRepository.findByIdInOrderByIdAsc(any())).thenReturn(List.of(person));
+        when(personMapper.convert(person)).thenReturn(personResponse);
+
+        // Act
+        PersonChangesResponse actual = personService.getPersonChanges(ChangeTokenCodec.encode(40L), null);
+
+        // Assert
+        assertEquals(List.of(personResponse), actual.getPersons());
+        assertEquals(List.of(addressDeleted, deleted), actual.getDeleted());
+        assertEquals(ChangeTokenCodec.encode(44L), actual.getNextToken());
+        assertFalse(actual.getHasMore());
+
+        verify(changeEventService).getEventsAfter(40L, 51);
+        verify(personRepository).findByIdInOrderByIdAsc(Set.of(7L, 8L));
+    }
+
+    @Test
+    void getPersonChanges_WhenMoreChangesExist_ThenReturnsLimit() {
+        // Arrange
+        ChangeEventResponse first = event(1L, ChangeEventResponse.TypeEnum.PERSON_DELETED, 3L, 3L);
+        ChangeEventResponse second = event(2L, ChangeEventResponse.TypeEnum.PERSON_DELETED, 4L, 4L);
+
+        when(changeEventService.getEventsAfter(anyLong(), anyInt())).thenReturn(List.of(first, second));
+
+        // Act
+        PersonChangesResponse actual = personService.getPersonChanges(ChangeTokenCodec.encode(0L), 1);
+
+        // Assert
+        assertEquals(List.of(), actual.getPersons());
+        assertEquals(List.of(first), actual.getDeleted());
+        assertEquals(ChangeTokenCodec.encode(1L), actual.getNextToken());
+        assertTrue(actual.getHasMore());
+
+        verify(changeEventService).getEventsAfter(0L, 2);
+        verifyNoInteractions(personRepository, personMapper);
+    }
+
+    @Test
+    void getPersonChanges_WhenNoChangeFollows_ThenReturnsSameToken() {
+        // Arrange
+        String since = ChangeTokenCodec.encode(12L);
+
+        when(changeEventService.getEventsAfter(anyLong(), anyInt())).thenReturn(List.of());
+
+        // Act
+        PersonChangesResponse actual = personService.getPersonChanges(since, 10);
+
+        // Assert
+        assertEquals(List.of(), actual.getPersons());
+        assertEquals(List.of(), actual.getDeleted());
+        assertEquals(since, actual.getNextToken());
+        assertFalse(actual.getHasMore());
+        verifyNoInteractions(personRepository);
+    }
+
+    @Test
+    void getPersonChanges_WhenSinceIsMissing_ThenReturnsCurrentToken() {
+        // Arrange
+        when(changeEventService.getLastPosition()).thenReturn(99L);
+
+        // Act
+        PersonChangesResponse actual = personService.getPersonChanges(null, 10);
+
+        // Assert
+        assertEquals(ChangeTokenCodec.encode(99L), actual.getNextToken());
+        assertFalse(actual.getHasMore());
+        verify(changeEventService).getLastPosition();
+        verifyNoMoreInteractions(changeEventService);
+        verifyNoInteractions(personRepository);
+    }
+
+    @Test
+    void getPersonChanges_WhenEventsAfterTokenExpired_ThenThrowsException() {
+        // Arrange
+        String since = ChangeTokenCodec.encode(5L);
+
+        when(changeEventService.getEventsAfter(anyLong(), anyInt()))
+                .thenReturn(List.of(event(9L, ChangeEventResponse.TypeEnum.PERSON_CREATED, 1L, 1L)));
+
+        // Act
+        PersonApiException personApiException = assertThrows(PersonApiException.class,
+                () -> personService.getPersonChanges(since, 10));
+
+        // Assert
+        assertEquals(HttpStatus.GONE, personApiException.getStatusCode());
+        assertEquals("Change token " + since + " has expired, the persons have to be loaded again",
+                personApiException.getMessage());
+        verifyNoInteractions(personRepository);
+    }
+
+    @Test
+    void patchPerson_HappyPath() {
+        // Arrange
+        Long personId = 17L;
+        PersonUpdateRequest request = new PersonUpdateRequest().firstName("Elemér").lastName("Próba");
+
+        when(partialUpdateRepository.updatePerson(any(), any(), any(), any(), any())).thenReturn(1);
+
+        // Act
+        personService.patchPerson(personId, request, null);
+
+        // Assert
+        InOrder inOrder = inOrder(partialUpdateRepository, personNameIndex, changeEventService);
+        inOrder.verify(partialUpdateRepository)
+                .updatePerson(eq(personId), eq("Elemér"), eq("Próba"), eq(null), any());
+        inOrder.verify(personNameIndex).put(new PersonName(personId, "Elemér", "Próba"));
+        inOrder.verify(changeEventService).recordChange(ChangeEventType.PERSON_UPDATED, personId, personId);
+        inOrder.verifyNoMoreInteractions();
+        verifyNoInteractions(personRepository);
+    }
+
+    @Test
+    void patchPerson_WhenOnlyOneNameIsGiven_ThenReadsNameForIndex() {
+        // Arrange
+        Long personId = 17L;
+        PersonName name = new PersonName(personId, "Elek", "Próba");
+
+        when(partialUpdateRepository.updatePerson(any(), any(), any(), any(), any())).thenReturn(1);
+        when(personRepository.findNameById(any())).thenReturn(Optional.of(name));
+
+        // Act
+        personService.patchPerson(personId, new PersonUpdateRequest().lastName("Próba"), null);
+
+        // Assert
+        verify(partialUpdateRepository).updatePerson(eq(personId), eq(null), eq("Próba"), eq(null), any());
+        verify(personRepository).findNameById(personId);
+        verify(personNameIndex).put(name);
+    }
+
+    @Test
+    void patchPerson_WhenPersonNotFound_ThenThrowsException() {
+        // Arrange
+        Long personId = 17L;
+
+        when(partialUpdateRepository.updatePerson(any(), any(), any(), any(), any())).thenReturn(0);
+
+        // Act
+        PersonApiException personApiException = assertThrows(PersonApiException.class,
+                () -> personService.patchPerson(personId, new PersonUpdateRequest().firstName("Elemér"), null));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, personApiException.getStatusCode());
+        verifyNoInteractions(personNameIndex, changeEventService);
+    }
+
+    @Test
+    void patchPerson_WhenVersionIsStale_ThenThrowsPreconditionFailed() {
+        // Arrange
+        Long personId = 17L;
+
+        when(partialUpdateRepository.updatePerson(any(), any(), any(), any(), any())).thenReturn(0);
+        when(personRepository.findVersionById(any())).thenReturn(Optional.of(new PersonVersion(5L,
+                LocalDateTime.now())));
+
+        // Act
+        PersonApiException personApiException = assertThrows(PersonApiException.class,
+                () -> personService.patchPerson(personId, new PersonUpdateRequest().firstName("Elemér"), 4L));
+
+        // Assert
+        assertEquals(HttpStatus.PRECONDITION_FAILED, personApiException.getStatusCode());
+        assertEquals("Person with id 17 has changed, its version is not 4", personApiException.getMessage());
+        verify(partialUpdateRepository).updatePerson(eq(personId), eq("Elemér"), eq(null), eq(4L), any());
+        verifyNoInteractions(personNameIndex, changeEventService);
+    }
+
+    @Test
+    void patchPerson_WhenNoNameIsGiven_ThenThrowsException() {
+        // Act
+        PersonApiException personApiException = assertThrows(PersonApiException.class,
+                () -> personService.patchPerson(17L, new PersonUpdateRequest(), null));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, personApiException.getStatusCode());
+        verifyNoInteractions(partialUpdateRepository);
+    }
+
     @Test
     void createPerson_HappyPath() {
         // Arrange
@@ -130,8 +480,11 @@ class PersonServiceImplTest {
         Person savedPerson = mock(Person.class);
         PersonResponse expected = mock(PersonResponse.class);
 
+        when(savedPerson.getId()).thenReturn(17L);
+        when(savedPerson.getFirstName()).thenReturn("Elek");
+        when(savedPerson.getLastName()).thenReturn("Teszt");
         when(personMapper.convert(any(PersonCreateRequest.class))).thenReturn(person);
-        when(personRepository.save(any(Person.class))).thenReturn(savedPerson);
+        when(personRepository.saveAndFlush(any(Person.class))).thenReturn(savedPerson);
         when(personMapper.convert(any(Person.class))).thenReturn(expected);
 
         // Act
@@ -140,9 +493,11 @@ class PersonServiceImplTest {
         // Assert
         assertEquals(actual, expected);
 
-        InOrder inOrder = inOrder(personRepository, personMapper);
+        InOrder inOrder = inOrder(personRepository, personMapper, personNameIndex, changeEventService);
         inOrder.verify(personMapper).convert(request);
-        inOrder.verify(personRepository).save(person);
+        inOrder.verify(personRepository).saveAndFlush(person);
+        inOrder.verify(personNameIndex).put(new PersonName(17L, "Elek", "Teszt"));
+        inOrder.verify(changeEventService).recordChange(ChangeEventType.PERSON_CREATED, 17L, 17L);
         inOrder.verify(personMapper).convert(savedPerson);
         inOrder.verifyNoMoreInteractions();
     }
@@ -157,20 +512,25 @@ class PersonServiceImplTest {
         Optional<Person> personOptional = Optional.of(person);
         PersonResponse expected = mock(PersonResponse.class);
 
-        when(personRepository.findById(any())).thenReturn(personOptional);
-        when(personRepository.save(any())).thenReturn(updatedPerson);
+        when(updatedPerson.getId()).thenReturn(personId);
+        when(updatedPerson.getFirstName()).thenReturn("Elek");
+        when(updatedPerson.getLastName()).thenReturn("Teszt");
+        when(personRepository.findWithAddressesById(any())).thenReturn(personOptional);
+        when(personRepository.saveAndFlush(any())).thenReturn(updatedPerson);
         when(personMapper.convert(any(Person.class))).thenReturn(expected);
 
         // Act
-        PersonResponse actual = personService.updatePerson(personId, request);
+        PersonResponse actual = personService.updatePerson(personId, request, null);
 
         // Assert
         assertEquals(actual, expected);
 
-        InOrder inOrder = inOrder(personRepository, personMapper);
-        inOrder.verify(personRepository).findById(personId);
+        InOrder inOrder = inOrder(personRepository, personMapper, personNameIndex, changeEventService);
+        inOrder.verify(personRepository).findWithAddressesById(personId);
         inOrder.verify(personMapper).updatePerson(person, request);
-        inOrder.verify(personRepository).save(person);
+        inOrder.verify(personRepository).saveAndFlush(person);
+        inOrder.verify(personNameIndex).put(new PersonName(personId, "Elek", "Teszt"));
+        inOrder.verify(changeEventService).recordChange(ChangeEventType.PERSON_UPDATED, personId, personId);
         inOrder.verify(personMapper).convert(updatedPerson);
         inOrder.verifyNoMoreInteractions();
     }
@@ -184,14 +544,14 @@ class PersonServiceImplTest {
         LocalDateTime now = mock(LocalDateTime.class);
         String message = "Person with id " + personId + " not found";
 
-        when(personRepository.findById(any())).thenReturn(personOptional);
+        when(personRepository.findWithAddressesById(any())).thenReturn(personOptional);
 
         try (MockedStatic<LocalDateTime> localDateTimeMockedStatic = Mockito.mockStatic(LocalDateTime.class)) {
             localDateTimeMockedStatic.when(LocalDateTime::now).thenReturn(now);
 
             // Act
             PersonApiException personApiException = assertThrows(PersonApiException.class,
-                    () -> personService.updatePerson(personId, request));
+                    () -> personService.updatePerson(personId, request, null));
 
             // Assert
             assertEquals(HttpStatus.NOT_FOUND, personApiException.getStatusCode());
@@ -199,21 +559,146 @@ class PersonServiceImplTest {
             assertEquals(now, personApiException.getTimestamp());
 
             InOrder inOrder = inOrder(personRepository, personMapper);
-            inOrder.verify(personRepository).findById(personId);
+            inOrder.verify(personRepository).findWithAddressesById(personId);
             inOrder.verifyNoMoreInteractions();
         }
     }
 
+    @Test
+    void updatePerson_WhenVersionIsStale_ThenThrowsPreconditionFailed() {
+        // Arrange
+        Long personId = 17L;
+        PersonUpdateRequest request = mock(PersonUpdateRequest.class);
+        Person person = mock(Person.class);
+
+        when(person.getId()).thenReturn(personId);
+        when(person.getVersion()).thenReturn(5L);
+        when(personRepository.findWithAddressesById(any())).thenReturn(Optional.of(person));
+
+        // Act
+        PersonApiException personApiException = assertThrows(PersonApiException.class,
+                () -> personService.updatePerson(personId, request, 4L));
+
+        // Assert
+        assertEquals(HttpStatus.PRECONDITION_FAILED, personApiException.getStatusCode());
+        verify(personRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(personMapper, personNameIndex, changeEventService);
+    }
+
     @Test
     void deletePerson_HappyPath() {
         // Arrange
         Long personId = 17L;
+        Cache cache = mock(Cache.class);
+
+        when(personRepository.deleteByIds(any())).thenReturn(1);
+        when(cacheManager.getCache(CacheNames.PERSONS)).thenReturn(cache);
+
+        // Act
+        personService.deletePerson(personId, null);
+
+        // Assert
+        InOrder inOrder = inOrder(contactInfoRepository, addressRepository, personRepository, changeEventService,
+                personNameIndex, cache);
+        inOrder.verify(contactInfoRepository).deleteByPersonIds(List.of(personId));
+        inOrder.verify(addressRepository).deleteByPersonIds(List.of(personId));
+        inOrder.verify(personRepository).deleteByIds(List.of(personId));
+        inOrder.verify(changeEventService).recordChanges(ChangeEventType.PERSON_DELETED, List.of(personId));
+        inOrder.verify(personNameIndex).remove(List.of(personId));
+        inOrder.verify(cache).evict(personId);
+        verifyNoMoreInteractions(personRepository, personNameIndex);
+    }
+
+    @Test
+    void deletePerson_WhenPersonNotFound_ThenThrowsException() {
+        // Arrange
+        Long personId = 17L;
+
+        when(personRepository.deleteByIds(any())).thenReturn(0);
+
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> personService.deletePerson(personId, null));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        assertEquals("Person with id 17 not found", exception.getMessage());
+    }
+
+    @Test
+    void deletePerson_WhenVersionMatches_ThenDeletesPerson() {
+        // Arrange
+        Long personId = 17L;
+
+        when(personRepository.touchIfVersion(any(), any(), any())).thenReturn(1);
+        when(personRepository.deleteByIds(any())).thenReturn(1);
 
         // Act
-        personService.deletePerson(personId);
+        personService.deletePerson(personId, 4L);
 
         // Assert
-        verify(personRepository).deleteById(personId);
-        verifyNoMoreInteractions(personRepository);
+        InOrder inOrder = inOrder(contactInfoRepository, addressRepository, personRepository);
+        inOrder.verify(personRepository).touchIfVersion(eq(personId), eq(4L), any());
+        inOrder.verify(contactInfoRepository).deleteByPersonIds(List.of(personId));
+        inOrder.verify(addressRepository).deleteByPersonIds(List.of(personId));
+        inOrder.verify(personRepository).deleteByIds(List.of(personId));
+    }
+
+    @Test
+    void deletePerson_WhenVersionIsStale_ThenThrowsPreconditionFailed() {
+        // Arrange
+        Long personId = 17L;
+
+        when(personRepository.touchIfVersion(any(), any(), any())).thenReturn(0);
+        when(personRepository.findVersionById(any())).thenReturn(Optional.of(new PersonVersion(5L,
+                LocalDateTime.now())));
+
+        // Act
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> personService.deletePerson(personId, 4L));
+
+        // Assert
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatusCode());
+        verifyNoInteractions(contactInfoRepository, addressRepository, changeEventService);
+    }
+
+    @Test
+    void deletePersons_WhenNoIdsGiven_ThenDeletesNothing() {
+        // Act
+        int actual = personService.deletePersons(List.of());
+
+        // Assert
+        assertEquals(0, actual);
+        verifyNoInteractions(personRepository, addressRepository, contactInfoRepository, personNameIndex,
+                changeEventService);
+    }
+
+    @Test
+    void suggestPersons_HappyPath() {
+        // Arrange
+        PersonName name = new PersonName(17L, "Elek", "Teszt");
+        PersonSuggestionResponse expected = mock(PersonSuggestionResponse.class);
+
+        when(personNameIndex.suggest(any(), anyInt())).thenReturn(List.of(name));
+        when(personMapper.convert(any(PersonName.class))).thenReturn(expected);
+
+        // Act
+        List<PersonSuggestionResponse> actual = personService.suggestPersons("tesz", null);
+
+        // Assert
+        assertEquals(List.of(expected), actual);
+
+        verify(personNameIndex).suggest("tesz", 10);
+        verify(personMapper).convert(name);
+        verifyNoMoreInteractions(personRepository, personNameIndex);
+    }
+
+    private static ChangeEventResponse event(Long position, ChangeEventResponse.TypeEnum type, Long personId,
+                                             Long entityId) {
+        return new ChangeEventResponse()
+                .position(position)
+                .type(type)
+                .personId(personId)
+                .entityId(entityId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,193 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import hu.baumannr.personregistryapi.mapper.AddressMapper;
+import hu.baumannr.personregistryapi.mapper.ContactInfoMapper;
+import hu.baumannr.personregistryapi.mapper.PersonMapper;
+import hu.baumannr.personregistryapi.persistence.model.Address;
+import hu.baumannr.personregistryapi.persistence.model.ContactInfo;
+import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.persistence.model.PersonVersion;
+import hu.baumannr.personregistryapi.persistence.repository.ReactivePersonRepository;
+import hu.baumannr.personregistryapi.rest.model.AddressResponse;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactivePersonServiceImplTest {
+
+    @InjectMocks
+    private ReactivePersonServiceImpl reactivePersonService;
+
+    @Mock
+    private ReactivePersonRepository reactivePersonRepository;
+
+    @Mock
+    private PersonMapper personMapper;
+
+    @Mock
+    private AddressMapper addressMapper;
+
+    @Mock
+    private ContactInfoMapper contactInfoMapper;
+
+    @Test
+    void getPersonById_HappyPath() {
+        // Arrange
+        Person person = mock(Person.class);
+        PersonResponse expected = mock(PersonResponse.class);
+
+        when(reactivePersonRepository.findWithChildrenById(17L)).thenReturn(Mono.just(person));
+        when(personMapper.convert(person)).thenReturn(expected);
+
+        // Act & Assert
+        StepVerifier.create(reactivePersonService.getPersonById(17L))
+                .expectNext(expected)
+                .verifyComplete();
+    }
+
+    @Test
+    void getPersonById_WhenPersonNotFound_ThenSignalsNotFound() {
+        // Arrange
+        when(reactivePersonRepository.findWithChildrenById(17L)).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(reactivePersonService.getPersonById(17L))
+                .expectErrorSatisfies(error -> assertEquals(HttpStatus.NOT_FOUND,
+                        ((PersonApiException) error).getStatusCode()))
+                .verify();
+        verifyNoInteractions(personMapper);
+    }
+
+    @Test
+    void getPersonVersion_HappyPath() {
+        // Arrange
+        PersonVersion expected = new PersonVersion(3L, LocalDateTime.now());
+
+        when(reactivePersonRepository.findVersionById(17L)).thenReturn(Mono.just(expected));
+
+        // Act & Assert
+        StepVerifier.create(reactivePersonService.getPersonVersion(17L))
+                .expectNext(expected)
+                .verifyComplete();
+    }
+
+    @Test
+    void getPersonVersion_WhenPersonNotFound_ThenSignalsNotFound() {
+        // Arrange
+        when(reactivePersonRepository.findVersionById(17L)).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(reactivePersonService.getPersonVersion(17L))
+                .expectError(PersonApiException.class)
+                .verify();
+    }
+
+    @Test
+    void getAllPersons_WhenMorePersonsExist_ThenReturnsPageWithCursor() {
+        // Arrange
+        Person first = person(1L);
+        Person second = person(2L);
+        Person third = person(3L);
+
+        when(reactivePersonRepository.findWithChildrenByIdGreaterThan(Long.MIN_VALUE, 3))
+                .thenReturn(Mono.just(List.of(first, second, third)));
+        when(personMapper.convert(first)).thenReturn(new PersonResponse().id(1L));
+        when(personMapper.convert(second)).thenReturn(new PersonResponse().id(2L));
+
+        // Act & Assert
+        StepVerifier.create(reactivePersonService.getAllPersons(2, null))
+                .assertNext(page -> {
+                    assertEquals(2, page.getItems().size());
+                    assertEquals(2L, CursorCodec.decode(page.getNextCursor()));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getAllPersons_WhenLastPage_ThenReturnsPageWithoutCursor() {
+        // Arrange
+        Person person = person(5L);
+
+        when(reactivePersonRepository.findWithChildrenByIdGreaterThan(4L, 51))
+                .thenReturn(Mono.just(List.of(person)));
+        when(personMapper.convert(person)).thenReturn(new PersonResponse().id(5L));
+
+        // Act & Assert
+        StepVerifier.create(reactivePersonService.getAllPersons(null, CursorCodec.encode(4L)))
+                .assertNext(page -> {
+                    assertEquals(1, page.getItems().size());
+                    assertNull(page.getNextCursor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getAllPersons_WhenCursorIsInvalid_ThenSignalsBadRequest() {
+        // Act & Assert
+        StepVerifier.create(reactivePersonService.getAllPersons(null, "invalid"))
+                .expectErrorSatisfies(error -> assertEquals(HttpStatus.BAD_REQUEST,
+                        ((PersonApiException) error).getStatusCode()))
+                .verify();
+        verify(reactivePersonRepository, never())
+                .findWithChildrenByIdGreaterThan(anyLong(), anyInt());
+    }
+
+    @Test
+    void getAddressesForPerson_HappyPath() {
+        // Arrange
+        Address address = mock(Address.class);
+        AddressResponse expected = mock(AddressResponse.class);
+
+        when(reactivePersonRepository.findAddressesByPersonId(17L)).thenReturn(Flux.just(address));
+        when(addressMapper.convert(address)).thenReturn(expected);
+
+        // Act & Assert
+        StepVerifier.create(reactivePersonService.getAddressesForPerson(17L))
+                .expectNext(expected)
+                .verifyComplete();
+    }
+
+    @Test
+    void getContactInfosForPerson_HappyPath() {
+        // Arrange
+        ContactInfo contactInfo = mock(ContactInfo.class);
+        ContactInfoResponse expected = mock(ContactInfoResponse.class);
+
+        when(reactivePersonRepository.findContactInfosByPersonId(17L)).thenReturn(Flux.just(contactInfo));
+        when(contactInfoMapper.convert(contactInfo)).thenReturn(expected);
+
+        // Act & Assert
+        StepVerifier.create(reactivePersonService.getContactInfosForPerson(17L))
+                .expectNext(expected)
+                .verifyComplete();
+    }
+
+    private static Person person(Long id) {
+        Person person = new Person();
+        person.setId(id);
+        return person;
+    }
+}
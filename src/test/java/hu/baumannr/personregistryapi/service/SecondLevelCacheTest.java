@@ -0,0 +1,219 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.persistence.model.Address;
+import hu.baumannr.personregistryapi.persistence.model.ContactInfo;
+import hu.baumannr.personregistryapi.persistence.model.Person;
+import hu.baumannr.personregistryapi.rest.model.AddressCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.AddressResponse;
+import hu.baumannr.personregistryapi.rest.model.AddressUpdateRequest;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoResponse;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoUpdateRequest;
+import hu.baumannr.personregistryapi.rest.model.PersonCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Asserts that the loads by ID are served by the second-level cache, and that the cache outlives neither the
+ * statements bypassing the persistence context nor the children added to a person.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private AddressService addressService;
+
+    @Autowired
+    private ContactInfoService contactInfoService;
+
+    @Autowired
+    private ChangeEventRelay changeEventRelay;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void updateAddress_WhenAddressIsCached_ThenLoadsItFromCache() {
+        Long personId = createPerson();
+        AddressResponse address = addAddress(personId);
+
+        statistics.clear();
+        double hits = regionRequests(Address.class.getName(), "hit");
+        AddressResponse updated = addressService.updateAddress(personId, address.getId(),
+                addressUpdateRequest("Pécs"), null);
+
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Address.class.getName());
+        assertEquals("Pécs", updated.getCity());
+        assertEquals(1, region.getHitCount());
+        assertEquals(0, region.getMissCount());
+        assertEquals(hits + 1, regionRequests(Address.class.getName(), "hit"));
+    }
+
+    @Test
+    void updateContactInfo_WhenContactInfoIsCached_ThenLoadsItFromCache() {
+        Long personId = createPerson();
+        ContactInfoResponse contactInfo = contactInfoService.addContactInfo(personId, new ContactInfoCreateRequest()
+                .type(ContactInfoCreateRequest.TypeEnum.EMAIL)
+                .value("gyorsitott@example.com"), null);
+
+        statistics.clear();
+        ContactInfoResponse updated = contactInfoService.updateContactInfo(personId, contactInfo.getId(),
+                new ContactInfoUpdateRequest()
+                        .type(ContactInfoUpdateRequest.TypeEnum.EMAIL)
+                        .value("frissitett@example.com"), null);
+
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(ContactInfo.class.getName());
+        assertEquals("frissitett@example.com", updated.getValue());
+        assertEquals(1, region.getHitCount());
+        assertEquals(0, region.getMissCount());
+    }
+
+    @Test
+    void updateAddress_WhenAddressWasPatched_ThenLoadsPatchedAddressFromCache() {
+        Long personId = createPerson();
+        AddressResponse address = addAddress(personId);
+        addressService.patchAddress(personId, address.getId(), new AddressUpdateRequest().zip("7621"), null);
+
+        statistics.clear();
+        AddressResponse updated = addressService.updateAddress(personId, address.getId(),
+                addressUpdateRequest("Pécs"), null);
+
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Address.class.getName());
+        assertEquals("Pécs", updated.getCity());
+        assertEquals(1, region.getHitCount());
+        assertEquals(0, region.getMissCount());
+    }
+
+    @Test
+    void patchContactInfo_WhenOtherContactInfoWasPatched_ThenLoadsItFromCache() {
+        Long personId = createPerson();
+        ContactInfoResponse patched = contactInfoService.addContactInfo(personId, new ContactInfoCreateRequest()
+                .type(ContactInfoCreateRequest.TypeEnum.EMAIL)
+                .value("elso@example.com"), null);
+        ContactInfoResponse other = contactInfoService.addContactInfo(personId, new ContactInfoCreateRequest()
+                .type(ContactInfoCreateRequest.TypeEnum.EMAIL)
+                .value("masodik@example.com"), null);
+        contactInfoService.patchContactInfo(personId, patched.getId(),
+                new ContactInfoUpdateRequest().value("harmadik@example.com"), null);
+
+        statistics.clear();
+        contactInfoService.patchContactInfo(personId, other.getId(),
+                new ContactInfoUpdateRequest().value("negyedik@example.com"), null);
+
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(ContactInfo.class.getName());
+        assertEquals(1, region.getHitCount());
+        assertEquals(0, region.getMissCount());
+    }
+
+    @Test
+    void getAllPersons_WhenChildrenWereAddedAfterListing_ThenListsThem() {
+        Long personId = createPerson();
+        String after = CursorCodec.encode(personId - 1);
+        personService.getAllPersons(1, after);
+
+        addAddress(personId);
+        addContactInfo(personId);
+        PersonResponse listed = personService.getAllPersons(1, after).getItems().get(0);
+
+        assertEquals(personId, listed.getId());
+        assertEquals(1, listed.getAddresses().size());
+        assertEquals(1, listed.getContactInfos().size());
+    }
+
+    @Test
+    void getAllPersons_WhenChildOfAnotherPersonWasAdded_ThenLoadsChildrenFromCache() {
+        Long personId = createPerson();
+        addAddress(personId);
+        String after = CursorCodec.encode(personId - 1);
+        personService.getAllPersons(1, after);
+        addAddress(createPerson());
+
+        statistics.clear();
+        personService.getAllPersons(1, after);
+
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(
+                Person.class.getName() + ".addresses");
+        assertEquals(1, region.getHitCount());
+        assertEquals(0, region.getMissCount());
+    }
+
+    @Test
+    void getPersonChanges_WhenChildrenWereAddedAfterSync_ThenSyncsThem() {
+        changeEventRelay.relay();
+        String token = personService.getPersonChanges(null, null).getNextToken();
+        Long personId = createPerson();
+        changeEventRelay.relay();
+        token = personService.getPersonChanges(token, null).getNextToken();
+
+        addAddress(personId);
+        addContactInfo(personId);
+        changeEventRelay.relay();
+        PersonResponse synced = personService.getPersonChanges(token, null).getPersons().get(0);
+
+        assertEquals(personId, synced.getId());
+        assertEquals(1, synced.getAddresses().size());
+        assertEquals(1, synced.getContactInfos().size());
+    }
+
+    private Long createPerson() {
+        return personService.createPerson(new PersonCreateRequest()
+                .firstName("Gyula")
+                .lastName("Gyorsított")).getId();
+    }
+
+    private AddressResponse addAddress(Long personId) {
+        return addressService.addAddress(personId, new AddressCreateRequest()
+                .type(AddressCreateRequest.TypeEnum.PERMANENT)
+                .country("Magyarország")
+                .city("Győr")
+                .zip("9021")
+                .street("Baross Gábor út 1."), null);
+    }
+
+    private void addContactInfo(Long personId) {
+        contactInfoService.addContactInfo(personId, new ContactInfoCreateRequest()
+                .type(ContactInfoCreateRequest.TypeEnum.EMAIL)
+                .value("gyorsitott@example.com"), null);
+    }
+
+    private static AddressUpdateRequest addressUpdateRequest(String city) {
+        return new AddressUpdateRequest()
+                .country("Magyarország")
+                .city(city)
+                .zip("7621")
+                .street("Széchenyi tér 1.");
+    }
+
+    private double regionRequests(String region, String result) {
+        return meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("region", region)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
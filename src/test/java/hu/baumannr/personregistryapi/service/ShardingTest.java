@@ -0,0 +1,322 @@
+package hu.baumannr.personregistryapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hu.baumannr.personregistryapi.constant.CacheNames;
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import hu.baumannr.personregistryapi.persistence.routing.ShardContext;
+import hu.baumannr.personregistryapi.rest.model.AddressCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.AddressResponse;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoLookupResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonBulkDeleteResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonChangesResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.PersonPageResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonSuggestionResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonUpdateRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Partitions the persons over three H2 shards and asserts where their rows are written and that the reads find them.
+ * Shard 0 is the database of the test profile, shards 1 and 2 get the schema of the test profile before the context
+ * starts, shard 1 with a person already on it.
+ */
+@SpringBootTest(properties = {
+        "person-registry.sharding.enabled=true",
+        "spring.datasource.url=" + ShardingTest.SHARD_0_URL
+})
+@ActiveProfiles("test")
+class ShardingTest {
+
+    static final String SHARD_0_URL = "jdbc:h2:mem:shard0db;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+    private static final List<String> SHARD_URLS = List.of(SHARD_0_URL,
+            "jdbc:h2:mem:shard1db;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+            "jdbc:h2:mem:shard2db;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+
+    /**
+     * ID of the person on shard 1, above the IDs the sequence of the shard hands out during the test.
+     */
+    private static final long PRELOADED_PERSON_ID = (1L << 48) | 900_007;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private AddressService addressService;
+
+    @Autowired
+    private ContactInfoService contactInfoService;
+
+    @Autowired
+    private PersonBatchService personBatchService;
+
+    @Autowired
+    private ChangeEventRelay changeEventRelay;
+
+    @Autowired
+    private PersonExportService personExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @DynamicPropertySource
+    static void shards(DynamicPropertyRegistry registry) throws SQLException {
+        for (String url : SHARD_URLS.subList(1, SHARD_URLS.size())) {
+            try (Connection connection = DriverManager.getConnection(url, "sa", "");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DROP ALL OBJECTS");
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+            }
+        }
+        try (Connection connection = DriverManager.getConnection(SHARD_URLS.get(1), "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO Person (Id, FirstName, LastName) VALUES ("
+                    + PRELOADED_PERSON_ID + ", 'Szilárd', 'Szétosztott')");
+        }
+        registry.add("person-registry.sharding.urls", () -> String.join(",", SHARD_URLS.subList(1, 3)));
+    }
+
+    @Test
+    void createPerson_WritesPersonsToEveryShard() throws SQLException {
+        List<Long> personIds = List.of(createPerson("Szórt"), createPerson("Szórt"), createPerson("Szórt"));
+
+        Set<Integer> shards = personIds.stream()
+                .map(ShardContext::shardOf)
+                .collect(Collectors.toSet());
+        assertEquals(Set.of(0, 1, 2), shards);
+        for (Long personId : personIds) {
+            for (int shard = 0; shard < SHARD_URLS.size(); shard++) {
+                int expected = shard == ShardContext.shardOf(personId) ? 1 : 0;
+                assertEquals(expected, count(shard, "Person", "Id", personId));
+            }
+        }
+    }
+
+    @Test
+    void addressAndContactInfo_WhenPersonIsOnShard_ThenWritesAndReadsShard() throws SQLException {
+        Long personId = createPersonOnShard(2, "Harmadik");
+
+        AddressResponse address = addressService.addAddress(personId, new AddressCreateRequest()
+                .type(AddressCreateRequest.TypeEnum.PERMANENT)
+                .country("Magyarország")
+                .city("Szeged")
+                .zip("6720")
+                .street("Dóm tér 1."), null);
+        contactInfoService.addContactInfo(personId, new ContactInfoCreateRequest()
+                .type(ContactInfoCreateRequest.TypeEnum.EMAIL)
+                .value("harmadik@example.com"), null);
+        Long version = personService.getPersonVersion(personId).version();
+        PersonResponse updated = personService.updatePerson(personId, new PersonUpdateRequest()
+                .firstName("Harmadik")
+                .lastName("Frissített"), version);
+
+        assertEquals(2, ShardContext.shardOf(address.getId()));
+        assertEquals(1, count(2, "Address", "PersonId", personId));
+        assertEquals(1, count(2, "ContactInfo", "PersonId", personId));
+        assertEquals(0, count(0, "Address", "PersonId", personId));
+        assertEquals("Frissített", updated.getLastName());
+        assertEquals(1, updated.getAddresses().size());
+        assertEquals(1, updated.getContactInfos().size());
+
+        personService.deletePerson(personId, null);
+
+        assertEquals(0, count(2, "Person", "Id", personId));
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> personService.getPersonById(personId));
+        assertEquals(404, exception.getStatusCode().value());
+    }
+
+    @Test
+    void getPersonById_WhenCacheIsCold_ThenLoadsPersonFromItsShard() {
+        Cache persons = cacheManager.getCache(CacheNames.PERSONS);
+        assertNotNull(persons);
+        persons.evict(PRELOADED_PERSON_ID);
+
+        PersonResponse actual = personService.getPersonById(PRELOADED_PERSON_ID);
+
+        assertEquals("Szétosztott", actual.getLastName());
+        PersonResponse cached = persons.get(PRELOADED_PERSON_ID, PersonResponse.class);
+        assertNotNull(cached);
+        assertEquals("Szétosztott", cached.getLastName());
+    }
+
+    @Test
+    void getAllPersons_WhenPersonsAreOnEveryShard_ThenMergesPagesById() {
+        for (int shard = 0; shard < SHARD_URLS.size(); shard++) {
+            createPersonOnShard(shard, "Lapozott");
+        }
+
+        List<Long> personIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            PersonPageResponse page = personService.getAllPersons(2, cursor);
+            page.getItems().forEach(person -> personIds.add(person.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertTrue(personIds.contains(PRELOADED_PERSON_ID));
+        assertEquals(personIds.stream().sorted().distinct().toList(), personIds);
+        assertEquals(Set.of(0, 1, 2), personIds.stream()
+                .map(ShardContext::shardOf)
+                .collect(Collectors.toSet()));
+    }
+
+    @Test
+    void searchPersons_WhenMatchesAreOnSeveralShards_ThenFindsAll() {
+        Long first = createPersonOnShard(1, "Keresett");
+        Long second = createPersonOnShard(2, "Keresett");
+
+        PersonPageResponse page = personService.searchPersons(
+                new PersonSearchCriteria(null, "Keresett", null, null, null, null), 1, null);
+        PersonPageResponse next = personService.searchPersons(
+                new PersonSearchCriteria(null, "Keresett", null, null, null, null), 1, page.getNextCursor());
+
+        assertEquals(first, page.getItems().get(0).getId());
+        assertEquals(second, next.getItems().get(0).getId());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void suggestPersons_WhenPersonWasOnShardAtStartup_ThenSuggestsPerson() {
+        List<PersonSuggestionResponse> suggestions = personService.suggestPersons("szétosztott sz", 10);
+
+        assertEquals(List.of(PRELOADED_PERSON_ID), suggestions.stream()
+                .map(PersonSuggestionResponse::getId)
+                .toList());
+    }
+
+    @Test
+    void lookupContactInfos_WhenOwnersAreOnSeveralShards_ThenFindsAll() {
+        Long first = createPersonOnShard(0, "Közös");
+        Long second = createPersonOnShard(1, "Közös");
+        for (Long personId : List.of(first, second)) {
+            contactInfoService.addContactInfo(personId, new ContactInfoCreateRequest()
+                    .type(ContactInfoCreateRequest.TypeEnum.EMAIL)
+                    .value("kozos@example.com"), null);
+        }
+
+        List<ContactInfoLookupResponse> owners = contactInfoService.lookupContactInfos("EMAIL", "Kozos@Example.com");
+
+        assertEquals(Set.of(first, second), owners.stream()
+                .map(ContactInfoLookupResponse::getPersonId)
+                .collect(Collectors.toSet()));
+    }
+
+    @Test
+    void deletePersons_WhenPersonsAreOnEveryShard_ThenDeletesThemOnTheirShards() throws SQLException {
+        List<Long> personIds = new ArrayList<>();
+        for (int shard = 0; shard < SHARD_URLS.size(); shard++) {
+            personIds.add(createPersonOnShard(shard, "Törölt"));
+        }
+        Long missingPersonId = (2L << 48) | 999_999;
+
+        List<Long> requested = new ArrayList<>(personIds);
+        requested.add(missingPersonId);
+        PersonBulkDeleteResponse response = personBatchService.deletePersons(requested);
+
+        assertEquals(3, response.getDeleted());
+        assertEquals(List.of(missingPersonId), response.getNotFound());
+        for (Long personId : personIds) {
+            assertEquals(0, count(ShardContext.shardOf(personId), "Person", "Id", personId));
+        }
+    }
+
+    @Test
+    void exportPersons_WhenPersonsAreOnEveryShard_ThenExportsThemInIdOrder() throws IOException {
+        List<Long> personIds = new ArrayList<>();
+        for (int shard = 0; shard < SHARD_URLS.size(); shard++) {
+            personIds.add(createPersonOnShard(shard, "Exportált"));
+        }
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        personExportService.exportPersons(ExportFormat.NDJSON, outputStream);
+
+        List<Long> exportedIds = new ArrayList<>();
+        for (String line : outputStream.toString(StandardCharsets.UTF_8).split("\n")) {
+            exportedIds.add(objectMapper.readTree(line).get("id").asLong());
+        }
+        assertTrue(exportedIds.containsAll(personIds));
+        assertTrue(exportedIds.contains(PRELOADED_PERSON_ID));
+        assertEquals(exportedIds.stream().sorted().distinct().toList(), exportedIds);
+    }
+
+    @Test
+    void getPersonChanges_WhenPersonsChangedOnEveryShard_ThenSyncsThemFromShard0() throws SQLException {
+        changeEventRelay.relay();
+        String token = personService.getPersonChanges(null, null).getNextToken();
+        List<Long> personIds = new ArrayList<>();
+        for (int shard = 0; shard < SHARD_URLS.size(); shard++) {
+            personIds.add(createPersonOnShard(shard, "Követett"));
+        }
+
+        changeEventRelay.relay();
+        PersonChangesResponse changes = personService.getPersonChanges(token, null);
+
+        assertEquals(personIds, changes.getPersons().stream()
+                .map(PersonResponse::getId)
+                .toList());
+        for (Long personId : personIds) {
+            assertEquals(1, count(0, "ChangeEvent", "PersonId", personId));
+        }
+        assertEquals(0, count(1, "ChangeEvent", "PersonId", personIds.get(1)));
+        assertEquals(0, count(2, "ChangeEvent", "PersonId", personIds.get(2)));
+    }
+
+    private Long createPersonOnShard(int shard, String lastName) {
+        Long personId = createPerson(lastName);
+        while (ShardContext.shardOf(personId) != shard) {
+            personService.deletePerson(personId, null);
+            personId = createPerson(lastName);
+        }
+        return personId;
+    }
+
+    private Long createPerson(String lastName) {
+        return personService.createPerson(new PersonCreateRequest()
+                .firstName("Elek")
+                .lastName(lastName)).getId();
+    }
+
+    private static int count(int shard, String table, String column, Long value) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(SHARD_URLS.get(shard), "sa", "");
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT COUNT(*) FROM " + table + " WHERE " + column + " = " + value)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,504 @@
+package hu.baumannr.personregistryapi.service;
+
+import hu.baumannr.personregistryapi.exception.PersonApiException;
+import hu.baumannr.personregistryapi.persistence.repository.PersonRepository;
+import hu.baumannr.personregistryapi.rest.model.AddressCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.AddressResponse;
+import hu.baumannr.personregistryapi.rest.model.AddressUpdateRequest;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoLookupResponse;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoResponse;
+import hu.baumannr.personregistryapi.rest.model.ContactInfoUpdateRequest;
+import hu.baumannr.personregistryapi.rest.model.ImportJobResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonBatchResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonBulkDeleteResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonChangesResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonCreateRequest;
+import hu.baumannr.personregistryapi.rest.model.PersonPageResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonResponse;
+import hu.baumannr.personregistryapi.rest.model.PersonUpdateRequest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Asserts the number of SQL statements each endpoint costs.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StatementCountTest {
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private AddressService addressService;
+
+    @Autowired
+    private ContactInfoService contactInfoService;
+
+    @Autowired
+    private PersonExportService personExportService;
+
+    @Autowired
+    private PersonBatchService personBatchService;
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private ChangeEventService changeEventService;
+
+    @Autowired
+    private ChangeEventRelay changeEventRelay;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getPersonById_LoadsPersonWithAddressesAndContactInfosSeparately() {
+        Long personId = createPersonWithChildren("Elek");
+
+        PersonResponse person = countStatements(2, () -> personService.getPersonById(personId));
+
+        assertEquals(1, person.getAddresses().size());
+        assertEquals(1, person.getContactInfos().size());
+    }
+
+    @Test
+    void getPersonVersion_CostsSingleSelectAndTracksChildChanges() {
+        Long personId = createPerson("Zoltán");
+        Long before = countStatements(1, () -> personService.getPersonVersion(personId)).version();
+
+        addressService.addAddress(personId, addressCreateRequest(), null);
+
+        assertEquals(before + 1, personService.getPersonVersion(personId).version());
+    }
+
+    @Test
+    void getAllPersons_LoadsChildrenInBatches() {
+        createPersonWithChildren("Angéla");
+        createPersonWithChildren("Béla");
+        createPersonWithChildren("Cecília");
+
+        PersonPageResponse page = countStatements(3, () -> personService.getAllPersons(3, null));
+
+        assertEquals(3, page.getItems().size());
+    }
+
+    @Test
+    void getPersonChanges_CostsEventSeekAndLoadsChangedPersonsInBatches() {
+        changeEventRelay.relay();
+        String since = ChangeTokenCodec.encode(changeEventService.getLastPosition());
+        createPersonWithChildren("Gizella");
+        createPersonWithChildren("Gyula");
+        changeEventRelay.relay();
+
+        PersonChangesResponse changes = countStatements(4, () -> personService.getPersonChanges(since, 100));
+
+        assertEquals(2, changes.getPersons().size());
+    }
+
+    @Test
+    void createPerson_CostsInsertsAndPooledSequences() {
+        countStatements(2, 4, () -> personService.createPerson(personCreateRequest("Dénes")));
+    }
+
+    @Test
+    void updatePerson_CostsSelectsUpdateAndEvent() {
+        Long personId = createPersonWithChildren("Edit");
+
+        PersonResponse person = countStatements(4, 5,
+                () -> personService.updatePerson(personId,
+                        new PersonUpdateRequest().firstName("Edina").lastName("Teszt"), null));
+
+        assertEquals("Edina", person.getFirstName());
+        assertEquals(1, person.getAddresses().size());
+    }
+
+    @Test
+    void patchPerson_CostsUpdateWithVersionBumpAndEvent() {
+        Long personId = createPersonWithChildren("Gábor");
+        long before = personService.getPersonVersion(personId).version();
+
+        countStatements(2, 3, () -> {
+            personService.patchPerson(personId, new PersonUpdateRequest().firstName("Gáspár").lastName("Próba"),
+                    null);
+            return null;
+        });
+
+        PersonResponse person = personService.getPersonById(personId);
+        assertEquals("Gáspár", person.getFirstName());
+        assertEquals("Próba", person.getLastName());
+        assertEquals(before + 1, person.getVersion());
+    }
+
+    @Test
+    void patchPerson_WhenVersionIsStale_ThenCostsConditionalUpdateAndVersionSelect() {
+        Long personId = createPersonWithChildren("Gedeon");
+        long stale = personService.getPersonVersion(personId).version() - 1;
+
+        PersonApiException exception = countStatements(2, () -> assertThrows(PersonApiException.class,
+                () -> personService.patchPerson(personId, new PersonUpdateRequest().firstName("Gyula"), stale)));
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatusCode());
+        assertEquals("Gedeon", personService.getPersonById(personId).getFirstName());
+    }
+
+    @Test
+    void updatePerson_WhenVersionIsCurrent_ThenUpdatesPerson() {
+        Long personId = createPersonWithChildren("Gergely");
+        long current = personService.getPersonVersion(personId).version();
+
+        PersonResponse person = countStatements(3, 4, () -> personService.updatePerson(personId,
+                new PersonUpdateRequest().firstName("Gergő").lastName("Teszt"), current));
+
+        assertEquals("Gergő", person.getFirstName());
+        assertEquals(current + 1, person.getVersion());
+    }
+
+    @Test
+    void deletePerson_CostsOneDeletePerTableAndEvent() {
+        Long personId = createPersonWithChildren("Ferenc");
+        contactInfoService.addContactInfo(personId, contactInfoCreateRequest(), null);
+        contactInfoService.addContactInfo(personId, contactInfoCreateRequest(), null);
+
+        countStatements(4, 5, () -> {
+            personService.deletePerson(personId, null);
+            return null;
+        });
+
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> personService.getPersonById(personId));
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+    }
+
+    @Test
+    void deletePerson_WhenPersonNotFound_ThenThrowsException() {
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> personService.deletePerson(Long.MAX_VALUE, null));
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+    }
+
+    @Test
+    void deletePersonsBulk_CostsSelectOneDeletePerTableAndEvents() {
+        Long gabor = createPersonWithChildren("Gábor");
+        Long gizella = createPersonWithChildren("Gizella");
+
+        PersonBulkDeleteResponse response = countStatements(5, 6,
+                () -> personBatchService.deletePersons(List.of(gabor, Long.MAX_VALUE, gizella)));
+
+        assertEquals(2, response.getDeleted());
+        assertEquals(List.of(Long.MAX_VALUE), response.getNotFound());
+        assertThrows(PersonApiException.class, () -> personService.getPersonById(gizella));
+    }
+
+    @Test
+    void getAddressesForPerson_CostsJoinedSelect() {
+        Long personId = createPersonWithChildren("Gábor");
+
+        List<AddressResponse> addresses = countStatements(1, () -> addressService.getAddressesForPerson(personId));
+
+        assertEquals(1, addresses.size());
+    }
+
+    @Test
+    void addAddress_CostsVersionBumpInsertsAndPooledSequences() {
+        Long personId = createPerson("Hajnalka");
+
+        countStatements(3, 5, () -> addressService.addAddress(personId, addressCreateRequest(), null));
+    }
+
+    @Test
+    void addAddress_WhenTypeAlreadyExists_ThenConstraintRejectsItAndVersionIsKept() {
+        Long personId = createPersonWithChildren("Hanna");
+        Long before = personService.getPersonVersion(personId).version();
+
+        PersonApiException exception = assertThrows(PersonApiException.class,
+                () -> addressService.addAddress(personId, addressCreateRequest(), null));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertEquals(before, personService.getPersonVersion(personId).version());
+        assertEquals(1, addressService.getAddressesForPerson(personId).size());
+    }
+
+    @Test
+    void updateAddress_WhenAddressIsCached_ThenCostsUpdateVersionBumpAndEvent() {
+        Long personId = createPerson("Ilona");
+        AddressResponse address = addressService.addAddress(personId, addressCreateRequest(), null);
+
+        countStatements(3, 4, () -> addressService.updateAddress(personId, address.getId(),
+                new AddressUpdateRequest()
+                        .country("Magyarország")
+                        .city("Debrecen")
+                        .zip("4024")
+                        .street("Piac utca 1."), null));
+    }
+
+    @Test
+    void patchAddress_CostsUpdateVersionBumpAndEvent() {
+        Long personId = createPerson("Irén");
+        AddressResponse address = addressService.addAddress(personId, addressCreateRequest(), null);
+
+        countStatements(3, 4, () -> {
+            addressService.patchAddress(personId, address.getId(), new AddressUpdateRequest().city("Pécs"), null);
+            return null;
+        });
+
+        AddressResponse patched = addressService.getAddressesForPerson(personId).get(0);
+        assertEquals("Pécs", patched.getCity());
+        assertEquals(address.getStreet(), patched.getStreet());
+    }
+
+    @Test
+    void deleteAddress_CostsDeleteVersionBumpAndEvent() {
+        Long personId = createPerson("János");
+        AddressResponse address = addressService.addAddress(personId, addressCreateRequest(), null);
+
+        countStatements(3, 4, () -> {
+            addressService.deleteAddress(personId, address.getId(), null);
+            return null;
+        });
+    }
+
+    @Test
+    void deleteAddress_WhenVersionIsStale_ThenFailsBeforeDeleting() {
+        Long personId = createPerson("Jolán");
+        long stale = personService.getPersonVersion(personId).version();
+        AddressResponse address = addressService.addAddress(personId, addressCreateRequest(), stale);
+
+        PersonApiException exception = countStatements(2, () -> assertThrows(PersonApiException.class,
+                () -> addressService.deleteAddress(personId, address.getId(), stale)));
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, exception.getStatusCode());
+        assertEquals(1, addressService.getAddressesForPerson(personId).size());
+    }
+
+    @Test
+    void getContactInfosForPerson_CostsJoinedSelect() {
+        Long personId = createPersonWithChildren("Katalin");
+
+        List<ContactInfoResponse> contactInfos = countStatements(1,
+                () -> contactInfoService.getContactInfosForPerson(personId));
+
+        assertEquals(1, contactInfos.size());
+    }
+
+    @Test
+    void addContactInfo_CostsVersionBumpInsertsAndPooledSequences() {
+        Long personId = createPersonWithChildren("László");
+
+        countStatements(3, 5, () -> contactInfoService.addContactInfo(personId, contactInfoCreateRequest(), null));
+    }
+
+    @Test
+    void updateContactInfo_WhenContactInfoIsCached_ThenCostsUpdateVersionBumpAndEvent() {
+        Long personId = createPerson("Mária");
+        ContactInfoResponse contactInfo = contactInfoService.addContactInfo(personId, contactInfoCreateRequest(), null);
+
+        countStatements(3, 4, () -> contactInfoService.updateContactInfo(personId, contactInfo.getId(),
+                new ContactInfoUpdateRequest()
+                        .type(ContactInfoUpdateRequest.TypeEnum.EMAIL)
+                        .value("maria@example.com"), null));
+    }
+
+    @Test
+    void patchContactInfo_CostsUpdateVersionBumpAndEventAndNormalizesForStoredType() {
+        Long personId = createPerson("Mihály");
+        ContactInfoResponse contactInfo = contactInfoService.addContactInfo(personId, new ContactInfoCreateRequest()
+                .type(ContactInfoCreateRequest.TypeEnum.PHONE)
+                .value("+36 30 111 2222"), null);
+
+        countStatements(3, 4, () -> {
+            contactInfoService.patchContactInfo(personId, contactInfo.getId(),
+                    new ContactInfoUpdateRequest().value("0036-30-333-4444"), null);
+            return null;
+        });
+
+        assertEquals(List.of(personId), contactInfoService.lookupContactInfos("phone", "+36303334444").stream()
+                .map(ContactInfoLookupResponse::getPersonId)
+                .toList());
+    }
+
+    @Test
+    void patchContactInfo_WhenOnlyTypeIsGiven_ThenNormalizesStoredValueForNewType() {
+        Long personId = createPerson("Miklós");
+        ContactInfoResponse contactInfo = contactInfoService.addContactInfo(personId, new ContactInfoCreateRequest()
+                .type(ContactInfoCreateRequest.TypeEnum.EMAIL)
+                .value("0036-30-555-6666"), null);
+
+        countStatements(3, 4, () -> {
+            contactInfoService.patchContactInfo(personId, contactInfo.getId(),
+                    new ContactInfoUpdateRequest().type(ContactInfoUpdateRequest.TypeEnum.PHONE), null);
+            return null;
+        });
+
+        assertEquals(List.of(personId), contactInfoService.lookupContactInfos("phone", "+36305556666").stream()
+                .map(ContactInfoLookupResponse::getPersonId)
+                .toList());
+    }
+
+    @Test
+    void deleteContactInfo_CostsDeleteVersionBumpAndEvent() {
+        Long personId = createPerson("Nándor");
+        ContactInfoResponse contactInfo = contactInfoService.addContactInfo(personId, contactInfoCreateRequest(), null);
+
+        countStatements(3, 4, () -> {
+            contactInfoService.deleteContactInfo(personId, contactInfo.getId(), null);
+            return null;
+        });
+    }
+
+    @Test
+    void exportPersons_CostsQueryPerChunkAndBatchLoadsOfChildren() {
+        createPersonWithChildren("Olivér");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        long persons = personRepository.count();
+        long chunks = persons / PersonExportServiceImpl.CHUNK_SIZE + 1;
+        // A batch loads the addresses or the contact infos of up to 100 persons, the cached ones are skipped
+        long batches = 2 * ((persons + 99) / 100);
+
+        countStatements(chunks, chunks + batches, () -> {
+            personExportService.exportPersons(ExportFormat.NDJSON, outputStream);
+            return null;
+        });
+
+        assertEquals(persons, outputStream.toString(StandardCharsets.UTF_8).lines().count());
+    }
+
+    @Test
+    void createPersonsBatch_BatchesInsertsPerTable() {
+        String item = """
+                {"firstName": "Piroska", "lastName": "Teszt",
+                 "addresses": [{"type": "Permanent", "country": "Magyarország", "city": "Budapest",
+                                "zip": "1120", "street": "Teszt utca 15."}],
+                 "contactInfos": [{"type": "email", "value": "piroska@example.com"},
+                                  {"type": "phone", "value": "+36301234567"}]}""";
+        InputStream body = new ByteArrayInputStream(("[" + item + "," + item + "," + item + "]")
+                .getBytes(StandardCharsets.UTF_8));
+
+        PersonBatchResponse response = countStatements(3, 6, () -> personBatchService.createPersons(body));
+
+        assertEquals(3, response.getCreated());
+    }
+
+    @Test
+    void createImport_BatchesInsertsPerTable() {
+        String person = """
+                PERSON,%1$d,%1$d,,Piroska,Teszt,,,,,,,
+                ADDRESS,%1$d,1,Permanent,,,Magyarország,Budapest,1120,Teszt utca 15.,,,
+                CONTACT_INFO,%1$d,1,email,,,,,,,piroska@example.com,,
+                CONTACT_INFO,%1$d,2,phone,,,,,,,+36301234567,,
+                """;
+        String csv = "recordType,personId,id,type,firstName,lastName,country,city,zip,street,value,createdAt,updatedAt\n"
+                + person.formatted(1) + person.formatted(2) + person.formatted(3);
+        InputStream body = new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+
+        ImportJobResponse job = countStatements(3, 6, () -> awaitImport(importService.createImport(body)));
+
+        assertEquals(ImportJobResponse.StatusEnum.COMPLETED, job.getStatus());
+        assertEquals(3, job.getPersonsImported());
+    }
+
+    private <T> T countStatements(long expected, StatementCountedCall<T> call) {
+        return countStatements(expected, expected, call);
+    }
+
+    /**
+     * Inserts call the pooled sequence only once per allocation, hence the range.
+     */
+    private <T> T countStatements(long min, long max, StatementCountedCall<T> call) {
+        statistics.clear();
+        T result;
+        try {
+            result = call.call();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        long actual = statistics.getPrepareStatementCount();
+        assertTrue(actual >= min && actual <= max,
+                "Expected " + min + ".." + max + " statements, but was " + actual);
+        return result;
+    }
+
+    private ImportJobResponse awaitImport(ImportJobResponse job) {
+        for (int i = 0; i < 200; i++) {
+            ImportJobResponse current = importService.getImportById(job.getId());
+            if (current.getFinishedAt() != null) {
+                return current;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        throw new IllegalStateException("Import " + job.getId() + " did not finish");
+    }
+
+    private Long createPerson(String firstName) {
+        return personService.createPerson(personCreateRequest(firstName)).getId();
+    }
+
+    private Long createPersonWithChildren(String firstName) {
+        Long personId = createPerson(firstName);
+        addressService.addAddress(personId, addressCreateRequest(), null);
+        contactInfoService.addContactInfo(personId, contactInfoCreateRequest(), null);
+        return personId;
+    }
+
+    private static PersonCreateRequest personCreateRequest(String firstName) {
+        return new PersonCreateRequest()
+                .firstName(firstName)
+                .lastName("Teszt");
+    }
+
+    private static AddressCreateRequest addressCreateRequest() {
+        return new AddressCreateRequest()
+                .type(AddressCreateRequest.TypeEnum.PERMANENT)
+                .country("Magyarország")
+                .city("Budapest")
+                .zip("1120")
+                .street("Teszt utca 15.");
+    }
+
+    private static ContactInfoCreateRequest contactInfoCreateRequest() {
+        return new ContactInfoCreateRequest()
+                .type(ContactInfoCreateRequest.TypeEnum.EMAIL)
+                .value("teszt@example.com");
+    }
+
+    @FunctionalInterface
+    private interface StatementCountedCall<T> {
+        T call() throws IOException;
+    }
+}
@@ -1,7 +1,8 @@
 -- sequence-ek
-CREATE SEQUENCE PersonSeq START WITH 1 INCREMENT BY 1;
-CREATE SEQUENCE AddressSeq START WITH 1 INCREMENT BY 1;
-CREATE SEQUENCE ContactInfoSeq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE PersonSeq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE AddressSeq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE ContactInfoSeq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE ChangeEventSeq START WITH 1 INCREMENT BY 50;
 
 -- Person tábla
 CREATE TABLE Person (
@@ -9,7 +10,8 @@ CREATE TABLE Person (
     FirstName VARCHAR(100) NOT NULL,
     LastName VARCHAR(100) NOT NULL,
     CreatedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-    UpdatedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+    UpdatedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    Version BIGINT NOT NULL DEFAULT 0
 );
 
 -- Address tábla
@@ -34,8 +36,30 @@ CREATE TABLE ContactInfo (
     PersonId BIGINT NOT NULL,
     Type VARCHAR(10) NOT NULL,
     ContactValue VARCHAR(254) NOT NULL,
+    NormalizedValue VARCHAR(254) NOT NULL,
     CreatedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     UpdatedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     CONSTRAINT FK_ContactInfo_Person FOREIGN KEY (PersonId) REFERENCES Person(Id),
     CONSTRAINT CHK_ContactInfo_Type CHECK (Type IN ('EMAIL', 'PHONE', 'LINKEDIN'))
 );
+
+-- ChangeEvent tábla
+CREATE TABLE ChangeEvent (
+    Id BIGINT DEFAULT NEXT VALUE FOR ChangeEventSeq PRIMARY KEY,
+    Position BIGINT,
+    Type VARCHAR(20) NOT NULL,
+    PersonId BIGINT NOT NULL,
+    EntityId BIGINT NOT NULL,
+    CreatedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT UQ_ChangeEvent_Position UNIQUE (Position)
+);
+
+-- Keresési indexek
+CREATE INDEX IX_Person_LastName_FirstName ON Person (LastName, FirstName);
+CREATE INDEX IX_Person_FirstName ON Person (FirstName);
+CREATE INDEX IX_Address_City_Zip_PersonId ON Address (City, Zip, PersonId);
+CREATE INDEX IX_Address_Zip_PersonId ON Address (Zip, PersonId);
+CREATE INDEX IX_ContactInfo_ContactValue_PersonId ON ContactInfo (ContactValue, PersonId);
+CREATE INDEX IX_ContactInfo_PersonId ON ContactInfo (PersonId);
+CREATE INDEX IX_ContactInfo_Type_NormalizedValue ON ContactInfo (Type, NormalizedValue);
+CREATE INDEX IX_ChangeEvent_CreatedAt ON ChangeEvent (CreatedAt);